@@ -71,6 +71,66 @@ CREATE TABLE `carts` (
 ) ENGINE=InnoDB AUTO_INCREMENT=3 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
+--
+-- Table structure for table `catalog_cards`
+--
+
+DROP TABLE IF EXISTS `catalog_cards`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `catalog_cards` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `kind` varchar(10) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `external_id` bigint NOT NULL,
+  `name` varchar(120) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `image_url` varchar(255) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
+  `types_csv` varchar(120) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
+  `price` double NOT NULL,
+  `origin_country` varchar(120) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
+  `updated_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uq_catalog_kind_ext` (`kind`,`external_id`),
+  KEY `idx_catalog_kind_name` (`kind`,`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `catalog_import_state`
+--
+
+DROP TABLE IF EXISTS `catalog_import_state`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `catalog_import_state` (
+  `kind` varchar(10) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `next_offset` int NOT NULL,
+  `total` int NOT NULL,
+  `status` varchar(20) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `started_at` datetime(6) DEFAULT NULL,
+  `finished_at` datetime(6) DEFAULT NULL,
+  `last_error` varchar(500) COLLATE utf8mb4_unicode_ci DEFAULT NULL,
+  PRIMARY KEY (`kind`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Table structure for table `config_changes`
+--
+
+DROP TABLE IF EXISTS `config_changes`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `config_changes` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `scope` varchar(20) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `item_key` bigint DEFAULT NULL,
+  `node` varchar(120) COLLATE utf8mb4_unicode_ci NOT NULL,
+  `changed_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_config_changes_at` (`changed_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `delivery`
 --
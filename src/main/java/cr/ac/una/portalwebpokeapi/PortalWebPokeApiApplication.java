@@ -2,6 +2,7 @@ package cr.ac.una.portalwebpokeapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Punto de entrada principal de la aplicación Portal Web PokeAPI.
@@ -11,13 +12,30 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  *  - Servicios
  *  - Repositorios JPA
  *  - Configuración de seguridad
+ *  - Tareas programadas (@Scheduled, p. ej. sincronización entre nodos)
  *
  * Ejecutar para iniciar el backend en el puerto configurado (por defecto 8080).
+ *
+ * El pool de conexiones del cliente HTTP del JDK se configura con propiedades
+ * de sistema que el JDK lee una sola vez, al cargar el primer HttpClient; se
+ * pasan como argumentos de la JVM, p. ej.:
+ * <pre>
+ *   java -Djdk.httpclient.keepalive.timeout=60 -Djdk.httpclient.connectionPoolSize=0 -jar app.jar
+ * </pre>
+ * Si no se indican, {@link #main} fija el keep-alive en 60 s antes de iniciar Spring.
  */
 @SpringBootApplication
+@EnableScheduling
 public class PortalWebPokeApiApplication {
 
+    /** Keep-alive por defecto (s) de las conexiones ociosas del cliente HTTP saliente. */
+    private static final String DEFAULT_KEEPALIVE_SECONDS = "60";
+
     public static void main(String[] args) {
+        // Antes de que cualquier componente cargue java.net.http.HttpClient
+        if (System.getProperty("jdk.httpclient.keepalive.timeout") == null) {
+            System.setProperty("jdk.httpclient.keepalive.timeout", DEFAULT_KEEPALIVE_SECONDS);
+        }
         SpringApplication.run(PortalWebPokeApiApplication.class, args);
     }
 }
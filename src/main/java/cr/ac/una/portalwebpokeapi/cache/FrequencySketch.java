@@ -0,0 +1,77 @@
+package cr.ac.una.portalwebpokeapi.cache;
+
+/**
+ * Sketch Count-Min de 4 filas con contadores de 4 bits (máx. 15).
+ *
+ * Estima la frecuencia reciente de una clave para la política de admisión
+ * TinyLFU: cuando el número de incrementos alcanza el tamaño de muestra,
+ * todos los contadores se dividen entre 2 (envejecimiento), de modo que
+ * las claves populares en el pasado pierden peso con el tiempo.
+ *
+ * No es thread-safe: el llamador debe sincronizar.
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0x5bd1e995, 0x27d4eb2f, 0x165667b1};
+
+    private final byte[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedEntries cantidad aproximada de claves distintas a rastrear.
+     */
+    public FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.max(64, expectedEntries - 1) << 1);
+        this.table = new byte[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    /** Registra un acceso a la clave. */
+    public void increment(Object key) {
+        int h = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int idx = index(h, i);
+            if (table[i][idx] < MAX_COUNT) {
+                table[i][idx]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) reset();
+    }
+
+    /** Frecuencia estimada (mínimo entre filas). */
+    public int frequency(Object key) {
+        int h = spread(key.hashCode());
+        int min = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            min = Math.min(min, table[i][index(h, i)]);
+        }
+        return min;
+    }
+
+    /** Envejece todos los contadores dividiéndolos entre 2. */
+    private void reset() {
+        for (byte[] row : table) {
+            for (int j = 0; j < row.length; j++) row[j] = (byte) (row[j] >>> 1);
+        }
+        additions >>>= 1;
+    }
+
+    private int index(int h, int row) {
+        int x = h * SEEDS[row];
+        x ^= x >>> 17;
+        return x & mask;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,425 @@
+package cr.ac.una.portalwebpokeapi.cache;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Almacén persistente append-only de documentos, organizado en segmentos.
+ *
+ * Formato de cada registro (big-endian):
+ * <pre>
+ *   int    MAGIC
+ *   int    largo del resto del registro
+ *   int    CRC32 de (clave + atributos + cuerpo)
+ *   short  largo clave, bytes clave (UTF-8)
+ *   short  cantidad de atributos, y por cada uno: short+bytes nombre, short+bytes valor
+ *   int    largo cuerpo, bytes cuerpo
+ * </pre>
+ *
+ * - Las escrituras se agregan al segmento activo; al superar el tamaño máximo
+ *   se sella y se abre uno nuevo. Los segmentos sellados se leen por mmap.
+ * - Un índice en memoria mapea clave -> (segmento, offset). Se reconstruye al
+ *   abrir recorriendo los segmentos y validando el CRC de cada registro; un
+ *   registro corrupto o truncado corta la lectura de ese segmento.
+ * - Reescribir una clave deja bytes muertos; {@link #compact()} copia solo
+ *   los registros vivos de los segmentos sellados y elimina los originales.
+ *   Se ejecuta sola al sellar un segmento si más del 50% de los bytes están muertos.
+ *   Java no libera un mmap hasta que el GC recolecta el buffer y en Windows
+ *   un archivo mapeado no se puede borrar: si el borrado falla, el segmento
+ *   queda marcado con un archivo .obsolete y se reintenta en la próxima
+ *   compactación o al abrir el almacén (nunca se vuelve a cargar).
+ * - Los archivos del directorio que no siguen el patrón segment-NNNNNN.dat se ignoran.
+ * - El atributo {@value #ALIAS} registra un nombre alternativo para la clave
+ *   (p. ej. "pokemon:pikachu" -> "pokemon:25").
+ *
+ * El directorio completo puede copiarse a otro nodo para arrancar "en caliente".
+ */
+public class SegmentStore implements Closeable {
+
+    /** Atributo con el alias de la clave. */
+    public static final String ALIAS = "alias";
+
+    private static final int MAGIC = 0x504B5331; // "PKS1"
+    private static final int HEADER = 12;
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".dat";
+    private static final String OBSOLETE = ".obsolete";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d{1,9})\\.dat");
+
+    /** Documento leído del almacén. */
+    public record Entry(String key, Map<String, String> attributes, byte[] body) {}
+
+    private record Location(int segment, long offset, int length) {}
+
+    private static final class Segment {
+        final int id;
+        final Path path;
+        final FileChannel channel;
+        MappedByteBuffer mapped; // solo segmentos sellados
+        long size;
+
+        Segment(int id, Path path, FileChannel channel, long size) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.size = size;
+        }
+    }
+
+    private final Path dir;
+    private final long maxSegmentBytes;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final Map<String, Location> index = new HashMap<>();
+    private final Map<String, String> aliases = new HashMap<>();
+    private final Set<Path> pendingDeletes = new LinkedHashSet<>();
+    private Segment active;
+
+    private long liveBytes, deadBytes;
+    private long corruptRecords, compactions, reads, writes;
+    private boolean compacting;
+
+    /**
+     * Abre (o crea) el almacén en el directorio indicado y reconstruye el índice.
+     *
+     * @param dir             directorio de segmentos.
+     * @param maxSegmentBytes tamaño a partir del cual se sella el segmento activo.
+     */
+    public SegmentStore(Path dir, long maxSegmentBytes) {
+        this.dir = dir;
+        this.maxSegmentBytes = maxSegmentBytes;
+        try {
+            Files.createDirectories(dir);
+            List<Path> files;
+            try (Stream<Path> s = Files.list(dir)) {
+                files = s.sorted().toList();
+            }
+            // Segmentos ya compactados cuyo borrado quedó pendiente: no se cargan
+            for (Path p : files) {
+                String n = p.getFileName().toString();
+                if (n.endsWith(OBSOLETE)) {
+                    pendingDeletes.add(dir.resolve(n.substring(0, n.length() - OBSOLETE.length())));
+                }
+            }
+            deletePending();
+            for (Path p : files) {
+                if (!SEGMENT_NAME.matcher(p.getFileName().toString()).matches()) continue;
+                if (pendingDeletes.contains(p) || !Files.exists(p)) continue;
+                Segment seg = openSegment(p);
+                segments.put(seg.id, seg);
+                load(seg);
+            }
+            if (segments.isEmpty()) {
+                active = newSegment(1);
+            } else {
+                active = segments.lastEntry().getValue();
+                active.mapped = null;
+                for (Segment s : segments.values()) if (s != active) seal(s);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el almacén " + dir, e);
+        }
+    }
+
+    /**
+     * Obtiene un documento por clave o por alias.
+     *
+     * @return entrada o null si no existe.
+     */
+    public synchronized Entry get(String keyOrAlias) {
+        String key = resolve(keyOrAlias);
+        Location loc = key == null ? null : index.get(key);
+        if (loc == null) return null;
+        try {
+            reads++;
+            return decode(read(segments.get(loc.segment), loc), false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Resuelve un alias a su clave canónica (o la misma clave si ya lo es). */
+    public synchronized String resolve(String keyOrAlias) {
+        if (index.containsKey(keyOrAlias)) return keyOrAlias;
+        return aliases.get(keyOrAlias);
+    }
+
+    /**
+     * Agrega (o reemplaza) un documento.
+     *
+     * @param key        clave canónica.
+     * @param attributes atributos pequeños asociados (alias, validadores, etc.).
+     * @param body       cuerpo del documento.
+     */
+    public synchronized void put(String key, Map<String, String> attributes, byte[] body) {
+        ByteBuffer rec = encode(key, attributes, body);
+        try {
+            if (active.size > 0 && active.size + rec.remaining() > maxSegmentBytes) roll();
+            long offset = active.size;
+            int len = rec.remaining();
+            while (rec.hasRemaining()) active.channel.write(rec, active.size + (len - rec.remaining()));
+            active.size += len;
+            writes++;
+            index(key, attributes, new Location(active.id, offset, len));
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el almacén", e);
+        }
+    }
+
+    /** Cantidad de documentos vivos. */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Compacta los segmentos sellados: copia sus registros vivos a segmentos
+     * nuevos y elimina los archivos originales.
+     */
+    public synchronized void compact() {
+        if (compacting) return;
+        List<Segment> sealed = segments.values().stream().filter(s -> s != active).toList();
+        if (sealed.isEmpty()) return;
+        compacting = true;
+        try {
+            deletePending();
+            // Los registros vivos se reescriben al final (segmento activo y siguientes)
+            Set<Integer> old = new HashSet<>();
+            for (Segment s : sealed) old.add(s.id);
+            List<Map.Entry<String, Location>> live = index.entrySet().stream()
+                    .filter(e -> old.contains(e.getValue().segment))
+                    .map(e -> Map.entry(e.getKey(), e.getValue()))
+                    .toList();
+            for (Map.Entry<String, Location> e : live) {
+                Entry doc = decode(read(segments.get(e.getValue().segment), e.getValue()), false);
+                put(doc.key(), doc.attributes(), doc.body());
+            }
+            // Las copias deben estar en disco antes de descartar los originales
+            active.channel.force(true);
+            for (Segment s : sealed) {
+                segments.remove(s.id);
+                deadBytes -= s.size;
+                s.mapped = null;
+                s.channel.close();
+                pendingDeletes.add(s.path);
+            }
+            deletePending();
+            // Todo el contenido de los segmentos eliminados ya contaba como muerto
+            deadBytes = Math.max(0, deadBytes);
+            compactions++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falló la compactación", e);
+        } finally {
+            compacting = false;
+        }
+    }
+
+    /** Proporción de bytes muertos sobre el total escrito. */
+    public synchronized double garbageRatio() {
+        long total = liveBytes + deadBytes;
+        return total == 0 ? 0d : (double) deadBytes / total;
+    }
+
+    /** Snapshot de métricas para endpoints administrativos. */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("dir", dir.toAbsolutePath().toString());
+        m.put("segments", segments.size());
+        m.put("documents", index.size());
+        m.put("aliases", aliases.size());
+        m.put("liveBytes", liveBytes);
+        m.put("deadBytes", deadBytes);
+        m.put("garbageRatio", garbageRatio());
+        m.put("reads", reads);
+        m.put("writes", writes);
+        m.put("corruptRecords", corruptRecords);
+        m.put("compactions", compactions);
+        m.put("pendingDeletes", pendingDeletes.size());
+        return m;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment s : segments.values()) {
+            s.mapped = null;
+            s.channel.close();
+        }
+        segments.clear();
+    }
+
+    // ----------------------------------- internos -----------------------------------
+
+    private void index(String key, Map<String, String> attributes, Location loc) {
+        Location prev = index.put(key, loc);
+        if (prev != null) {
+            liveBytes -= prev.length;
+            deadBytes += prev.length;
+        }
+        liveBytes += loc.length;
+        String alias = attributes == null ? null : attributes.get(ALIAS);
+        if (alias != null && !alias.equals(key)) aliases.put(alias, key);
+    }
+
+    /** Recorre un segmento validando cada registro y poblando el índice. */
+    private void load(Segment seg) throws IOException {
+        long pos = 0;
+        ByteBuffer head = ByteBuffer.allocate(HEADER);
+        while (pos + HEADER <= seg.size) {
+            head.clear();
+            seg.channel.read(head, pos);
+            head.flip();
+            int magic = head.getInt();
+            int len = head.getInt();
+            if (magic != MAGIC || len < HEADER || pos + len > seg.size) break;
+            ByteBuffer rec = ByteBuffer.allocate(len);
+            seg.channel.read(rec, pos);
+            rec.flip();
+            Entry e;
+            try {
+                e = decode(rec, true);
+            } catch (RuntimeException bad) {
+                break;
+            }
+            index(e.key(), e.attributes(), new Location(seg.id, pos, len));
+            pos += len;
+        }
+        if (pos < seg.size) {
+            corruptRecords++;
+            // Descarta la cola inválida (escritura interrumpida o archivo dañado)
+            seg.channel.truncate(pos);
+            seg.size = pos;
+        }
+    }
+
+    /**
+     * Borra los segmentos compactados pendientes. Los que no se pueden borrar
+     * (todavía mapeados en Windows) quedan marcados para el próximo intento.
+     */
+    private void deletePending() throws IOException {
+        for (Iterator<Path> it = pendingDeletes.iterator(); it.hasNext(); ) {
+            Path p = it.next();
+            Path marker = p.resolveSibling(p.getFileName() + OBSOLETE);
+            try {
+                Files.deleteIfExists(p);
+            } catch (FileSystemException busy) {
+                if (!Files.exists(marker)) Files.createFile(marker);
+                continue;
+            }
+            Files.deleteIfExists(marker);
+            it.remove();
+        }
+    }
+
+    private ByteBuffer read(Segment seg, Location loc) throws IOException {
+        if (seg.mapped != null) {
+            return seg.mapped.slice((int) loc.offset, loc.length);
+        }
+        ByteBuffer buf = ByteBuffer.allocate(loc.length);
+        while (buf.hasRemaining()) {
+            if (seg.channel.read(buf, loc.offset + buf.position()) < 0) break;
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private void roll() throws IOException {
+        seal(active);
+        active = newSegment(active.id + 1);
+        // Compacta automáticamente si más de la mitad de lo escrito ya está muerto
+        if (garbageRatio() > 0.5) compact();
+    }
+
+    private void seal(Segment seg) throws IOException {
+        seg.channel.force(true);
+        seg.mapped = seg.size == 0 ? null : seg.channel.map(FileChannel.MapMode.READ_ONLY, 0, seg.size);
+    }
+
+    private Segment newSegment(int id) throws IOException {
+        Path p = dir.resolve(String.format("%s%06d%s", PREFIX, id, SUFFIX));
+        Segment seg = new Segment(id, p, FileChannel.open(p,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE), 0);
+        segments.put(id, seg);
+        return seg;
+    }
+
+    private Segment openSegment(Path p) throws IOException {
+        Matcher m = SEGMENT_NAME.matcher(p.getFileName().toString());
+        if (!m.matches()) throw new IllegalArgumentException("No es un segmento: " + p);
+        int id = Integer.parseInt(m.group(1));
+        FileChannel ch = FileChannel.open(p, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new Segment(id, p, ch, ch.size());
+    }
+
+    private static ByteBuffer encode(String key, Map<String, String> attributes, byte[] body) {
+        Map<String, String> attrs = attributes == null ? Map.of() : attributes;
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        List<byte[]> parts = new ArrayList<>();
+        int attrLen = 2;
+        for (Map.Entry<String, String> a : attrs.entrySet()) {
+            if (a.getValue() == null) continue;
+            byte[] an = a.getKey().getBytes(StandardCharsets.UTF_8);
+            byte[] av = a.getValue().getBytes(StandardCharsets.UTF_8);
+            parts.add(an);
+            parts.add(av);
+            attrLen += 4 + an.length + av.length;
+        }
+        int len = HEADER + 2 + k.length + attrLen + 4 + body.length;
+        ByteBuffer buf = ByteBuffer.allocate(len);
+        buf.putInt(MAGIC).putInt(len).putInt(0);
+        buf.putShort((short) k.length).put(k);
+        buf.putShort((short) (parts.size() / 2));
+        for (byte[] p : parts) buf.putShort((short) p.length).put(p);
+        buf.putInt(body.length).put(body);
+
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), HEADER, len - HEADER);
+        buf.putInt(8, (int) crc.getValue());
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * Decodifica un registro completo (desde MAGIC).
+     *
+     * @param verify si true valida el CRC y lanza IllegalStateException si no coincide.
+     */
+    private static Entry decode(ByteBuffer rec, boolean verify) {
+        ByteBuffer b = rec.duplicate();
+        int start = b.position();
+        b.getInt(); // magic
+        int len = b.getInt();
+        int crcStored = b.getInt();
+        if (verify) {
+            CRC32 crc = new CRC32();
+            ByteBuffer payload = b.duplicate();
+            payload.limit(start + len);
+            crc.update(payload);
+            if ((int) crc.getValue() != crcStored) throw new IllegalStateException("CRC inválido");
+        }
+        String key = readString(b);
+        int nAttrs = b.getShort();
+        Map<String, String> attrs = new LinkedHashMap<>();
+        for (int i = 0; i < nAttrs; i++) attrs.put(readString(b), readString(b));
+        byte[] body = new byte[b.getInt()];
+        b.get(body);
+        return new Entry(key, attrs, body);
+    }
+
+    private static String readString(ByteBuffer b) {
+        byte[] s = new byte[b.getShort() & 0xFFFF];
+        b.get(s);
+        return new String(s, StandardCharsets.UTF_8);
+    }
+}
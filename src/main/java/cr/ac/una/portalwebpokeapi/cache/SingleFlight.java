@@ -0,0 +1,75 @@
+package cr.ac.una.portalwebpokeapi.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalescencia de llamadas concurrentes ("single-flight").
+ *
+ * Si varios hilos piden la misma clave mientras una carga está en curso,
+ * solo el primero ejecuta el loader; el resto espera y recibe el mismo
+ * resultado (o la misma excepción). Al terminar, la clave se libera y la
+ * siguiente llamada vuelve a ejecutar el loader.
+ *
+ * @param <K> tipo de clave.
+ * @param <V> tipo de resultado.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+
+    /**
+     * Ejecuta el loader para la clave, o se une a la ejecución en curso.
+     *
+     * @param key    clave de la llamada (p. ej. "pokemon:pikachu").
+     * @param loader carga real; solo se invoca si no hay otra en vuelo.
+     * @return resultado compartido.
+     */
+    public V execute(K key, Supplier<V> loader) {
+        calls.incrementAndGet();
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            deduplicated.incrementAndGet();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                if (e.getCause() instanceof Error err) throw err;
+                throw e;
+            }
+        }
+
+        executions.incrementAndGet();
+        try {
+            V v = loader.get();
+            mine.complete(v);
+            return v;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /** Métricas: llamadas, ejecuciones reales y llamadas deduplicadas. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        long c = calls.get();
+        m.put("calls", c);
+        m.put("executions", executions.get());
+        m.put("deduplicated", deduplicated.get());
+        m.put("dedupRatio", c == 0 ? 0d : (double) deduplicated.get() / c);
+        m.put("inFlight", inFlight.size());
+        return m;
+    }
+}
@@ -0,0 +1,292 @@
+package cr.ac.una.portalwebpokeapi.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché en memoria acotada por peso (bytes) con política W-TinyLFU simplificada.
+ *
+ * Estructura:
+ *  - Ventana LRU (~1% del peso) que recibe todas las entradas nuevas.
+ *  - Región principal SLRU: "probation" (~20%) y "protected" (~80%).
+ *  - Cuando la ventana se llena, su candidato LRU compite contra la víctima
+ *    LRU de la región principal; gana el de mayor frecuencia estimada
+ *    según {@link FrequencySketch}. Así, ráfagas de claves únicas (p. ej. un
+ *    recorrido completo del catálogo) no desplazan a las claves populares.
+ *
+ * Cada entrada vence tras el TTL configurado. Con un período de gracia
+ * ('stale'), la entrada vencida se conserva ese tiempo adicional y puede
+ * leerse con {@link #lookup} para servirla mientras se revalida
+ * (stale-while-revalidate). Todas las operaciones están
+ * sincronizadas; el costo dominante del llamador es la E/S de red, no el lock.
+ *
+ * @param <K> tipo de clave.
+ * @param <V> tipo de valor.
+ */
+public class WeightedCache<K, V> {
+
+    /**
+     * Resultado de {@link #lookup}: el valor y si ya pasó su TTL (en período de gracia).
+     */
+    public record Lookup<V>(V value, boolean stale) {}
+
+    private enum Region { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        long weight;
+        long expiresAt;
+        long staleUntil;
+        Region region;
+
+        Node(K key, V value, long weight, long expiresAt, long staleUntil) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+            this.staleUntil = staleUntil;
+        }
+    }
+
+    private final long maxWeight;
+    private final long windowMax;
+    private final long protectedMax;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final FrequencySketch sketch;
+
+    private final Map<K, Node<K, V>> data = new HashMap<>();
+    // LinkedHashMap en orden de acceso: la primera clave es la LRU de cada región
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<K, V>> protectedRegion = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long windowWeight, probationWeight, protectedWeight;
+    private long hits, misses, evictions, rejections, expirations, staleHits;
+
+    /**
+     * @param maxWeight       peso máximo total (bytes).
+     * @param ttl             tiempo de vida de cada entrada.
+     * @param expectedEntries cantidad estimada de entradas, para dimensionar el sketch.
+     */
+    public WeightedCache(long maxWeight, Duration ttl, int expectedEntries) {
+        this(maxWeight, ttl, Duration.ZERO, expectedEntries);
+    }
+
+    /**
+     * @param maxWeight       peso máximo total (bytes).
+     * @param ttl             tiempo de vida de cada entrada.
+     * @param staleGrace      tiempo adicional que una entrada vencida sigue disponible vía {@link #lookup}.
+     * @param expectedEntries cantidad estimada de entradas, para dimensionar el sketch.
+     */
+    public WeightedCache(long maxWeight, Duration ttl, Duration staleGrace, int expectedEntries) {
+        if (maxWeight <= 0) throw new IllegalArgumentException("maxWeight debe ser positivo");
+        this.maxWeight = maxWeight;
+        this.windowMax = Math.max(1, maxWeight / 100);
+        this.protectedMax = (maxWeight - windowMax) * 8 / 10;
+        this.ttlNanos = ttl.toNanos();
+        this.staleNanos = staleGrace.toNanos();
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    /**
+     * Obtiene el valor vigente de una clave.
+     *
+     * @return valor o null si no existe o ya expiró.
+     */
+    public synchronized V get(K key) {
+        Lookup<V> l = lookup(key, false);
+        return l == null ? null : l.value();
+    }
+
+    /**
+     * Obtiene el valor de una clave aunque haya vencido, mientras siga dentro
+     * del período de gracia. Un valor stale cuenta como hit stale, no como hit.
+     *
+     * @return valor y marca de vencido, o null si no existe o pasó la gracia.
+     */
+    public synchronized Lookup<V> lookup(K key) {
+        return lookup(key, true);
+    }
+
+    private Lookup<V> lookup(K key, boolean allowStale) {
+        sketch.increment(key);
+        Node<K, V> n = data.get(key);
+        if (n == null) {
+            misses++;
+            return null;
+        }
+        long now = System.nanoTime();
+        if (now - n.expiresAt > 0) {
+            if (now - n.staleUntil > 0) {
+                remove(n);
+                expirations++;
+                misses++;
+                return null;
+            }
+            if (!allowStale) {
+                misses++;
+                return null;
+            }
+            staleHits++;
+            onAccess(n);
+            return new Lookup<>(n.value, true);
+        }
+        hits++;
+        onAccess(n);
+        return new Lookup<>(n.value, false);
+    }
+
+    /**
+     * Inserta o reemplaza una entrada. Las entradas más pesadas que la
+     * capacidad total se rechazan directamente; las que no caben en la región
+     * principal se rechazan al salir de la ventana, sin desalojar otras.
+     *
+     * @param weight peso de la entrada en bytes.
+     */
+    public synchronized void put(K key, V value, long weight) {
+        long expiresAt = System.nanoTime() + ttlNanos;
+        long staleUntil = expiresAt + staleNanos;
+        Node<K, V> cur = data.get(key);
+        if (cur != null) remove(cur);
+        if (weight > maxWeight) {
+            rejections++;
+            return;
+        }
+        sketch.increment(key);
+        Node<K, V> n = new Node<>(key, value, weight, expiresAt, staleUntil);
+        n.region = Region.WINDOW;
+        data.put(key, n);
+        window.put(key, n);
+        windowWeight += weight;
+        drainWindow();
+    }
+
+    /** Elimina una clave si existe. */
+    public synchronized void invalidate(K key) {
+        Node<K, V> n = data.get(key);
+        if (n != null) remove(n);
+    }
+
+    /** Vacía la caché (los contadores se conservan). */
+    public synchronized void clear() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedRegion.clear();
+        windowWeight = probationWeight = protectedWeight = 0;
+    }
+
+    /** Cantidad de entradas actuales (incluye expiradas aún no purgadas). */
+    public synchronized int size() {
+        return data.size();
+    }
+
+    /** Peso total actual en bytes. */
+    public synchronized long weight() {
+        return windowWeight + probationWeight + protectedWeight;
+    }
+
+    /**
+     * Snapshot de métricas para exponer en endpoints administrativos.
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        long requests = hits + misses;
+        m.put("entries", data.size());
+        m.put("weightBytes", weight());
+        m.put("maxBytes", maxWeight);
+        m.put("hits", hits);
+        m.put("misses", misses);
+        m.put("hitRatio", requests == 0 ? 0d : (double) hits / requests);
+        m.put("evictions", evictions);
+        m.put("rejections", rejections);
+        m.put("expirations", expirations);
+        m.put("staleHits", staleHits);
+        return m;
+    }
+
+    // ----------------------------------- internos -----------------------------------
+
+    private void onAccess(Node<K, V> n) {
+        switch (n.region) {
+            case WINDOW -> window.get(n.key);
+            case PROTECTED -> protectedRegion.get(n.key);
+            case PROBATION -> {
+                // Segundo acceso: promueve a protected y degrada su LRU si se excede
+                probation.remove(n.key);
+                probationWeight -= n.weight;
+                n.region = Region.PROTECTED;
+                protectedRegion.put(n.key, n);
+                protectedWeight += n.weight;
+                while (protectedWeight > protectedMax && !protectedRegion.isEmpty()) {
+                    Node<K, V> demoted = pollFirst(protectedRegion);
+                    protectedWeight -= demoted.weight;
+                    demoted.region = Region.PROBATION;
+                    probation.put(demoted.key, demoted);
+                    probationWeight += demoted.weight;
+                }
+            }
+        }
+    }
+
+    /** Mueve candidatos de la ventana a la región principal aplicando admisión TinyLFU. */
+    private void drainWindow() {
+        long mainMax = maxWeight - windowMax;
+        while (windowWeight > windowMax && !window.isEmpty()) {
+            Node<K, V> candidate = pollFirst(window);
+            windowWeight -= candidate.weight;
+
+            // No cabe en la región principal ni vaciándola: se rechaza sin desalojar a nadie
+            if (candidate.weight > mainMax) {
+                data.remove(candidate.key);
+                rejections++;
+                continue;
+            }
+            boolean admitted = true;
+            while (probationWeight + protectedWeight + candidate.weight > mainMax) {
+                LinkedHashMap<K, Node<K, V>> victims = probation.isEmpty() ? protectedRegion : probation;
+                if (victims.isEmpty()) {
+                    admitted = false;
+                    break;
+                }
+                Node<K, V> victim = victims.values().iterator().next();
+                if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+                    remove(victim);
+                    evictions++;
+                } else {
+                    admitted = false;
+                    break;
+                }
+            }
+            if (admitted) {
+                candidate.region = Region.PROBATION;
+                probation.put(candidate.key, candidate);
+                probationWeight += candidate.weight;
+            } else {
+                data.remove(candidate.key);
+                evictions++;
+            }
+        }
+    }
+
+    private void remove(Node<K, V> n) {
+        data.remove(n.key);
+        switch (n.region) {
+            case WINDOW -> { window.remove(n.key); windowWeight -= n.weight; }
+            case PROBATION -> { probation.remove(n.key); probationWeight -= n.weight; }
+            case PROTECTED -> { protectedRegion.remove(n.key); protectedWeight -= n.weight; }
+        }
+    }
+
+    private static <K, V> Node<K, V> pollFirst(LinkedHashMap<K, Node<K, V>> region) {
+        Iterator<Node<K, V>> it = region.values().iterator();
+        Node<K, V> n = it.next();
+        it.remove();
+        return n;
+    }
+}
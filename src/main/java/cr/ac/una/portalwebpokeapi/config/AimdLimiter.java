@@ -0,0 +1,126 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de concurrencia adaptativo con AIMD (additive increase / multiplicative decrease).
+ *
+ * - Cada llamada exitosa y más rápida que la latencia objetivo suma 1/límite,
+ *   es decir, el límite crece ~1 por cada "ronda" completa de llamadas.
+ * - Una señal de congestión (429, 5xx, timeout o latencia sobre el objetivo)
+ *   multiplica el límite por 'backoff'. Para no encadenar recortes por las
+ *   llamadas que ya estaban en vuelo, se ignoran las señales durante un
+ *   período de enfriamiento tras cada recorte.
+ *
+ * Funciona como un semáforo de capacidad variable: {@link #acquire()} bloquea
+ * mientras las llamadas en vuelo alcancen el límite actual.
+ */
+public class AimdLimiter {
+
+    /** Resultado de una llamada, desde el punto de vista de la congestión. */
+    public enum Outcome { SUCCESS, CONGESTION, IGNORE }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoff;
+    private final long targetLatencyNanos;
+    private final long cooldownNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private long lastDecrease;
+    private long increases, decreases;
+
+    /**
+     * @param initialLimit    concurrencia inicial.
+     * @param minLimit        concurrencia mínima.
+     * @param maxLimit        concurrencia máxima.
+     * @param backoff         factor de recorte ante congestión (0..1, p. ej. 0.5).
+     * @param targetLatencyMs latencia por encima de la cual una llamada cuenta como congestión.
+     * @param cooldownMs      tiempo mínimo entre recortes consecutivos.
+     */
+    public AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoff,
+                       long targetLatencyMs, long cooldownMs) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+        this.backoff = backoff;
+        this.targetLatencyNanos = TimeUnit.MILLISECONDS.toNanos(targetLatencyMs);
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMs);
+        this.lastDecrease = System.nanoTime() - cooldownNanos;
+    }
+
+    /** Espera un cupo según el límite actual. */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) slotFreed.await();
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Libera el cupo y ajusta el límite según el resultado.
+     *
+     * @param latencyNanos duración de la llamada.
+     * @param outcome      SUCCESS, CONGESTION o IGNORE (error no relacionado con la carga, p. ej. 404).
+     */
+    public void release(long latencyNanos, Outcome outcome) {
+        lock.lock();
+        try {
+            inFlight--;
+            boolean congested = outcome == Outcome.CONGESTION
+                    || (outcome == Outcome.SUCCESS && latencyNanos > targetLatencyNanos);
+            long now = System.nanoTime();
+            if (congested) {
+                if (now - lastDecrease >= cooldownNanos) {
+                    limit = Math.max(minLimit, limit * backoff);
+                    lastDecrease = now;
+                    decreases++;
+                }
+            } else if (outcome == Outcome.SUCCESS && limit < maxLimit) {
+                int before = (int) limit;
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+                if ((int) limit > before) increases++;
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Límite actual (entero efectivo). */
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("limit", (int) limit);
+            m.put("minLimit", minLimit);
+            m.put("maxLimit", maxLimit);
+            m.put("inFlight", inFlight);
+            m.put("increases", increases);
+            m.put("decreases", decreases);
+            return m;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
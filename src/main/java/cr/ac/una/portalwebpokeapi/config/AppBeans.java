@@ -1,9 +1,16 @@
 package cr.ac.una.portalwebpokeapi.config;
 
+import cr.ac.una.portalwebpokeapi.cache.SegmentStore;
+import cr.ac.una.portalwebpokeapi.cache.WeightedCache;
+import cr.ac.una.portalwebpokeapi.dto.PokeSummary;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
+import java.time.Duration;
+
 /**
  * Clase de configuración de Spring Boot.
  * Define beans que serán gestionados por el contenedor de Spring
@@ -26,4 +33,41 @@ public class AppBeans {
     public SessionManager sessionManager(@Value("${app.session.timeout-seconds:600}") long timeout) {
         return new SessionManager(timeout);
     }
+
+    /**
+     * Caché en memoria de resúmenes de detalle de PokeAPI (pokemon/item/version).
+     * Se dimensiona en bytes según el tamaño estimado de cada resumen.
+     *
+     * @param maxBytes   peso máximo de la caché ('app.pokeapi.cache.max-bytes', 16 MB por defecto).
+     * @param ttlSeconds vigencia de cada resumen ('app.pokeapi.cache.ttl-seconds', 6 h por defecto).
+     * @param staleSeconds tiempo que un resumen vencido puede servirse mientras se revalida
+     *                     ('app.pokeapi.cache.stale-seconds', 24 h por defecto).
+     * @return caché compartida por {@code PokeApiService}.
+     */
+    @Bean
+    public WeightedCache<String, PokeSummary> pokeDocumentCache(
+            @Value("${app.pokeapi.cache.max-bytes:16777216}") long maxBytes,
+            @Value("${app.pokeapi.cache.ttl-seconds:21600}") long ttlSeconds,
+            @Value("${app.pokeapi.cache.stale-seconds:86400}") long staleSeconds) {
+        // ~256 B promedio por resumen para dimensionar el sketch de frecuencias
+        int expected = (int) Math.min(1 << 20, Math.max(1024, maxBytes / 256));
+        return new WeightedCache<>(maxBytes, Duration.ofSeconds(ttlSeconds), Duration.ofSeconds(staleSeconds), expected);
+    }
+
+    /**
+     * Almacén persistente en disco de documentos de PokeAPI. Sobrevive a reinicios
+     * y su directorio puede copiarse entre nodos para arrancar con datos.
+     * Se desactiva con 'app.pokeapi.store.enabled=false'.
+     *
+     * @param dir          directorio de segmentos ('app.pokeapi.store.dir').
+     * @param segmentBytes tamaño máximo de cada segmento ('app.pokeapi.store.segment-bytes', 64 MB por defecto).
+     * @return almacén abierto con su índice reconstruido.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "app.pokeapi.store.enabled", havingValue = "true", matchIfMissing = true)
+    public SegmentStore pokeDocumentStore(
+            @Value("${app.pokeapi.store.dir:data/pokeapi-store}") String dir,
+            @Value("${app.pokeapi.store.segment-bytes:67108864}") long segmentBytes) {
+        return new SegmentStore(Path.of(dir), segmentBytes);
+    }
 }
@@ -0,0 +1,47 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import cr.ac.una.portalwebpokeapi.dto.CardList;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Escribe un {@link CardList} como arreglo JSON copiando los fragmentos ya
+ * serializados al stream de la respuesta (sin Jackson ni mapas intermedios).
+ * Solo escritura.
+ */
+public class CardListMessageConverter extends AbstractHttpMessageConverter<CardList> {
+
+    public CardListMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CardList.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected CardList readInternal(Class<? extends CardList> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("CardList es solo de salida", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(CardList cards, MediaType contentType) {
+        return cards.contentLength();
+    }
+
+    @Override
+    protected void writeInternal(CardList cards, HttpOutputMessage outputMessage) throws IOException {
+        cards.writeTo(outputMessage.getBody());
+    }
+}
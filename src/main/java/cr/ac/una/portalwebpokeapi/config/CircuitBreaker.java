@@ -0,0 +1,184 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker para un servicio externo.
+ *
+ * Estados:
+ *  - CLOSED: las llamadas pasan; se registra el resultado de las últimas N en una ventana circular.
+ *  - OPEN: si la tasa de fallos de la ventana supera el umbral, las llamadas se
+ *    rechazan de inmediato (sin ocupar hilos ni conexiones) durante 'openDuration'.
+ *  - HALF_OPEN: vencido ese plazo se permiten unas pocas llamadas de prueba;
+ *    un éxito cierra el circuito y un fallo lo vuelve a abrir.
+ *
+ * Cada permiso ({@link Permit}) recuerda la "generación" del estado en que se
+ * otorgó (cambia en cada transición). Solo los resultados de permisos de la
+ * generación vigente mueven el estado: una llamada lenta admitida antes de
+ * abrir el circuito que termina tarde no cierra el HALF_OPEN ni lo reabre;
+ * únicamente lo hacen las llamadas de prueba.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Permiso para una llamada, a devolver con {@link #onSuccess(Permit)} o {@link #onFailure(Permit)}.
+     *
+     * @param generation generación del estado en que se otorgó.
+     * @param probe      true si es una llamada de prueba en HALF_OPEN.
+     */
+    public record Permit(long generation, boolean probe) {}
+
+    /** Llamada rechazada porque el circuito está abierto. */
+    public static class OpenException extends RuntimeException {
+        public OpenException(String name) {
+            super("Servicio externo no disponible: " + name);
+        }
+    }
+
+    private final String name;
+    private final boolean[] window; // true = fallo
+    private final int minCalls;
+    private final double failureRate;
+    private final long openNanos;
+    private final int halfOpenProbes;
+
+    private State state = State.CLOSED;
+    private int pos, recorded, failuresInWindow;
+    private long openedAt;
+    private int probesInFlight;
+    private long generation;
+    private Instant lastOpenedAt;
+    private long calls, failures, rejected, opens, staleResults;
+
+    /**
+     * @param name           nombre del servicio (para mensajes y métricas).
+     * @param windowSize     cantidad de llamadas recientes evaluadas.
+     * @param minCalls       mínimo de llamadas en la ventana antes de evaluar la tasa.
+     * @param failureRate    tasa de fallos (0..1) que abre el circuito.
+     * @param openDuration   tiempo que el circuito permanece abierto antes de probar.
+     * @param halfOpenProbes llamadas de prueba simultáneas en HALF_OPEN.
+     */
+    public CircuitBreaker(String name, int windowSize, int minCalls, double failureRate,
+                          Duration openDuration, int halfOpenProbes) {
+        this.name = name;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minCalls = Math.max(1, Math.min(minCalls, window.length));
+        this.failureRate = failureRate;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenProbes = Math.max(1, halfOpenProbes);
+    }
+
+    /**
+     * Solicita permiso para una llamada. Si no es null, el llamador debe
+     * informar el resultado con {@link #onSuccess(Permit)} o {@link #onFailure(Permit)}.
+     *
+     * @return permiso, o null si el circuito rechaza la llamada.
+     */
+    public synchronized Permit tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            transition(State.HALF_OPEN);
+        }
+        switch (state) {
+            case CLOSED -> {
+                calls++;
+                return new Permit(generation, false);
+            }
+            case HALF_OPEN -> {
+                if (probesInFlight < halfOpenProbes) {
+                    probesInFlight++;
+                    calls++;
+                    return new Permit(generation, true);
+                }
+            }
+        }
+        rejected++;
+        return null;
+    }
+
+    /** Registra una llamada exitosa. */
+    public synchronized void onSuccess(Permit permit) {
+        if (permit.generation() != generation) {
+            staleResults++;
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (permit.probe()) transition(State.CLOSED);
+            return;
+        }
+        record(false);
+    }
+
+    /** Registra una llamada fallida (timeout, error de red o 5xx). */
+    public synchronized void onFailure(Permit permit) {
+        failures++;
+        if (permit.generation() != generation) {
+            staleResults++;
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (permit.probe()) open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minCalls
+                && (double) failuresInWindow / recorded >= failureRate) {
+            open();
+        }
+    }
+
+    /** Estado actual (considera el paso a HALF_OPEN al vencer el plazo). */
+    public synchronized State state() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) return State.HALF_OPEN;
+        return state;
+    }
+
+    /**
+     * Métricas: estado, tasa de fallos de la ventana, llamadas, rechazos y aperturas.
+     */
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("name", name);
+        m.put("state", state().name());
+        m.put("windowCalls", recorded);
+        m.put("windowFailureRate", recorded == 0 ? 0d : (double) failuresInWindow / recorded);
+        m.put("calls", calls);
+        m.put("failures", failures);
+        m.put("rejected", rejected);
+        m.put("opens", opens);
+        m.put("staleResults", staleResults);
+        m.put("lastOpenedAt", lastOpenedAt);
+        return m;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == window.length) {
+            if (window[pos]) failuresInWindow--;
+        } else {
+            recorded++;
+        }
+        window[pos] = failed;
+        if (failed) failuresInWindow++;
+        pos = (pos + 1) % window.length;
+    }
+
+    private void open() {
+        transition(State.OPEN);
+        openedAt = System.nanoTime();
+        lastOpenedAt = Instant.now();
+        opens++;
+        System.out.println("[BREAKER] Circuito abierto: " + name);
+    }
+
+    /** Cambia de estado e invalida los permisos otorgados hasta ahora. */
+    private void transition(State next) {
+        state = next;
+        generation++;
+        pos = recorded = failuresInWindow = 0;
+        probesInFlight = 0;
+    }
+}
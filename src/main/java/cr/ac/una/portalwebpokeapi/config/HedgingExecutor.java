@@ -0,0 +1,182 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Peticiones "hedged" para llamadas idempotentes (GET) a un upstream.
+ *
+ * Se lanza el primer intento; si no respondió cuando se cumple el umbral
+ * dinámico (percentil configurado de las latencias recientes, acotado entre un
+ * mínimo y un máximo), se lanza un segundo intento y gana el primero que
+ * responda bien. El perdedor se cancela (interrupción del hilo virtual, que
+ * aborta el intercambio HTTP).
+ *
+ * Presupuesto: cada petición acumula 'budgetPercent'/100 fichas (hasta un
+ * tope) y cada hedge consume una, así la carga extra queda acotada a ese
+ * porcentaje. Sin suficientes muestras en el histograma no se hace hedging.
+ */
+public class HedgingExecutor {
+
+    private final String name;
+    private final boolean enabled;
+    private final double percentile;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private final double tokensPerRequest;
+    private final double maxTokens;
+    private final int minSamples;
+    private final LatencyHistogram histogram;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private double tokens;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong budgetDenied = new AtomicLong();
+
+    /**
+     * @param name          nombre del upstream (métricas).
+     * @param enabled       si false solo se mide la latencia.
+     * @param percentile    percentil de latencia que dispara el hedge (p. ej. 0.95).
+     * @param minDelayMs    umbral mínimo.
+     * @param maxDelayMs    umbral máximo.
+     * @param budgetPercent porcentaje máximo de peticiones extra.
+     * @param minSamples    muestras recientes necesarias antes de hacer hedging.
+     * @param windowSeconds ventana del histograma de latencias.
+     */
+    public HedgingExecutor(String name, boolean enabled, double percentile, long minDelayMs, long maxDelayMs,
+                           double budgetPercent, int minSamples, long windowSeconds) {
+        this.name = name;
+        this.enabled = enabled;
+        this.percentile = percentile;
+        this.minDelayMs = minDelayMs;
+        this.maxDelayMs = Math.max(minDelayMs, maxDelayMs);
+        this.tokensPerRequest = Math.max(0, budgetPercent) / 100.0;
+        this.maxTokens = Math.max(1.0, tokensPerRequest * 100);
+        this.minSamples = minSamples;
+        this.histogram = new LatencyHistogram(windowSeconds);
+    }
+
+    /**
+     * Ejecuta la llamada con hedging. Las excepciones de la llamada se
+     * propagan sin envolver (si ambos intentos fallan, la del primero).
+     */
+    public <T> T execute(Supplier<T> call) {
+        requests.incrementAndGet();
+        addToken();
+        long delayMs = enabled ? hedgeDelayMs() : -1;
+        AtomicBoolean settled = new AtomicBoolean();
+        if (delayMs < 0) return timed(call, settled);
+
+        CompletionService<T> cs = new ExecutorCompletionService<>(executor);
+        Future<T> primary = cs.submit(() -> timed(call, settled));
+        Future<T> hedge = null;
+        ExecutionException firstError = null;
+        int outstanding = 1;
+        boolean waitingThreshold = true;
+        try {
+            while (outstanding > 0) {
+                Future<T> done = waitingThreshold ? cs.poll(delayMs, TimeUnit.MILLISECONDS) : cs.take();
+                if (done == null) {
+                    waitingThreshold = false;
+                    if (takeToken()) {
+                        hedges.incrementAndGet();
+                        hedge = cs.submit(() -> timed(call, settled));
+                        outstanding++;
+                    } else {
+                        budgetDenied.incrementAndGet();
+                    }
+                    continue;
+                }
+                outstanding--;
+                try {
+                    T result = done.get();
+                    if (done == hedge) hedgeWins.incrementAndGet();
+                    return result;
+                } catch (ExecutionException e) {
+                    if (firstError == null || done == primary) firstError = e;
+                    // Un fallo rápido del primer intento no se "cubre" con un hedge: se propaga
+                    waitingThreshold = false;
+                }
+            }
+            throw unwrap(firstError);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido esperando a " + name, e);
+        } finally {
+            settled.set(true);
+            primary.cancel(true);
+            if (hedge != null) hedge.cancel(true);
+        }
+    }
+
+    /** Umbral actual en ms, o -1 si aún no hay muestras suficientes. */
+    public long hedgeDelayMs() {
+        if (histogram.samples() < minSamples) return -1;
+        long p = histogram.percentileMillis(percentile);
+        return p < 0 ? -1 : Math.clamp(p, minDelayMs, maxDelayMs);
+    }
+
+    /**
+     * Métricas: histograma de latencias, umbral actual y uso del presupuesto de hedges.
+     */
+    public Map<String, Object> stats() {
+        long r = requests.get();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("upstream", name);
+        m.put("enabled", enabled);
+        m.put("percentile", percentile);
+        m.put("hedgeDelayMs", hedgeDelayMs());
+        m.put("requests", r);
+        m.put("hedges", hedges.get());
+        m.put("hedgeRatio", r == 0 ? 0d : (double) hedges.get() / r);
+        m.put("hedgeWins", hedgeWins.get());
+        m.put("budgetDenied", budgetDenied.get());
+        m.put("latency", histogram.snapshot());
+        return m;
+    }
+
+    /** Cierra el ejecutor (cancela intentos pendientes). */
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // ----------------------------------- internos -----------------------------------
+
+    /**
+     * Ejecuta un intento y registra su latencia, también si falla (un error
+     * lento es tan lento como una respuesta lenta). No se registra el intento
+     * que termina después de decidida la petición: al perdedor lo corta la
+     * cancelación y su duración no es la del upstream.
+     */
+    private <T> T timed(Supplier<T> call, AtomicBoolean settled) {
+        long t0 = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            if (!settled.get()) histogram.record(System.nanoTime() - t0);
+        }
+    }
+
+    private synchronized void addToken() {
+        tokens = Math.min(maxTokens, tokens + tokensPerRequest);
+    }
+
+    private synchronized boolean takeToken() {
+        if (tokens < 1.0) return false;
+        tokens -= 1.0;
+        return true;
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable c = e.getCause();
+        if (c instanceof RuntimeException re) return re;
+        if (c instanceof Error err) throw err;
+        return new IllegalStateException(c);
+    }
+}
@@ -0,0 +1,225 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpTimeoutException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interceptor del cliente HTTP saliente que:
+ *  - Limita las conexiones simultáneas por host (semáforo por host). El cupo
+ *    se toma antes de enviar y se devuelve al cerrar la respuesta, es decir,
+ *    después de leer el cuerpo (RestTemplate la cierra tras extraerlo).
+ *  - Aplica un timeout total por petición (espera de cupo + envío + cabeceras
+ *    + lectura del cuerpo).
+ *  - Lleva los contadores que se exponen como gauges del pool.
+ *
+ * Hasta las cabeceras, la petición se ejecuta en un hilo virtual para poder
+ * abandonarla al vencer el plazo; el hilo se interrumpe y el cliente JDK
+ * cancela el intercambio. Si el cuerpo sigue abierto al vencer el plazo, un
+ * temporizador cierra la respuesta: la lectura en curso falla con
+ * {@link HttpTimeoutException} y el cupo se libera aunque el llamador nunca la cierre.
+ */
+public class HostLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    /** Contadores por host. */
+    private static final class HostStats {
+        final Semaphore permits;
+        final AtomicInteger waiting = new AtomicInteger();
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong timeouts = new AtomicLong();
+
+        HostStats(int max) {
+            this.permits = new Semaphore(max, true);
+        }
+    }
+
+    private final int maxPerHost;
+    private final long totalTimeoutMs;
+    private final Map<String, HostStats> hosts = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService deadlines = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("http-total-timeout").daemon().factory());
+
+    /**
+     * @param maxPerHost     peticiones simultáneas máximas por host.
+     * @param totalTimeoutMs plazo total por petición en milisegundos.
+     */
+    public HostLimitInterceptor(int maxPerHost, long totalTimeoutMs) {
+        this.maxPerHost = Math.max(1, maxPerHost);
+        this.totalTimeoutMs = totalTimeoutMs;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        String host = request.getURI().getHost();
+        HostStats st = hosts.computeIfAbsent(host, h -> new HostStats(maxPerHost));
+        st.requests.incrementAndGet();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(totalTimeoutMs);
+
+        st.waiting.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = st.permits.tryAcquire(totalTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrumpido esperando conexión a " + host);
+        } finally {
+            st.waiting.decrementAndGet();
+        }
+        if (!acquired) {
+            st.rejected.incrementAndGet();
+            throw new HttpTimeoutException("Sin conexión disponible hacia " + host);
+        }
+
+        boolean handedOver = false;
+        try {
+            Future<ClientHttpResponse> f = executor.submit(() -> execution.execute(request, body));
+            try {
+                ClientHttpResponse response = f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                handedOver = true;
+                return new PermitResponse(response, st, host, deadline);
+            } catch (TimeoutException e) {
+                f.cancel(true);
+                st.timeouts.incrementAndGet();
+                throw new HttpTimeoutException("Timeout total (" + totalTimeoutMs + " ms) hacia " + host);
+            } catch (InterruptedException e) {
+                f.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrumpido llamando a " + host);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                if (e.getCause() instanceof RuntimeException re) throw re;
+                throw new IOException(e.getCause());
+            }
+        } finally {
+            if (!handedOver) st.permits.release();
+        }
+    }
+
+    /**
+     * Respuesta que conserva el cupo del host hasta cerrarse y que se cierra
+     * sola al vencer el plazo total.
+     */
+    private final class PermitResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final HostStats st;
+        private final String host;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile ScheduledFuture<?> expiry; // puede vencer antes de asignarse
+        private volatile boolean expired;
+
+        PermitResponse(ClientHttpResponse delegate, HostStats st, String host, long deadline) {
+            this.delegate = delegate;
+            this.st = st;
+            this.host = host;
+            this.expiry = deadlines.schedule(this::expire,
+                    Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+
+        private void expire() {
+            if (closed.get()) return;
+            expired = true;
+            st.timeouts.incrementAndGet();
+            close();
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return new FilterInputStream(delegate.getBody()) {
+                @Override
+                public int read() throws IOException {
+                    int c;
+                    try {
+                        c = super.read();
+                    } catch (IOException e) {
+                        throw expired ? timeout() : e;
+                    }
+                    if (c < 0 && expired) throw timeout();
+                    return c;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n;
+                    try {
+                        n = super.read(b, off, len);
+                    } catch (IOException e) {
+                        throw expired ? timeout() : e;
+                    }
+                    // Al cerrarse por el plazo el cliente JDK entrega fin de flujo: no es un cuerpo completo
+                    if (n < 0 && expired) throw timeout();
+                    return n;
+                }
+            };
+        }
+
+        private HttpTimeoutException timeout() {
+            return new HttpTimeoutException("Timeout total (" + totalTimeoutMs + " ms) leyendo la respuesta de " + host);
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            ScheduledFuture<?> f = expiry;
+            if (f != null) f.cancel(false);
+            try {
+                delegate.close();
+            } finally {
+                st.permits.release();
+            }
+        }
+    }
+
+    /**
+     * Gauges del pool por host: en uso, en espera, totales, rechazos y timeouts.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("maxPerHost", maxPerHost);
+        out.put("totalTimeoutMs", totalTimeoutMs);
+        Map<String, Object> perHost = new LinkedHashMap<>();
+        hosts.forEach((h, st) -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("inUse", maxPerHost - st.permits.availablePermits());
+            m.put("waiting", st.waiting.get());
+            m.put("requests", st.requests.get());
+            m.put("rejected", st.rejected.get());
+            m.put("timeouts", st.timeouts.get());
+            perHost.put(h, m);
+        });
+        out.put("hosts", perHost);
+        return out;
+    }
+}
@@ -0,0 +1,55 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Validadores HTTP (ETag / Last-Modified) de un documento cacheado, junto con
+ * el tamaño del cuerpo, para revalidar con GET condicional y medir los bytes
+ * ahorrados cuando el servidor responde 304.
+ *
+ * @param etag         valor de la cabecera ETag, o null.
+ * @param lastModified valor de la cabecera Last-Modified, o null.
+ * @param length       tamaño del cuerpo cacheado en bytes.
+ */
+public record HttpValidators(String etag, String lastModified, long length) {
+
+    /** Claves de atributo usadas al persistir los validadores junto al cuerpo. */
+    public static final String ATTR_ETAG = "etag";
+    public static final String ATTR_LAST_MODIFIED = "last-modified";
+
+    /** Validadores tomados de las cabeceras de una respuesta 200. */
+    public static HttpValidators from(HttpHeaders headers, long length) {
+        return new HttpValidators(headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), length);
+    }
+
+    /** Validadores guardados como atributos; null si no hay ninguno. */
+    public static HttpValidators fromAttributes(Map<String, String> attributes, long length) {
+        String etag = attributes.get(ATTR_ETAG);
+        String lastModified = attributes.get(ATTR_LAST_MODIFIED);
+        return etag == null && lastModified == null ? null : new HttpValidators(etag, lastModified, length);
+    }
+
+    /** true si hay al menos un validador con el que hacer GET condicional. */
+    public boolean usable() {
+        return etag != null || lastModified != null;
+    }
+
+    /** Atributos a persistir (solo los presentes). */
+    public Map<String, String> toAttributes() {
+        Map<String, String> m = new HashMap<>(2);
+        if (etag != null) m.put(ATTR_ETAG, etag);
+        if (lastModified != null) m.put(ATTR_LAST_MODIFIED, lastModified);
+        return m;
+    }
+
+    /** Cabeceras If-None-Match / If-Modified-Since para la petición condicional. */
+    public HttpHeaders toRequestHeaders() {
+        HttpHeaders h = new HttpHeaders();
+        if (etag != null) h.setIfNoneMatch(etag);
+        if (lastModified != null) h.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        return h;
+    }
+}
@@ -0,0 +1,128 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias con cubetas fijas (escala aproximadamente
+ * logarítmica de 1 ms a 10 s) sobre una ventana deslizante.
+ *
+ * Se mantienen dos ventanas: la actual y la anterior. Los percentiles se
+ * calculan sobre ambas, de modo que reflejan los últimos 1–2 períodos y se
+ * adaptan cuando el upstream cambia de comportamiento. Además se conserva el
+ * acumulado desde el arranque para exponerlo en métricas.
+ */
+public class LatencyHistogram {
+
+    /** Límite superior (inclusive) de cada cubeta en ms; la última es el desborde. */
+    private static final long[] BOUNDS_MS = {
+            1, 2, 3, 5, 7, 10, 15, 20, 30, 50, 75, 100, 150, 200, 300, 500,
+            750, 1000, 1500, 2000, 3000, 5000, 7500, 10000, Long.MAX_VALUE
+    };
+
+    private final long windowNanos;
+    private final AtomicLongArray total = new AtomicLongArray(BOUNDS_MS.length);
+    private volatile AtomicLongArray current = new AtomicLongArray(BOUNDS_MS.length);
+    private volatile AtomicLongArray previous = new AtomicLongArray(BOUNDS_MS.length);
+    private volatile long windowStart = System.nanoTime();
+
+    /**
+     * @param windowSeconds duración de cada ventana.
+     */
+    public LatencyHistogram(long windowSeconds) {
+        this.windowNanos = TimeUnit.SECONDS.toNanos(Math.max(1, windowSeconds));
+    }
+
+    /** Registra una latencia observada. */
+    public void record(long nanos) {
+        rotateIfNeeded();
+        int b = bucket(TimeUnit.NANOSECONDS.toMillis(nanos));
+        current.incrementAndGet(b);
+        total.incrementAndGet(b);
+    }
+
+    /** Muestras en la ventana reciente (actual + anterior). */
+    public long samples() {
+        rotateIfNeeded();
+        long n = 0;
+        for (int i = 0; i < BOUNDS_MS.length; i++) n += current.get(i) + previous.get(i);
+        return n;
+    }
+
+    /**
+     * Percentil de la ventana reciente, interpolado linealmente dentro de la cubeta.
+     *
+     * @param p percentil entre 0 y 1 (p. ej. 0.95).
+     * @return latencia en ms, o -1 si no hay muestras.
+     */
+    public long percentileMillis(double p) {
+        rotateIfNeeded();
+        long[] counts = new long[BOUNDS_MS.length];
+        for (int i = 0; i < counts.length; i++) counts[i] = current.get(i) + previous.get(i);
+        return percentile(counts, p);
+    }
+
+    /**
+     * Snapshot para métricas: percentiles recientes y cubetas acumuladas.
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("recentSamples", samples());
+        m.put("p50Ms", percentileMillis(0.50));
+        m.put("p90Ms", percentileMillis(0.90));
+        m.put("p95Ms", percentileMillis(0.95));
+        m.put("p99Ms", percentileMillis(0.99));
+        long[] counts = new long[BOUNDS_MS.length];
+        long all = 0;
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = total.get(i);
+            all += counts[i];
+            if (counts[i] > 0) buckets.put(i == counts.length - 1 ? ">" + BOUNDS_MS[i - 1] + "ms" : "<=" + BOUNDS_MS[i] + "ms", counts[i]);
+        }
+        m.put("totalSamples", all);
+        m.put("totalP99Ms", percentile(counts, 0.99));
+        m.put("buckets", buckets);
+        return m;
+    }
+
+    // ----------------------------------- internos -----------------------------------
+
+    private void rotateIfNeeded() {
+        long now = System.nanoTime();
+        if (now - windowStart < windowNanos) return;
+        synchronized (this) {
+            if (now - windowStart < windowNanos) return;
+            // Si pasaron dos ventanas sin muestras, la anterior también queda vacía
+            previous = now - windowStart < 2 * windowNanos ? current : new AtomicLongArray(BOUNDS_MS.length);
+            current = new AtomicLongArray(BOUNDS_MS.length);
+            windowStart = now;
+        }
+    }
+
+    private static int bucket(long ms) {
+        for (int i = 0; i < BOUNDS_MS.length; i++) if (ms <= BOUNDS_MS[i]) return i;
+        return BOUNDS_MS.length - 1;
+    }
+
+    private static long percentile(long[] counts, double p) {
+        long n = 0;
+        for (long c : counts) n += c;
+        if (n == 0) return -1;
+        double rank = p * n;
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            if (seen + counts[i] >= rank) {
+                long lo = i == 0 ? 0 : BOUNDS_MS[i - 1];
+                long hi = i == counts.length - 1 ? BOUNDS_MS[i - 1] * 2 : BOUNDS_MS[i];
+                double frac = (rank - seen) / counts[i];
+                return Math.round(lo + frac * (hi - lo));
+            }
+            seen += counts[i];
+        }
+        return BOUNDS_MS[BOUNDS_MS.length - 2];
+    }
+}
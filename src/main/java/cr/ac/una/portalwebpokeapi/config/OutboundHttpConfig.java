@@ -0,0 +1,119 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Cliente HTTP saliente compartido por los servicios que consumen APIs
+ * externas (PokeAPI, REST Countries).
+ *
+ * Usa {@link HttpClient} del JDK, que mantiene un pool de conexiones
+ * keep-alive y soporta HTTP/2 de forma opcional. Sobre él se aplican timeouts
+ * de conexión, de lectura y total, y un límite de conexiones simultáneas por host.
+ *
+ * El pool del JDK se configura solo con propiedades de sistema de toda la JVM
+ * (jdk.httpclient.keepalive.timeout, jdk.httpclient.connectionPoolSize), que
+ * se leen una única vez al cargar el cliente; se fijan al arrancar, ver
+ * {@link cr.ac.una.portalwebpokeapi.PortalWebPokeApiApplication#main}.
+ */
+@Configuration
+public class OutboundHttpConfig {
+
+    /**
+     * Interceptor con el límite por host, el timeout total y los gauges del pool.
+     *
+     * @param maxPerHost     'app.http.max-per-host' (20 por defecto).
+     * @param totalTimeoutMs 'app.http.total-timeout-ms' (10 s por defecto).
+     */
+    @Bean
+    public HostLimitInterceptor hostLimitInterceptor(@Value("${app.http.max-per-host:20}") int maxPerHost,
+                                                     @Value("${app.http.total-timeout-ms:10000}") long totalTimeoutMs) {
+        return new HostLimitInterceptor(maxPerHost, totalTimeoutMs);
+    }
+
+    /**
+     * Cliente JDK con pool keep-alive.
+     *
+     * @param connectTimeoutMs 'app.http.connect-timeout-ms' (2 s por defecto).
+     * @param http2            'app.http.http2': negocia HTTP/2 cuando el servidor lo soporta.
+     */
+    @Bean(destroyMethod = "close")
+    public HttpClient outboundHttpClient(@Value("${app.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+                                         @Value("${app.http.http2:false}") boolean http2) {
+        System.out.println("[HTTP] Pool keep-alive: " + System.getProperty("jdk.httpclient.keepalive.timeout")
+                + " s, conexiones ociosas máx.: " + System.getProperty("jdk.httpclient.connectionPoolSize", "0 (sin límite)"));
+        return HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Circuit breaker de PokeAPI: abre ante una tasa de fallos (timeouts, 5xx)
+     * alta y deja de enviar llamadas durante un tiempo, con sondeo en HALF_OPEN.
+     *
+     * @param window      'app.pokeapi.breaker.window': llamadas recientes evaluadas (20 por defecto).
+     * @param minCalls    'app.pokeapi.breaker.min-calls': mínimo antes de evaluar (10 por defecto).
+     * @param failureRate 'app.pokeapi.breaker.failure-rate': tasa que abre el circuito (0.5 por defecto).
+     * @param openMs      'app.pokeapi.breaker.open-ms': tiempo abierto antes de probar (30 s por defecto).
+     * @param probes      'app.pokeapi.breaker.half-open-probes': llamadas de prueba (1 por defecto).
+     */
+    @Bean
+    public CircuitBreaker pokeApiBreaker(@Value("${app.pokeapi.breaker.window:20}") int window,
+                                         @Value("${app.pokeapi.breaker.min-calls:10}") int minCalls,
+                                         @Value("${app.pokeapi.breaker.failure-rate:0.5}") double failureRate,
+                                         @Value("${app.pokeapi.breaker.open-ms:30000}") long openMs,
+                                         @Value("${app.pokeapi.breaker.half-open-probes:1}") int probes) {
+        return new CircuitBreaker("pokeapi", window, minCalls, failureRate, Duration.ofMillis(openMs), probes);
+    }
+
+    /**
+     * Hedging de las descargas de detalle de PokeAPI: si el primer intento no
+     * respondió al llegar al percentil de latencia reciente, se lanza un segundo
+     * y se usa el primero que termine.
+     *
+     * @param enabled       'app.pokeapi.hedge.enabled' (true por defecto; si false solo se mide la latencia).
+     * @param percentile    'app.pokeapi.hedge.percentile': percentil que dispara el hedge (0.95 por defecto).
+     * @param minDelayMs    'app.pokeapi.hedge.min-delay-ms': umbral mínimo (50 ms por defecto).
+     * @param maxDelayMs    'app.pokeapi.hedge.max-delay-ms': umbral máximo (2 s por defecto).
+     * @param budgetPercent 'app.pokeapi.hedge.budget-percent': carga extra máxima en % (5 por defecto).
+     * @param minSamples    'app.pokeapi.hedge.min-samples': muestras antes de hacer hedging (50 por defecto).
+     * @param windowSeconds 'app.pokeapi.hedge.window-seconds': ventana del histograma (60 s por defecto).
+     */
+    @Bean
+    public HedgingExecutor pokeApiHedger(@Value("${app.pokeapi.hedge.enabled:true}") boolean enabled,
+                                         @Value("${app.pokeapi.hedge.percentile:0.95}") double percentile,
+                                         @Value("${app.pokeapi.hedge.min-delay-ms:50}") long minDelayMs,
+                                         @Value("${app.pokeapi.hedge.max-delay-ms:2000}") long maxDelayMs,
+                                         @Value("${app.pokeapi.hedge.budget-percent:5}") double budgetPercent,
+                                         @Value("${app.pokeapi.hedge.min-samples:50}") int minSamples,
+                                         @Value("${app.pokeapi.hedge.window-seconds:60}") long windowSeconds) {
+        return new HedgingExecutor("pokeapi", enabled, percentile, minDelayMs, maxDelayMs,
+                budgetPercent, minSamples, windowSeconds);
+    }
+
+    /**
+     * RestTemplate compartido para todas las llamadas salientes.
+     *
+     * @param readTimeoutMs 'app.http.read-timeout-ms': espera máxima por la respuesta (5 s por defecto).
+     */
+    @Bean
+    public RestTemplate outboundRestTemplate(HttpClient outboundHttpClient,
+                                             HostLimitInterceptor hostLimitInterceptor,
+                                             @Value("${app.http.read-timeout-ms:5000}") long readTimeoutMs) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(outboundHttpClient);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        RestTemplate rt = new RestTemplate(factory);
+        rt.getInterceptors().add(hostLimitInterceptor);
+        return rt;
+    }
+}
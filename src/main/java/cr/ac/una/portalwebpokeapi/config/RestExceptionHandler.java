@@ -1,5 +1,7 @@
 package cr.ac.una.portalwebpokeapi.config;
 
+import cr.ac.una.portalwebpokeapi.service.CountryGuard;
+import cr.ac.una.portalwebpokeapi.service.PokemonTypeIndex;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -31,6 +33,18 @@ public class RestExceptionHandler {
         return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
     }
 
+    /**
+     * Maneja un checkout con líneas no comprables desde el país del usuario.
+     *
+     * @param ex excepción con los veredictos rechazados.
+     * @return respuesta HTTP 400 con el mensaje y el detalle por línea.
+     */
+    @ExceptionHandler(CountryGuard.IneligibleCartException.class)
+    public ResponseEntity<?> ineligibleCart(CountryGuard.IneligibleCartException ex){
+        System.out.println("[ERR] Carrito no elegible: " + ex.getLines().size() + " línea(s)");
+        return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage(), "lines", ex.getLines()));
+    }
+
     /**
      * Maneja violaciones de integridad referencial o restricciones únicas
      * generadas por la base de datos (por ejemplo, llaves duplicadas).
@@ -95,6 +109,29 @@ public class RestExceptionHandler {
                 msg == null ? "Acceso denegado" : msg));
     }
 
+    /**
+     * Maneja llamadas rechazadas por un circuit breaker abierto (servicio externo caído).
+     *
+     * @param ex excepción de tipo CircuitBreaker.OpenException.
+     * @return respuesta HTTP 503 (Service Unavailable).
+     */
+    @ExceptionHandler(CircuitBreaker.OpenException.class)
+    public ResponseEntity<?> upstreamDown(CircuitBreaker.OpenException ex){
+        System.out.println("[ERR] Circuito abierto: " + ex.getMessage());
+        return ResponseEntity.status(503).body(Map.of("error", ex.getMessage()));
+    }
+
+    /**
+     * Maneja consultas por tipo mientras el índice de tipos se construye al arrancar.
+     *
+     * @param ex excepción de tipo PokemonTypeIndex.NotReadyException.
+     * @return respuesta HTTP 503 con Retry-After.
+     */
+    @ExceptionHandler(PokemonTypeIndex.NotReadyException.class)
+    public ResponseEntity<?> typeIndexNotReady(PokemonTypeIndex.NotReadyException ex){
+        return ResponseEntity.status(503).header("Retry-After", "5").body(Map.of("error", ex.getMessage()));
+    }
+
     /**
      * Manejador genérico para cualquier otra excepción no contemplada
      * específicamente. Se utiliza como último recurso.
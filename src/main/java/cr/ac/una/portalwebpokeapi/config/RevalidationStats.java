@@ -0,0 +1,44 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores de revalidación condicional de un cliente externo:
+ * peticiones condicionales, respuestas 304 (hits) y bytes ahorrados/descargados.
+ */
+public class RevalidationStats {
+
+    private final AtomicLong conditional = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+    private final AtomicLong bytesDownloaded = new AtomicLong();
+
+    /** Se envió un GET condicional. */
+    public void onConditional() {
+        conditional.incrementAndGet();
+    }
+
+    /** El servidor respondió 304: no se descargó un cuerpo de 'savedBytes'. */
+    public void onNotModified(long savedBytes) {
+        notModified.incrementAndGet();
+        bytesSaved.addAndGet(savedBytes);
+    }
+
+    /** Se descargó un cuerpo completo. */
+    public void onDownloaded(long bytes) {
+        bytesDownloaded.addAndGet(bytes);
+    }
+
+    public Map<String, Object> stats() {
+        long c = conditional.get();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("conditionalRequests", c);
+        m.put("notModified", notModified.get());
+        m.put("revalidationHitRatio", c == 0 ? 0d : (double) notModified.get() / c);
+        m.put("bytesSaved", bytesSaved.get());
+        m.put("bytesDownloaded", bytesDownloaded.get());
+        return m;
+    }
+}
@@ -0,0 +1,20 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Configuración de Spring MVC: conversores de mensajes propios.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /** Registra el conversor de {@code CardList} antes que Jackson. */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.addFirst(new CardListMessageConverter());
+    }
+}
@@ -0,0 +1,271 @@
+package cr.ac.una.portalwebpokeapi.controller;
+
+import cr.ac.una.portalwebpokeapi.config.HostLimitInterceptor;
+import cr.ac.una.portalwebpokeapi.config.SessionManager;
+import cr.ac.una.portalwebpokeapi.service.BuyableIndex;
+import cr.ac.una.portalwebpokeapi.service.CardJsonCache;
+import cr.ac.una.portalwebpokeapi.service.CatalogCrawler;
+import cr.ac.una.portalwebpokeapi.service.CatalogMirrorService;
+import cr.ac.una.portalwebpokeapi.service.CatalogWarmer;
+import cr.ac.una.portalwebpokeapi.service.ClusterSyncService;
+import cr.ac.una.portalwebpokeapi.service.DynamicRuleService;
+import cr.ac.una.portalwebpokeapi.service.FanOutExecutor;
+import cr.ac.una.portalwebpokeapi.service.PokeApiService;
+import cr.ac.una.portalwebpokeapi.service.PokemonTypeIndex;
+import cr.ac.una.portalwebpokeapi.service.RestCountriesService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Endpoints administrativos de operación del catálogo (cachés y upstream).
+ * Requiere header X-SESSION-TOKEN con rol ADMIN.
+ *
+ * Base: /api/admin/catalog
+ */
+@RestController
+@RequestMapping("/api/admin/catalog")
+public class AdminCatalogController {
+
+    private final SessionManager sessions;  // Gestión de sesión y rol
+    private final PokeApiService poke;      // Cliente PokeAPI con caché
+    private final FanOutExecutor fanOut;    // Fan-out paralelo de detalles
+    private final HostLimitInterceptor http; // Gauges del cliente HTTP saliente
+    private final CatalogMirrorService mirror; // Espejo local del catálogo
+    private final CatalogWarmer warmer;        // Precalentamiento al arranque
+    private final RestCountriesService countries; // Cliente REST Countries con caché
+    private final CatalogCrawler crawler;      // Recorridos masivos con concurrencia AIMD
+    private final PokemonTypeIndex types;      // Índice invertido de tipos
+    private final CardJsonCache cardJson;      // Cards ya serializadas
+    private final DynamicRuleService rules;    // Reglas de país (caché en memoria)
+    private final BuyableIndex buyable;        // Comprables por país
+    private final ClusterSyncService clusterSync; // Propagación de cambios entre nodos
+
+    public AdminCatalogController(SessionManager sessions, PokeApiService poke,
+                                  FanOutExecutor fanOut, HostLimitInterceptor http,
+                                  CatalogMirrorService mirror, CatalogWarmer warmer,
+                                  RestCountriesService countries, CatalogCrawler crawler,
+                                  PokemonTypeIndex types, CardJsonCache cardJson,
+                                  DynamicRuleService rules, BuyableIndex buyable,
+                                  ClusterSyncService clusterSync) {
+        this.sessions = sessions;
+        this.poke = poke;
+        this.fanOut = fanOut;
+        this.http = http;
+        this.mirror = mirror;
+        this.warmer = warmer;
+        this.countries = countries;
+        this.crawler = crawler;
+        this.types = types;
+        this.cardJson = cardJson;
+        this.rules = rules;
+        this.buyable = buyable;
+        this.clusterSync = clusterSync;
+    }
+
+    /**
+     * Verifica token válido y rol ADMIN.
+     * @param token header X-SESSION-TOKEN
+     */
+    private void requireAdmin(String token){
+        var me = sessions.get(token);
+        if (me == null) throw new SecurityException("UNAUTHORIZED");
+        if (!"ADMIN".equals(me.role)) throw new SecurityException("FORBIDDEN");
+    }
+
+    /**
+     * Métricas de la caché de detalles de PokeAPI.
+     * GET /api/admin/catalog/cache
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<?> cache(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(poke.cacheStats());
+    }
+
+    /**
+     * Métricas de coalescencia de llamadas idénticas concurrentes a PokeAPI.
+     * GET /api/admin/catalog/coalescing
+     */
+    @GetMapping("/coalescing")
+    public ResponseEntity<?> coalescing(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(poke.coalescingStats());
+    }
+
+    /**
+     * Métricas del almacén persistente de documentos.
+     * GET /api/admin/catalog/store
+     */
+    @GetMapping("/store")
+    public ResponseEntity<?> store(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(poke.storeStats());
+    }
+
+    /**
+     * Fuerza la compactación del almacén persistente.
+     * POST /api/admin/catalog/store/compact
+     */
+    @PostMapping("/store/compact")
+    public ResponseEntity<?> compactStore(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        poke.compactStore();
+        return ResponseEntity.ok(Map.of("ok", true));
+    }
+
+    /**
+     * Resiliencia frente a PokeAPI: estado del circuit breaker, datos servidos
+     * vencidos (stale) y revalidaciones en segundo plano.
+     * GET /api/admin/catalog/resilience
+     */
+    @GetMapping("/resilience")
+    public ResponseEntity<?> resilience(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(poke.resilienceStats());
+    }
+
+    /**
+     * Revalidación condicional (ETag / Last-Modified) de PokeAPI y REST Countries:
+     * respuestas 304 y bytes ahorrados.
+     * GET /api/admin/catalog/revalidation
+     */
+    @GetMapping("/revalidation")
+    public ResponseEntity<?> revalidation(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(Map.of(
+                "pokeapi", poke.revalidationStats(),
+                "restcountries", countries.revalidationStats()));
+    }
+
+    /**
+     * Latencias de PokeAPI (histograma y percentiles recientes) y uso de hedges,
+     * para ajustar el umbral de 'app.pokeapi.hedge.*'.
+     * GET /api/admin/catalog/latency
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<?> latency(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(poke.latencyStats());
+    }
+
+    /**
+     * Métricas del fan-out de detalles (tareas, timeouts, en vuelo por upstream).
+     * GET /api/admin/catalog/fanout
+     */
+    @GetMapping("/fanout")
+    public ResponseEntity<?> fanOut(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(fanOut.stats());
+    }
+
+    /**
+     * Uso del pool HTTP saliente por host (en uso, en espera, rechazos, timeouts).
+     * GET /api/admin/catalog/http-pool
+     */
+    @GetMapping("/http-pool")
+    public ResponseEntity<?> httpPool(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(http.stats());
+    }
+
+    /**
+     * Estado del espejo local: modo, importación en curso y checkpoint por tipo.
+     * GET /api/admin/catalog/mirror
+     */
+    @GetMapping("/mirror")
+    public ResponseEntity<?> mirror(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(mirror.status());
+    }
+
+    /**
+     * Lanza la importación del catálogo al espejo local en segundo plano.
+     * POST /api/admin/catalog/mirror/import?full=false
+     * full=true reinicia desde el principio; si no, continúa desde el último checkpoint.
+     */
+    @PostMapping("/mirror/import")
+    public ResponseEntity<?> mirrorImport(@RequestHeader("X-SESSION-TOKEN") String token,
+                                          @RequestParam(defaultValue = "false") boolean full){
+        requireAdmin(token);
+        if (!mirror.startImport(full)) throw new IllegalArgumentException("Ya hay una importación en curso");
+        return ResponseEntity.accepted().body(Map.of("started", true, "full", full));
+    }
+
+    /**
+     * Progreso del precalentamiento del catálogo (páginas, umbral de readiness, tiempos).
+     * GET /api/admin/catalog/warmup
+     */
+    @GetMapping("/warmup")
+    public ResponseEntity<?> warmup(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(warmer.status());
+    }
+
+    /**
+     * Estado del recorredor masivo: límite de concurrencia AIMD, 429/5xx/timeouts
+     * observados y throughput (docs/s) del último recorrido de cada tipo.
+     * GET /api/admin/catalog/crawler
+     */
+    @GetMapping("/crawler")
+    public ResponseEntity<?> crawler(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(crawler.stats());
+    }
+
+    /**
+     * Índice invertido de tipos: tipos, pokémon, tamaño de las listas de ids
+     * y fecha/duración de la última construcción.
+     * GET /api/admin/catalog/type-index
+     */
+    @GetMapping("/type-index")
+    public ResponseEntity<?> typeIndex(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(types.stats());
+    }
+
+    /**
+     * Caché de cards serializadas: aciertos, fragmentos armados e
+     * invalidaciones por cambio de regla.
+     * GET /api/admin/catalog/card-cache
+     */
+    @GetMapping("/card-cache")
+    public ResponseEntity<?> cardCache(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(cardJson.stats());
+    }
+
+    /**
+     * Caché de reglas de país: tamaño, aciertos/fallos, tasa de aciertos y
+     * versión (cambios del admin).
+     * GET /api/admin/catalog/rule-cache
+     */
+    @GetMapping("/rule-cache")
+    public ResponseEntity<?> ruleCache(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(rules.cacheStats());
+    }
+
+    /**
+     * Índice de comprables por país: artículos por país y tipo, fecha/duración
+     * de la última construcción y actualizaciones incrementales aplicadas.
+     * GET /api/admin/catalog/buyable-index
+     */
+    @GetMapping("/buyable-index")
+    public ResponseEntity<?> buyableIndex(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(buyable.stats());
+    }
+
+    /**
+     * Propagación de cambios entre nodos (de este nodo): versión leída,
+     * cambios aplicados por alcance, atraso (último/promedio/máximo) y errores.
+     * GET /api/admin/catalog/cluster-sync
+     */
+    @GetMapping("/cluster-sync")
+    public ResponseEntity<?> clusterSync(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(clusterSync.stats());
+    }
+}
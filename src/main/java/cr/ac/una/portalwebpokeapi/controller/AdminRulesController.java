@@ -4,9 +4,16 @@ import cr.ac.una.portalwebpokeapi.config.SessionManager;
 import cr.ac.una.portalwebpokeapi.model.PokemonRule;
 import cr.ac.una.portalwebpokeapi.repository.PokemonRuleRepository;
 import cr.ac.una.portalwebpokeapi.repository.UserRepository;
+import cr.ac.una.portalwebpokeapi.service.DynamicRuleService;
+import cr.ac.una.portalwebpokeapi.service.RuleBulkService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 /**
@@ -22,11 +29,16 @@ public class AdminRulesController {
     private final PokemonRuleRepository repo;  // Acceso a persistencia de reglas
     private final SessionManager sessions;     // Gestión de sesión y rol
     private final UserRepository users;
+    private final DynamicRuleService rules;    // Escrituras con caché de reglas e invalidación de cards
+    private final RuleBulkService bulk;        // Importación/exportación masiva
 
-    public AdminRulesController(PokemonRuleRepository repo, SessionManager sessions,  UserRepository users) {
+    public AdminRulesController(PokemonRuleRepository repo, SessionManager sessions,  UserRepository users,
+                                DynamicRuleService rules, RuleBulkService bulk) {
         this.users = users;
         this.repo = repo;
         this.sessions = sessions;
+        this.rules = rules;
+        this.bulk = bulk;
     }
 
     /**
@@ -42,6 +54,59 @@ public class AdminRulesController {
         if (!"ADMIN".equals(me.role)) throw new SecurityException("FORBIDDEN");
     }
 
+    /**
+     * Importación masiva de reglas (cada fila reemplaza la regla completa de su clave).
+     * El cuerpo se procesa a medida que llega y se escribe en lotes.
+     *
+     * POST /api/admin/rules/bulk?format=csv|ndjson
+     *
+     * @param token       encabezado X-SESSION-TOKEN
+     * @param format      csv | ndjson; si falta se deduce del Content-Type
+     * @param contentType text/csv o application/x-ndjson
+     * @param body        archivo (ver RuleBulkService para las columnas)
+     * @return 200 con filas leídas/escritas, filas/s y errores por línea
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> importBulk(@RequestHeader("X-SESSION-TOKEN") String token,
+                                        @RequestParam(required = false) String format,
+                                        @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                        InputStream body) throws IOException {
+        requireAdmin(token);
+        return ResponseEntity.ok(bulk.importRules(body, RuleBulkService.Format.of(format, contentType)));
+    }
+
+    /**
+     * Exportación masiva de todas las reglas, escrita fila por fila.
+     * El informe (filas/s, filas que no pasarían la validación) queda en /bulk/reports.
+     *
+     * GET /api/admin/rules/bulk?format=csv|ndjson
+     *
+     * @param token  encabezado X-SESSION-TOKEN
+     * @param format csv (por defecto) | ndjson
+     */
+    @GetMapping("/bulk")
+    public ResponseEntity<StreamingResponseBody> exportBulk(@RequestHeader("X-SESSION-TOKEN") String token,
+                                                            @RequestParam(required = false, defaultValue = "csv") String format) {
+        requireAdmin(token);
+        RuleBulkService.Format f = RuleBulkService.Format.of(format, null);
+        String file = "pokemon_rules." + f.name().toLowerCase();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(f.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file + "\"")
+                .body(out -> bulk.exportRules(out, f));
+    }
+
+    /**
+     * Último informe de importación y de exportación masiva.
+     *
+     * GET /api/admin/rules/bulk/reports
+     */
+    @GetMapping("/bulk/reports")
+    public ResponseEntity<?> bulkReports(@RequestHeader("X-SESSION-TOKEN") String token){
+        requireAdmin(token);
+        return ResponseEntity.ok(bulk.lastReports());
+    }
+
     /**
      * Obtiene la regla asociada a un Pokémon por su ID.
      *
@@ -75,17 +140,8 @@ public class AdminRulesController {
                                     @RequestBody PokemonRule body){
         requireAdmin(token);
 
-        // Busca existente o instancia nueva para upsert
-        PokemonRule r = repo.findByPokemonId(pokemonId).orElse(new PokemonRule());
-        r.setPokemonId(pokemonId);
-
-        // Aplica solo valores no nulos del body
-        if (body.getOriginCountry() != null) r.setOriginCountry(body.getOriginCountry());
-        if (body.getAvailableCountriesCsv() != null) r.setAvailableCountriesCsv(body.getAvailableCountriesCsv());
-        if (body.getBannedCountriesCsv() != null) r.setBannedCountriesCsv(body.getBannedCountriesCsv());
-        if (body.getNotes() != null) r.setNotes(body.getNotes());
-
-        return ResponseEntity.ok(repo.save(r));
+        // Solo se sobreescriben los valores no nulos del body
+        return ResponseEntity.ok(rules.upsertRule(pokemonId, body));
     }
 
     /**
@@ -101,7 +157,7 @@ public class AdminRulesController {
     public ResponseEntity<?> delete(@RequestHeader("X-SESSION-TOKEN") String token,
                                     @PathVariable Long pokemonId){
         requireAdmin(token);
-        repo.findByPokemonId(pokemonId).ifPresent(repo::delete);
+        rules.deleteRule(pokemonId);
         return ResponseEntity.ok(Map.of("ok", true));
     }
     @GetMapping("/users")
@@ -80,7 +80,8 @@ public class AdminUserController {
 
     /**
      * Actualiza el timeout de sesión. Mínimo 10s.
-     * Persiste en DB y ajusta el SessionManager en memoria.
+     * Persiste en DB y ajusta el SessionManager en memoria; los demás nodos
+     * lo aplican al sondear config_changes (ver ClusterSyncService).
      * PUT /api/admin/session-timeout
      * Body: {"timeoutSeconds": <int>}
      */
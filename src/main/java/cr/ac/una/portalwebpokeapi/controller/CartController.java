@@ -44,6 +44,17 @@ public class CartController {
         return ResponseEntity.ok(cartService.view(requireUser(token)));
     }
 
+    /**
+     * Veredicto de país por línea del carrito (OK o motivo del rechazo).
+     * GET /api/cart/eligibility
+     * @param token X-SESSION-TOKEN
+     * @return 200 con {cartItemId, productId, category, reason, message} por línea.
+     */
+    @GetMapping("/eligibility")
+    public ResponseEntity<?> eligibility(@RequestHeader("X-SESSION-TOKEN") String token){
+        return ResponseEntity.ok(cartService.eligibility(requireUser(token)));
+    }
+
     /**
      * Payload para agregar ítems desde catálogo.
      * category opcional. nameOrId requerido. quantity opcional.
@@ -1,16 +1,34 @@
 package cr.ac.una.portalwebpokeapi.controller;
 
+import cr.ac.una.portalwebpokeapi.config.SessionManager;
+import cr.ac.una.portalwebpokeapi.model.User;
+import cr.ac.una.portalwebpokeapi.repository.UserRepository;
 import cr.ac.una.portalwebpokeapi.service.PokeApiService;
 import cr.ac.una.portalwebpokeapi.service.PokeCatalogService;
 import cr.ac.una.portalwebpokeapi.service.RestCountriesService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
 
 /**
  * Catálogo público de datos.
  * Endpoints de lectura que agregan resultados desde servicios externos
  * (PokeAPI, RestCountries) y un servicio de catálogo propio.
  *
+ * Los listados de cards aceptan 'buyableOnly=true' para mostrar solo lo que
+ * se puede comprar desde un país: el del parámetro 'country' o, si no se
+ * envía, el del perfil del usuario de la sesión (header X-SESSION-TOKEN).
+ *
  * Base: /api/catalog
  */
 @RestController
@@ -19,13 +37,25 @@ public class CatalogController {
     private final PokeApiService poke;              // Acceso directo a PokeAPI si se requiere
     private final RestCountriesService countries;   // Listado de países y metadatos
     private final PokeCatalogService catalog;       // Agregador/normalizador de tarjetas
+    private final SessionManager sessions;          // Sesión del comprador (buyableOnly)
+    private final UserRepository users;             // País del perfil del comprador
+    private final long streamTimeoutMs;             // tope de una respuesta en streaming
+
+    /** Header con el cursor de la página siguiente del feed unificado. */
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     public CatalogController(PokeApiService poke,
                              RestCountriesService countries,
-                             PokeCatalogService catalog) {
+                             PokeCatalogService catalog,
+                             SessionManager sessions,
+                             UserRepository users,
+                             @Value("${app.catalog.stream.timeout-ms:30000}") long streamTimeoutMs) {
         this.poke = poke;
         this.countries = countries;
         this.catalog = catalog;
+        this.sessions = sessions;
+        this.users = users;
+        this.streamTimeoutMs = streamTimeoutMs;
     }
 
     /**
@@ -37,6 +67,20 @@ public class CatalogController {
         return ResponseEntity.ok(countries.listAll());
     }
 
+    /**
+     * País para el modo solo comprables: el parámetro 'country' o el del
+     * perfil del usuario de la sesión. Sin buyableOnly devuelve null.
+     */
+    private String buyerCountry(boolean buyableOnly, String country, String token) {
+        if (!buyableOnly) return null;
+        if (country != null && !country.isBlank()) return country.trim().toUpperCase();
+        var s = token == null ? null : sessions.get(token);
+        if (s == null) throw new IllegalArgumentException("buyableOnly requiere 'country' o una sesión");
+        String cc = users.findById(Long.valueOf(s.userId)).map(User::getCountryCode).orElse(null);
+        if (cc == null || cc.isBlank()) throw new IllegalArgumentException("Configura tu país en el perfil");
+        return cc.trim().toUpperCase();
+    }
+
     // ------------------- Tarjetas por categoría específica -------------------
 
     /**
@@ -45,14 +89,19 @@ public class CatalogController {
      * @param limit  tamaño de página opcional
      * @param offset desplazamiento opcional
      * @param query  filtro por nombre/ID opcional
-     * @param type   filtro por tipo (e.g., "electric") opcional
+     * @param type   filtro por tipo opcional: "electric", "fire,flying" (todos), "fire|water" (cualquiera) o "fire,flying|water" (',' antes que '|')
+     * @param buyableOnly solo cards comprables desde 'country' (o el país del perfil) opcional
+     * @param country código ISO-2 del comprador para buyableOnly opcional
      */
     @GetMapping("/pokemon-cards")
     public ResponseEntity<?> pokemonCards(@RequestParam(required=false) Integer limit,
                                           @RequestParam(required=false) Integer offset,
                                           @RequestParam(required=false) String query,
-                                          @RequestParam(required=false) String type) {
-        return ResponseEntity.ok(catalog.listPokemonCards(limit, offset, query, type));
+                                          @RequestParam(required=false) String type,
+                                          @RequestParam(required=false, defaultValue = "false") boolean buyableOnly,
+                                          @RequestParam(required=false) String country,
+                                          @RequestHeader(value = "X-SESSION-TOKEN", required = false) String token) {
+        return ResponseEntity.ok(catalog.listPokemonCards(limit, offset, query, type, buyerCountry(buyableOnly, country, token)));
     }
 
     /**
@@ -62,8 +111,11 @@ public class CatalogController {
     @GetMapping("/item-cards")
     public ResponseEntity<?> itemCards(@RequestParam(required=false) Integer limit,
                                        @RequestParam(required=false) Integer offset,
-                                       @RequestParam(required=false) String query) {
-        return ResponseEntity.ok(catalog.listItemCards(limit, offset, query));
+                                       @RequestParam(required=false) String query,
+                                       @RequestParam(required=false, defaultValue = "false") boolean buyableOnly,
+                                       @RequestParam(required=false) String country,
+                                       @RequestHeader(value = "X-SESSION-TOKEN", required = false) String token) {
+        return ResponseEntity.ok(catalog.listItemCards(limit, offset, query, buyerCountry(buyableOnly, country, token)));
     }
 
     /**
@@ -73,8 +125,137 @@ public class CatalogController {
     @GetMapping("/game-cards")
     public ResponseEntity<?> gameCards(@RequestParam(required=false) Integer limit,
                                        @RequestParam(required=false) Integer offset,
-                                       @RequestParam(required=false) String query) {
-        return ResponseEntity.ok(catalog.listGameCards(limit, offset, query));
+                                       @RequestParam(required=false) String query,
+                                       @RequestParam(required=false, defaultValue = "false") boolean buyableOnly,
+                                       @RequestParam(required=false) String country,
+                                       @RequestHeader(value = "X-SESSION-TOKEN", required = false) String token) {
+        return ResponseEntity.ok(catalog.listGameCards(limit, offset, query, buyerCountry(buyableOnly, country, token)));
+    }
+
+    // ------------------- Tarjetas en streaming (NDJSON / SSE) -------------------
+
+    /**
+     * Variante en streaming de /pokemon-cards: cada card se envía apenas se
+     * resuelven su detalle y su regla, en orden de llegada.
+     * GET /api/catalog/pokemon-cards/stream
+     *
+     * Con 'Accept: text/event-stream' responde Server-Sent Events (evento
+     * "card" con id = posición en la página y un evento final "end"); si no,
+     * NDJSON: una línea {"index":i,"card":{...}} por card.
+     */
+    @GetMapping("/pokemon-cards/stream")
+    public ResponseEntity<ResponseBodyEmitter> pokemonCardsStream(@RequestParam(required=false) Integer limit,
+                                                                  @RequestParam(required=false) Integer offset,
+                                                                  @RequestParam(required=false) String query,
+                                                                  @RequestParam(required=false) String type,
+                                                                  @RequestParam(required=false, defaultValue = "false") boolean buyableOnly,
+                                                                  @RequestParam(required=false) String country,
+                                                                  @RequestHeader(value = "X-SESSION-TOKEN", required = false) String token,
+                                                                  @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String buyableIn = buyerCountry(buyableOnly, country, token);
+        return stream(accept, sink -> catalog.streamPokemonCards(limit, offset, query, type, buyableIn, sink));
+    }
+
+    /**
+     * Variante en streaming de /item-cards (ver pokemon-cards/stream).
+     * GET /api/catalog/item-cards/stream
+     */
+    @GetMapping("/item-cards/stream")
+    public ResponseEntity<ResponseBodyEmitter> itemCardsStream(@RequestParam(required=false) Integer limit,
+                                                               @RequestParam(required=false) Integer offset,
+                                                               @RequestParam(required=false) String query,
+                                                               @RequestParam(required=false, defaultValue = "false") boolean buyableOnly,
+                                                               @RequestParam(required=false) String country,
+                                                               @RequestHeader(value = "X-SESSION-TOKEN", required = false) String token,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String buyableIn = buyerCountry(buyableOnly, country, token);
+        return stream(accept, sink -> catalog.streamItemCards(limit, offset, query, buyableIn, sink));
+    }
+
+    /**
+     * Variante en streaming de /game-cards (ver pokemon-cards/stream).
+     * GET /api/catalog/game-cards/stream
+     */
+    @GetMapping("/game-cards/stream")
+    public ResponseEntity<ResponseBodyEmitter> gameCardsStream(@RequestParam(required=false) Integer limit,
+                                                               @RequestParam(required=false) Integer offset,
+                                                               @RequestParam(required=false) String query,
+                                                               @RequestParam(required=false, defaultValue = "false") boolean buyableOnly,
+                                                               @RequestParam(required=false) String country,
+                                                               @RequestHeader(value = "X-SESSION-TOKEN", required = false) String token,
+                                                               @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        String buyableIn = buyerCountry(buyableOnly, country, token);
+        return stream(accept, sink -> catalog.streamGameCards(limit, offset, query, buyableIn, sink));
+    }
+
+    /**
+     * Devuelve el emisor de inmediato (el hilo del servlet queda libre: la
+     * respuesta sigue en modo asíncrono) y produce las cards en un hilo virtual.
+     * Si el cliente cierra la conexión, el envío falla y se cancelan las
+     * consultas pendientes.
+     */
+    private ResponseEntity<ResponseBodyEmitter> stream(String accept, Consumer<PokeCatalogService.CardSink> producer) {
+        boolean sse = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        ResponseBodyEmitter emitter = sse ? new SseEmitter(streamTimeoutMs) : new ResponseBodyEmitter(streamTimeoutMs);
+        PokeCatalogService.CardSink sink = sse ? sseSink((SseEmitter) emitter) : ndjsonSink(emitter);
+
+        Thread.ofVirtual().name("catalog-stream").start(() -> {
+            try {
+                producer.accept(sink);
+                if (sse) ((SseEmitter) emitter).send(SseEmitter.event().name("end").data(""));
+                emitter.complete();
+            } catch (UncheckedIOException e) {
+                emitter.completeWithError(e.getCause());
+            } catch (IOException | RuntimeException e) {
+                System.out.println("[CATALOG-STREAM] Error: " + e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+                .body(emitter);
+    }
+
+    private static PokeCatalogService.CardSink ndjsonSink(ResponseBodyEmitter emitter) {
+        return (index, card) -> {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(card.length + 24);
+            line.writeBytes(("{\"index\":" + index + ",\"card\":").getBytes(StandardCharsets.UTF_8));
+            line.writeBytes(card);
+            line.writeBytes("}\n".getBytes(StandardCharsets.UTF_8));
+            try {
+                emitter.send(line.toByteArray(), MediaType.APPLICATION_NDJSON);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static PokeCatalogService.CardSink sseSink(SseEmitter emitter) {
+        return (index, card) -> {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(Integer.toString(index))
+                        .name("card")
+                        .data(new String(card, StandardCharsets.UTF_8), MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Autocompletado de nombres sobre todo el catálogo (prefijo del nombre o de
+     * una de sus palabras y, si faltan resultados, coincidencias con errores de tipeo).
+     * GET /api/catalog/autocomplete
+     * @param q        texto escrito
+     * @param limit    máximo de sugerencias opcional (10 por defecto, máx. 20)
+     * @param category ALL | POKEMON | ITEM | GAME. Por defecto "ALL"
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<?> autocomplete(@RequestParam String q,
+                                          @RequestParam(required=false) Integer limit,
+                                          @RequestParam(required=false, defaultValue = "ALL") String category) {
+        return ResponseEntity.ok(catalog.autocomplete(q, limit, category));
     }
 
     // --------------------------- Agregador unificado --------------------------
@@ -82,18 +263,37 @@ public class CatalogController {
     /**
      * Tarjetas unificadas. Agrega categorías: ALL | POKEMON | ITEM | GAME.
      * GET /api/catalog/cards
+     *
+     * Con category=ALL el feed se ordena por nombre y se pagina con cursor: la
+     * respuesta trae el header X-Next-Cursor (ausente en la última página), que
+     * se envía como 'cursor' para pedir la siguiente.
+     *
      * @param limit    tamaño de página opcional
-     * @param offset   desplazamiento opcional
+     * @param offset   desplazamiento opcional (se ignora si se envía cursor)
+     * @param cursor   cursor opaco de la página anterior (solo ALL) opcional
      * @param query    filtro por texto opcional
-     * @param type     usado para POKEMON (tipo elemental) opcional
+     * @param type     usado para POKEMON (expresión de tipos, ver pokemon-cards) opcional
      * @param category categoría a consultar. Por defecto "ALL"
+     * @param buyableOnly solo cards comprables desde 'country' (o el país del perfil) opcional
+     * @param country  código ISO-2 del comprador para buyableOnly opcional
      */
     @GetMapping("/cards")
     public ResponseEntity<?> unifiedCards(@RequestParam(required=false) Integer limit,
                                           @RequestParam(required=false) Integer offset,
+                                          @RequestParam(required=false) String cursor,
                                           @RequestParam(required=false) String query,
                                           @RequestParam(required=false) String type,
-                                          @RequestParam(required=false, defaultValue = "ALL") String category) {
-        return ResponseEntity.ok(catalog.listUnifiedCards(limit, offset, query, type, category));
+                                          @RequestParam(required=false, defaultValue = "ALL") String category,
+                                          @RequestParam(required=false, defaultValue = "false") boolean buyableOnly,
+                                          @RequestParam(required=false) String country,
+                                          @RequestHeader(value = "X-SESSION-TOKEN", required = false) String token) {
+        String buyableIn = buyerCountry(buyableOnly, country, token);
+        if (!"ALL".equalsIgnoreCase(category.trim())) {
+            return ResponseEntity.ok(catalog.listUnifiedCards(limit, offset, query, type, category, buyableIn));
+        }
+        PokeCatalogService.FeedPage page = catalog.unifiedFeed(limit, offset, cursor, query, type, buyableIn);
+        ResponseEntity.BodyBuilder res = ResponseEntity.ok();
+        if (page.nextCursor() != null) res.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        return res.body(page.cards());
     }
 }
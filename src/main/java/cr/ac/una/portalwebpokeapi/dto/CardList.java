@@ -0,0 +1,41 @@
+package cr.ac.una.portalwebpokeapi.dto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Lista de cards ya serializadas: un fragmento JSON (UTF-8) por card.
+ *
+ * Se escribe tal cual como arreglo JSON ('[' fragmentos separados por ',' ']')
+ * sin volver a pasar por Jackson (ver CardListMessageConverter).
+ *
+ * @param fragments    JSON de cada card, en orden.
+ * @param placeholders cuántas son placeholders (detalle no disponible a tiempo).
+ */
+public record CardList(List<byte[]> fragments, int placeholders) {
+
+    public static final CardList EMPTY = new CardList(List.of(), 0);
+
+    /** Cantidad de cards. */
+    public int size() {
+        return fragments.size();
+    }
+
+    /** Tamaño exacto del arreglo JSON en bytes. */
+    public long contentLength() {
+        long n = 2 + Math.max(0, fragments.size() - 1);
+        for (byte[] f : fragments) n += f.length;
+        return n;
+    }
+
+    /** Escribe el arreglo JSON directamente en el stream. */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write('[');
+        for (int i = 0; i < fragments.size(); i++) {
+            if (i > 0) out.write(',');
+            out.write(fragments.get(i));
+        }
+        out.write(']');
+    }
+}
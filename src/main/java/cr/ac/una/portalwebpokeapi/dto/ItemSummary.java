@@ -0,0 +1,15 @@
+package cr.ac.una.portalwebpokeapi.dto;
+
+/**
+ * Resumen de /item/{id}.
+ *
+ * @param cost   costo en la tienda del juego (puede faltar).
+ * @param sprite sprite por defecto del ítem.
+ */
+public record ItemSummary(long id, String name, Integer cost, String sprite) implements PokeSummary {
+
+    @Override
+    public long estimatedBytes() {
+        return 48 + PokeSummary.sizeOf(name) + PokeSummary.sizeOf(sprite);
+    }
+}
@@ -0,0 +1,24 @@
+package cr.ac.una.portalwebpokeapi.dto;
+
+/**
+ * Proyección compacta e inmutable de un documento de detalle de PokeAPI.
+ *
+ * Solo conserva los campos que usan el catálogo y el carrito (id, nombre,
+ * precio base, imagen, tipos), en lugar del documento completo.
+ */
+public sealed interface PokeSummary permits PokemonSummary, ItemSummary, VersionSummary {
+
+    /** ID numérico en PokeAPI. */
+    long id();
+
+    /** Nombre en PokeAPI (slug en minúsculas). */
+    String name();
+
+    /** Tamaño aproximado en memoria, usado como peso en la caché. */
+    long estimatedBytes();
+
+    /** Peso aproximado de un String en el heap. */
+    static long sizeOf(String s) {
+        return s == null ? 0 : 40 + s.length();
+    }
+}
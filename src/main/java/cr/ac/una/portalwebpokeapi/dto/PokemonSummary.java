@@ -0,0 +1,26 @@
+package cr.ac.una.portalwebpokeapi.dto;
+
+import java.util.List;
+
+/**
+ * Resumen de /pokemon/{id}.
+ *
+ * @param baseExperience experiencia base (puede faltar en formas alternativas).
+ * @param weight         peso en hectogramos.
+ * @param sprite         sprite frontal, o el del dream world si no hay.
+ * @param types          tipos elementales en orden de slot.
+ */
+public record PokemonSummary(long id, String name, Integer baseExperience, Integer weight,
+                             String sprite, List<String> types) implements PokeSummary {
+
+    public PokemonSummary {
+        types = types == null ? List.of() : List.copyOf(types);
+    }
+
+    @Override
+    public long estimatedBytes() {
+        long b = 64 + PokeSummary.sizeOf(name) + PokeSummary.sizeOf(sprite);
+        for (String t : types) b += 8 + PokeSummary.sizeOf(t);
+        return b;
+    }
+}
@@ -0,0 +1,12 @@
+package cr.ac.una.portalwebpokeapi.dto;
+
+/**
+ * Resumen de /version/{id} (juegos).
+ */
+public record VersionSummary(long id, String name) implements PokeSummary {
+
+    @Override
+    public long estimatedBytes() {
+        return 32 + PokeSummary.sizeOf(name);
+    }
+}
@@ -0,0 +1,21 @@
+package cr.ac.una.portalwebpokeapi.events;
+
+/**
+ * Se publica cuando un producto interno se crea, modifica o elimina, para
+ * actualizar lo que depende de su política de países (índice de comprables).
+ */
+public class ProductChangedEvent {
+    private final Long productId;
+
+    public ProductChangedEvent(Long productId) {
+        this.productId = productId;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String toString(){
+        return "Producto modificado {productId=" + productId + '}';
+    }
+}
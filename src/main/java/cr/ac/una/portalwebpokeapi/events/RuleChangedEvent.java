@@ -0,0 +1,24 @@
+package cr.ac.una.portalwebpokeapi.events;
+
+/**
+ * Se publica cuando una regla de país (pokemon_rules) se crea, modifica o elimina
+ * desde administración, para invalidar lo que se derivó de ella (p. ej. cards cacheadas).
+ */
+public class RuleChangedEvent {
+    private final Long pokemonId;
+
+    /**
+     * @param pokemonId clave de la regla (compuesta por categoría, ver DynamicRuleService).
+     */
+    public RuleChangedEvent(Long pokemonId) {
+        this.pokemonId = pokemonId;
+    }
+
+    public Long getPokemonId() {
+        return pokemonId;
+    }
+
+    public String toString(){
+        return "Regla modificada {pokemonId=" + pokemonId + '}';
+    }
+}
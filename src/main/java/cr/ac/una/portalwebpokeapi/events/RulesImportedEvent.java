@@ -0,0 +1,26 @@
+package cr.ac.una.portalwebpokeapi.events;
+
+import java.util.List;
+
+/**
+ * Se publica por cada lote de reglas de país (pokemon_rules) escrito por una
+ * importación masiva, para invalidar en una sola pasada lo que se derivó de ellas.
+ */
+public class RulesImportedEvent {
+    private final List<Long> pokemonIds;
+
+    /**
+     * @param pokemonIds claves de las reglas del lote (compuestas, ver DynamicRuleService).
+     */
+    public RulesImportedEvent(List<Long> pokemonIds) {
+        this.pokemonIds = pokemonIds;
+    }
+
+    public List<Long> getPokemonIds() {
+        return pokemonIds;
+    }
+
+    public String toString(){
+        return "Reglas importadas {count=" + pokemonIds.size() + '}';
+    }
+}
@@ -0,0 +1,21 @@
+package cr.ac.una.portalwebpokeapi.events;
+
+/**
+ * Se publica cuando el admin cambia el timeout de sesión persistido
+ * (session_config), para que los demás nodos lo apliquen.
+ */
+public class SessionConfigChangedEvent {
+    private final int timeoutSeconds;
+
+    public SessionConfigChangedEvent(int timeoutSeconds) {
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    public String toString(){
+        return "Timeout de sesión modificado {timeoutSeconds=" + timeoutSeconds + '}';
+    }
+}
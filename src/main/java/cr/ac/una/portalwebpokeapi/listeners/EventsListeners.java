@@ -2,14 +2,57 @@ package cr.ac.una.portalwebpokeapi.listeners;
 
 
 import cr.ac.una.portalwebpokeapi.events.OrderCreateEvent;
+import cr.ac.una.portalwebpokeapi.events.ProductChangedEvent;
+import cr.ac.una.portalwebpokeapi.events.RuleChangedEvent;
+import cr.ac.una.portalwebpokeapi.events.RulesImportedEvent;
+import cr.ac.una.portalwebpokeapi.service.BuyableIndex;
+import cr.ac.una.portalwebpokeapi.service.CardJsonCache;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * Oyentes locales de los cambios del admin. Los eventos se publican dentro
+ * de la transacción del cambio; estos oyentes corren al confirmarse (o de
+ * inmediato si no hay transacción), así que un cambio revertido no toca las
+ * cachés.
+ */
 @Component
 public class EventsListeners {
 
+    private final CardJsonCache cardJson;
+    private final BuyableIndex buyable;
+
+    public EventsListeners(CardJsonCache cardJson, BuyableIndex buyable) {
+        this.cardJson = cardJson;
+        this.buyable = buyable;
+    }
+
     @EventListener
     public void handleOrderCreateAndSendEmail(OrderCreateEvent e){
         System.out.println(e);
     }
+
+    /**
+     * Una regla modificada cambia el país de su card: se descarta el JSON
+     * cacheado y se mueve el recurso en el índice de comprables.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleRuleChanged(RuleChangedEvent e){
+        cardJson.invalidate(e.getPokemonId());
+        buyable.ruleChanged(e.getPokemonId());
+    }
+
+    /** Lote de reglas importado: igual que {@link #handleRuleChanged}, en una sola pasada por el índice. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleRulesImported(RulesImportedEvent e){
+        for (Long key : e.getPokemonIds()) cardJson.invalidate(key);
+        buyable.rulesChanged(e.getPokemonIds());
+    }
+
+    /** Un producto modificado puede cambiar desde qué país se compra. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleProductChanged(ProductChangedEvent e){
+        buyable.productChanged(e.getProductId());
+    }
 }
@@ -0,0 +1,60 @@
+package cr.ac.una.portalwebpokeapi.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Card del catálogo espejado localmente desde PokeAPI.
+ *
+ * Guarda los campos ya normalizados (nombre, imagen, tipos, precio, país de
+ * origen) para servir el catálogo desde la base de datos en modo "mirror",
+ * sin depender de la disponibilidad ni la latencia de PokeAPI.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "catalog_cards",
+        uniqueConstraints = @UniqueConstraint(name = "uq_catalog_kind_ext", columnNames = {"kind", "external_id"}),
+        indexes = @Index(name = "idx_catalog_kind_name", columnList = "kind,name"))
+public class CatalogCard {
+
+    /** Identificador interno. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Tipo de card: POKEMON | ITEM | GAME. */
+    @Column(nullable = false, length = 10)
+    private String kind;
+
+    /** ID del recurso en PokeAPI. */
+    @Column(name = "external_id", nullable = false)
+    private Long externalId;
+
+    /** Nombre (slug) en PokeAPI. */
+    @Column(nullable = false, length = 120)
+    private String name;
+
+    /** URL de la imagen (sprite). */
+    @Column(length = 255)
+    private String imageUrl;
+
+    /** Tipos elementales en CSV (solo POKEMON). */
+    @Column(length = 120)
+    private String typesCsv;
+
+    /** Precio calculado al momento de la importación. */
+    @Column(nullable = false)
+    private Double price;
+
+    /** País de origen asignado por la regla dinámica. */
+    @Column(length = 120)
+    private String originCountry;
+
+    /** Última actualización desde PokeAPI (UTC). */
+    @Column(nullable = false)
+    private Instant updatedAt = Instant.now();
+}
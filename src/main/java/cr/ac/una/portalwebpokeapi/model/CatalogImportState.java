@@ -0,0 +1,47 @@
+package cr.ac.una.portalwebpokeapi.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Estado (checkpoint) de la importación del espejo del catálogo por tipo de card.
+ *
+ * Permite reanudar una importación interrumpida desde el último offset
+ * confirmado y hacer importaciones incrementales que solo recorren lo nuevo.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "catalog_import_state")
+public class CatalogImportState {
+
+    /** Tipo de card: POKEMON | ITEM | GAME. */
+    @Id
+    @Column(length = 10)
+    private String kind;
+
+    /** Siguiente offset del listado de PokeAPI a importar. */
+    @Column(nullable = false)
+    private int nextOffset;
+
+    /** Total de recursos reportado por PokeAPI en la última página leída. */
+    @Column(nullable = false)
+    private int total;
+
+    /** Estado: IDLE | RUNNING | DONE | FAILED. */
+    @Column(nullable = false, length = 20)
+    private String status = "IDLE";
+
+    /** Inicio de la última ejecución. */
+    private Instant startedAt;
+
+    /** Fin de la última ejecución. */
+    private Instant finishedAt;
+
+    /** Último error, si la ejecución falló. */
+    @Column(length = 500)
+    private String lastError;
+}
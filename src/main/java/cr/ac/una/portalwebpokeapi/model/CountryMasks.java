@@ -0,0 +1,26 @@
+package cr.ac.una.portalwebpokeapi.model;
+
+import java.util.Objects;
+
+/**
+ * Política de países de un producto o regla compilada a máscaras de bits
+ * (un bit por país, ver CountryEligibility).
+ *
+ * Guarda los textos de los que se compiló para detectar si la entidad cambió
+ * después (se comparan por valor: una entidad recién cargada trae otras
+ * instancias de los mismos textos).
+ *
+ * @param origin    bit del país de origen (0 si no hay).
+ * @param available países disponibles (0 = sin restricción).
+ * @param banned    países prohibidos.
+ * @param exact     false si algún código no tuvo bit propio; se evalúa con los textos.
+ */
+public record CountryMasks(long origin, long available, long banned, boolean exact,
+                           String originSource, String availableSource, String bannedSource) {
+
+    /** true si se compiló exactamente de estos textos. */
+    public boolean compiledFrom(String origin, String available, String banned) {
+        return Objects.equals(originSource, origin) && Objects.equals(availableSource, available)
+                && Objects.equals(bannedSource, banned);
+    }
+}
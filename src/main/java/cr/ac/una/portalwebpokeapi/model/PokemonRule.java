@@ -1,6 +1,7 @@
 package cr.ac.una.portalwebpokeapi.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -41,4 +42,18 @@ public class PokemonRule {
     /** Notas o comentarios adicionales sobre las reglas aplicadas. */
     @Column(length = 500)
     private String notes;
+
+    /** Política de países compilada (ver CountryEligibility); no se persiste. */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile CountryMasks countryMasks;
+
+    public CountryMasks countryMasks() {
+        return countryMasks;
+    }
+
+    public void countryMasks(CountryMasks masks) {
+        this.countryMasks = masks;
+    }
 }
@@ -0,0 +1,47 @@
+package cr.ac.una.portalwebpokeapi.repository;
+
+import cr.ac.una.portalwebpokeapi.model.CatalogCard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositorio JPA para la entidad {@link CatalogCard}.
+ *
+ * Las consultas de listado ({@link CatalogCardRepositoryCustom}) usan
+ * LIMIT/OFFSET nativos porque el catálogo se pagina por desplazamiento
+ * arbitrario (no alineado a páginas), y se apoyan en los índices
+ * (kind, external_id) y (kind, name).
+ */
+public interface CatalogCardRepository extends JpaRepository<CatalogCard, Long>, CatalogCardRepositoryCustom {
+
+    /**
+     * Todos los nombres espejados de un tipo (índice de búsqueda).
+     */
+    @Query("SELECT c.name FROM CatalogCard c WHERE c.kind = :kind")
+    List<String> findNamesByKind(@Param("kind") String kind);
+
+    /**
+     * Pares (id externo, nombre) de todas las cards espejadas de un tipo.
+     */
+    @Query("SELECT c.externalId, c.name FROM CatalogCard c WHERE c.kind = :kind")
+    List<Object[]> findIdsAndNamesByKind(@Param("kind") String kind);
+
+    /**
+     * Cards de un tipo para un conjunto de nombres.
+     */
+    List<CatalogCard> findByKindAndNameIn(String kind, Collection<String> names);
+
+    /**
+     * Cards existentes de un tipo para un conjunto de ids (upsert por lote).
+     */
+    List<CatalogCard> findByKindAndExternalIdIn(String kind, Collection<Long> externalIds);
+
+    /**
+     * Cantidad de cards espejadas de un tipo.
+     */
+    long countByKind(String kind);
+}
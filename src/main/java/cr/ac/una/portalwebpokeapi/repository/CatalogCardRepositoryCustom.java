@@ -0,0 +1,41 @@
+package cr.ac.una.portalwebpokeapi.repository;
+
+import cr.ac.una.portalwebpokeapi.model.CatalogCard;
+
+import java.util.List;
+
+/**
+ * Consultas de listado de {@link CatalogCard} con filtro de tipos dinámico
+ * (implementadas en {@link CatalogCardRepositoryImpl}).
+ *
+ * El filtro de tipos llega ya separado en grupos: la card cumple si tiene
+ * todos los tipos de alguno de los grupos (OR de AND, como las expresiones
+ * "fire,flying|water" del modo en vivo). null = sin filtro; una lista vacía
+ * no deja pasar ninguna card.
+ */
+public interface CatalogCardRepositoryCustom {
+
+    /**
+     * Página de cards de un tipo, en el mismo orden que PokeAPI (por id),
+     * con filtros opcionales por nombre y por tipos elementales.
+     *
+     * @param kind       POKEMON | ITEM | GAME.
+     * @param query      subcadena del nombre, o null.
+     * @param typeGroups grupos de tipos (solo POKEMON), o null.
+     * @param limit      tamaño de página.
+     * @param offset     desplazamiento.
+     */
+    List<CatalogCard> page(String kind, String query, List<List<String>> typeGroups, int limit, int offset);
+
+    /**
+     * Nombres de un tipo posteriores a 'after' en orden alfabético (paginación
+     * por clave para el feed unificado; usa el índice (kind, name)).
+     *
+     * @param kind       POKEMON | ITEM | GAME.
+     * @param after      último nombre ya entregado, o null para empezar.
+     * @param query      subcadena del nombre, o null.
+     * @param typeGroups grupos de tipos (solo POKEMON), o null.
+     * @param limit      cantidad máxima de nombres.
+     */
+    List<String> namesAfter(String kind, String after, String query, List<List<String>> typeGroups, int limit);
+}
@@ -0,0 +1,84 @@
+package cr.ac.una.portalwebpokeapi.repository;
+
+import cr.ac.una.portalwebpokeapi.model.CatalogCard;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.*;
+
+/**
+ * Implementación de {@link CatalogCardRepositoryCustom}: SQL nativo con
+ * LIMIT/OFFSET y un predicado de tipos armado por grupos, cada uno con un
+ * FIND_IN_SET por tipo (FIND_IN_SET no admite una coma en su primer argumento,
+ * así que "fire,flying" no puede pasarse entero).
+ */
+public class CatalogCardRepositoryImpl implements CatalogCardRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<CatalogCard> page(String kind, String query, List<List<String>> typeGroups, int limit, int offset) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String sql = "SELECT * FROM catalog_cards WHERE " + filters(kind, null, query, typeGroups, params)
+                + " ORDER BY external_id LIMIT :limit OFFSET :offset";
+        params.put("limit", limit);
+        params.put("offset", offset);
+        return bind(em.createNativeQuery(sql, CatalogCard.class), params).getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<String> namesAfter(String kind, String after, String query, List<List<String>> typeGroups, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String sql = "SELECT name FROM catalog_cards WHERE " + filters(kind, after, query, typeGroups, params)
+                + " ORDER BY name LIMIT :limit";
+        params.put("limit", limit);
+        return bind(em.createNativeQuery(sql), params).getResultList();
+    }
+
+    /** Condiciones del WHERE; agrega sus parámetros a 'params'. */
+    private static String filters(String kind, String after, String query, List<List<String>> typeGroups,
+                                  Map<String, Object> params) {
+        StringBuilder where = new StringBuilder("kind = :kind");
+        params.put("kind", kind);
+        if (after != null) {
+            where.append(" AND name > :after");
+            params.put("after", after);
+        }
+        if (query != null) {
+            where.append(" AND name LIKE CONCAT('%', :query, '%')");
+            params.put("query", query);
+        }
+        if (typeGroups != null) where.append(" AND ").append(typePredicate(typeGroups, params));
+        return where.toString();
+    }
+
+    /**
+     * Predicado OR de AND sobre types_csv, p. ej. [[fire, flying], [water]] ->
+     * "((FIND_IN_SET(:t0, types_csv) > 0 AND FIND_IN_SET(:t1, types_csv) > 0) OR (FIND_IN_SET(:t2, types_csv) > 0))".
+     * Sin grupos no coincide ninguna fila.
+     */
+    static String typePredicate(List<List<String>> typeGroups, Map<String, Object> params) {
+        if (typeGroups.isEmpty()) return "1 = 0";
+        StringJoiner any = new StringJoiner(" OR ", "(", ")");
+        int n = 0;
+        for (List<String> group : typeGroups) {
+            StringJoiner all = new StringJoiner(" AND ", "(", ")");
+            for (String type : group) {
+                String name = "t" + n++;
+                all.add("FIND_IN_SET(:" + name + ", types_csv) > 0");
+                params.put(name, type);
+            }
+            any.add(all.toString());
+        }
+        return any.toString();
+    }
+
+    private static Query bind(Query q, Map<String, Object> params) {
+        params.forEach(q::setParameter);
+        return q;
+    }
+}
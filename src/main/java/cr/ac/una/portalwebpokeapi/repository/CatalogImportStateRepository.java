@@ -0,0 +1,12 @@
+package cr.ac.una.portalwebpokeapi.repository;
+
+import cr.ac.una.portalwebpokeapi.model.CatalogImportState;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Repositorio JPA para la entidad {@link CatalogImportState}.
+ *
+ * Cada registro guarda el checkpoint de importación de un tipo de card (clave = kind).
+ */
+public interface CatalogImportStateRepository extends JpaRepository<CatalogImportState, String> {
+}
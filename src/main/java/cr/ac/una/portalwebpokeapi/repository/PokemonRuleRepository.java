@@ -3,6 +3,8 @@ package cr.ac.una.portalwebpokeapi.repository;
 import cr.ac.una.portalwebpokeapi.model.PokemonRule;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,4 +23,12 @@ public interface PokemonRuleRepository extends JpaRepository<PokemonRule, Long>
      * @return un {@link Optional} con la regla si existe.
      */
     Optional<PokemonRule> findByPokemonId(Long pokemonId);
+
+    /**
+     * Reglas de varios recursos en una sola consulta (WHERE pokemon_id IN ...).
+     *
+     * @param pokemonIds claves compuestas (ver DynamicRuleService).
+     * @return reglas existentes; las claves sin regla se omiten.
+     */
+    List<PokemonRule> findByPokemonIdIn(Collection<Long> pokemonIds);
 }
@@ -0,0 +1,459 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.model.CountryMasks;
+import cr.ac.una.portalwebpokeapi.model.Product;
+import cr.ac.una.portalwebpokeapi.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice de lo que se puede comprar desde cada país: por país y tipo
+ * (POKEMON, ITEM, GAME y PRODUCT para los productos internos), los ids
+ * ordenados y los nombres en orden alfabético.
+ *
+ * Un artículo solo se compra desde su país de origen (si sus listas de
+ * disponibles/prohibidos no lo excluyen, ver {@link CountryEligibility}), así
+ * que cada artículo está a lo sumo en un país. Los recursos del catálogo que
+ * aún no tienen regla usan el origen que les asignaría
+ * {@link DynamicRuleService#ensureRule}, sin crearla.
+ *
+ * - El índice (universo del catálogo + todas las reglas + todos los
+ *   productos) se construye en segundo plano al iniciar; luego se reconstruye
+ *   igual al vencer 'app.catalog.buyable-index.refresh-seconds' (recoge
+ *   recursos nuevos del catálogo). Ninguna consulta espera una construcción:
+ *   hasta que el primero esté listo {@link #isReady} es false y los listados
+ *   se sirven sin filtrar por país; si falla, la próxima consulta la reintenta.
+ * - Los cambios de reglas y productos se aplican en forma incremental
+ *   ({@link #ruleChanged}, {@link #productChanged}): se mueve solo ese artículo.
+ *   Los que llegan durante una reconstrucción se vuelven a aplicar sobre el
+ *   índice nuevo, que pudo leer el estado anterior.
+ */
+@Service
+public class BuyableIndex {
+
+    /** Tipo de los productos internos dentro del índice. */
+    public static final String PRODUCT = "PRODUCT";
+
+    /** Comprables de un país y tipo: ids ascendentes y nombres en orden alfabético. */
+    private record Shelf(int[] ids, String[] names) {
+        static final Shelf EMPTY = new Shelf(new int[0], new String[0]);
+    }
+
+    /** Artículo del índice: tipo e id (externo, o id de producto). */
+    private record Ref(String kind, int id) {}
+
+    /** País desde el que se compra un artículo (null si ninguno) y su nombre (null = el conocido). */
+    private record Placement(String country, String name) {}
+
+    /**
+     * Índice construido.
+     *
+     * @param shelves país -> tipo -> comprables.
+     * @param names   tipo -> id -> nombre.
+     * @param country país desde el que se compra cada artículo (ausente si ninguno).
+     */
+    private record Snapshot(Map<String, Map<String, Shelf>> shelves, Map<String, Map<Integer, String>> names,
+                            Map<Ref, String> country, Instant builtAt, long buildMillis, long builtNanos) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of(), Instant.EPOCH, 0, 0);
+    }
+
+    private static final String ALL_RULES =
+            "SELECT pokemon_id, origin_country, available_countries_csv, banned_countries_csv FROM pokemon_rules";
+
+    private final PokeApiService poke;
+    private final CatalogMirrorService mirror;
+    private final DynamicRuleService dynRules;
+    private final CountryEligibility eligibility;
+    private final ProductRepository products;
+    private final JdbcTemplate jdbc;
+    private final int maxEntries;
+    private final long refreshNanos;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().factory());
+
+    private volatile Snapshot snapshot;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final Set<Ref> changedDuringBuild = ConcurrentHashMap.newKeySet();
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong incrementalUpdates = new AtomicLong();
+
+    /**
+     * @param maxEntries     'app.catalog.name-index.max-entries': tope de recursos pedidos por tipo.
+     * @param refreshSeconds 'app.catalog.buyable-index.refresh-seconds': antigüedad tras la que se reconstruye.
+     */
+    public BuyableIndex(PokeApiService poke,
+                        CatalogMirrorService mirror,
+                        DynamicRuleService dynRules,
+                        CountryEligibility eligibility,
+                        ProductRepository products,
+                        JdbcTemplate jdbc,
+                        @Value("${app.catalog.name-index.max-entries:100000}") int maxEntries,
+                        @Value("${app.catalog.buyable-index.refresh-seconds:21600}") long refreshSeconds) {
+        this.poke = poke;
+        this.mirror = mirror;
+        this.dynRules = dynRules;
+        this.eligibility = eligibility;
+        this.products = products;
+        this.jdbc = jdbc;
+        this.maxEntries = maxEntries;
+        this.refreshNanos = Duration.ofSeconds(refreshSeconds).toNanos();
+    }
+
+    /** Arranca la primera construcción en segundo plano. */
+    @PostConstruct
+    void start() {
+        refreshAsync();
+    }
+
+    /**
+     * Si ya hay un índice construido. Mientras sea false las consultas
+     * devuelven listas vacías: quien llama debe servir el listado sin filtrar.
+     */
+    public boolean isReady() {
+        return current() != Snapshot.EMPTY;
+    }
+
+    /**
+     * Nombres comprables desde un país, en orden de id (como los listados de PokeAPI).
+     *
+     * @param country código ISO-2 del país.
+     * @param kind    POKEMON | ITEM | GAME | PRODUCT.
+     */
+    public List<String> names(String country, String kind) {
+        Snapshot s = current();
+        Shelf shelf = shelf(s, country, kind);
+        Map<Integer, String> names = s.names().getOrDefault(kind, Map.of());
+        List<String> out = new ArrayList<>(shelf.ids().length);
+        for (int id : shelf.ids()) {
+            String name = names.get(id);
+            if (name != null) out.add(name);
+        }
+        return out;
+    }
+
+    /** Nombres comprables desde un país, en orden alfabético (feed unificado). */
+    public String[] sortedNames(String country, String kind) {
+        return shelf(current(), country, kind).names();
+    }
+
+    /** Ids comprables desde un país, ascendentes. */
+    public int[] ids(String country, String kind) {
+        return shelf(current(), country, kind).ids();
+    }
+
+    // ----------------------------------- cambios -----------------------------------
+
+    /**
+     * Una regla cambió (o se eliminó): se recalcula solo ese recurso.
+     *
+     * @param ruleKey clave compuesta de la regla.
+     */
+    public void ruleChanged(long ruleKey) {
+        rulesChanged(List.of(ruleKey));
+    }
+
+    /** Varias reglas cambiaron (p. ej. un lote importado): se aplican en una sola copia del índice. */
+    public void rulesChanged(Collection<Long> ruleKeys) {
+        List<Ref> refs = new ArrayList<>(ruleKeys.size());
+        for (long key : ruleKeys) {
+            String kind = DynamicRuleService.categoryOfKey(key);
+            if (kind != null) refs.add(new Ref(kind, (int) DynamicRuleService.idOfKey(key)));
+        }
+        changed(refs);
+    }
+
+    /** Un producto interno cambió (o se eliminó): se recalcula solo ese producto. */
+    public void productChanged(long productId) {
+        changed(List.of(new Ref(PRODUCT, (int) productId)));
+    }
+
+    private void changed(List<Ref> refs) {
+        if (refs.isEmpty()) return;
+        if (refreshing.get()) changedDuringBuild.addAll(refs);
+        if (snapshot == null) return; // se construirá con el estado vigente
+        move(resolveAll(refs));
+    }
+
+    private Map<Ref, Placement> resolveAll(Collection<Ref> refs) {
+        Map<Ref, Placement> out = new LinkedHashMap<>();
+        for (Ref ref : refs) out.put(ref, resolve(ref));
+        return out;
+    }
+
+    /** Política vigente de un artículo: regla (o la de por defecto) o producto. */
+    private Placement resolve(Ref ref) {
+        if (PRODUCT.equals(ref.kind())) {
+            Optional<Product> p = products.findById((long) ref.id());
+            return new Placement(p.map(this::buyableCountry).orElse(null), p.map(Product::getName).orElse(null));
+        }
+        CountryMasks m = dynRules.currentRule(DynamicRuleService.compositeKey((long) ref.id(), ref.kind()))
+                .map(r -> eligibility.compile(r.getOriginCountry(), r.getAvailableCountriesCsv(), r.getBannedCountriesCsv()))
+                .orElseGet(() -> defaultMasks(ref.id(), ref.kind()));
+        return new Placement(eligibility.buyableCountry(m), null);
+    }
+
+    /**
+     * Mueve artículos a los estantes de su nuevo país con una sola copia del
+     * índice (se copian solo los estantes afectados).
+     */
+    private synchronized void move(Map<Ref, Placement> changes) {
+        Snapshot s = snapshot;
+        Map<String, Map<String, Shelf>> shelves = new HashMap<>(s.shelves());
+        Map<String, Map<Integer, String>> names = new HashMap<>(s.names());
+        Map<Ref, String> country = new HashMap<>(s.country());
+        int moved = 0;
+        for (Map.Entry<Ref, Placement> e : changes.entrySet()) {
+            Ref ref = e.getKey();
+            String newCountry = e.getValue().country();
+            Map<Integer, String> kindNames = names.getOrDefault(ref.kind(), Map.of());
+            String oldName = kindNames.get(ref.id());
+            String name = e.getValue().name() != null ? e.getValue().name() : oldName;
+            if (name == null) continue; // no está en el universo del catálogo
+            String oldCountry = country.get(ref);
+            if (Objects.equals(oldCountry, newCountry) && name.equals(oldName)) continue;
+
+            if (oldCountry != null) {
+                Shelf old = shelves.getOrDefault(oldCountry, Map.of()).getOrDefault(ref.kind(), Shelf.EMPTY);
+                putShelf(shelves, oldCountry, ref.kind(), without(old, ref.id(), oldName, kindNames));
+            }
+            if (!name.equals(oldName)) {
+                Map<Integer, String> updated = new HashMap<>(kindNames);
+                updated.put(ref.id(), name);
+                names.put(ref.kind(), updated);
+            }
+            if (newCountry != null) {
+                Shelf cur = shelves.getOrDefault(newCountry, Map.of()).getOrDefault(ref.kind(), Shelf.EMPTY);
+                putShelf(shelves, newCountry, ref.kind(), with(cur, ref.id(), name));
+                country.put(ref, newCountry);
+            } else {
+                country.remove(ref);
+            }
+            moved++;
+        }
+        if (moved == 0) return;
+        snapshot = new Snapshot(shelves, names, country, s.builtAt(), s.buildMillis(), s.builtNanos());
+        incrementalUpdates.addAndGet(moved);
+    }
+
+    /** Tamaño por país y antigüedad del índice. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        Snapshot s = snapshot;
+        m.put("built", s != null);
+        if (s != null) {
+            Map<String, Map<String, Integer>> perCountry = new TreeMap<>();
+            s.shelves().forEach((cc, kinds) -> {
+                Map<String, Integer> counts = new TreeMap<>();
+                kinds.forEach((kind, shelf) -> counts.put(kind, shelf.ids().length));
+                perCountry.put(cc, counts);
+            });
+            m.put("buyable", s.country().size());
+            m.put("builtAt", s.builtAt().toString());
+            m.put("buildMs", s.buildMillis());
+            m.put("ageSeconds", Duration.ofNanos(System.nanoTime() - s.builtNanos()).toSeconds());
+            m.put("perCountry", perCountry);
+        }
+        m.put("builds", builds.get());
+        m.put("incrementalUpdates", incrementalUpdates.get());
+        m.put("refreshing", refreshing.get());
+        return m;
+    }
+
+    // ----------------------------------- construcción -----------------------------------
+
+    private static Shelf shelf(Snapshot s, String country, String kind) {
+        if (country == null) return Shelf.EMPTY;
+        return s.shelves().getOrDefault(country.trim().toUpperCase(), Map.of()).getOrDefault(kind, Shelf.EMPTY);
+    }
+
+    private static void putShelf(Map<String, Map<String, Shelf>> shelves, String country, String kind, Shelf shelf) {
+        Map<String, Shelf> kinds = new HashMap<>(shelves.getOrDefault(country, Map.of()));
+        kinds.put(kind, shelf);
+        shelves.put(country, Map.copyOf(kinds));
+    }
+
+    /** Agrega un artículo; un nombre repetido figura una sola vez en 'names' (como en {@link #build}). */
+    private static Shelf with(Shelf s, int id, String name) {
+        int i = Arrays.binarySearch(s.ids(), id);
+        int[] ids = s.ids();
+        if (i < 0) {
+            i = -i - 1;
+            ids = new int[s.ids().length + 1];
+            System.arraycopy(s.ids(), 0, ids, 0, i);
+            ids[i] = id;
+            System.arraycopy(s.ids(), i, ids, i + 1, s.ids().length - i);
+        }
+        int j = Arrays.binarySearch(s.names(), name);
+        if (j >= 0) return new Shelf(ids, s.names());
+        j = -j - 1;
+        String[] names = new String[s.names().length + 1];
+        System.arraycopy(s.names(), 0, names, 0, j);
+        names[j] = name;
+        System.arraycopy(s.names(), j, names, j + 1, s.names().length - j);
+        return new Shelf(ids, names);
+    }
+
+    /** Quita un artículo; su nombre se conserva si otro artículo del estante se llama igual. */
+    private static Shelf without(Shelf s, int id, String name, Map<Integer, String> kindNames) {
+        int i = Arrays.binarySearch(s.ids(), id);
+        int[] ids = s.ids();
+        if (i >= 0) {
+            ids = new int[s.ids().length - 1];
+            System.arraycopy(s.ids(), 0, ids, 0, i);
+            System.arraycopy(s.ids(), i + 1, ids, i, ids.length - i);
+        }
+        int j = name == null ? -1 : Arrays.binarySearch(s.names(), name);
+        if (j >= 0) {
+            for (int other : ids) {
+                if (name.equals(kindNames.get(other))) {
+                    j = -1;
+                    break;
+                }
+            }
+        }
+        String[] names = s.names();
+        if (j >= 0) {
+            names = new String[s.names().length - 1];
+            System.arraycopy(s.names(), 0, names, 0, j);
+            System.arraycopy(s.names(), j + 1, names, j, names.length - j);
+        }
+        return new Shelf(ids, names);
+    }
+
+    /** Índice vigente (o {@link Snapshot#EMPTY} si aún no hay); pide una construcción si falta o venció. */
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null || System.nanoTime() - s.builtNanos() > refreshNanos) refreshAsync();
+        return s == null ? Snapshot.EMPTY : s;
+    }
+
+    /** Construye el índice en el hilo del índice, salvo que ya haya una construcción en curso. */
+    private void refreshAsync() {
+        if (!refreshing.compareAndSet(false, true)) return;
+        executor.submit(() -> {
+            try {
+                install(build());
+            } catch (RuntimeException e) {
+                System.out.println(snapshot == null
+                        ? "[BUYABLE-INDEX] Construcción fallida, se reintenta en la próxima consulta: " + e.getMessage()
+                        : "[BUYABLE-INDEX] Reconstrucción fallida, se mantiene el índice anterior: " + e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    /** Publica un índice recién construido y le aplica los cambios ocurridos mientras se construía. */
+    private synchronized void install(Snapshot fresh) {
+        snapshot = fresh;
+        List<Ref> pending = new ArrayList<>(changedDuringBuild);
+        changedDuringBuild.removeAll(pending);
+        if (!pending.isEmpty()) move(resolveAll(pending));
+    }
+
+    /** Universo del catálogo + reglas + productos -> estantes por país. */
+    private Snapshot build() {
+        long t0 = System.nanoTime();
+        Map<Long, CountryMasks> rules = new HashMap<>();
+        jdbc.query(ALL_RULES, rs -> {
+            rules.put(rs.getLong("pokemon_id"), eligibility.compile(rs.getString("origin_country"),
+                    rs.getString("available_countries_csv"), rs.getString("banned_countries_csv")));
+        });
+
+        Map<String, Map<Integer, String>> names = new HashMap<>();
+        Map<Ref, String> country = new HashMap<>();
+        for (String kind : CatalogMirrorService.KINDS) {
+            Map<Integer, String> universe = universe(kind);
+            names.put(kind, Map.copyOf(universe));
+            for (int id : universe.keySet()) {
+                CountryMasks m = rules.get(DynamicRuleService.compositeKey((long) id, kind));
+                String cc = eligibility.buyableCountry(m != null ? m : defaultMasks(id, kind));
+                if (cc != null) country.put(new Ref(kind, id), cc);
+            }
+        }
+        Map<Integer, String> productNames = new HashMap<>();
+        for (Product p : products.findAll()) {
+            int id = p.getId().intValue();
+            productNames.put(id, p.getName());
+            String cc = buyableCountry(p);
+            if (cc != null) country.put(new Ref(PRODUCT, id), cc);
+        }
+        names.put(PRODUCT, Map.copyOf(productNames));
+
+        // Estantes: ids ascendentes y nombres ordenados
+        Map<String, Map<String, List<Integer>>> grouped = new HashMap<>();
+        country.forEach((ref, cc) -> grouped.computeIfAbsent(cc, k -> new HashMap<>())
+                .computeIfAbsent(ref.kind(), k -> new ArrayList<>()).add(ref.id()));
+        Map<String, Map<String, Shelf>> shelves = new HashMap<>();
+        grouped.forEach((cc, kinds) -> {
+            Map<String, Shelf> byKind = new HashMap<>();
+            kinds.forEach((kind, idList) -> {
+                int[] ids = idList.stream().mapToInt(Integer::intValue).sorted().toArray();
+                String[] sorted = new String[ids.length];
+                for (int i = 0; i < ids.length; i++) sorted[i] = names.get(kind).get(ids[i]);
+                Arrays.sort(sorted);
+                byKind.put(kind, new Shelf(ids, distinct(sorted)));
+            });
+            shelves.put(cc, Map.copyOf(byKind));
+        });
+
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+        builds.incrementAndGet();
+        System.out.println("[BUYABLE-INDEX] " + country.size() + " artículos comprables en " + shelves.size() + " países, " + ms + " ms");
+        return new Snapshot(shelves, names, country, Instant.now(), ms, System.nanoTime());
+    }
+
+    /** Quita los repetidos de un arreglo ordenado, igual que {@link #with}. */
+    private static String[] distinct(String[] sorted) {
+        int n = 0;
+        for (String name : sorted) {
+            if (n == 0 || !name.equals(sorted[n - 1])) sorted[n++] = name;
+        }
+        return n == sorted.length ? sorted : Arrays.copyOf(sorted, n);
+    }
+
+    /** id -> nombre de todos los recursos de un tipo (espejo o listado de PokeAPI). */
+    @SuppressWarnings("unchecked")
+    private Map<Integer, String> universe(String kind) {
+        if (mirror.isMirrorMode()) return mirror.idsAndNames(kind);
+        Map<String, Object> res = switch (kind) {
+            case "POKEMON" -> poke.listPokemon(maxEntries, 0);
+            case "ITEM" -> poke.listItems(maxEntries, 0);
+            default -> poke.listVersions(maxEntries, 0);
+        };
+        Map<Integer, String> out = new HashMap<>();
+        if (res == null) return out;
+        for (Map<String, Object> r : (List<Map<String, Object>>) res.getOrDefault("results", List.of())) {
+            int id = PokemonTypeIndex.idFromUrl(String.valueOf(r.get("url")));
+            if (id > 0) out.put(id, String.valueOf(r.get("name")));
+        }
+        return out;
+    }
+
+    /** Política de un recurso sin regla: la que le crearía ensureRule (disponible solo en origen). */
+    private CountryMasks defaultMasks(int id, String kind) {
+        String origin = dynRules.assignOrigin((long) id, kind);
+        return eligibility.compile(origin, origin, null);
+    }
+
+    private String buyableCountry(Product p) {
+        return eligibility.buyableCountry(eligibility.masks(p));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,126 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.ac.una.portalwebpokeapi.cache.WeightedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caché de cards ya serializadas (fragmentos JSON en UTF-8), clave = clave de
+ * la regla de país de la card (ver {@link DynamicRuleService#compositeKey}).
+ *
+ * El contenido de una card solo cambia si cambia su regla (país de origen) o
+ * el resumen del que se derivan precio e imagen. Por eso:
+ *  - cada fragmento recuerda el resumen con que se armó; si la caché de
+ *    resúmenes entrega uno nuevo (revalidado), el fragmento se rearma;
+ *  - al modificarse una regla ({@code RuleChangedEvent}) se descarta su fragmento.
+ *  - un contador de generación evita volver a guardar una card armada con la
+ *    regla anterior: quien arma toma {@link #generation()} antes de leer las
+ *    reglas y {@link #store} descarta el fragmento si hubo una invalidación
+ *    desde entonces (igual que la versión de {@link RuleCache}).
+ *
+ * Así una página ya vista se arma copiando bytes, sin mapas, sin Jackson y
+ * sin consultar la regla en la base.
+ */
+@Service
+public class CardJsonCache {
+
+    /** Fragmento y el objeto fuente (resumen) del que se derivó. */
+    private record Fragment(Object source, byte[] json) {}
+
+    private final ObjectMapper mapper;
+    private final WeightedCache<Long, Fragment> cache;
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong staleStores = new AtomicLong();
+
+    /**
+     * @param maxBytes   'app.catalog.card-cache.max-bytes': peso máximo de los fragmentos (8 MB por defecto).
+     * @param ttlSeconds 'app.catalog.card-cache.ttl-seconds': vigencia de un fragmento (1 h por defecto).
+     */
+    public CardJsonCache(ObjectMapper mapper,
+                         @Value("${app.catalog.card-cache.max-bytes:8388608}") long maxBytes,
+                         @Value("${app.catalog.card-cache.ttl-seconds:3600}") long ttlSeconds) {
+        this.mapper = mapper;
+        this.cache = new WeightedCache<>(maxBytes, Duration.ofSeconds(ttlSeconds), 4096);
+    }
+
+    /**
+     * Fragmento de la card, armándolo con 'card' si no está o si se derivó de otro resumen.
+     *
+     * @param ruleKey clave de la regla de la card.
+     * @param source  resumen del que se deriva la card (se compara por identidad).
+     * @param card    construye la card (solo en caso de fallo).
+     */
+    public byte[] fragment(long ruleKey, Object source, Supplier<Map<String, Object>> card) {
+        long gen = generation();
+        byte[] json = cached(ruleKey, source);
+        return json != null ? json : store(ruleKey, source, card.get(), gen);
+    }
+
+    /** Generación vigente; tomarla antes de leer las reglas con que se arman las cards y pasarla a {@link #store}. */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Fragmento cacheado si se armó con este mismo resumen; si no, null (para
+     * armar los faltantes de una página en lote con {@link #store}).
+     */
+    public byte[] cached(long ruleKey, Object source) {
+        Fragment f = cache.get(ruleKey);
+        return f != null && f.source() == source ? f.json() : null;
+    }
+
+    /**
+     * Serializa la card, la guarda como fragmento de 'source' y la devuelve.
+     * Si hubo una invalidación desde 'readGeneration' la card pudo armarse con
+     * la regla anterior: se devuelve igual, pero no queda en la caché.
+     */
+    public byte[] store(long ruleKey, Object source, Map<String, Object> card, long readGeneration) {
+        byte[] json = write(card);
+        cache.put(ruleKey, new Fragment(source, json), json.length + 64L);
+        builds.incrementAndGet();
+        // Se revisa después del put: invalidate incrementa la generación antes
+        // de descartar, así que o bien su descarte llega después del put o bien
+        // esta revisión ve la generación nueva
+        if (generation.get() != readGeneration) {
+            cache.invalidate(ruleKey);
+            staleStores.incrementAndGet();
+        }
+        return json;
+    }
+
+    /** Serializa una card sin cachearla (placeholders, cards del espejo). */
+    public byte[] write(Map<String, Object> card) {
+        try {
+            return mapper.writeValueAsBytes(card);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Descarta el fragmento de una regla modificada. */
+    public void invalidate(long ruleKey) {
+        generation.incrementAndGet();
+        cache.invalidate(ruleKey);
+        invalidations.incrementAndGet();
+    }
+
+    /** Métricas: las de la caché más fragmentos armados e invalidaciones por regla. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = cache.stats();
+        m.put("fragmentBuilds", builds.get());
+        m.put("ruleInvalidations", invalidations.get());
+        m.put("staleStoresSkipped", staleStores.get());
+        return m;
+    }
+}
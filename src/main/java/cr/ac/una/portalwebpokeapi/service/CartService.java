@@ -1,5 +1,8 @@
 package cr.ac.una.portalwebpokeapi.service;
 
+import cr.ac.una.portalwebpokeapi.dto.ItemSummary;
+import cr.ac.una.portalwebpokeapi.dto.PokemonSummary;
+import cr.ac.una.portalwebpokeapi.dto.VersionSummary;
 import cr.ac.una.portalwebpokeapi.model.Cart;
 import cr.ac.una.portalwebpokeapi.model.CartItem;
 import cr.ac.una.portalwebpokeapi.repository.CartItemRepository;
@@ -42,27 +45,27 @@ public class CartService {
 
         switch (cat) {
             case "POKEMON" -> {
-                Map<String,Object> detail = poke.getPokemon(nameOrId.toLowerCase());
-                if (detail == null || detail.get("id") == null)
+                PokemonSummary detail = poke.pokemonSummary(nameOrId.toLowerCase());
+                if (detail == null)
                     throw new IllegalArgumentException("Pokémon no encontrado");
-                pid = ((Number) detail.get("id")).longValue();
+                pid = detail.id();
                 // Validación por país con reglas
                 countryGuard.assertUserCanBuyDynamic(userId, pid, "POKEMON");
                 price = PokeCatalogService.priceFromPokemonDetail(detail);
             }
             case "ITEM" -> {
-                Map<String,Object> detail = poke.getItem(nameOrId.toLowerCase());
-                if (detail == null || detail.get("id") == null)
+                ItemSummary detail = poke.itemSummary(nameOrId.toLowerCase());
+                if (detail == null)
                     throw new IllegalArgumentException("Item no encontrado");
-                pid = ((Number) detail.get("id")).longValue();
+                pid = detail.id();
                 countryGuard.assertUserCanBuyDynamic(userId, pid, "ITEM");
                 price = PokeCatalogService.priceFromItemDetail(detail);
             }
             case "GAME" -> {
-                Map<String,Object> detail = poke.getVersion(nameOrId.toLowerCase());
-                if (detail == null || detail.get("id") == null)
+                VersionSummary detail = poke.versionSummary(nameOrId.toLowerCase());
+                if (detail == null)
                     throw new IllegalArgumentException("Juego no encontrado");
-                pid = ((Number) detail.get("id")).longValue();
+                pid = detail.id();
                 countryGuard.assertUserCanBuyDynamic(userId, pid, "GAME");
                 price = PokeCatalogService.priceFromVersion(detail);
             }
@@ -115,6 +118,15 @@ public class CartService {
         itemRepo.deleteByCartId(cart.getId());
     }
 
+    /**
+     * Veredicto de país por línea del carrito (ver {@link CountryGuard#checkCart}),
+     * para avisar antes del checkout qué líneas no se podrán comprar.
+     */
+    public List<CountryGuard.LineVerdict> eligibility(Long userId) {
+        Cart cart = getOrCreate(userId);
+        return countryGuard.checkCart(userId, itemRepo.findByCartId(cart.getId()));
+    }
+
     @Transactional(readOnly = true)
     public Map<String,Object> view(Long userId) {
         Cart cart = getOrCreate(userId);
@@ -130,23 +142,23 @@ public class CartService {
             try {
                 switch (cat) {
                     case "POKEMON" -> {
-                        Map<String,Object> d = poke.getPokemon(String.valueOf(ci.getProductId()));
+                        PokemonSummary d = poke.pokemonSummary(String.valueOf(ci.getProductId()));
                         if (d != null) {
-                            name = String.valueOf(d.get("name"));
-                            image = PokeCatalogService.spriteFromPokemonDetail(d);
+                            name = d.name();
+                            image = d.sprite();
                         }
                     }
                     case "ITEM" -> {
-                        Map<String,Object> d = poke.getItem(String.valueOf(ci.getProductId()));
+                        ItemSummary d = poke.itemSummary(String.valueOf(ci.getProductId()));
                         if (d != null) {
-                            name = String.valueOf(d.get("name"));
-                            image = PokeCatalogService.imageFromItemDetail(d);
+                            name = d.name();
+                            image = d.sprite();
                         }
                     }
                     case "GAME" -> {
-                        Map<String,Object> d = poke.getVersion(String.valueOf(ci.getProductId()));
+                        VersionSummary d = poke.versionSummary(String.valueOf(ci.getProductId()));
                         if (d != null) {
-                            name = String.valueOf(d.get("name"));
+                            name = d.name();
                             image = null;
                         }
                     }
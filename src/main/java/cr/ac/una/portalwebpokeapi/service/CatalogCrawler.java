@@ -0,0 +1,285 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.config.AimdLimiter;
+import cr.ac.una.portalwebpokeapi.config.CircuitBreaker;
+import cr.ac.una.portalwebpokeapi.dto.PokeSummary;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Recorredor masivo de PokeAPI para operaciones sobre el catálogo completo
+ * (importación del espejo, precarga de reglas, indexación).
+ *
+ * Pagina el endpoint de listado de cada tipo y consulta los detalles a través
+ * de {@link PokeApiService} (caché, disco y coalescencia incluidos). La
+ * concurrencia de detalles la regula un {@link AimdLimiter} compartido: sube
+ * de a poco mientras las respuestas son rápidas y se recorta a la mitad ante
+ * 429, 5xx, timeouts o latencia alta. Los detalles fallidos se reintentan con
+ * espera creciente (o la indicada por Retry-After).
+ *
+ * Checkpoint: cada página completa se entrega en orden al {@link PageSink}
+ * del llamador, que persiste su avance. Una página con detalles fallidos
+ * detiene el recorrido sin entregarse, y se reanuda pasando el último offset
+ * confirmado a {@link #crawl}. Al primer detalle fallido se cancelan los
+ * demás de la página (interrupción de sus hilos virtuales), para que no
+ * sigan ocupando cupo del límite ni reintentando.
+ */
+@Component
+public class CatalogCrawler {
+
+    /** Recibe cada página completa del recorrido (punto de checkpoint). */
+    @FunctionalInterface
+    public interface PageSink {
+        /**
+         * @param offset offset de la página dentro del listado.
+         * @param total  total de recursos reportado por PokeAPI.
+         * @param docs   resúmenes de la página, en orden (sin los 404).
+         * @param size   cantidad de nombres que tenía la página.
+         */
+        void accept(int offset, int total, List<PokeSummary> docs, int size);
+    }
+
+    /** Resultado o estado en curso de un recorrido. */
+    public record Progress(String kind, String state, int startOffset, int nextOffset, int total,
+                           long docs, long elapsedMs, double docsPerSec, String error) {}
+
+    private final PokeApiService poke;
+    private final AimdLimiter limiter;
+    private final int pageSize;
+    private final int maxAttempts;
+
+    private final Map<String, Progress> runs = new ConcurrentHashMap<>();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong serverErrors = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+
+    public CatalogCrawler(PokeApiService poke,
+                          @Value("${app.crawler.page-size:100}") int pageSize,
+                          @Value("${app.crawler.initial-concurrency:4}") int initial,
+                          @Value("${app.crawler.min-concurrency:1}") int min,
+                          @Value("${app.crawler.max-concurrency:32}") int max,
+                          @Value("${app.crawler.backoff:0.5}") double backoff,
+                          @Value("${app.crawler.target-latency-ms:1500}") long targetLatencyMs,
+                          @Value("${app.crawler.cooldown-ms:1000}") long cooldownMs,
+                          @Value("${app.crawler.max-attempts:4}") int maxAttempts) {
+        this.poke = poke;
+        this.pageSize = Math.max(1, pageSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.limiter = new AimdLimiter(initial, min, max, backoff, targetLatencyMs, cooldownMs);
+    }
+
+    /**
+     * Recorre un tipo de card desde un offset hasta el final del listado.
+     *
+     * @param kind       POKEMON | ITEM | GAME.
+     * @param fromOffset offset desde el cual reanudar (0 para empezar de cero).
+     * @param sink       receptor de cada página completa.
+     * @return avance final; si falló, 'error' tiene el motivo y 'nextOffset' el checkpoint.
+     */
+    public Progress crawl(String kind, int fromOffset, PageSink sink) {
+        Function<String, ? extends PokeSummary> fetch = detailFetcher(kind);
+        long start = System.nanoTime();
+        int offset = Math.max(0, fromOffset);
+        int total = 0;
+        long docs = 0;
+        runs.put(kind, progress(kind, "RUNNING", fromOffset, offset, total, docs, start, null));
+
+        try (ExecutorService exec = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                int at = offset;
+                Map<String, Object> page = withRetry(() -> list(kind, at));
+                if (page.get("count") instanceof Number n) total = n.intValue();
+                List<String> names = names(page);
+                if (names.isEmpty()) break;
+
+                List<PokeSummary> out = fetchPage(exec, fetch, names);
+
+                sink.accept(offset, total, out, names.size());
+                offset += names.size();
+                docs += out.size();
+                runs.put(kind, progress(kind, "RUNNING", fromOffset, offset, total, docs, start, null));
+                if (offset >= total) break;
+            }
+        } catch (ExecutionException e) {
+            return fail(kind, fromOffset, offset, total, docs, start, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return fail(kind, fromOffset, offset, total, docs, start, e);
+        } catch (RuntimeException e) {
+            return fail(kind, fromOffset, offset, total, docs, start, e);
+        }
+        Progress done = progress(kind, "DONE", fromOffset, offset, total, docs, start, null);
+        runs.put(kind, done);
+        return done;
+    }
+
+    /**
+     * Métricas: límite AIMD actual, señales de congestión y el último
+     * recorrido (o el en curso) de cada tipo con su throughput.
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("concurrency", limiter.stats());
+        m.put("throttled429", throttled.get());
+        m.put("serverErrors", serverErrors.get());
+        m.put("timeouts", timeouts.get());
+        m.put("retries", retries.get());
+        m.put("runs", new TreeMap<>(runs));
+        return m;
+    }
+
+    // ----------------------------------- internos -----------------------------------
+
+    /**
+     * Consulta los detalles de una página en paralelo y los devuelve en orden
+     * (sin los 404). Los resultados se recogen según terminan: el primer fallo
+     * cancela los pendientes y se propaga.
+     */
+    private List<PokeSummary> fetchPage(ExecutorService exec, Function<String, ? extends PokeSummary> fetch,
+                                        List<String> names) throws InterruptedException, ExecutionException {
+        CompletionService<PokeSummary> cs = new ExecutorCompletionService<>(exec);
+        Map<Future<PokeSummary>, Integer> index = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            index.put(cs.submit(() -> fetchLimited(fetch, name)), i);
+        }
+        PokeSummary[] results = new PokeSummary[names.size()];
+        try {
+            for (int done = 0; done < names.size(); done++) {
+                Future<PokeSummary> f = cs.take();
+                results[index.get(f)] = f.get();
+            }
+        } finally {
+            // Sin efecto si todo terminó; ante un fallo o interrupción corta a los hermanos
+            for (Future<PokeSummary> f : index.keySet()) f.cancel(true);
+        }
+        List<PokeSummary> out = new ArrayList<>(names.size());
+        for (PokeSummary s : results) if (s != null) out.add(s);
+        return out;
+    }
+
+    /** Consulta un detalle respetando el límite AIMD, con reintentos. 404 devuelve null. */
+    private PokeSummary fetchLimited(Function<String, ? extends PokeSummary> fetch, String name) throws InterruptedException {
+        RuntimeException last = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            limiter.acquire();
+            long t0 = System.nanoTime();
+            try {
+                PokeSummary s = fetch.apply(name);
+                limiter.release(System.nanoTime() - t0, AimdLimiter.Outcome.SUCCESS);
+                return s;
+            } catch (HttpClientErrorException.NotFound e) {
+                limiter.release(System.nanoTime() - t0, AimdLimiter.Outcome.IGNORE);
+                return null;
+            } catch (RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // Cancelada porque otro detalle de la página falló: no es congestión
+                    limiter.release(System.nanoTime() - t0, AimdLimiter.Outcome.IGNORE);
+                    throw new InterruptedException("Detalle cancelado: " + name);
+                }
+                limiter.release(System.nanoTime() - t0, classify(e));
+                last = e;
+            }
+            if (attempt < maxAttempts) {
+                retries.incrementAndGet();
+                Thread.sleep(backoffMillis(last, attempt));
+            }
+        }
+        throw last;
+    }
+
+    /** Reintenta una llamada de listado ante congestión (sin pasar por el límite de detalles). */
+    private <T> T withRetry(Callable<T> call) throws InterruptedException {
+        RuntimeException last = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                return call.call();
+            } catch (RuntimeException e) {
+                if (classify(e) != AimdLimiter.Outcome.CONGESTION) throw e;
+                last = e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            if (attempt < maxAttempts) {
+                retries.incrementAndGet();
+                Thread.sleep(backoffMillis(last, attempt));
+            }
+        }
+        throw last;
+    }
+
+    /** 429, 5xx, timeouts y circuito abierto son congestión; el resto no ajusta el límite. */
+    private AimdLimiter.Outcome classify(RuntimeException e) {
+        if (e instanceof HttpClientErrorException.TooManyRequests) {
+            throttled.incrementAndGet();
+            return AimdLimiter.Outcome.CONGESTION;
+        }
+        if (e instanceof HttpServerErrorException) {
+            serverErrors.incrementAndGet();
+            return AimdLimiter.Outcome.CONGESTION;
+        }
+        if (e instanceof ResourceAccessException) {
+            timeouts.incrementAndGet();
+            return AimdLimiter.Outcome.CONGESTION;
+        }
+        if (e instanceof CircuitBreaker.OpenException) return AimdLimiter.Outcome.CONGESTION;
+        return AimdLimiter.Outcome.IGNORE;
+    }
+
+    /** Espera antes de reintentar: Retry-After si viene en un 429; si no, 200 ms · 2^(intento-1). */
+    private static long backoffMillis(RuntimeException e, int attempt) {
+        if (e instanceof HttpClientErrorException.TooManyRequests tmr && tmr.getResponseHeaders() != null) {
+            String ra = tmr.getResponseHeaders().getFirst("Retry-After");
+            if (ra != null && ra.chars().allMatch(Character::isDigit) && !ra.isEmpty())
+                return Math.min(30_000L, Long.parseLong(ra) * 1000L);
+        }
+        return Math.min(10_000L, 200L << (attempt - 1));
+    }
+
+    private Map<String, Object> list(String kind, int offset) {
+        return switch (kind) {
+            case "POKEMON" -> poke.listPokemon(pageSize, offset);
+            case "ITEM" -> poke.listItems(pageSize, offset);
+            case "GAME" -> poke.listVersions(pageSize, offset);
+            default -> throw new IllegalArgumentException("Tipo desconocido: " + kind);
+        };
+    }
+
+    private Function<String, ? extends PokeSummary> detailFetcher(String kind) {
+        return switch (kind) {
+            case "POKEMON" -> poke::pokemonSummary;
+            case "ITEM" -> poke::itemSummary;
+            case "GAME" -> poke::versionSummary;
+            default -> throw new IllegalArgumentException("Tipo desconocido: " + kind);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> names(Map<String, Object> page) {
+        List<Map<String, Object>> results = (List<Map<String, Object>>) page.getOrDefault("results", List.of());
+        return results.stream().map(r -> String.valueOf(r.get("name"))).toList();
+    }
+
+    private Progress fail(String kind, int from, int offset, int total, long docs, long start, Throwable e) {
+        String msg = e == null ? "error" : String.valueOf(e.getMessage());
+        Progress p = progress(kind, "FAILED", from, offset, total, docs, start, msg);
+        runs.put(kind, p);
+        return p;
+    }
+
+    private static Progress progress(String kind, String state, int from, int offset, int total,
+                                     long docs, long start, String error) {
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        double perSec = elapsedMs == 0 ? 0d : docs * 1000d / elapsedMs;
+        return new Progress(kind, state, from, offset, total, docs, elapsedMs, perSec, error);
+    }
+}
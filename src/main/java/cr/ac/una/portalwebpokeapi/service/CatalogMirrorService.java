@@ -0,0 +1,270 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.dto.ItemSummary;
+import cr.ac.una.portalwebpokeapi.dto.PokeSummary;
+import cr.ac.una.portalwebpokeapi.dto.PokemonSummary;
+import cr.ac.una.portalwebpokeapi.dto.VersionSummary;
+import cr.ac.una.portalwebpokeapi.model.CatalogCard;
+import cr.ac.una.portalwebpokeapi.model.CatalogImportState;
+import cr.ac.una.portalwebpokeapi.model.PokemonRule;
+import cr.ac.una.portalwebpokeapi.repository.CatalogCardRepository;
+import cr.ac.una.portalwebpokeapi.repository.CatalogImportStateRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Espejo local del catálogo de PokeAPI.
+ *
+ * - Importación: recorre los listados de pokemon/item/version con
+ *   {@link CatalogCrawler} (concurrencia adaptativa) y guarda las cards normalizadas en
+ *   {@code catalog_cards}. Tras cada página se guarda un checkpoint en
+ *   {@code catalog_import_state}, así que una importación interrumpida se
+ *   reanuda donde quedó y una incremental solo recorre lo agregado desde la última.
+ * - Lectura: en modo "mirror" ('app.catalog.mode=mirror') el catálogo se sirve
+ *   desde estas tablas en lugar de PokeAPI.
+ */
+@Service
+public class CatalogMirrorService {
+
+    /** Tipos de card espejados. */
+    public static final List<String> KINDS = List.of("POKEMON", "ITEM", "GAME");
+
+    private final CatalogCrawler crawler;
+    private final DynamicRuleService dynRules;
+    private final CatalogCardRepository cards;
+    private final CatalogImportStateRepository states;
+    private final boolean mirrorMode;
+
+    private final ExecutorService runner = Executors.newSingleThreadExecutor(Thread.ofVirtual().factory());
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public CatalogMirrorService(CatalogCrawler crawler,
+                                DynamicRuleService dynRules,
+                                CatalogCardRepository cards,
+                                CatalogImportStateRepository states,
+                                @Value("${app.catalog.mode:live}") String mode) {
+        this.crawler = crawler;
+        this.dynRules = dynRules;
+        this.cards = cards;
+        this.states = states;
+        this.mirrorMode = "mirror".equalsIgnoreCase(mode == null ? "" : mode.trim());
+    }
+
+    /** true si el catálogo debe servirse desde la base de datos. */
+    public boolean isMirrorMode() {
+        return mirrorMode;
+    }
+
+    // ================================== Importación ==================================
+
+    /**
+     * Lanza la importación en segundo plano.
+     *
+     * @param full si true reinicia desde el offset 0; si false continúa desde el checkpoint.
+     * @return false si ya hay una importación en curso.
+     */
+    public boolean startImport(boolean full) {
+        if (!running.compareAndSet(false, true)) return false;
+        runner.submit(() -> {
+            try {
+                for (String kind : KINDS) importKind(kind, full);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Importa un tipo de card con {@link CatalogCrawler}, guardando el checkpoint
+     * tras cada página. Si una página no se completa (detalle fallido tras los
+     * reintentos) la ejecución se marca FAILED sin avanzar el offset, para
+     * reintentarla al reanudar.
+     */
+    void importKind(String kind, boolean full) {
+        CatalogImportState st = states.findById(kind).orElseGet(() -> {
+            CatalogImportState s = new CatalogImportState();
+            s.setKind(kind);
+            return s;
+        });
+        if (full) st.setNextOffset(0);
+        st.setStatus("RUNNING");
+        st.setStartedAt(Instant.now());
+        st.setFinishedAt(null);
+        st.setLastError(null);
+        states.save(st);
+
+        try {
+            CatalogCrawler.Progress p = crawler.crawl(kind, st.getNextOffset(), (offset, total, docs, size) -> {
+                upsert(kind, docs);
+                st.setTotal(total);
+                st.setNextOffset(offset + size);
+                states.save(st);
+            });
+            if (p.error() != null) throw new IllegalStateException(p.error());
+            st.setStatus("DONE");
+        } catch (RuntimeException e) {
+            st.setStatus("FAILED");
+            String msg = String.valueOf(e.getMessage());
+            st.setLastError(msg.length() > 500 ? msg.substring(0, 500) : msg);
+            System.out.println("[MIRROR] Falló importación " + kind + ": " + msg);
+        } finally {
+            st.setFinishedAt(Instant.now());
+            states.save(st);
+        }
+    }
+
+    /** Inserta o actualiza las cards de una página (un SELECT por lote para los existentes). */
+    private void upsert(String kind, List<PokeSummary> details) {
+        if (details.isEmpty()) return;
+        List<Long> ids = details.stream().map(PokeSummary::id).toList();
+        Map<Long, CatalogCard> existing = new HashMap<>();
+        for (CatalogCard c : cards.findByKindAndExternalIdIn(kind, ids)) existing.put(c.getExternalId(), c);
+        Map<Long, PokemonRule> rules = dynRules.ensureRules(kind, ids);
+
+        List<CatalogCard> batch = new ArrayList<>(details.size());
+        for (PokeSummary d : details) {
+            CatalogCard c = existing.getOrDefault(d.id(), new CatalogCard());
+            c.setKind(kind);
+            c.setExternalId(d.id());
+            c.setName(d.name());
+            switch (d) {
+                case PokemonSummary p -> {
+                    c.setImageUrl(p.sprite());
+                    c.setTypesCsv(String.join(",", p.types()));
+                    c.setPrice(PokeCatalogService.priceFromPokemonDetail(p));
+                }
+                case ItemSummary i -> {
+                    c.setImageUrl(i.sprite());
+                    c.setPrice(PokeCatalogService.priceFromItemDetail(i));
+                }
+                case VersionSummary v -> c.setPrice(PokeCatalogService.priceFromVersion(v));
+            }
+            c.setOriginCountry(origin(rules, d.id(), kind));
+            c.setUpdatedAt(Instant.now());
+            batch.add(c);
+        }
+        cards.saveAll(batch);
+    }
+
+    // ==================================== Lectura ====================================
+
+    /**
+     * Página de cards desde el espejo, con la misma forma que las del modo en
+     * vivo y la misma lectura de 'type' y 'query'.
+     * El país se toma de la regla vigente para reflejar cambios hechos por un admin.
+     */
+    public List<Map<String, Object>> list(String kind, int limit, int offset, String query, String type) {
+        String q = (query == null || query.isBlank()) ? null : query.toLowerCase();
+        List<CatalogCard> page = cards.page(kind, q, typeGroups(kind, type), limit, offset);
+        Map<Long, PokemonRule> rules = dynRules.ensureRules(kind, page.stream().map(CatalogCard::getExternalId).toList());
+        List<Map<String, Object>> out = new ArrayList<>(page.size());
+        for (CatalogCard c : page) out.add(toCard(c, rules));
+        return out;
+    }
+
+    /**
+     * Nombres espejados de un tipo posteriores a 'after', en orden alfabético.
+     *
+     * @param after último nombre ya entregado, o null.
+     */
+    public List<String> namesAfter(String kind, String after, int limit, String query, String type) {
+        String q = (query == null || query.isBlank()) ? null : query.toLowerCase();
+        return cards.namesAfter(kind, after, q, typeGroups(kind, type), limit);
+    }
+
+    /**
+     * Expresión de tipos ("fire,flying" = AND, "fire|water" = OR) en grupos
+     * para el SQL, leída igual que en modo en vivo ({@link PokemonTypeIndex#parse});
+     * null si no hay filtro o el tipo de card no es POKEMON.
+     */
+    private static List<List<String>> typeGroups(String kind, String type) {
+        if (!"POKEMON".equals(kind) || type == null || type.isBlank()) return null;
+        return PokemonTypeIndex.parse(type);
+    }
+
+    /** Todos los nombres espejados de un tipo. */
+    public List<String> allNames(String kind) {
+        return cards.findNamesByKind(kind);
+    }
+
+    /** Nombre por id externo de todas las cards espejadas de un tipo. */
+    public Map<Integer, String> idsAndNames(String kind) {
+        Map<Integer, String> out = new HashMap<>();
+        for (Object[] row : cards.findIdsAndNamesByKind(kind)) out.put(((Number) row[0]).intValue(), (String) row[1]);
+        return out;
+    }
+
+    /**
+     * Cards de un tipo por nombre (clave = nombre). Los nombres sin card espejada se omiten.
+     */
+    public Map<String, Map<String, Object>> cardsByName(String kind, Collection<String> names) {
+        Map<String, Map<String, Object>> out = new HashMap<>();
+        if (names.isEmpty()) return out;
+        List<CatalogCard> found = cards.findByKindAndNameIn(kind, names);
+        Map<Long, PokemonRule> rules = dynRules.ensureRules(kind, found.stream().map(CatalogCard::getExternalId).toList());
+        for (CatalogCard c : found) out.put(c.getName(), toCard(c, rules));
+        return out;
+    }
+
+    /**
+     * Card del catálogo a partir de la fila espejada (el país se resuelve al
+     * leer, con las reglas de la página obtenidas por lote).
+     */
+    private Map<String, Object> toCard(CatalogCard c, Map<Long, PokemonRule> rules) {
+        String kind = c.getKind();
+        Map<String, Object> card = new LinkedHashMap<>();
+        card.put("id", c.getExternalId());
+        card.put("name", c.getName());
+        card.put("image", c.getImageUrl());
+        if ("POKEMON".equals(kind)) {
+            String csv = c.getTypesCsv();
+            card.put("types", csv == null || csv.isBlank() ? List.of() : List.of(csv.split(",")));
+        }
+        card.put("price", c.getPrice());
+        card.put("kind", kind);
+        card.put("country", origin(rules, c.getExternalId(), kind));
+        return card;
+    }
+
+    /** País de origen según las reglas del lote (o la regla individual si faltara). */
+    private String origin(Map<Long, PokemonRule> rules, Long externalId, String kind) {
+        PokemonRule r = rules.get(externalId);
+        return (r != null ? r : dynRules.ensureRule(externalId, kind)).getOriginCountry();
+    }
+
+    /** Estado del espejo: modo, ejecución en curso y checkpoint/cantidad por tipo. */
+    public Map<String, Object> status() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("mode", mirrorMode ? "mirror" : "live");
+        m.put("running", running.get());
+        Map<String, Object> kinds = new LinkedHashMap<>();
+        for (String kind : KINDS) {
+            Map<String, Object> k = new LinkedHashMap<>();
+            states.findById(kind).ifPresent(st -> {
+                k.put("status", st.getStatus());
+                k.put("nextOffset", st.getNextOffset());
+                k.put("total", st.getTotal());
+                k.put("startedAt", st.getStartedAt());
+                k.put("finishedAt", st.getFinishedAt());
+                k.put("lastError", st.getLastError());
+            });
+            k.put("cards", cards.countByKind(kind));
+            kinds.put(kind, k);
+        }
+        m.put("kinds", kinds);
+        return m;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runner.shutdownNow();
+    }
+}
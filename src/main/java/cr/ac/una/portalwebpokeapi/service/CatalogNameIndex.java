@@ -0,0 +1,225 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Índice de nombres del catálogo ordenados alfabéticamente, por tipo de card.
+ *
+ * Es la fuente de cada rama del feed unificado: devuelve los nombres
+ * posteriores a una posición (el último nombre entregado), de modo que una
+ * página solo recorre lo que necesita.
+ *
+ * - Modo en vivo: el listado completo de cada recurso se pide una vez a
+ *   PokeAPI (solo nombres, sin detalles), se ordena y se reconstruye en segundo
+ *   plano al vencer 'app.catalog.name-index.ttl-seconds', sirviendo mientras
+ *   tanto el índice anterior (que se sigue usando si la reconstrucción falla).
+ *   Solo la primera construcción de cada tipo bloquea a quien consulta. Con filtro de tipo, la fuente POKEMON son los
+ *   miembros según {@link PokemonTypeIndex}.
+ * - Modo espejo: consulta por clave sobre el índice (kind, name) de la base.
+ *
+ * Junto a cada lista se construye un {@link NameSearchIndex}: su índice de
+ * trigramas respalda el parámetro 'query' de los listados en vivo (subcadena,
+ * como LIKE en modo espejo) y su índice de prefijos + difuso el
+ * autocompletado; en modo espejo se arma con los nombres de la base.
+ *
+ * Con 'buyableIn' la fuente son solo los comprables desde ese país
+ * ({@link BuyableIndex}) en ambos modos; query y tipo se filtran en memoria.
+ * Mientras ese índice no está listo se usa la fuente sin filtrar.
+ */
+@Service
+public class CatalogNameIndex {
+
+    /** Nombres ordenados de un tipo, su índice de búsqueda y el instante (nanoTime) en que se construyeron. */
+    private record Names(String[] sorted, NameSearchIndex search, long builtAt) {}
+
+    private final PokeApiService poke;
+    private final CatalogMirrorService mirror;
+    private final PokemonTypeIndex types;
+    private final BuyableIndex buyable;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Map<String, Names> byKind = new ConcurrentHashMap<>();
+    private final Map<String, AtomicBoolean> refreshing = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param maxEntries 'app.catalog.name-index.max-entries': tope de nombres pedidos por recurso.
+     * @param ttlSeconds 'app.catalog.name-index.ttl-seconds': vigencia del índice en modo en vivo.
+     */
+    public CatalogNameIndex(PokeApiService poke,
+                            CatalogMirrorService mirror,
+                            PokemonTypeIndex types,
+                            BuyableIndex buyable,
+                            @Value("${app.catalog.name-index.max-entries:100000}") int maxEntries,
+                            @Value("${app.catalog.name-index.ttl-seconds:3600}") long ttlSeconds) {
+        this.poke = poke;
+        this.mirror = mirror;
+        this.types = types;
+        this.buyable = buyable;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+    }
+
+    /**
+     * Nombres de un tipo estrictamente posteriores a 'after', en orden alfabético.
+     *
+     * @param kind  POKEMON | ITEM | GAME.
+     * @param after último nombre entregado, o null para empezar desde el inicio.
+     * @param limit cantidad máxima de nombres.
+     * @param query subcadena del nombre, o null.
+     * @param type  expresión de tipos (solo POKEMON, ver {@link PokemonTypeIndex#ids}), o null.
+     * @param buyableIn país del comprador para listar solo lo comprable desde él, o null.
+     */
+    public List<String> namesAfter(String kind, String after, int limit, String query, String type, String buyableIn) {
+        if (buyableIn != null && buyable.isReady()) return buyableNamesAfter(kind, after, limit, query, type, buyableIn);
+        if (mirror.isMirrorMode()) return mirror.namesAfter(kind, after, limit, query, type);
+
+        boolean typed = "POKEMON".equals(kind) && type != null && !type.isBlank();
+        String[] sorted = typed ? typedNames(type) : names(kind).sorted();
+        Set<String> matches = (query == null || query.isBlank()) ? null : new HashSet<>(search(kind, query));
+        return after(sorted, after, limit, matches);
+    }
+
+    /** Comprables desde un país posteriores a 'after'; query es subcadena del nombre en ambos modos. */
+    private List<String> buyableNamesAfter(String kind, String after, int limit, String query, String type, String country) {
+        String[] sorted = buyable.sortedNames(country, kind);
+        Set<String> matches = null;
+        if ("POKEMON".equals(kind) && type != null && !type.isBlank()) matches = new HashSet<>(types.names(type));
+        if (query != null && !query.isBlank()) {
+            Set<String> byQuery = new HashSet<>();
+            String q = query.toLowerCase();
+            for (String n : sorted) if (n.toLowerCase().contains(q)) byQuery.add(n);
+            if (matches == null) matches = byQuery;
+            else matches.retainAll(byQuery);
+        }
+        return after(sorted, after, limit, matches);
+    }
+
+    /** Hasta 'limit' nombres de 'sorted' posteriores a 'after' y contenidos en 'matches' (null = todos). */
+    private static List<String> after(String[] sorted, String after, int limit, Set<String> matches) {
+        int i = after == null ? 0 : Arrays.binarySearch(sorted, after);
+        if (after != null) i = i >= 0 ? i + 1 : -i - 1;
+        List<String> out = new ArrayList<>(Math.min(limit, sorted.length));
+        for (; i < sorted.length && out.size() < limit; i++) {
+            if (matches == null || matches.contains(sorted[i])) out.add(sorted[i]);
+        }
+        return out;
+    }
+
+    /** Nombres de un tipo que contienen 'query', en orden alfabético. */
+    public List<String> search(String kind, String query) {
+        return names(kind).search().containing(query);
+    }
+
+    /**
+     * Sugerencias de autocompletado sobre varios tipos, por relevancia.
+     *
+     * @param kinds tipos a consultar.
+     * @param query texto escrito.
+     * @param limit máximo de sugerencias.
+     * @return lista de {name, kind, distance}.
+     */
+    public List<Map<String, Object>> autocomplete(List<String> kinds, String query, int limit) {
+        record Hit(String kind, NameSearchIndex.Match match) {}
+        List<Hit> hits = new ArrayList<>();
+        for (String kind : kinds) {
+            for (NameSearchIndex.Match m : names(kind).search().search(query, limit)) hits.add(new Hit(kind, m));
+        }
+        hits.sort(Comparator.comparing(Hit::match, NameSearchIndex.RELEVANCE));
+        List<Map<String, Object>> out = new ArrayList<>(Math.min(limit, hits.size()));
+        for (Hit h : hits.subList(0, Math.min(limit, hits.size()))) {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("name", h.match().name());
+            m.put("kind", h.kind());
+            m.put("distance", h.match().distance());
+            out.add(m);
+        }
+        return out;
+    }
+
+    // ----------------------------------- internos -----------------------------------
+
+    /**
+     * Índice vigente de un tipo. Vencido, se devuelve igual y se pide una
+     * reconstrucción en segundo plano (una a la vez por tipo); solo la primera
+     * construcción corre en el hilo que consulta.
+     */
+    private Names names(String kind) {
+        Names n = byKind.get(kind);
+        if (n == null) return firstBuild(kind);
+        if (System.nanoTime() - n.builtAt() >= ttlNanos) refreshAsync(kind);
+        return n;
+    }
+
+    private Names firstBuild(String kind) {
+        synchronized (refreshing.computeIfAbsent(kind, k -> new AtomicBoolean())) {
+            Names n = byKind.get(kind);
+            if (n == null) {
+                n = build(kind);
+                byKind.put(kind, n);
+            }
+            return n;
+        }
+    }
+
+    private void refreshAsync(String kind) {
+        AtomicBoolean flag = refreshing.computeIfAbsent(kind, k -> new AtomicBoolean());
+        if (!flag.compareAndSet(false, true)) return;
+        executor.submit(() -> {
+            try {
+                byKind.put(kind, build(kind));
+            } catch (RuntimeException e) {
+                System.out.println("[NAME-INDEX] Reconstrucción fallida para " + kind + ", se usa el índice anterior: " + e.getMessage());
+            } finally {
+                flag.set(false);
+            }
+        });
+    }
+
+    private Names build(String kind) {
+        String[] sorted = load(kind);
+        return new Names(sorted, new NameSearchIndex(sorted), System.nanoTime());
+    }
+
+    /** Nombres de los Pokémon que cumplen la expresión de tipos, ordenados alfabéticamente. */
+    private String[] typedNames(String type) {
+        String[] sorted = types.names(type).toArray(String[]::new);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String[] load(String kind) {
+        if (mirror.isMirrorMode()) {
+            String[] sorted = mirror.allNames(kind).toArray(String[]::new);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+        Map<String, Object> res = switch (kind) {
+            case "POKEMON" -> poke.listPokemon(maxEntries, 0);
+            case "ITEM" -> poke.listItems(maxEntries, 0);
+            case "GAME" -> poke.listVersions(maxEntries, 0);
+            default -> throw new IllegalArgumentException("Tipo de catálogo inválido: " + kind);
+        };
+        List<Map<String, Object>> results = res == null ? List.of()
+                : (List<Map<String, Object>>) res.getOrDefault("results", List.of());
+        String[] sorted = new String[results.size()];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = String.valueOf(results.get(i).get("name"));
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,189 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.dto.CardList;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Precalentamiento del catálogo al arrancar.
+ *
+ * Recorre las primeras N páginas de cada tipo de card (POKEMON, ITEM, GAME) con
+ * paralelismo acotado. Armar cada card deja el resumen en la caché de PokeAPI y
+ * crea/carga su regla en {@link DynamicRuleService}.
+ *
+ * Readiness: {@link #run} publica {@link ReadinessState#REFUSING_TRAFFIC} y
+ * espera hasta que el porcentaje de páginas calentadas alcance el umbral
+ * configurado (o termine el calentamiento, o venza 'max-wait-ms'); entonces
+ * publica ACCEPTING_TRAFFIC, que Spring Boot repite al terminar los
+ * ApplicationRunner. El servidor web ya atiende pedidos mientras tanto: el
+ * estado es para quien lo consulte (sondas de readiness, balanceador, el
+ * campo 'readiness' de {@link #status}). Una página cuyas cards son todas
+ * placeholder (PokeAPI caído) cuenta como fallida, no como calentada.
+ * El resto de páginas sigue en segundo plano.
+ */
+@Component
+public class CatalogWarmer implements ApplicationRunner {
+
+    private final PokeCatalogService catalog;
+    private final ApplicationEventPublisher events;
+    private final ApplicationAvailability availability;
+    private final boolean enabled;
+    private final int pages;
+    private final int pageSize;
+    private final int parallelism;
+    private final double threshold;
+    private final long maxWaitMs;
+
+    private final CountDownLatch thresholdLatch = new CountDownLatch(1);
+    private final AtomicInteger pagesDone = new AtomicInteger();
+    private final AtomicInteger pagesFailed = new AtomicInteger();
+    private final AtomicLong cards = new AtomicLong();
+    private final AtomicLong placeholders = new AtomicLong();
+
+    private volatile String state = "PENDING";
+    private volatile Instant startedAt;
+    private volatile long startNanos;
+    private volatile long thresholdMs = -1;
+    private volatile long elapsedMs = -1;
+    private volatile boolean readyByTimeout;
+
+    public CatalogWarmer(PokeCatalogService catalog,
+                         ApplicationEventPublisher events,
+                         ApplicationAvailability availability,
+                         @Value("${app.catalog.warmup.enabled:true}") boolean enabled,
+                         @Value("${app.catalog.warmup.pages:3}") int pages,
+                         @Value("${app.catalog.warmup.page-size:20}") int pageSize,
+                         @Value("${app.catalog.warmup.parallelism:4}") int parallelism,
+                         @Value("${app.catalog.warmup.threshold:0.8}") double threshold,
+                         @Value("${app.catalog.warmup.max-wait-ms:120000}") long maxWaitMs) {
+        this.catalog = catalog;
+        this.events = events;
+        this.availability = availability;
+        this.enabled = enabled;
+        this.pages = Math.max(0, pages);
+        this.pageSize = Math.max(1, pageSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.threshold = Math.min(1.0, Math.max(0.0, threshold));
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    /**
+     * Lanza el calentamiento y bloquea el arranque (readiness) hasta el umbral.
+     */
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (!enabled || pages == 0) {
+            state = "DISABLED";
+            return;
+        }
+        AvailabilityChangeEvent.publish(events, this, ReadinessState.REFUSING_TRAFFIC);
+        start();
+        if (!thresholdLatch.await(maxWaitMs, TimeUnit.MILLISECONDS)) {
+            readyByTimeout = true;
+            System.out.println("[WARMUP] Umbral no alcanzado en " + maxWaitMs + " ms; se acepta tráfico igualmente");
+        }
+        AvailabilityChangeEvent.publish(events, this, ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    private void start() {
+        state = "RUNNING";
+        startedAt = Instant.now();
+        startNanos = System.nanoTime();
+
+        // Una tarea por (tipo, página)
+        List<Callable<CardList>> calls = new ArrayList<>(pages * 3);
+        for (int p = 0; p < pages; p++) {
+            int offset = p * pageSize;
+            calls.add(() -> catalog.listPokemonCards(pageSize, offset, null, null, null));
+            calls.add(() -> catalog.listItemCards(pageSize, offset, null, null));
+            calls.add(() -> catalog.listGameCards(pageSize, offset, null, null));
+        }
+
+        int total = calls.size();
+        Semaphore permits = new Semaphore(parallelism);
+        ExecutorService exec = Executors.newVirtualThreadPerTaskExecutor();
+        Thread.ofVirtual().name("catalog-warmer").start(() -> {
+            try (exec) {
+                for (Callable<CardList> call : calls) {
+                    permits.acquireUninterruptibly();
+                    exec.submit(() -> {
+                        try {
+                            CardList page = call.call();
+                            cards.addAndGet(page.size() - page.placeholders());
+                            placeholders.addAndGet(page.placeholders());
+                            if (page.size() > 0 && page.placeholders() == page.size()) {
+                                pagesFailed.incrementAndGet();
+                                System.out.println("[WARMUP] Página sin cards reales (solo placeholders)");
+                            } else {
+                                pagesDone.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            pagesFailed.incrementAndGet();
+                            System.out.println("[WARMUP] Página fallida: " + e.getMessage());
+                        } finally {
+                            permits.release();
+                            reachedThreshold(total);
+                        }
+                        return null;
+                    });
+                }
+            }
+            // Terminó sin alcanzar el umbral (páginas fallidas): no retener el arranque
+            thresholdLatch.countDown();
+            elapsedMs = elapsedSinceStart();
+            state = "DONE";
+            System.out.println("[WARMUP] " + pagesDone.get() + "/" + total + " páginas en " + elapsedMs + " ms");
+        });
+    }
+
+    /** Libera el arranque la primera vez que las páginas calentadas alcanzan el umbral. */
+    private synchronized void reachedThreshold(int total) {
+        if (thresholdMs < 0 && pagesDone.get() >= Math.ceil(threshold * total)) {
+            thresholdMs = elapsedSinceStart();
+            thresholdLatch.countDown();
+        }
+    }
+
+    private long elapsedSinceStart() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Progreso del calentamiento: páginas, cards reales y placeholders,
+     * umbral, tiempos y estado de readiness.
+     */
+    public Map<String, Object> status() {
+        int total = pages * 3;
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("state", state);
+        m.put("pagesTotal", total);
+        m.put("pagesDone", pagesDone.get());
+        m.put("pagesFailed", pagesFailed.get());
+        m.put("progress", total == 0 ? 1.0 : (double) pagesDone.get() / total);
+        m.put("cards", cards.get());
+        m.put("placeholders", placeholders.get());
+        m.put("threshold", threshold);
+        m.put("thresholdReached", thresholdMs >= 0);
+        m.put("thresholdMs", thresholdMs < 0 ? null : thresholdMs);
+        m.put("readyByTimeout", readyByTimeout);
+        m.put("readiness", availability.getReadinessState());
+        m.put("startedAt", startedAt);
+        m.put("elapsedMs", elapsedMs >= 0 ? elapsedMs : (startedAt == null ? null : elapsedSinceStart()));
+        return m;
+    }
+}
@@ -0,0 +1,79 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import java.util.*;
+
+/**
+ * Posición de lectura de un nodo sobre config_changes (ids AUTO_INCREMENT).
+ *
+ * Los ids se asignan al insertar pero se confirman en cualquier orden, así
+ * que al ver el id 11 el 10 puede seguir sin confirmar. Cada id salteado
+ * queda como hueco pendiente y se vuelve a consultar hasta que aparece o
+ * vence su plazo de gracia (un id puede no aparecer nunca: rollback o
+ * saltos del AUTO_INCREMENT).
+ *
+ * No es thread-safe: la usa solo el hilo de sondeo.
+ */
+final class ChangeCursor {
+
+    private final long graceNanos;
+    private final int maxGaps;
+    private long lastSeen;
+    private final Map<Long, Long> gaps = new TreeMap<>(); // id faltante -> nanoTime en que se detectó
+    private long gapsFilled;
+    private long gapsExpired;
+
+    /**
+     * @param start      último id ya reflejado en el estado del nodo.
+     * @param graceNanos tiempo que se espera un id salteado.
+     * @param maxGaps    tope de huecos pendientes (un salto mayor no se sigue).
+     */
+    ChangeCursor(long start, long graceNanos, int maxGaps) {
+        this.lastSeen = start;
+        this.graceNanos = graceNanos;
+        this.maxGaps = maxGaps;
+    }
+
+    /** Mayor id leído. */
+    long lastSeen() {
+        return lastSeen;
+    }
+
+    /** Huecos pendientes de volver a consultar. */
+    Set<Long> gaps() {
+        return Collections.unmodifiableSet(gaps.keySet());
+    }
+
+    /**
+     * Registra un id leído.
+     *
+     * @return true si es nuevo (hay que aplicarlo); false si ya se había leído.
+     */
+    boolean accept(long id, long nowNanos) {
+        if (id <= lastSeen) {
+            if (gaps.remove(id) == null) return false;
+            gapsFilled++;
+            return true;
+        }
+        for (long g = lastSeen + 1; g < id && gaps.size() < maxGaps; g++) gaps.put(g, nowNanos);
+        lastSeen = id;
+        return true;
+    }
+
+    /** Descarta los huecos que superaron el plazo de gracia. */
+    void expire(long nowNanos) {
+        for (Iterator<Long> it = gaps.values().iterator(); it.hasNext(); ) {
+            if (nowNanos - it.next() > graceNanos) {
+                it.remove();
+                gapsExpired++;
+            }
+        }
+    }
+
+    long gapsFilled() {
+        return gapsFilled;
+    }
+
+    long gapsExpired() {
+        return gapsExpired;
+    }
+}
@@ -0,0 +1,348 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.config.SessionManager;
+import cr.ac.una.portalwebpokeapi.events.ProductChangedEvent;
+import cr.ac.una.portalwebpokeapi.events.RuleChangedEvent;
+import cr.ac.una.portalwebpokeapi.events.RulesImportedEvent;
+import cr.ac.una.portalwebpokeapi.events.SessionConfigChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Propaga entre nodos los cambios del admin que cada nodo guarda en memoria
+ * (reglas de país, productos en el índice de comprables, timeout de sesión).
+ *
+ * - Cada cambio local se registra como una fila en config_changes (alcance,
+ *   clave y nodo de origen); su id AUTO_INCREMENT es la versión monótona.
+ *   Los eventos se publican dentro de la transacción del admin, así que la
+ *   fila se confirma o se revierte junto con el cambio.
+ * - Cada nodo sondea cada 'app.cluster.sync.poll-ms' las filas con id mayor
+ *   al último leído (consulta por rango de la clave primaria) y aplica las de
+ *   otros nodos: descarta las reglas de su caché y sus cards serializadas,
+ *   mueve los artículos en {@link BuyableIndex} y recarga el timeout de sesión.
+ *   Así un cambio se ve en todos los nodos en a lo sumo un intervalo de
+ *   sondeo más lo que tarde la consulta.
+ * - El atraso de cada cambio (reloj de la base: NOW(6) - changed_at) se
+ *   mide al leerlo y se expone en {@link #stats()} por nodo.
+ * - Las filas más viejas que 'app.cluster.sync.retention-hours' se borran.
+ * - Si la base falla (p. ej. falta la tabla config_changes) se avisa una sola
+ *   vez por racha de fallos y los sondeos siguientes esperan cada vez más,
+ *   hasta {@link #MAX_BACKOFF}; lo mismo con los avisos de registro.
+ *
+ * Está apagado por defecto ('app.cluster.sync.enabled=false'): con un solo
+ * nodo no hace falta, y requiere la tabla config_changes de script.sql.
+ *
+ * Para probar varios nodos contra una misma base local basta con levantar
+ * la aplicación en otro puerto (--server.port=8081); el id de nodo por
+ * defecto es host-pid ('app.cluster.node-id' lo fija).
+ */
+@Service
+public class ClusterSyncService {
+
+    /** Qué cambió. */
+    public enum Scope { RULE, PRODUCT, SESSION }
+
+    /** Fila de config_changes con su atraso al leerla. */
+    private record Change(long id, Scope scope, Long key, String node, long lagMicros) {}
+
+    private static final String INSERT =
+            "INSERT INTO config_changes (scope, item_key, node, changed_at) VALUES (?, ?, ?, NOW(6))";
+    private static final String HEAD = "SELECT COALESCE(MAX(id), 0) FROM config_changes";
+    private static final String SELECT_CHANGES =
+            "SELECT id, scope, item_key, node, TIMESTAMPDIFF(MICROSECOND, changed_at, NOW(6)) AS lag_us "
+            + "FROM config_changes ";
+    private static final String CLEANUP =
+            "DELETE FROM config_changes WHERE changed_at < NOW(6) - INTERVAL ? HOUR LIMIT 10000";
+
+    /** Tope de ids salteados que se siguen a la vez. */
+    private static final int MAX_GAPS = 1000;
+
+    /** Espera tras el primer sondeo fallido; se duplica en cada fallo seguido hasta {@link #MAX_BACKOFF}. */
+    private static final Duration FIRST_BACKOFF = Duration.ofSeconds(2);
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private static final RowMapper<Change> CHANGE_ROW = (rs, i) -> {
+        long key = rs.getLong("item_key");
+        return new Change(rs.getLong("id"), Scope.valueOf(rs.getString("scope")),
+                rs.wasNull() ? null : key, rs.getString("node"), Math.max(0, rs.getLong("lag_us")));
+    };
+
+    private final JdbcTemplate jdbc;
+    private final DynamicRuleService rules;
+    private final CardJsonCache cardJson;
+    private final BuyableIndex buyable;
+    private final SessionManager sessions;
+    private final SessionConfigService sessionCfg;
+    private final boolean enabled;
+    private final String nodeId;
+    private final int pollBatch;
+    private final long gapGraceNanos;
+    private final int retentionHours;
+
+    private volatile ChangeCursor cursor; // solo lo modifica el hilo de sondeo
+    private volatile int failures;        // sondeos fallidos seguidos (hilo de sondeo)
+    private volatile long retryAtNanos;   // no se sondea antes de esto mientras failures > 0
+    private volatile boolean recordFailing;
+
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong pollErrors = new AtomicLong();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong recordErrors = new AtomicLong();
+    private final AtomicLong ownSkipped = new AtomicLong();
+    private final Map<Scope, AtomicLong> applied = new EnumMap<>(Scope.class);
+    private final AtomicLong lagSamples = new AtomicLong();
+    private final AtomicLong lagTotalMicros = new AtomicLong();
+    private final AtomicLong lagMaxMicros = new AtomicLong();
+    private volatile long lastLagMicros = -1;
+    private volatile Instant lastPollAt;
+    private volatile String lastError;
+
+    /**
+     * @param enabled        'app.cluster.sync.enabled': registrar y sondear cambios.
+     * @param nodeId         'app.cluster.node-id': id de este nodo (vacío = host-pid).
+     * @param pollBatch      'app.cluster.sync.poll-batch': filas por consulta.
+     * @param gapGraceMs     'app.cluster.sync.gap-grace-ms': espera de un id salteado (ver {@link ChangeCursor}).
+     * @param retentionHours 'app.cluster.sync.retention-hours': antigüedad tras la que se borran filas.
+     */
+    public ClusterSyncService(JdbcTemplate jdbc,
+                              DynamicRuleService rules,
+                              CardJsonCache cardJson,
+                              BuyableIndex buyable,
+                              SessionManager sessions,
+                              SessionConfigService sessionCfg,
+                              @Value("${app.cluster.sync.enabled:false}") boolean enabled,
+                              @Value("${app.cluster.node-id:}") String nodeId,
+                              @Value("${app.cluster.sync.poll-batch:1000}") int pollBatch,
+                              @Value("${app.cluster.sync.gap-grace-ms:10000}") long gapGraceMs,
+                              @Value("${app.cluster.sync.retention-hours:24}") int retentionHours) {
+        this.jdbc = jdbc;
+        this.rules = rules;
+        this.cardJson = cardJson;
+        this.buyable = buyable;
+        this.sessions = sessions;
+        this.sessionCfg = sessionCfg;
+        this.enabled = enabled;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId.trim();
+        this.pollBatch = Math.max(1, pollBatch);
+        this.gapGraceNanos = Duration.ofMillis(gapGraceMs).toNanos();
+        this.retentionHours = Math.max(1, retentionHours);
+        for (Scope s : Scope.values()) applied.put(s, new AtomicLong());
+    }
+
+    /** Parte desde el último cambio existente: lo anterior ya está en la base que lee este nodo. */
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        try {
+            initCursor();
+        } catch (DataAccessException e) {
+            // Se reintenta en los sondeos (p. ej. la tabla aún no existe)
+            pollFailed(e, System.nanoTime());
+        }
+    }
+
+    private void initCursor() {
+        Long head = jdbc.queryForObject(HEAD, Long.class);
+        cursor = new ChangeCursor(head == null ? 0 : head, gapGraceNanos, MAX_GAPS);
+        System.out.println("[CLUSTER-SYNC] Nodo " + nodeId + " desde la versión " + cursor.lastSeen());
+    }
+
+    // ----------------------------------- registro -----------------------------------
+
+    @EventListener
+    public void onRuleChanged(RuleChangedEvent e) {
+        record(Scope.RULE, List.of(e.getPokemonId()));
+    }
+
+    @EventListener
+    public void onRulesImported(RulesImportedEvent e) {
+        record(Scope.RULE, e.getPokemonIds());
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent e) {
+        record(Scope.PRODUCT, List.of(e.getProductId()));
+    }
+
+    @EventListener
+    public void onSessionConfigChanged(SessionConfigChangedEvent e) {
+        record(Scope.SESSION, Collections.singletonList(null));
+    }
+
+    /**
+     * Registra cambios locales en la transacción de quien publicó el evento.
+     * Si el INSERT falla no se interrumpe la operación del admin (MySQL no
+     * revierte la transacción por una sentencia fallida): solo se cuenta y se
+     * registra, y los demás nodos lo verán al expirar sus cachés.
+     */
+    private void record(Scope scope, List<Long> keys) {
+        if (!enabled || keys.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        for (Long key : keys) rows.add(new Object[]{scope.name(), key, nodeId});
+        try {
+            jdbc.batchUpdate(INSERT, rows);
+            recorded.addAndGet(rows.size());
+            recordFailing = false;
+        } catch (DataAccessException e) {
+            recordErrors.incrementAndGet();
+            lastError = e.getMostSpecificCause().getMessage();
+            if (!recordFailing) {
+                recordFailing = true;
+                System.out.println("[CLUSTER-SYNC] No se pudo registrar " + scope + " (no se repite hasta que vuelva a funcionar): " + lastError);
+            }
+        }
+    }
+
+    // ----------------------------------- sondeo -----------------------------------
+
+    /** Lee los cambios nuevos (y los huecos pendientes) y aplica los de otros nodos. */
+    @Scheduled(fixedDelayString = "${app.cluster.sync.poll-ms:1000}")
+    public void poll() {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        if (failures > 0 && now - retryAtNanos < 0) return;
+        polls.incrementAndGet();
+        lastPollAt = Instant.now();
+        try {
+            if (cursor == null) {
+                initCursor();
+                pollRecovered();
+                return;
+            }
+            cursor.expire(now);
+            List<Change> rows = new ArrayList<>();
+            if (!cursor.gaps().isEmpty()) {
+                String in = String.join(",", Collections.nCopies(cursor.gaps().size(), "?"));
+                rows.addAll(jdbc.query(SELECT_CHANGES + "WHERE id IN (" + in + ")", CHANGE_ROW, cursor.gaps().toArray()));
+            }
+            List<Change> fresh;
+            do {
+                fresh = jdbc.query(SELECT_CHANGES + "WHERE id > ? ORDER BY id LIMIT ?", CHANGE_ROW,
+                        cursor.lastSeen(), pollBatch);
+                rows.addAll(fresh);
+                apply(rows, now);
+                rows.clear();
+            } while (fresh.size() == pollBatch);
+            pollRecovered();
+        } catch (DataAccessException e) {
+            pollFailed(e, now);
+        }
+    }
+
+    /** Cuenta un fallo; solo el primero de la racha se imprime y se posterga el próximo sondeo. */
+    private void pollFailed(DataAccessException e, long now) {
+        pollErrors.incrementAndGet();
+        lastError = e.getMostSpecificCause().getMessage();
+        int n = ++failures;
+        long backoff = Math.min(MAX_BACKOFF.toNanos(), FIRST_BACKOFF.toNanos() << Math.min(n - 1, 20));
+        retryAtNanos = now + backoff;
+        if (n == 1) {
+            System.out.println("[CLUSTER-SYNC] Sondeo fallido (se reintenta con espera creciente, hasta "
+                    + MAX_BACKOFF.toMinutes() + " min, sin repetir este aviso): " + lastError);
+        }
+    }
+
+    private void pollRecovered() {
+        if (failures == 0) return;
+        System.out.println("[CLUSTER-SYNC] Sondeo restablecido tras " + failures + " fallos");
+        failures = 0;
+    }
+
+    /** Aplica las filas nuevas de otros nodos, agrupadas por alcance. */
+    private void apply(List<Change> rows, long now) {
+        Set<Long> ruleKeys = new LinkedHashSet<>();
+        Set<Long> productIds = new LinkedHashSet<>();
+        boolean session = false;
+        for (Change c : rows) {
+            if (!cursor.accept(c.id(), now)) continue;
+            if (nodeId.equals(c.node())) {
+                ownSkipped.incrementAndGet();
+                continue;
+            }
+            switch (c.scope()) {
+                case RULE -> { if (c.key() != null) ruleKeys.add(c.key()); }
+                case PRODUCT -> { if (c.key() != null) productIds.add(c.key()); }
+                case SESSION -> session = true;
+            }
+            applied.get(c.scope()).incrementAndGet();
+            lagSamples.incrementAndGet();
+            lagTotalMicros.addAndGet(c.lagMicros());
+            lagMaxMicros.accumulateAndGet(c.lagMicros(), Math::max);
+            lastLagMicros = c.lagMicros();
+        }
+        if (!ruleKeys.isEmpty()) {
+            rules.evict(ruleKeys);
+            for (Long key : ruleKeys) cardJson.invalidate(key);
+            buyable.rulesChanged(ruleKeys);
+        }
+        for (Long id : productIds) buyable.productChanged(id);
+        if (session) sessions.setDefaultTimeout(sessionCfg.currentTimeoutSeconds());
+    }
+
+    /** Borra los cambios que ya vieron todos los nodos (más viejos que la retención). */
+    @Scheduled(fixedDelayString = "${app.cluster.sync.cleanup-ms:3600000}", initialDelayString = "${app.cluster.sync.cleanup-ms:3600000}")
+    public void cleanup() {
+        if (!enabled) return;
+        try {
+            int deleted = jdbc.update(CLEANUP, retentionHours);
+            if (deleted > 0) System.out.println("[CLUSTER-SYNC] " + deleted + " cambios antiguos borrados");
+        } catch (DataAccessException e) {
+            System.out.println("[CLUSTER-SYNC] Limpieza fallida: " + e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    // ----------------------------------- métricas -----------------------------------
+
+    /** Estado de este nodo: versión leída, cambios aplicados por alcance y atraso. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("node", nodeId);
+        m.put("enabled", enabled);
+        ChangeCursor c = cursor;
+        m.put("version", c == null ? null : c.lastSeen());
+        m.put("openGaps", c == null ? 0 : c.gaps().size());
+        m.put("gapsFilled", c == null ? 0 : c.gapsFilled());
+        m.put("gapsExpired", c == null ? 0 : c.gapsExpired());
+        m.put("polls", polls.get());
+        m.put("pollErrors", pollErrors.get());
+        m.put("consecutiveFailures", failures);
+        m.put("lastPollAt", lastPollAt == null ? null : lastPollAt.toString());
+        m.put("recorded", recorded.get());
+        m.put("recordErrors", recordErrors.get());
+        m.put("ownSkipped", ownSkipped.get());
+        Map<String, Long> perScope = new LinkedHashMap<>();
+        applied.forEach((scope, n) -> perScope.put(scope.name(), n.get()));
+        m.put("applied", perScope);
+        long n = lagSamples.get();
+        Map<String, Object> lag = new LinkedHashMap<>();
+        lag.put("samples", n);
+        lag.put("lastMs", lastLagMicros < 0 ? null : lastLagMicros / 1000.0);
+        lag.put("avgMs", n == 0 ? null : lagTotalMicros.get() / 1000.0 / n);
+        lag.put("maxMs", n == 0 ? null : lagMaxMicros.get() / 1000.0);
+        m.put("lag", lag);
+        m.put("lastError", lastError);
+        return m;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+}
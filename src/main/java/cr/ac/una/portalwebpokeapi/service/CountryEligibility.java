@@ -0,0 +1,187 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.model.CountryMasks;
+import cr.ac.una.portalwebpokeapi.model.PokemonRule;
+import cr.ac.una.portalwebpokeapi.model.Product;
+import cr.ac.una.portalwebpokeapi.service.config.CountryConfigService;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Motor de elegibilidad por país sobre máscaras de bits.
+ *
+ * Cada país del universo permitido ({@link CountryConfigService#allowedList},
+ * en orden estable) ocupa un bit de un long; un código fuera del universo
+ * recibe el siguiente bit libre. Cada {@link Product}/{@link PokemonRule} se
+ * compila a máscaras de origen/disponibles/prohibidos y se recompila solo si
+ * cambian sus textos, así que evaluar una compra son unas pocas operaciones
+ * AND, sin parsear CSV ni lanzar excepciones. Las de un producto se guardan
+ * aquí por id (cada consulta lo carga como una entidad nueva); las de una
+ * regla, en la entidad, que es la misma instancia de la caché de reglas.
+ *
+ * Si se agotan los 64 bits, las máscaras se marcan como no exactas y se
+ * evalúan con {@link #checkCsv}, que conserva la semántica original.
+ */
+@Component
+public class CountryEligibility {
+
+    /** Resultado de una evaluación; {@link #OK} si se puede comprar. */
+    public enum Reason {
+        OK(null),
+        NO_USER_COUNTRY("Configura tu país en el perfil"),
+        NO_ORIGIN("Artículo sin país de origen"),
+        ORIGIN_MISMATCH("Solo puedes comprar productos de tu país (%s)"),
+        BANNED("Tu país está prohibido para este producto"),
+        NOT_AVAILABLE("Tu país no está en la lista de disponibilidad");
+
+        private final String message;
+
+        Reason(String message) {
+            this.message = message;
+        }
+
+        /** Mensaje para el usuario (el de las validaciones originales). */
+        public String message(String userCountry) {
+            return message == null ? null : String.format(message, userCountry == null ? "" : userCountry.trim().toUpperCase());
+        }
+    }
+
+    private final Map<String, Integer> bits = new ConcurrentHashMap<>();
+
+    /** Máscaras por id de producto; una por producto, se reemplaza si cambian sus textos. */
+    private final Map<Long, CountryMasks> productMasks = new ConcurrentHashMap<>();
+
+    public CountryEligibility(CountryConfigService countryCfg) {
+        for (String code : countryCfg.allowedList()) bits.putIfAbsent(code, bits.size());
+    }
+
+    // ----------------------------------- evaluación -----------------------------------
+
+    /** Elegibilidad de un producto interno para el país del usuario. */
+    public Reason check(String userCountry, Product p) {
+        return check(userCountry, masks(p));
+    }
+
+    /** Máscaras de un producto: las guardadas para su id si se compilaron con los mismos textos. */
+    public CountryMasks masks(Product p) {
+        CountryMasks m = p.getId() == null ? null : productMasks.get(p.getId());
+        if (m == null || !m.compiledFrom(p.getCountryOfOrigin(), p.getAvailableCountriesCsv(), p.getBannedCountriesCsv())) {
+            m = compile(p.getCountryOfOrigin(), p.getAvailableCountriesCsv(), p.getBannedCountriesCsv());
+            if (p.getId() != null) productMasks.put(p.getId(), m);
+        }
+        return m;
+    }
+
+    /** Elegibilidad de un recurso dinámico (según su regla) para el país del usuario. */
+    public Reason check(String userCountry, PokemonRule r) {
+        CountryMasks m = r.countryMasks();
+        if (m == null || !m.compiledFrom(r.getOriginCountry(), r.getAvailableCountriesCsv(), r.getBannedCountriesCsv())) {
+            m = compile(r.getOriginCountry(), r.getAvailableCountriesCsv(), r.getBannedCountriesCsv());
+            r.countryMasks(m);
+        }
+        return check(userCountry, m);
+    }
+
+    /** Evalúa máscaras ya compiladas. */
+    public Reason check(String userCountry, CountryMasks m) {
+        if (userCountry == null) return Reason.NO_USER_COUNTRY;
+        long user = bitOf(userCountry);
+        if (!m.exact() || user == 0)
+            return checkCsv(userCountry, m.originSource(), m.availableSource(), m.bannedSource());
+        if (m.origin() == 0) return Reason.NO_ORIGIN;
+        if ((m.origin() & user) == 0) return Reason.ORIGIN_MISMATCH;
+        if ((m.banned() & user) != 0) return Reason.BANNED;
+        if (m.available() != 0 && (m.available() & user) == 0) return Reason.NOT_AVAILABLE;
+        return Reason.OK;
+    }
+
+    /**
+     * Único país desde el que se puede comprar un artículo (el de origen, si
+     * sus listas no lo excluyen), o null si no se puede comprar desde ninguno.
+     */
+    public String buyableCountry(CountryMasks m) {
+        String origin = m.originSource();
+        if (origin == null || origin.isBlank()) return null;
+        String cc = origin.trim().toUpperCase();
+        return check(cc, m) == Reason.OK ? cc : null;
+    }
+
+    /**
+     * Evaluación sobre los textos (camino original): origen igual al país del
+     * usuario, país no prohibido y, si hay lista de disponibles, incluido en ella.
+     */
+    public static Reason checkCsv(String userCountry, String origin, String availableCsv, String bannedCsv) {
+        if (userCountry == null) return Reason.NO_USER_COUNTRY;
+        String uc = userCountry.trim().toUpperCase();
+        if (origin == null || origin.isBlank()) return Reason.NO_ORIGIN;
+        if (!origin.trim().equalsIgnoreCase(uc)) return Reason.ORIGIN_MISMATCH;
+        if (csvContains(bannedCsv, uc)) return Reason.BANNED;
+        if (csvHasEntries(availableCsv) && !csvContains(availableCsv, uc)) return Reason.NOT_AVAILABLE;
+        return Reason.OK;
+    }
+
+    // ----------------------------------- compilación -----------------------------------
+
+    /** Compila la política de países de un producto o regla. */
+    public CountryMasks compile(String origin, String availableCsv, String bannedCsv) {
+        boolean[] exact = {true};
+        long o = (origin == null || origin.isBlank()) ? 0 : bit(origin.trim(), exact);
+        long a = mask(availableCsv, exact);
+        long b = mask(bannedCsv, exact);
+        return new CountryMasks(o, a, b, exact[0], origin, availableCsv, bannedCsv);
+    }
+
+    /** Bit de un país, o 0 si no tiene (no se asignan bits al evaluar). */
+    long bitOf(String code) {
+        Integer i = bits.get(code.trim().toUpperCase());
+        return i == null ? 0 : 1L << i;
+    }
+
+    private long mask(String csv, boolean[] exact) {
+        if (csv == null) return 0;
+        long m = 0;
+        int start = 0;
+        while (start <= csv.length()) {
+            int end = csv.indexOf(',', start);
+            if (end < 0) end = csv.length();
+            String code = csv.substring(start, end).trim();
+            if (!code.isEmpty()) m |= bit(code, exact);
+            start = end + 1;
+        }
+        return m;
+    }
+
+    /** Bit de un país, asignando el siguiente libre si es nuevo; 0 (y no exacto) si no quedan. */
+    private long bit(String code, boolean[] exact) {
+        String cc = code.toUpperCase();
+        Integer i = bits.get(cc);
+        if (i == null) {
+            synchronized (bits) {
+                i = bits.get(cc);
+                if (i == null && bits.size() < Long.SIZE) {
+                    i = bits.size();
+                    bits.put(cc, i);
+                }
+            }
+        }
+        if (i == null) {
+            exact[0] = false;
+            return 0;
+        }
+        return 1L << i;
+    }
+
+    private static boolean csvContains(String csv, String code) {
+        if (csv == null) return false;
+        for (String s : csv.split(",")) if (s.trim().equalsIgnoreCase(code)) return true;
+        return false;
+    }
+
+    private static boolean csvHasEntries(String csv) {
+        if (csv == null) return false;
+        for (String s : csv.split(",")) if (!s.isBlank()) return true;
+        return false;
+    }
+}
@@ -1,22 +1,29 @@
 package cr.ac.una.portalwebpokeapi.service;
 
+import cr.ac.una.portalwebpokeapi.model.CartItem;
 import cr.ac.una.portalwebpokeapi.model.Product;
 import cr.ac.una.portalwebpokeapi.model.User;
 import cr.ac.una.portalwebpokeapi.model.PokemonRule;
 import cr.ac.una.portalwebpokeapi.repository.ProductRepository;
 import cr.ac.una.portalwebpokeapi.repository.UserRepository;
+import cr.ac.una.portalwebpokeapi.service.CountryEligibility.Reason;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.util.Arrays;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.*;
 
 /**
  * Valida políticas por país:
  * - Usuario solo compra artículos cuyo país de origen coincide con su país.
  * - Respeta listas available/banned cuando existan.
  * - Para recursos dinámicos (POKEMON/ITEM/GAME) garantiza que exista regla (auto-create).
+ *
+ * La evaluación usa las máscaras de bits de {@link CountryEligibility}. Los
+ * métodos canBuy* devuelven el motivo sin lanzar excepciones; los assert*
+ * lanzan IllegalArgumentException (400) con el mensaje del motivo.
+ *
+ * Para un carrito completo usar {@link #checkCart}: un solo acceso al usuario
+ * y una sola consulta de reglas para todas las líneas.
  */
 @Component
 @RequiredArgsConstructor
@@ -25,43 +32,120 @@ public class CountryGuard {
     private final UserRepository userRepo;
     private final ProductRepository productRepo;
     private final DynamicRuleService dynRules; // usa auto-asignación si no hay regla
+    private final CountryEligibility eligibility;
 
-    private static Set<String> parseCsv(String csv){
-        if (csv==null || csv.isBlank()) return Set.of();
-        return Arrays.stream(csv.split(","))
-                .map(String::trim).filter(s->!s.isEmpty())
-                .map(String::toUpperCase)
-                .collect(Collectors.toSet());
+    public Reason canBuyInternal(Long userId, Long productId){
+        return canBuyInternal(userRepo.findById(userId).orElseThrow(), productId);
+    }
+
+    public Reason canBuyDynamic(Long userId, Long externalId, String category){
+        return canBuyDynamic(userRepo.findById(userId).orElseThrow(), externalId, category);
     }
 
     public void assertUserCanBuyInternal(Long userId, Long productId){
         User u = userRepo.findById(userId).orElseThrow();
-        if (u.getCountryCode()==null) throw new IllegalArgumentException("Configura tu país en el perfil");
-        Product p = productRepo.findById(productId).orElseThrow();
-        check(u.getCountryCode(), p.getCountryOfOrigin(), p.getAvailableCountriesCsv(), p.getBannedCountriesCsv());
+        require(canBuyInternal(u, productId), u);
     }
 
     public void assertUserCanBuyDynamic(Long userId, Long externalId, String category){
         User u = userRepo.findById(userId).orElseThrow();
-        if (u.getCountryCode()==null) throw new IllegalArgumentException("Configura tu país en el perfil");
+        require(canBuyDynamic(u, externalId, category), u);
+    }
+
+    /** Categorías de recursos dinámicos (con regla de país). */
+    private static final Set<String> DYNAMIC = Set.of("POKEMON", "ITEM", "GAME");
+
+    /**
+     * Veredicto de una línea del carrito.
+     *
+     * @param cartItemId id de la línea.
+     * @param productId  id externo del recurso.
+     * @param category   categoría de la línea.
+     * @param reason     OK o motivo del rechazo.
+     * @param message    mensaje para el usuario (null si OK).
+     */
+    public record LineVerdict(Long cartItemId, Long productId, String category, Reason reason, String message) {
+        public boolean ok() {
+            return reason == Reason.OK;
+        }
+    }
+
+    /**
+     * Carrito con líneas no comprables para el país del usuario; lleva todos
+     * los veredictos rechazados (400 con el detalle por línea).
+     */
+    public static class IneligibleCartException extends IllegalArgumentException {
+        private final List<LineVerdict> lines;
+
+        public IneligibleCartException(List<LineVerdict> lines) {
+            super(lines.size() == 1 ? lines.get(0).message()
+                    : lines.size() + " artículos del carrito no se pueden comprar desde tu país");
+            this.lines = List.copyOf(lines);
+        }
+
+        public List<LineVerdict> getLines() {
+            return lines;
+        }
+    }
+
+    /**
+     * Elegibilidad de todas las líneas de un carrito: carga el usuario una vez
+     * y resuelve las reglas de todas las líneas dinámicas con una sola consulta
+     * ({@link DynamicRuleService#ensureRules(Map)}). Las líneas de otras
+     * categorías no tienen regla de país y quedan OK.
+     *
+     * @return un veredicto por línea, en el orden del carrito.
+     */
+    public List<LineVerdict> checkCart(Long userId, List<CartItem> items){
+        User u = userRepo.findById(userId).orElseThrow();
+        String country = u.getCountryCode();
+
+        Map<String, List<Long>> idsByCategory = new HashMap<>();
+        for (CartItem ci : items) {
+            if (DYNAMIC.contains(ci.getProductCategory()))
+                idsByCategory.computeIfAbsent(ci.getProductCategory(), k -> new ArrayList<>()).add(ci.getProductId());
+        }
+        Map<Long, PokemonRule> rules = country == null ? Map.of() : dynRules.ensureRules(idsByCategory);
+
+        List<LineVerdict> out = new ArrayList<>(items.size());
+        for (CartItem ci : items) {
+            Reason r = Reason.OK;
+            if (DYNAMIC.contains(ci.getProductCategory()) && country == null) {
+                r = Reason.NO_USER_COUNTRY;
+            } else if (DYNAMIC.contains(ci.getProductCategory())) {
+                PokemonRule rule = rules.get(DynamicRuleService.compositeKey(ci.getProductId(), ci.getProductCategory()));
+                if (rule == null) rule = dynRules.ensureRule(ci.getProductId(), ci.getProductCategory());
+                r = eligibility.check(country, rule);
+            }
+            out.add(new LineVerdict(ci.getId(), ci.getProductId(), ci.getProductCategory(), r, r.message(country)));
+        }
+        return out;
+    }
+
+    /**
+     * Como {@link #checkCart}, pero lanza {@link IneligibleCartException} con
+     * todas las líneas rechazadas si hay alguna.
+     */
+    public void assertCartEligible(Long userId, List<CartItem> items){
+        List<LineVerdict> rejected = checkCart(userId, items).stream().filter(v -> !v.ok()).toList();
+        if (!rejected.isEmpty()) throw new IneligibleCartException(rejected);
+    }
+
+    private Reason canBuyInternal(User u, Long productId){
+        if (u.getCountryCode()==null) return Reason.NO_USER_COUNTRY;
+        Product p = productRepo.findById(productId).orElseThrow();
+        return eligibility.check(u.getCountryCode(), p);
+    }
+
+    private Reason canBuyDynamic(User u, Long externalId, String category){
+        if (u.getCountryCode()==null) return Reason.NO_USER_COUNTRY;
 
         // Garantiza que exista una regla; si no, se crea con país de origen auto-asignado
         PokemonRule r = dynRules.ensureRule(externalId, category);
-
-        check(u.getCountryCode(), r.getOriginCountry(), r.getAvailableCountriesCsv(), r.getBannedCountriesCsv());
+        return eligibility.check(u.getCountryCode(), r);
     }
 
-    private void check(String userCountry, String origin, String availableCsv, String bannedCsv){
-        String uc = userCountry.toUpperCase();
-        if (origin==null || origin.isBlank())
-            throw new IllegalArgumentException("Artículo sin país de origen");
-        if (!origin.equalsIgnoreCase(uc))
-            throw new IllegalArgumentException("Solo puedes comprar productos de tu país ("+uc+")");
-        Set<String> banned = parseCsv(bannedCsv);
-        if (banned.contains(uc))
-            throw new IllegalArgumentException("Tu país está prohibido para este producto");
-        Set<String> available = parseCsv(availableCsv);
-        if (!available.isEmpty() && !available.contains(uc))
-            throw new IllegalArgumentException("Tu país no está en la lista de disponibilidad");
+    private static void require(Reason reason, User u){
+        if (reason != Reason.OK) throw new IllegalArgumentException(reason.message(u.getCountryCode()));
     }
-}
\ No newline at end of file
+}
@@ -1,13 +1,22 @@
 package cr.ac.una.portalwebpokeapi.service;
 
+import cr.ac.una.portalwebpokeapi.events.RuleChangedEvent;
+import cr.ac.una.portalwebpokeapi.events.RulesImportedEvent;
 import cr.ac.una.portalwebpokeapi.model.PokemonRule;
 import cr.ac.una.portalwebpokeapi.repository.PokemonRuleRepository;
 import cr.ac.una.portalwebpokeapi.service.config.CountryConfigService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.function.Consumer;
 
 /**
  * Garantiza que cada recurso dinámico (POKEMON/ITEM/GAME) tenga una regla de país.
@@ -19,6 +28,18 @@ import java.util.List;
  *  - POKEMON -> 1_000_000_000_000L + id
  *  - ITEM    -> 2_000_000_000_000L + id
  *  - GAME    -> 3_000_000_000_000L + id
+ *
+ * Para páginas completas usar {@link #ensureRules}: un SELECT por lote en vez
+ * de un SELECT (y posible INSERT) por card.
+ *
+ * Las reglas leídas se guardan en un {@link RuleCache} en memoria. Los cambios
+ * del admin pasan por {@link #upsertRule}/{@link #deleteRule}, que escriben a
+ * través de la caché y publican {@link RuleChangedEvent}; las importaciones
+ * masivas por {@link #upsertRules}, que publica {@link RulesImportedEvent} por lote.
+ * La caché se actualiza recién al confirmarse la transacción (ver {@link RuleCache});
+ * los eventos se publican dentro de ella, para que {@link ClusterSyncService}
+ * registre el cambio en la misma transacción, y los oyentes locales
+ * (EventsListeners) corren al confirmarse.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,27 +47,260 @@ public class DynamicRuleService {
 
     private final PokemonRuleRepository repo;
     private final CountryConfigService countryCfg;
+    private final JdbcTemplate jdbc;
+    private final ApplicationEventPublisher events;
+    private final PlatformTransactionManager txManager;
+    private final RuleCache cache = new RuleCache();
 
-    @Transactional
+    /** Alta de reglas automáticas; si otra página ya creó la misma regla, la fila se ignora. */
+    private static final String INSERT_IGNORE =
+            "INSERT IGNORE INTO pokemon_rules (pokemon_id, origin_country, available_countries_csv, banned_countries_csv, notes) "
+            + "VALUES (?, ?, ?, NULL, ?)";
+
+    /** Relectura de las reglas recién creadas (o creadas antes por otra página). */
+    private static final String SELECT_BY_KEYS =
+            "SELECT id, pokemon_id, origin_country, available_countries_csv, banned_countries_csv, notes "
+            + "FROM pokemon_rules WHERE pokemon_id IN (%s)";
+
+    /** Alta o reemplazo de reglas completas (importación masiva). */
+    private static final String UPSERT =
+            "INSERT INTO pokemon_rules (pokemon_id, origin_country, available_countries_csv, banned_countries_csv, notes) "
+            + "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE origin_country = VALUES(origin_country), "
+            + "available_countries_csv = VALUES(available_countries_csv), "
+            + "banned_countries_csv = VALUES(banned_countries_csv), notes = VALUES(notes)";
+
+    private static final String SELECT_ALL =
+            "SELECT id, pokemon_id, origin_country, available_countries_csv, banned_countries_csv, notes "
+            + "FROM pokemon_rules ORDER BY pokemon_id";
+
+    private static final RowMapper<PokemonRule> RULE_ROW = (rs, i) -> {
+        PokemonRule r = new PokemonRule();
+        r.setId(rs.getLong("id"));
+        r.setPokemonId(rs.getLong("pokemon_id"));
+        r.setOriginCountry(rs.getString("origin_country"));
+        r.setAvailableCountriesCsv(rs.getString("available_countries_csv"));
+        r.setBannedCountriesCsv(rs.getString("banned_countries_csv"));
+        r.setNotes(rs.getString("notes"));
+        return r;
+    };
+
+    /**
+     * Regla de un recurso, creándola si no existe. Pasa por el mismo camino
+     * que {@link #ensureRules} (INSERT IGNORE y relectura), así que dos
+     * pedidos concurrentes del mismo recurso no chocan con la clave única.
+     */
     public PokemonRule ensureRule(Long externalId, String category) {
         long key = compositeKey(externalId, category);
-        return repo.findByPokemonId(key).orElseGet(() -> {
-            String origin = assignOrigin(externalId, category);
-            PokemonRule r = new PokemonRule();
-            r.setPokemonId(key); // clave compuesta codificada
-            r.setOriginCountry(origin);
-            r.setAvailableCountriesCsv(origin); // por defecto disponible solo en origen
-            r.setBannedCountriesCsv(null);
-            r.setNotes("auto:" + category);
-            return repo.save(r);
+        return ensureByKey(Map.of(key, new Ref(externalId, category))).get(key);
+    }
+
+    /**
+     * Versión por lote de {@link #ensureRule}: resuelve las reglas de una
+     * página con un único SELECT ... IN y crea las faltantes en un solo batch
+     * JDBC con INSERT IGNORE, de modo que dos páginas concurrentes que crean la
+     * misma regla no fallan por la clave única pokemon_id (la segunda fila se
+     * ignora y se relee la existente).
+     *
+     * @param category    POKEMON | ITEM | GAME.
+     * @param externalIds ids externos (PokeAPI) de la página.
+     * @return regla por id externo.
+     */
+    public Map<Long, PokemonRule> ensureRules(String category, Collection<Long> externalIds) {
+        Map<Long, Ref> refs = new HashMap<>();
+        for (Long id : externalIds) refs.put(compositeKey(id, category), new Ref(id, category));
+        Map<Long, PokemonRule> out = new HashMap<>();
+        ensureByKey(refs).forEach((key, rule) -> out.put(refs.get(key).externalId(), rule));
+        return out;
+    }
+
+    /**
+     * Como {@link #ensureRules(String, Collection)} para varias categorías a
+     * la vez (p. ej. las líneas de un carrito), con un único SELECT ... IN.
+     *
+     * @param idsByCategory ids externos por categoría.
+     * @return regla por clave compuesta ({@link #compositeKey}).
+     */
+    public Map<Long, PokemonRule> ensureRules(Map<String, ? extends Collection<Long>> idsByCategory) {
+        Map<Long, Ref> refs = new HashMap<>();
+        idsByCategory.forEach((category, ids) -> {
+            for (Long id : ids) refs.put(compositeKey(id, category), new Ref(id, category));
+        });
+        return ensureByKey(refs);
+    }
+
+    /** Recurso dinámico: id externo y categoría. */
+    private record Ref(Long externalId, String category) {}
+
+    /**
+     * Caché, luego un SELECT ... IN de lo que falte y un INSERT IGNORE por lote
+     * de lo que no exista.
+     *
+     * El alta corre en la transacción de quien llama si hay una (p. ej. el
+     * checkout) y si no en una propia: no se pide una segunda conexión del
+     * pool mientras la primera queda suspendida. Si quien llama se revierte,
+     * las reglas automáticas se deshacen con él; la caché solo las guarda al
+     * confirmarse (ver {@link RuleCache}) y el próximo pedido las vuelve a crear.
+     * No llamar desde una transacción de solo lectura (el INSERT fallaría).
+     *
+     * La relectura sin bloqueo ve las filas propias, pero con REPEATABLE READ
+     * puede no ver las que otra página confirmó después del snapshot de esta
+     * transacción (su INSERT se ignoró). Solo esas se releen con FOR SHARE,
+     * que no agrega locks: el INSERT IGNORE ya dejó un lock compartido sobre
+     * cada fila duplicada hasta el fin de la transacción.
+     */
+    private Map<Long, PokemonRule> ensureByKey(Map<Long, Ref> refs) {
+        Map<Long, PokemonRule> out = new HashMap<>();
+        List<Long> uncached = new ArrayList<>();
+        for (Long key : refs.keySet()) {
+            PokemonRule r = cache.get(key);
+            if (r != null) out.put(key, r);
+            else uncached.add(key);
+        }
+        if (uncached.isEmpty()) return out;
+
+        long version = cache.version();
+        for (PokemonRule r : repo.findByPokemonIdIn(uncached)) {
+            out.put(r.getPokemonId(), r);
+            cache.fill(r.getPokemonId(), r, version);
+        }
+        if (out.size() == refs.size()) return out;
+
+        List<Long> missing = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Long, Ref> e : refs.entrySet()) {
+            if (out.containsKey(e.getKey())) continue;
+            Ref ref = e.getValue();
+            String origin = assignOrigin(ref.externalId(), ref.category());
+            missing.add(e.getKey());
+            // Por defecto disponible solo en origen, igual que ensureRule
+            rows.add(new Object[]{e.getKey(), origin, origin, "auto:" + ref.category()});
+        }
+        String in = String.join(",", Collections.nCopies(missing.size(), "?"));
+        TransactionTemplate tx = new TransactionTemplate(txManager); // REQUIRED: se une a la de quien llama
+        List<PokemonRule> created = tx.execute(status -> {
+            jdbc.batchUpdate(INSERT_IGNORE, rows);
+            List<PokemonRule> found = new ArrayList<>(jdbc.query(SELECT_BY_KEYS.formatted(in), RULE_ROW, missing.toArray()));
+            if (found.size() < missing.size()) {
+                Set<Long> seen = new HashSet<>();
+                for (PokemonRule r : found) seen.add(r.getPokemonId());
+                List<Long> unseen = missing.stream().filter(k -> !seen.contains(k)).toList();
+                String unseenIn = String.join(",", Collections.nCopies(unseen.size(), "?"));
+                found.addAll(jdbc.query(SELECT_BY_KEYS.formatted(unseenIn) + " FOR SHARE", RULE_ROW, unseen.toArray()));
+            }
+            // Se registran en la transacción: entran a la caché al confirmarse el alta
+            for (PokemonRule r : found) cache.fill(r.getPokemonId(), r, version);
+            return found;
+        });
+        for (PokemonRule r : created) out.put(r.getPokemonId(), r);
+        return out;
+    }
+
+    // ============================ Cambios del admin ============================
+
+    /**
+     * Crea o actualiza una regla aplicando solo los campos no nulos de 'patch'
+     * y publica {@link RuleChangedEvent}; al confirmarse, la caché se
+     * actualiza con lo guardado.
+     *
+     * @param pokemonId clave de la regla (columna pokemon_id).
+     * @return la regla guardada.
+     */
+    @Transactional
+    public PokemonRule upsertRule(Long pokemonId, PokemonRule patch) {
+        PokemonRule r = repo.findByPokemonId(pokemonId).orElse(new PokemonRule());
+        r.setPokemonId(pokemonId);
+        if (patch.getOriginCountry() != null) r.setOriginCountry(patch.getOriginCountry());
+        if (patch.getAvailableCountriesCsv() != null) r.setAvailableCountriesCsv(patch.getAvailableCountriesCsv());
+        if (patch.getBannedCountriesCsv() != null) r.setBannedCountriesCsv(patch.getBannedCountriesCsv());
+        if (patch.getNotes() != null) r.setNotes(patch.getNotes());
+
+        PokemonRule saved = repo.save(r);
+        cache.write(pokemonId, saved);
+        events.publishEvent(new RuleChangedEvent(pokemonId));
+        return saved;
+    }
+
+    /**
+     * Elimina una regla si existe y publica {@link RuleChangedEvent}; al
+     * confirmarse, la descarta de la caché.
+     *
+     * @return true si existía.
+     */
+    @Transactional
+    public boolean deleteRule(Long pokemonId) {
+        Optional<PokemonRule> existing = repo.findByPokemonId(pokemonId);
+        existing.ifPresent(r -> {
+            repo.delete(r);
+            cache.remove(pokemonId);
+            events.publishEvent(new RuleChangedEvent(pokemonId));
+        });
+        return existing.isPresent();
+    }
+
+    /**
+     * Reemplaza (o crea) un lote de reglas completas con un único batch JDBC
+     * (INSERT ... ON DUPLICATE KEY UPDATE). Lo guardado se relee con un
+     * SELECT ... IN para escribirlo en la caché y se publica un
+     * {@link RulesImportedEvent} con las claves del lote, todo en una transacción.
+     *
+     * @param batch reglas ya validadas; pokemonId es la clave (columna pokemon_id).
+     */
+    @Transactional
+    public void upsertRules(List<PokemonRule> batch) {
+        if (batch.isEmpty()) return;
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        Set<Long> keys = new LinkedHashSet<>();
+        for (PokemonRule r : batch) {
+            rows.add(new Object[]{r.getPokemonId(), r.getOriginCountry(), r.getAvailableCountriesCsv(),
+                    r.getBannedCountriesCsv(), r.getNotes()});
+            keys.add(r.getPokemonId());
+        }
+        jdbc.batchUpdate(UPSERT, rows);
+        for (PokemonRule saved : repo.findByPokemonIdIn(keys)) cache.write(saved.getPokemonId(), saved);
+        events.publishEvent(new RulesImportedEvent(List.copyOf(keys)));
+    }
+
+    /**
+     * Recorre todas las reglas en orden de clave sin cargarlas en memoria
+     * (el driver de MySQL entrega las filas de a una con fetchSize = MIN_VALUE).
+     * La conexión queda ocupada mientras 'action' procesa las filas.
+     */
+    public void forEachRule(Consumer<PokemonRule> action) {
+        jdbc.query(con -> {
+            var ps = con.prepareStatement(SELECT_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            return ps;
+        }, rs -> {
+            action.accept(RULE_ROW.mapRow(rs, 0));
         });
     }
 
+    /**
+     * Descarta reglas de la caché sin publicar eventos (cambios hechos por
+     * otro nodo, ver ClusterSyncService); la próxima lectura va a la base.
+     */
+    public void evict(Collection<Long> keys) {
+        for (Long key : keys) cache.remove(key);
+    }
+
+    /**
+     * Regla vigente para una clave (caché o base), sin crearla si no existe.
+     */
+    public Optional<PokemonRule> currentRule(long key) {
+        PokemonRule cached = cache.get(key);
+        return cached != null ? Optional.of(cached) : repo.findByPokemonId(key);
+    }
+
+    /** Métricas de la caché de reglas: tamaño, aciertos/fallos y versión. */
+    public Map<String, Object> cacheStats() {
+        return cache.stats();
+    }
+
     /**
      * Asigna el país de origen de forma determinista a partir del hash de (category:id)
      * dentro del subset permitido. Esto divide el catálogo completo entre los países de forma estable.
      */
-    private String assignOrigin(Long id, String category) {
+    String assignOrigin(Long id, String category) {
         List<String> codes = countryCfg.allowedList(); // orden estable
         int idx = Math.floorMod((category + ":" + id).hashCode(), codes.size());
         return codes.get(idx);
@@ -55,7 +309,7 @@ public class DynamicRuleService {
     /**
      * Codifica (categoría, id) en un long para evitar colisiones entre categorías en la columna pokemon_id.
      */
-    private long compositeKey(Long id, String category) {
+    static long compositeKey(Long id, String category) {
         long base = switch (category == null ? "" : category.trim().toUpperCase()) {
             case "POKEMON" -> 1_000_000_000_000L;
             case "ITEM"    -> 2_000_000_000_000L;
@@ -64,4 +318,19 @@ public class DynamicRuleService {
         };
         return base + (id == null ? 0L : id);
     }
+
+    /** Categoría codificada en una clave compuesta, o null si no es POKEMON/ITEM/GAME. */
+    static String categoryOfKey(long key) {
+        return switch ((int) (key / 1_000_000_000_000L)) {
+            case 1 -> "POKEMON";
+            case 2 -> "ITEM";
+            case 3 -> "GAME";
+            default -> null;
+        };
+    }
+
+    /** Id externo codificado en una clave compuesta. */
+    static long idOfKey(long key) {
+        return key % 1_000_000_000_000L;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,164 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Ejecuta en paralelo las consultas de detalle de una página (fan-out) sobre
+ * hilos virtuales y reensambla los resultados en el orden original.
+ *
+ * - Cada upstream (p. ej. "pokeapi") tiene un semáforo que limita cuántas
+ *   consultas simultáneas se le hacen desde todo el proceso.
+ * - La página completa tiene un plazo (deadline): lo que no termine a tiempo,
+ *   o falle, se reemplaza por el placeholder indicado en lugar de tumbar la página.
+ * - {@link #forEachCompleted} entrega cada resultado apenas está listo, para
+ *   las respuestas en streaming.
+ */
+@Component
+public class FanOutExecutor {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Semaphore> limits = new ConcurrentHashMap<>();
+    private final int maxPerUpstream;
+    private final long deadlineMs;
+
+    private final AtomicLong tasks = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public FanOutExecutor(@Value("${app.catalog.fanout.max-per-upstream:16}") int maxPerUpstream,
+                          @Value("${app.catalog.fanout.page-deadline-ms:4000}") long deadlineMs) {
+        this.maxPerUpstream = Math.max(1, maxPerUpstream);
+        this.deadlineMs = deadlineMs;
+    }
+
+    /**
+     * Aplica {@code fetch} a cada entrada en paralelo y devuelve los resultados
+     * en el mismo orden que {@code inputs}.
+     *
+     * @param upstream    nombre del servicio externo (define el semáforo a usar).
+     * @param inputs      entradas de la página.
+     * @param fetch       consulta a ejecutar por entrada.
+     * @param placeholder valor para entradas que fallan o exceden el plazo.
+     */
+    public <T, R> List<R> mapOrdered(String upstream, List<T> inputs,
+                                     Function<T, R> fetch, Function<T, R> placeholder) {
+        if (inputs.isEmpty()) return List.of();
+        Semaphore permits = limits.computeIfAbsent(upstream, k -> new Semaphore(maxPerUpstream));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+        List<Future<R>> futures = new ArrayList<>(inputs.size());
+        for (T in : inputs) futures.add(executor.submit(task(upstream, permits, deadline, in, fetch)));
+
+        List<R> out = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            Future<R> f = futures.get(i);
+            try {
+                out.add(f.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                timeouts.incrementAndGet();
+                f.cancel(true);
+                out.add(placeholder.apply(inputs.get(i)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                f.cancel(true);
+                out.add(placeholder.apply(inputs.get(i)));
+            } catch (ExecutionException e) {
+                failures.incrementAndGet();
+                out.add(placeholder.apply(inputs.get(i)));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Como {@link #mapOrdered}, pero entrega cada resultado a {@code sink} en
+     * el orden en que terminan, desde el hilo llamador. Al vencer el plazo, las
+     * entradas pendientes se entregan como placeholder. Si {@code sink} lanza
+     * (p. ej. el cliente cerró la conexión) se cancelan las consultas pendientes.
+     *
+     * @param sink recibe (índice de la entrada, resultado).
+     */
+    public <T, R> void forEachCompleted(String upstream, List<T> inputs, Function<T, R> fetch,
+                                        Function<T, R> placeholder, BiConsumer<Integer, R> sink) {
+        if (inputs.isEmpty()) return;
+        Semaphore permits = limits.computeIfAbsent(upstream, k -> new Semaphore(maxPerUpstream));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+
+        CompletionService<R> cs = new ExecutorCompletionService<>(executor);
+        Map<Future<R>, Integer> index = new HashMap<>();
+        for (int i = 0; i < inputs.size(); i++) index.put(cs.submit(task(upstream, permits, deadline, inputs.get(i), fetch)), i);
+
+        try {
+            while (!index.isEmpty()) {
+                Future<R> f = cs.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (f == null) break;
+                int i = index.remove(f);
+                R result;
+                try {
+                    result = f.get();
+                } catch (ExecutionException e) {
+                    failures.incrementAndGet();
+                    result = placeholder.apply(inputs.get(i));
+                }
+                sink.accept(i, result);
+            }
+            // Plazo vencido: lo pendiente sale como placeholder, en orden
+            List<Integer> pending = new ArrayList<>(index.values());
+            pending.sort(null);
+            for (Map.Entry<Future<R>, Integer> e : index.entrySet()) e.getKey().cancel(true);
+            timeouts.addAndGet(pending.size());
+            index.clear();
+            for (int i : pending) sink.accept(i, placeholder.apply(inputs.get(i)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Future<R> f : index.keySet()) f.cancel(true);
+        }
+    }
+
+    /** Consulta de una entrada: espera cupo del upstream dentro del plazo de la página. */
+    private <T, R> Callable<R> task(String upstream, Semaphore permits, long deadline, T in, Function<T, R> fetch) {
+        tasks.incrementAndGet();
+        return () -> {
+            long wait = deadline - System.nanoTime();
+            if (!permits.tryAcquire(Math.max(0, wait), TimeUnit.NANOSECONDS))
+                throw new TimeoutException("Sin cupo para " + upstream);
+            try {
+                return fetch.apply(in);
+            } finally {
+                permits.release();
+            }
+        };
+    }
+
+    /** Métricas acumuladas del fan-out. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("maxPerUpstream", maxPerUpstream);
+        m.put("pageDeadlineMs", deadlineMs);
+        m.put("tasks", tasks.get());
+        m.put("timeouts", timeouts.get());
+        m.put("failures", failures.get());
+        Map<String, Integer> inFlight = new LinkedHashMap<>();
+        limits.forEach((k, s) -> inFlight.put(k, maxPerUpstream - s.availablePermits()));
+        m.put("inFlight", inFlight);
+        return m;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,114 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Cursor opaco del feed unificado: último nombre entregado por cada fuente
+ * (POKEMON, ITEM, GAME) y una huella de los filtros con que se generó.
+ *
+ * Se serializa como base64 url-safe de líneas "clave=valor". Un cursor
+ * ilegible o generado con otros filtros se rechaza con IllegalArgumentException (400).
+ * {@link #mergeNext} avanza esas posiciones con una mezcla k-way de las fuentes.
+ *
+ * @param after  último nombre entregado por tipo; un tipo ausente empieza desde el inicio.
+ * @param filter huella de query/type (y del país, en modo solo comprables).
+ */
+public record FeedCursor(Map<String, String> after, String filter) {
+
+    private static final String VERSION = "v1";
+
+    /** Nombres ordenados de una fuente, a partir de una posición. */
+    @FunctionalInterface
+    interface NameSource {
+        /**
+         * @param after último nombre entregado, o null para empezar desde el inicio.
+         * @param n     máximo de nombres a devolver.
+         */
+        List<String> namesAfter(String kind, String after, int n);
+    }
+
+    /** Card candidata de una fuente durante la mezcla. */
+    record Entry(String kind, String name) {}
+
+    /**
+     * Mezcla k-way: toma hasta n+1 nombres de cada fuente a partir de su
+     * posición, extrae los 'n' menores y actualiza la posición de cada fuente.
+     * El nombre extra por fuente es la anticipación que decide si hay más: una
+     * página que sale justo llena no genera un cursor hacia una página vacía.
+     *
+     * @param kinds fuentes; su orden desempata nombres iguales.
+     * @return true si quedan nombres después de los extraídos.
+     */
+    static boolean mergeNext(List<String> kinds, Map<String, String> after, int n, NameSource source, List<Entry> out) {
+        List<Iterator<String>> sources = new ArrayList<>(kinds.size());
+        PriorityQueue<Map.Entry<Entry, Integer>> heads = new PriorityQueue<>(
+                Comparator.comparing((Map.Entry<Entry, Integer> e) -> e.getKey().name())
+                          .thenComparing(Map.Entry::getValue));
+        for (int k = 0; k < kinds.size(); k++) {
+            String kind = kinds.get(k);
+            Iterator<String> it = source.namesAfter(kind, after.get(kind), n + 1).iterator();
+            sources.add(it);
+            if (it.hasNext()) heads.add(Map.entry(new Entry(kind, it.next()), k));
+        }
+        while (out.size() < n && !heads.isEmpty()) {
+            Map.Entry<Entry, Integer> head = heads.poll();
+            Entry e = head.getKey();
+            out.add(e);
+            after.put(e.kind(), e.name());
+            Iterator<String> it = sources.get(head.getValue());
+            if (it.hasNext()) heads.add(Map.entry(new Entry(e.kind(), it.next()), head.getValue()));
+        }
+        // Cada fuente aportó uno más de los que se pueden extraer: si no queda cabeza, no hay más
+        return !heads.isEmpty();
+    }
+
+    /**
+     * Cursor inicial para unos filtros dados.
+     *
+     * @param buyableIn país del modo solo comprables, o null.
+     */
+    public static FeedCursor start(String query, String type, String buyableIn) {
+        return new FeedCursor(Map.of(), filterOf(query, type, buyableIn));
+    }
+
+    /** Token opaco para el cliente. */
+    public String encode() {
+        StringBuilder sb = new StringBuilder(VERSION).append('\n').append("f=").append(filter);
+        after.forEach((kind, name) -> sb.append('\n').append(kind).append('=').append(name));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un token y verifica que corresponda a los mismos filtros.
+     */
+    public static FeedCursor decode(String token, String query, String type, String buyableIn) {
+        String text;
+        try {
+            text = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+        String[] lines = text.split("\n");
+        if (lines.length < 2 || !VERSION.equals(lines[0]) || !lines[1].startsWith("f="))
+            throw new IllegalArgumentException("Cursor inválido");
+        String filter = lines[1].substring(2);
+        if (!filter.equals(filterOf(query, type, buyableIn)))
+            throw new IllegalArgumentException("El cursor no corresponde a los filtros de la consulta");
+        Map<String, String> after = new LinkedHashMap<>();
+        for (int i = 2; i < lines.length; i++) {
+            int eq = lines[i].indexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Cursor inválido");
+            after.put(lines[i].substring(0, eq), lines[i].substring(eq + 1));
+        }
+        return new FeedCursor(after, filter);
+    }
+
+    private static String filterOf(String query, String type, String buyableIn) {
+        String q = (query == null || query.isBlank()) ? "" : query.toLowerCase();
+        String t = (type == null || type.isBlank()) ? "" : type.toLowerCase();
+        // Sin país la huella es la de antes: los cursores ya emitidos siguen sirviendo
+        if (buyableIn == null || buyableIn.isBlank()) return Integer.toHexString(Objects.hash(q, t));
+        return Integer.toHexString(Objects.hash(q, t, buyableIn.trim().toUpperCase()));
+    }
+}
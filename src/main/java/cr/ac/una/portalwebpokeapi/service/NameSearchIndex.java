@@ -0,0 +1,202 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import java.util.*;
+
+/**
+ * Índice de búsqueda en memoria sobre los nombres de un tipo de card.
+ *
+ * - Subcadena (filtro 'query' de los listados, igual que LIKE '%q%' en modo
+ *   espejo): índice de trigramas con la lista de nombres que contiene cada
+ *   uno; se recorre la lista más corta de la consulta y se verifica con
+ *   contains, de modo que "zard" encuentra "charizard".
+ * - Prefijo (autocompletado): arreglo ordenado de claves (el nombre completo y cada sufijo
+ *   que empieza después de un '-', p. ej. "charizard-mega-x", "mega-x", "x")
+ *   con búsqueda binaria; "mega" encuentra "charizard-mega-x".
+ * - Difuso (autocompletado): distancia de edición (Levenshtein) acotada entre la consulta y el
+ *   prefijo más parecido del nombre, con banda diagonal y corte temprano, de
+ *   modo que "charzard" encuentra "charizard".
+ *
+ * Es inmutable; {@link CatalogNameIndex} lo reconstruye junto con su lista de nombres.
+ */
+final class NameSearchIndex {
+
+    /**
+     * Coincidencia de búsqueda.
+     *
+     * @param name     nombre encontrado.
+     * @param distance 0 si coincide por prefijo; si no, distancia de edición.
+     * @param rank     0 prefijo del nombre completo, 1 prefijo de una palabra, 2 difuso.
+     */
+    record Match(String name, int distance, int rank) {}
+
+    /** Orden de relevancia: prefijo completo, prefijo de palabra, difuso por distancia; luego nombres cortos. */
+    static final Comparator<Match> RELEVANCE = Comparator.comparingInt(Match::rank)
+            .thenComparingInt(Match::distance)
+            .thenComparingInt(m -> m.name().length())
+            .thenComparing(Match::name);
+
+    /** Consultas más cortas que esto no usan búsqueda difusa (demasiado ruido). */
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    /** Largo de los n-gramas del índice de subcadenas. */
+    private static final int GRAM = 3;
+
+    private final String[] names;
+    private final String[] keys;
+    private final int[] owners;
+    private final Map<String, int[]> grams;
+
+    /**
+     * @param names nombres del tipo (en minúsculas).
+     */
+    NameSearchIndex(String[] names) {
+        this.names = names;
+        List<String> k = new ArrayList<>(names.length * 2);
+        List<Integer> o = new ArrayList<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            String n = names[i];
+            k.add(n);
+            o.add(i);
+            for (int p = n.indexOf('-'); p >= 0 && p + 1 < n.length(); p = n.indexOf('-', p + 1)) {
+                k.add(n.substring(p + 1));
+                o.add(i);
+            }
+        }
+        Integer[] order = new Integer[k.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing(k::get));
+        this.keys = new String[order.length];
+        this.owners = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = k.get(order[i]);
+            owners[i] = o.get(order[i]);
+        }
+
+        Map<String, List<Integer>> g = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            String n = names[i];
+            for (int p = 0; p + GRAM <= n.length(); p++) {
+                List<Integer> postings = g.computeIfAbsent(n.substring(p, p + GRAM), x -> new ArrayList<>());
+                if (postings.isEmpty() || postings.get(postings.size() - 1) != i) postings.add(i);
+            }
+        }
+        this.grams = new HashMap<>(g.size() * 2);
+        g.forEach((gram, postings) -> grams.put(gram, postings.stream().mapToInt(Integer::intValue).toArray()));
+    }
+
+    /**
+     * Autocompletado: coincidencias por prefijo y, si no alcanzan 'limit' y la
+     * consulta es suficientemente larga, coincidencias difusas; por relevancia.
+     *
+     * @param query consulta (se normaliza a minúsculas).
+     * @param limit máximo de resultados.
+     */
+    List<Match> search(String query, int limit) {
+        return collect(query, limit);
+    }
+
+    /**
+     * Filtro de listados: nombres que contienen la consulta, en el orden en
+     * que se indexaron. Consultas más cortas que un trigrama recorren todos
+     * los nombres.
+     *
+     * @param query consulta (se normaliza a minúsculas).
+     */
+    List<String> containing(String query) {
+        String q = query.trim().toLowerCase();
+        if (q.isEmpty()) return List.of();
+        List<String> out = new ArrayList<>();
+        if (q.length() < GRAM) {
+            for (String n : names) if (n.contains(q)) out.add(n);
+            return out;
+        }
+        int[] shortest = null;
+        for (int p = 0; p + GRAM <= q.length(); p++) {
+            int[] postings = grams.get(q.substring(p, p + GRAM));
+            if (postings == null) return List.of();
+            if (shortest == null || postings.length < shortest.length) shortest = postings;
+        }
+        for (int i : shortest) if (names[i].contains(q)) out.add(names[i]);
+        return out;
+    }
+
+    /** Cantidad de nombres indexados. */
+    int size() {
+        return names.length;
+    }
+
+    // ----------------------------------- internos -----------------------------------
+
+    private List<Match> collect(String query, int limit) {
+        String q = query.trim().toLowerCase();
+        if (q.isEmpty() || limit <= 0) return List.of();
+
+        Match[] found = new Match[names.length];
+        int count = 0;
+        for (int i = lowerBound(q); i < keys.length && keys[i].startsWith(q); i++) {
+            int owner = owners[i];
+            int rank = names[owner].startsWith(q) ? 0 : 1;
+            if (found[owner] == null) count++;
+            else if (found[owner].rank() <= rank) continue;
+            found[owner] = new Match(names[owner], 0, rank);
+        }
+
+        if (count < limit && q.length() >= MIN_FUZZY_LENGTH) {
+            int maxDist = q.length() <= 5 ? 1 : 2;
+            int[] prev = new int[q.length() + maxDist + 1];
+            int[] cur = new int[prev.length];
+            for (int i = 0; i < names.length; i++) {
+                if (found[i] != null) continue;
+                int d = prefixDistance(q, names[i], maxDist, prev, cur);
+                if (d <= maxDist) found[i] = new Match(names[i], d, 2);
+            }
+        }
+
+        List<Match> out = new ArrayList<>();
+        for (Match m : found) if (m != null) out.add(m);
+        out.sort(RELEVANCE);
+        return out.size() > limit ? out.subList(0, limit) : out;
+    }
+
+    private int lowerBound(String q) {
+        int lo = 0, hi = keys.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(q) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Distancia de edición mínima entre 'q' y algún prefijo de 'name'. Solo se
+     * calcula la banda |i - j| <= max; devuelve max + 1 si se supera el tope.
+     * 'prev' y 'cur' son buffers reutilizables de al menos q.length() + max + 1.
+     */
+    static int prefixDistance(String q, String name, int max, int[] prev, int[] cur) {
+        int m = q.length(), n = Math.min(name.length(), m + max);
+        if (n < m - max) return max + 1;
+        int inf = max + 1;
+        for (int j = 0; j <= n; j++) prev[j] = Math.min(j, inf);
+        for (int i = 1; i <= m; i++) {
+            int lo = Math.max(1, i - max), hi = Math.min(n, i + max);
+            cur[0] = Math.min(i, inf);
+            if (lo > 1) cur[lo - 1] = inf;
+            int rowMin = cur[0];
+            char qc = q.charAt(i - 1);
+            for (int j = lo; j <= hi; j++) {
+                int cost = qc == name.charAt(j - 1) ? 0 : 1;
+                int v = Math.min(prev[j - 1] + cost, Math.min(prev[j] + 1, cur[j - 1] + 1));
+                cur[j] = Math.min(v, inf);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (hi < n) cur[hi + 1] = inf;
+            if (rowMin > max) return inf;
+            int[] t = prev; prev = cur; cur = t;
+        }
+        // Al final: el mejor prefijo del nombre con largo dentro de la banda
+        int best = inf;
+        for (int j = Math.max(0, m - max); j <= n; j++) best = Math.min(best, prev[j]);
+        return best;
+    }
+}
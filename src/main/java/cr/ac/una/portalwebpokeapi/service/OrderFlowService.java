@@ -53,13 +53,8 @@ public class OrderFlowService {
         List<CartItem> items = cartItemRepo.findByCartId(cart.getId());
         if (items.isEmpty()) throw new IllegalArgumentException("Carrito vacío");
 
-        // Validación por país de cada ítem (defensa en profundidad)
-        for (CartItem ci : items) {
-            String cat = ci.getProductCategory();
-            if ("POKEMON".equals(cat) || "ITEM".equals(cat) || "GAME".equals(cat)) {
-                countryGuard.assertUserCanBuyDynamic(userId, ci.getProductId(), cat);
-            }
-        }
+        // Validación por país de todo el carrito (defensa en profundidad); informa todas las líneas rechazadas
+        countryGuard.assertCartEligible(userId, items);
 
         base.setId(null);
         base.setUserId(userId);
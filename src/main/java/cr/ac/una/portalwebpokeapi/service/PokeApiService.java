@@ -1,10 +1,35 @@
 package cr.ac.una.portalwebpokeapi.service;
 
+import cr.ac.una.portalwebpokeapi.cache.SegmentStore;
+import cr.ac.una.portalwebpokeapi.cache.SingleFlight;
+import cr.ac.una.portalwebpokeapi.cache.WeightedCache;
+import cr.ac.una.portalwebpokeapi.config.CircuitBreaker;
+import cr.ac.una.portalwebpokeapi.config.HedgingExecutor;
+import cr.ac.una.portalwebpokeapi.config.HttpValidators;
+import cr.ac.una.portalwebpokeapi.config.RevalidationStats;
+import cr.ac.una.portalwebpokeapi.dto.ItemSummary;
+import cr.ac.una.portalwebpokeapi.dto.PokeSummary;
+import cr.ac.una.portalwebpokeapi.dto.PokemonSummary;
+import cr.ac.una.portalwebpokeapi.dto.VersionSummary;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.Map;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Servicio que interactúa con la API pública de PokeAPI (https://pokeapi.co).
@@ -16,15 +41,91 @@ import java.util.Map;
  *
  * Utiliza {@link RestTemplate} para realizar peticiones HTTP REST.
  * Todos los métodos retornan un mapa genérico con los datos JSON obtenidos.
+ *
+ * Para el catálogo y el carrito se exponen resúmenes tipados ({@link PokemonSummary},
+ * {@link ItemSummary}, {@link VersionSummary}) extraídos en streaming por
+ * {@link PokeDocParser}; estos resúmenes, no el documento completo, son los que
+ * viven en una caché en memoria acotada en bytes. La clave es (recurso, id): una
+ * búsqueda por nombre se resuelve a su id mediante un índice de alias, de modo
+ * que "pikachu" y "25" comparten entrada.
+ *
+ * Detrás de la caché, si está habilitado, hay un almacén persistente en disco
+ * ({@link SegmentStore}) con el JSON original: tras un reinicio los documentos
+ * ya vistos se sirven sin volver a llamar a PokeAPI.
+ *
+ * Las cargas concurrentes de un mismo (recurso, nombre/id) se coalescen con
+ * {@link SingleFlight}: un solo hilo consulta y el resto comparte el resultado.
+ *
+ * Resiliencia: las llamadas a PokeAPI pasan por un {@link CircuitBreaker}. Un
+ * resumen vencido (dentro del período de gracia de la caché) se sirve de
+ * inmediato y se revalida en segundo plano; los listados conservan la última
+ * respuesta correcta y la sirven si PokeAPI falla o el circuito está abierto.
+ *
+ * Junto a cada documento se guardan sus validadores (ETag / Last-Modified), en
+ * memoria y como atributos del almacén en disco. La revalidación usa GET
+ * condicional: un 304 solo extiende la vigencia del resumen ya cacheado.
  */
 @Service
 public class PokeApiService {
 
-    /** Cliente HTTP para realizar peticiones REST. */
-    private final RestTemplate rt = new RestTemplate();
+    /** Cliente HTTP compartido (pool keep-alive y timeouts, ver OutboundHttpConfig). */
+    private final RestTemplate rt;
+
+    /** URL base de PokeAPI ('app.pokeapi.base-url'; en pruebas apunta a un servidor local). */
+    private final String base;
+
+    /** Caché de resúmenes de detalle, clave "recurso:id". */
+    private final WeightedCache<String, PokeSummary> cache;
+
+    /** Alias "recurso:nombre" -> id, para que nombre e id apunten a la misma entrada. */
+    private final Map<String, Long> aliases = new ConcurrentHashMap<>();
+
+    /** Coalescencia de cargas concurrentes, clave "recurso:nombre-o-id". */
+    private final SingleFlight<String, PokeSummary> flights = new SingleFlight<>();
+
+    /** Almacén persistente de documentos; null si está deshabilitado. */
+    private final SegmentStore store;
+
+    /** Circuit breaker de las llamadas a PokeAPI. */
+    private final CircuitBreaker breaker;
+
+    /** Hedging de las descargas de detalle (segundo intento si el primero tarda más del percentil). */
+    private final HedgingExecutor hedger;
+
+    /** Claves "recurso:id" con una revalidación en segundo plano en curso. */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Últimos listados correctos por URL (LRU acotado), para servirlos si PokeAPI falla. */
+    private final Map<String, Map<String, Object>> lastLists = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
+                    return size() > 256;
+                }
+            });
 
-    /** URL base de la API pública de PokeAPI. */
-    private static final String BASE = "https://pokeapi.co/api/v2";
+    /** Validadores HTTP por "recurso:id" del último cuerpo descargado o leído del disco. */
+    private final Map<String, HttpValidators> validators = new ConcurrentHashMap<>();
+    private final RevalidationStats revalidation = new RevalidationStats();
+
+    private final AtomicLong staleListServes = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    public PokeApiService(RestTemplate outboundRestTemplate,
+                          WeightedCache<String, PokeSummary> pokeDocumentCache,
+                          ObjectProvider<SegmentStore> pokeDocumentStore,
+                          CircuitBreaker pokeApiBreaker,
+                          HedgingExecutor pokeApiHedger,
+                          @Value("${app.pokeapi.base-url:https://pokeapi.co/api/v2}") String baseUrl) {
+        this.rt = outboundRestTemplate;
+        this.cache = pokeDocumentCache;
+        this.store = pokeDocumentStore.getIfAvailable();
+        this.breaker = pokeApiBreaker;
+        this.hedger = pokeApiHedger;
+        this.base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
 
     /**
      * Lista los Pokémon con paginación.
@@ -33,24 +134,18 @@ public class PokeApiService {
      * @param offset desplazamiento inicial (para paginación).
      * @return mapa con la respuesta de la API (contiene "results", "next", "previous", etc.).
      */
-    @SuppressWarnings("unchecked")
     public Map<String, Object> listPokemon(int limit, int offset) {
-        String url = BASE + "/pokemon?limit=" + limit + "&offset=" + offset;
-        ResponseEntity<Map> res = rt.getForEntity(url, Map.class);
-        return res.getBody();
+        return list(base + "/pokemon?limit=" + limit + "&offset=" + offset);
     }
 
     /**
-     * Obtiene la información detallada de un Pokémon por nombre o ID.
+     * Resumen tipado del Pokémon (caché en memoria + coalescencia).
      *
-     * @param nameOrId nombre o identificador numérico del Pokémon.
-     * @return mapa con la información detallada del Pokémon.
+     * @param nameOrId nombre o identificador.
+     * @return resumen, o null si PokeAPI no devolvió cuerpo.
      */
-    @SuppressWarnings("unchecked")
-    public Map<String, Object> getPokemon(String nameOrId) {
-        String url = BASE + "/pokemon/" + nameOrId;
-        ResponseEntity<Map> res = rt.getForEntity(url, Map.class);
-        return res.getBody();
+    public PokemonSummary pokemonSummary(String nameOrId) {
+        return summary("pokemon", nameOrId, PokeDocParser::pokemon);
     }
 
     /**
@@ -60,24 +155,18 @@ public class PokeApiService {
      * @param offset desplazamiento inicial (para paginación).
      * @return mapa con la respuesta del endpoint de ítems.
      */
-    @SuppressWarnings("unchecked")
     public Map<String, Object> listItems(int limit, int offset) {
-        String url = BASE + "/item?limit=" + limit + "&offset=" + offset;
-        ResponseEntity<Map> res = rt.getForEntity(url, Map.class);
-        return res.getBody();
+        return list(base + "/item?limit=" + limit + "&offset=" + offset);
     }
 
     /**
-     * Obtiene información detallada de un ítem por nombre o ID.
+     * Resumen tipado del ítem (caché en memoria + coalescencia).
      *
-     * @param nameOrId nombre o identificador del ítem.
-     * @return mapa con la información detallada del ítem.
+     * @param nameOrId nombre o identificador.
+     * @return resumen, o null si PokeAPI no devolvió cuerpo.
      */
-    @SuppressWarnings("unchecked")
-    public Map<String, Object> getItem(String nameOrId) {
-        String url = BASE + "/item/" + nameOrId;
-        ResponseEntity<Map> res = rt.getForEntity(url, Map.class);
-        return res.getBody();
+    public ItemSummary itemSummary(String nameOrId) {
+        return summary("item", nameOrId, PokeDocParser::item);
     }
 
     /**
@@ -87,23 +176,310 @@ public class PokeApiService {
      * @param offset desplazamiento inicial.
      * @return mapa con la lista de versiones.
      */
-    @SuppressWarnings("unchecked")
     public Map<String, Object> listVersions(int limit, int offset) {
-        String url = BASE + "/version?limit=" + limit + "&offset=" + offset;
-        ResponseEntity<Map> res = rt.getForEntity(url, Map.class);
-        return res.getBody();
+        return list(base + "/version?limit=" + limit + "&offset=" + offset);
     }
 
     /**
-     * Obtiene información detallada de una versión (juego).
+     * Resumen tipado del juego (caché en memoria + coalescencia).
      *
-     * @param nameOrId nombre o identificador de la versión.
-     * @return mapa con la información detallada del juego.
+     * @param nameOrId nombre o identificador.
+     * @return resumen, o null si PokeAPI no devolvió cuerpo.
+     */
+    public VersionSummary versionSummary(String nameOrId) {
+        return summary("version", nameOrId, PokeDocParser::version);
+    }
+
+    /**
+     * Lista los tipos elementales (fire, water, ...).
+     *
+     * @return mapa con la lista de tipos ("results" con name/url).
+     */
+    public Map<String, Object> listTypes() {
+        return list(base + "/type?limit=100");
+    }
+
+    /**
+     * Documento de un tipo elemental; su arreglo "pokemon" contiene la
+     * membresía ({"pokemon": {"name", "url"}, "slot"}).
+     *
+     * @param name nombre del tipo.
+     * @return documento del tipo (no se cachea en memoria; lo consume el índice de tipos).
+     */
+    public Map<String, Object> getType(String name) {
+        return list(base + "/type/" + normalize(name));
+    }
+
+    /**
+     * Métricas de la caché de resúmenes (hits, misses, evicciones, bytes).
+     */
+    public Map<String, Object> cacheStats() {
+        Map<String, Object> m = cache.stats();
+        m.put("aliases", aliases.size());
+        return m;
+    }
+
+    // ================================ Caché de detalles ================================
+
+    /**
+     * Métricas de coalescencia: llamadas totales vs. cargas reales y deduplicadas.
+     */
+    public Map<String, Object> coalescingStats() {
+        return flights.stats();
+    }
+
+    /**
+     * Métricas del almacén en disco, o {"enabled": false} si no está activo.
+     */
+    public Map<String, Object> storeStats() {
+        return store == null ? Map.of("enabled", false) : store.stats();
+    }
+
+    /**
+     * Compacta el almacén en disco (no-op si está deshabilitado).
+     */
+    public void compactStore() {
+        if (store != null) store.compact();
+    }
+
+    /**
+     * Métricas de revalidación condicional (304 recibidos, bytes ahorrados).
+     */
+    public Map<String, Object> revalidationStats() {
+        Map<String, Object> m = revalidation.stats();
+        m.put("trackedValidators", validators.size());
+        return m;
+    }
+
+    /**
+     * Métricas de resiliencia: estado del circuit breaker, resúmenes y listados
+     * servidos vencidos y revalidaciones en segundo plano.
+     */
+    public Map<String, Object> resilienceStats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("breaker", breaker.stats());
+        m.put("staleSummaryServes", cache.stats().get("staleHits"));
+        m.put("staleListServes", staleListServes.get());
+        m.put("refreshes", refreshes.get());
+        m.put("refreshFailures", refreshFailures.get());
+        m.put("refreshing", refreshing.size());
+        return m;
+    }
+
+    /**
+     * Histograma de latencias de las descargas de detalle y uso de hedges.
+     */
+    public Map<String, Object> latencyStats() {
+        return hedger.stats();
+    }
+
+    /** Proyección de un documento JSON a su resumen. */
+    @FunctionalInterface
+    private interface Projection<S extends PokeSummary> {
+        S apply(byte[] json) throws IOException;
+    }
+
+    /**
+     * Resuelve un resumen en orden: caché en memoria, almacén en disco y, por
+     * último, PokeAPI. El resumen se guarda bajo su id canónico y se registra
+     * el alias por nombre. Las cargas concurrentes de la misma clave se coalescen.
+     */
+    @SuppressWarnings("unchecked")
+    private <S extends PokeSummary> S summary(String resource, String nameOrId, Projection<S> projection) {
+        String key = normalize(nameOrId);
+        String cacheKey = canonicalKey(resource, key);
+        WeightedCache.Lookup<PokeSummary> hit = cacheKey == null ? null : cache.lookup(cacheKey);
+        if (hit != null) {
+            if (hit.stale()) revalidate(resource, hit.value(), projection);
+            return (S) hit.value();
+        }
+        return (S) flights.execute(resource + ":" + key, () -> {
+            // Otro vuelo pudo haber terminado entre el miss y la adquisición de la clave
+            PokeSummary again = cached(resource, key);
+            if (again != null) return again;
+            byte[] body = loadBody(resource, key);
+            if (body == null) return null;
+            S s = project(projection, body);
+            remember(resource, s);
+            return s;
+        });
+    }
+
+    private PokeSummary cached(String resource, String key) {
+        String cacheKey = canonicalKey(resource, key);
+        return cacheKey == null ? null : cache.get(cacheKey);
+    }
+
+    /**
+     * Revalida en segundo plano un resumen vencido consultando PokeAPI
+     * (no el almacén en disco), con GET condicional si hay validadores: un 304
+     * vuelve a guardar el mismo resumen con vigencia nueva. Si falla o el
+     * circuito está abierto, se sigue sirviendo el valor vencido hasta que
+     * termine su período de gracia.
+     */
+    private <S extends PokeSummary> void revalidate(String resource, PokeSummary stale, Projection<S> projection) {
+        String key = resource + ":" + stale.id();
+        if (!refreshing.add(key)) return;
+        refresher.execute(() -> {
+            try {
+                Fetched f = fetchRemote(resource, String.valueOf(stale.id()), validatorsFor(key));
+                if (f.notModified()) {
+                    remember(resource, stale);
+                    refreshes.incrementAndGet();
+                } else if (f.body() != null) {
+                    remember(resource, project(projection, f.body()));
+                    refreshes.incrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                refreshFailures.incrementAndGet();
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Obtiene el JSON original desde el almacén en disco o, si no está, desde
+     * PokeAPI (y lo persiste).
+     */
+    private byte[] loadBody(String resource, String key) {
+        String cacheKey = canonicalKey(resource, key);
+        if (store != null) {
+            SegmentStore.Entry e = store.get(cacheKey != null ? cacheKey : resource + ":" + key);
+            if (e != null) {
+                HttpValidators v = HttpValidators.fromAttributes(e.attributes(), e.body().length);
+                if (v != null) validators.putIfAbsent(e.key(), v);
+                return e.body();
+            }
+        }
+        return fetchRemote(resource, key, null).body();
+    }
+
+    /** Resultado de una descarga: cuerpo nuevo, o 304 si los validadores siguen vigentes. */
+    private record Fetched(byte[] body, boolean notModified) {}
+
+    /**
+     * Descarga el documento de PokeAPI (vía circuit breaker y hedging). Con
+     * validadores hace GET condicional; un cuerpo nuevo se persiste en disco
+     * junto con sus validadores.
+     */
+    private Fetched fetchRemote(String resource, String key, HttpValidators cond) {
+        String url = base + "/" + resource + "/" + key;
+        boolean conditional = cond != null && cond.usable();
+        HttpEntity<?> request = conditional ? new HttpEntity<>(cond.toRequestHeaders()) : HttpEntity.EMPTY;
+        if (conditional) revalidation.onConditional();
+        ResponseEntity<byte[]> res = remote(() -> hedger.execute(() -> rt.exchange(url, HttpMethod.GET, request, byte[].class)));
+
+        if (conditional && res.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            revalidation.onNotModified(cond.length());
+            return new Fetched(null, true);
+        }
+        byte[] body = res.getBody();
+        if (body == null) return new Fetched(null, false);
+        revalidation.onDownloaded(body.length);
+
+        // La proyección de versión es solo (id, nombre): sirve para cualquier recurso
+        VersionSummary ref = project(PokeDocParser::version, body);
+        HttpValidators v = HttpValidators.from(res.getHeaders(), body.length);
+        if (v.usable()) validators.put(resource + ":" + ref.id(), v);
+        if (store != null) {
+            Map<String, String> attrs = new HashMap<>(v.toAttributes());
+            if (ref.name() != null) attrs.put(SegmentStore.ALIAS, resource + ":" + normalize(ref.name()));
+            store.put(resource + ":" + ref.id(), attrs, body);
+        }
+        return new Fetched(body, false);
+    }
+
+    /** Validadores conocidos de "recurso:id" (memoria o, si no, atributos en disco). */
+    private HttpValidators validatorsFor(String key) {
+        HttpValidators v = validators.get(key);
+        if (v != null || store == null) return v;
+        SegmentStore.Entry e = store.get(key);
+        return e == null ? null : HttpValidators.fromAttributes(e.attributes(), e.body().length);
+    }
+
+    /**
+     * Listado de PokeAPI; si la llamada falla (o el circuito está abierto) se
+     * sirve la última respuesta correcta de la misma URL, si existe.
      */
     @SuppressWarnings("unchecked")
-    public Map<String, Object> getVersion(String nameOrId) {
-        String url = BASE + "/version/" + nameOrId;
-        ResponseEntity<Map> res = rt.getForEntity(url, Map.class);
-        return res.getBody();
+    private Map<String, Object> list(String url) {
+        try {
+            Map<String, Object> body = remote(() -> rt.getForObject(url, Map.class));
+            if (body != null) lastLists.put(url, body);
+            return body;
+        } catch (HttpClientErrorException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            Map<String, Object> stale = lastLists.get(url);
+            if (stale == null) throw e;
+            staleListServes.incrementAndGet();
+            return stale;
+        }
+    }
+
+    /**
+     * Ejecuta una llamada a PokeAPI a través del circuit breaker. Los 4xx
+     * cuentan como éxito (PokeAPI respondió); timeouts, errores de red y 5xx como fallo.
+     */
+    private <T> T remote(Supplier<T> call) {
+        CircuitBreaker.Permit permit = breaker.tryAcquire();
+        if (permit == null) throw new CircuitBreaker.OpenException("PokeAPI");
+        try {
+            T result = call.get();
+            breaker.onSuccess(permit);
+            return result;
+        } catch (HttpClientErrorException e) {
+            breaker.onSuccess(permit);
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.onFailure(permit);
+            throw e;
+        }
+    }
+
+    /** Registra el resumen en la caché en memoria bajo su id, junto con su alias. */
+    private void remember(String resource, PokeSummary s) {
+        cache.put(resource + ":" + s.id(), s, s.estimatedBytes());
+        if (s.name() != null) aliases.put(resource + ":" + normalize(s.name()), s.id());
+    }
+
+    private static <S extends PokeSummary> S project(Projection<S> projection, byte[] body) {
+        try {
+            return projection.apply(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Respuesta inválida de PokeAPI", e);
+        }
+    }
+
+    /**
+     * Clave canónica "recurso:id" para un nombre o id normalizado;
+     * null si es un nombre aún no visto.
+     */
+    private String canonicalKey(String resource, String key) {
+        if (isNumeric(key)) return resource + ":" + Long.parseLong(key);
+        Long id = aliases.get(resource + ":" + key);
+        return id == null ? null : resource + ":" + id;
+    }
+
+    /** Normaliza nombre/id: minúsculas y sin espacios; ids sin ceros a la izquierda. */
+    static String normalize(String nameOrId) {
+        String k = nameOrId == null ? "" : nameOrId.trim().toLowerCase(Locale.ROOT);
+        return isNumeric(k) ? String.valueOf(Long.parseLong(k)) : k;
+    }
+
+    private static boolean isNumeric(String s) {
+        if (s.isEmpty() || s.length() > 18) return false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return false;
+        }
+        return true;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+        hedger.close();
     }
 }
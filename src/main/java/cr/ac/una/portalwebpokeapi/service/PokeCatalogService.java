@@ -1,15 +1,33 @@
 package cr.ac.una.portalwebpokeapi.service;
 
+import cr.ac.una.portalwebpokeapi.dto.CardList;
+import cr.ac.una.portalwebpokeapi.dto.ItemSummary;
+import cr.ac.una.portalwebpokeapi.dto.PokeSummary;
+import cr.ac.una.portalwebpokeapi.dto.PokemonSummary;
+import cr.ac.una.portalwebpokeapi.dto.VersionSummary;
+import cr.ac.una.portalwebpokeapi.model.PokemonRule;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Servicio de catálogo que normaliza datos de PokeAPI en “cards”
  * (POKEMON, ITEM, GAME) y calcula precios e imágenes.
+ *
+ * En modo espejo ('app.catalog.mode=mirror') los listados se sirven desde la
+ * base de datos local poblada por {@link CatalogMirrorService}.
+ *
+ * Los listados devuelven {@link CardList}: cada card como fragmento JSON ya
+ * serializado, tomado de {@link CardJsonCache} cuando la card no cambió.
+ *
+ * Con 'buyableIn' (país del comprador) los listados paginan directamente
+ * sobre {@link BuyableIndex}: solo aparecen las cards comprables desde ese
+ * país y cada página hidrata solo sus propias cards. Hasta que el índice
+ * termina su primera construcción se sirven sin ese filtro.
  */
 @Service
 @RequiredArgsConstructor
@@ -17,195 +35,470 @@ public class PokeCatalogService {
 
     private final PokeApiService poke;
     private final DynamicRuleService dynRules; // NUEVO: para obtener/crear país de origen
+    private final FanOutExecutor fanOut;       // consultas de detalle en paralelo
+    private final CatalogMirrorService mirror; // espejo local (app.catalog.mode=mirror)
+    private final CatalogNameIndex nameIndex;  // nombres ordenados y búsqueda (feed unificado, query)
+    private final PokemonTypeIndex types;      // índice invertido tipo -> ids de Pokémon
+    private final CardJsonCache cardJson;      // cards ya serializadas por regla
+    private final BuyableIndex buyable;        // comprables por país (buyableIn)
 
     // ==================== Utilidades de precio e imagen (POKEMON) ====================
 
-    public static double priceFromPokemonDetail(Map<String, Object> detail) {
-        Number baseExp = (Number) detail.getOrDefault("base_experience", 50);
-        Number weight = (Number) detail.getOrDefault("weight", 100);
-        Number id = (Number) detail.getOrDefault("id", 1);
-        double raw = baseExp.doubleValue() * 0.6 + weight.doubleValue() * 0.1 + (id.longValue() % 10);
+    public static double priceFromPokemonDetail(PokemonSummary detail) {
+        int baseExp = detail.baseExperience() == null ? 50 : detail.baseExperience();
+        int weight = detail.weight() == null ? 100 : detail.weight();
+        double raw = baseExp * 0.6 + weight * 0.1 + (detail.id() % 10);
         double val = Math.max(5.0, raw);
         return BigDecimal.valueOf(val).setScale(2, RoundingMode.HALF_UP).doubleValue();
     }
 
-    @SuppressWarnings("unchecked")
-    public static String spriteFromPokemonDetail(Map<String,Object> detail) {
-        Map<String,Object> sprites = (Map<String,Object>) detail.get("sprites");
-        if (sprites == null) return null;
-        Object def = sprites.get("front_default");
-        if (def != null) return def.toString();
-        Object other = sprites.get("other");
-        if (other instanceof Map<?,?> mOther) {
-            Object dream = mOther.get("dream_world");
-            if (dream instanceof Map<?,?> mDream) {
-                Object svg = mDream.get("front_default");
-                if (svg != null) return svg.toString();
-            }
-        }
-        return null;
-    }
-
-    @SuppressWarnings("unchecked")
-    public static List<String> typesFromPokemonDetail(Map<String,Object> detail) {
-        List<Map<String,Object>> types = (List<Map<String,Object>>) detail.get("types");
-        if (types == null) return List.of();
-        List<String> out = new ArrayList<>();
-        for (Map<String,Object> t : types) {
-            Object type = t.get("type");
-            if (type instanceof Map<?,?> tm) {
-                Object name = ((Map<?,?>) type).get("name");
-                if (name != null) out.add(name.toString());
-            }
-        }
-        return out;
+    public Map<String,Object> toPokemonCard(PokemonSummary detail) {
+        // País de origen (garantiza regla; si no existe, la crea)
+        return toPokemonCard(detail, dynRules.ensureRule(detail.id(), "POKEMON").getOriginCountry());
     }
 
-    public Map<String,Object> toPokemonCard(Map<String,Object> detail) {
+    /** Card con el país de origen ya resuelto (p. ej. por lote con {@link DynamicRuleService#ensureRules}). */
+    public Map<String,Object> toPokemonCard(PokemonSummary detail, String country) {
         Map<String,Object> card = new LinkedHashMap<>();
-        Long id = ((Number) detail.get("id")).longValue();
+        long id = detail.id();
         card.put("id", id);
-        card.put("name", detail.get("name"));
-        card.put("image", spriteFromPokemonDetail(detail));
-        card.put("types", typesFromPokemonDetail(detail));
+        card.put("name", detail.name());
+        card.put("image", detail.sprite());
+        card.put("types", detail.types());
         card.put("price", priceFromPokemonDetail(detail));
         card.put("kind", "POKEMON");
-        // País de origen (garantiza regla; si no existe, la crea)
-        card.put("country", dynRules.ensureRule(id, "POKEMON").getOriginCountry());
+        card.put("country", country);
         return card;
     }
 
     // =============================== Utilidades (ITEM) ===============================
 
-    @SuppressWarnings("unchecked")
-    public static String imageFromItemDetail(Map<String,Object> detail) {
-        Map<String,Object> sprites = (Map<String,Object>) detail.get("sprites");
-        if (sprites == null) return null;
-        Object def = sprites.get("default");
-        return def==null? null : def.toString();
+    public static double priceFromItemDetail(ItemSummary detail) {
+        int cost = detail.cost() == null ? 100 : detail.cost();
+        double val = Math.max(1.0, cost / 10.0 + 2.0);
+        return BigDecimal.valueOf(val).setScale(2, RoundingMode.HALF_UP).doubleValue();
     }
 
-    public static double priceFromItemDetail(Map<String,Object> detail) {
-        Number cost = (Number) detail.getOrDefault("cost", 100);
-        double val = Math.max(1.0, cost.doubleValue() / 10.0 + 2.0);
-        return BigDecimal.valueOf(val).setScale(2, RoundingMode.HALF_UP).doubleValue();
+    public Map<String,Object> toItemCard(ItemSummary detail) {
+        return toItemCard(detail, dynRules.ensureRule(detail.id(), "ITEM").getOriginCountry());
     }
 
-    public Map<String,Object> toItemCard(Map<String,Object> detail) {
+    public Map<String,Object> toItemCard(ItemSummary detail, String country) {
         Map<String,Object> card = new LinkedHashMap<>();
-        Long id = ((Number) detail.get("id")).longValue();
+        long id = detail.id();
         card.put("id", id);
-        card.put("name", detail.get("name"));
-        card.put("image", imageFromItemDetail(detail));
+        card.put("name", detail.name());
+        card.put("image", detail.sprite());
         card.put("price", priceFromItemDetail(detail));
         card.put("kind", "ITEM");
-        card.put("country", dynRules.ensureRule(id, "ITEM").getOriginCountry()); // NUEVO
+        card.put("country", country);
         return card;
     }
 
     // =============================== Utilidades (GAME) ===============================
 
-    public static double priceFromVersion(Map<String,Object> detail) {
-        Number id = (Number) detail.getOrDefault("id", 1);
-        double val = 50.0 + id.intValue() * 2.0;
+    public static double priceFromVersion(VersionSummary detail) {
+        double val = 50.0 + (int) detail.id() * 2.0;
         return BigDecimal.valueOf(val).setScale(2, RoundingMode.HALF_UP).doubleValue();
     }
 
-    public Map<String,Object> toGameCard(Map<String,Object> detail) {
+    public Map<String,Object> toGameCard(VersionSummary detail) {
+        return toGameCard(detail, dynRules.ensureRule(detail.id(), "GAME").getOriginCountry());
+    }
+
+    public Map<String,Object> toGameCard(VersionSummary detail, String country) {
         Map<String,Object> card = new LinkedHashMap<>();
-        Long id = ((Number) detail.get("id")).longValue();
+        long id = detail.id();
         card.put("id", id);
-        card.put("name", detail.get("name"));
+        card.put("name", detail.name());
         card.put("image", null); // placeholder en front si null
         card.put("price", priceFromVersion(detail));
         card.put("kind", "GAME");
-        card.put("country", dynRules.ensureRule(id, "GAME").getOriginCountry()); // NUEVO
+        card.put("country", country);
         return card;
     }
 
     // ================================ Listados por tipo ================================
 
-    public List<Map<String,Object>> listPokemonCards(Integer limit, Integer offset, String query, String type) {
+    /**
+     * Cards de Pokémon. Con 'type' ("fire", "fire,flying" = AND, "fire|water" = OR)
+     * la página se resuelve sobre el índice de tipos, y con 'query' sobre el
+     * índice de búsqueda de todo el catálogo; en ambos casos solo se hidratan
+     * las cards de la página.
+     *
+     * @param buyableIn país del comprador para listar solo lo comprable desde él, o null.
+     */
+    public CardList listPokemonCards(Integer limit, Integer offset, String query, String type, String buyableIn) {
         limit = sanitizeLimit(limit); offset = sanitizeOffset(offset);
-        Map<String,Object> base = poke.listPokemon(limit, offset);
-        @SuppressWarnings("unchecked")
-        List<Map<String,Object>> seeds = (List<Map<String,Object>>) base.getOrDefault("results", List.of());
-        if (query!=null && !query.isBlank()) {
-            String q = query.toLowerCase();
-            seeds = seeds.stream().filter(m -> ((String)m.get("name")).contains(q)).toList();
-        }
-        List<Map<String,Object>> out = new ArrayList<>();
-        for (Map<String,Object> r : seeds) {
-            String name = String.valueOf(r.get("name"));
-            Map<String,Object> detail = poke.getPokemon(name);
-            out.add(toPokemonCard(detail));
-        }
-        return out;
+        if (filtersBuyable(buyableIn)) return namedCards("POKEMON", buyablePageNames("POKEMON", limit, offset, query, type, buyableIn));
+        if (mirror.isMirrorMode()) return serialize(mirror.list("POKEMON", limit, offset, query, type));
+        return buildCards(pokemonPageNames(limit, offset, query, type), poke::pokemonSummary, "POKEMON");
     }
 
-    public List<Map<String,Object>> listItemCards(Integer limit, Integer offset, String query) {
+    public CardList listItemCards(Integer limit, Integer offset, String query, String buyableIn) {
         limit = sanitizeLimit(limit); offset = sanitizeOffset(offset);
-        Map<String,Object> base = poke.listItems(limit, offset);
-        @SuppressWarnings("unchecked")
-        List<Map<String,Object>> seeds = (List<Map<String,Object>>) base.getOrDefault("results", List.of());
-        if (query!=null && !query.isBlank()) {
-            String q = query.toLowerCase();
-            seeds = seeds.stream().filter(m -> ((String)m.get("name")).contains(q)).toList();
+        if (filtersBuyable(buyableIn)) return namedCards("ITEM", buyablePageNames("ITEM", limit, offset, query, null, buyableIn));
+        if (mirror.isMirrorMode()) return serialize(mirror.list("ITEM", limit, offset, query, null));
+        return buildCards(pageNames("ITEM", limit, offset, query), poke::itemSummary, "ITEM");
+    }
+
+    public CardList listGameCards(Integer limit, Integer offset, String query, String buyableIn) {
+        limit = sanitizeLimit(limit); offset = sanitizeOffset(offset);
+        if (filtersBuyable(buyableIn)) return namedCards("GAME", buyablePageNames("GAME", limit, offset, query, null, buyableIn));
+        if (mirror.isMirrorMode()) return serialize(mirror.list("GAME", limit, offset, query, null));
+        return buildCards(pageNames("GAME", limit, offset, query), poke::versionSummary, "GAME");
+    }
+
+    // ============================== Listados en streaming ==============================
+
+    /** Destino de las cards de un listado en streaming. */
+    @FunctionalInterface
+    public interface CardSink {
+        /**
+         * @param index posición de la card en la página.
+         * @param card  card serializada.
+         */
+        void accept(int index, byte[] card);
+    }
+
+    /**
+     * Igual que {@link #listPokemonCards}, pero entrega cada card a 'sink' en
+     * orden de llegada (el índice indica su posición en la página): las que
+     * están en caché apenas llega su detalle y el resto al final, con sus
+     * reglas resueltas en un solo lote. Se invoca desde el hilo llamador.
+     * En modo solo comprables la página se arma completa y luego se entrega.
+     */
+    public void streamPokemonCards(Integer limit, Integer offset, String query, String type, String buyableIn, CardSink sink) {
+        limit = sanitizeLimit(limit); offset = sanitizeOffset(offset);
+        if (filtersBuyable(buyableIn)) emit(namedCards("POKEMON", buyablePageNames("POKEMON", limit, offset, query, type, buyableIn)), sink);
+        else if (mirror.isMirrorMode()) emit(serialize(mirror.list("POKEMON", limit, offset, query, type)), sink);
+        else streamCards(pokemonPageNames(limit, offset, query, type), poke::pokemonSummary, "POKEMON", sink);
+    }
+
+    public void streamItemCards(Integer limit, Integer offset, String query, String buyableIn, CardSink sink) {
+        limit = sanitizeLimit(limit); offset = sanitizeOffset(offset);
+        if (filtersBuyable(buyableIn)) emit(namedCards("ITEM", buyablePageNames("ITEM", limit, offset, query, null, buyableIn)), sink);
+        else if (mirror.isMirrorMode()) emit(serialize(mirror.list("ITEM", limit, offset, query, null)), sink);
+        else streamCards(pageNames("ITEM", limit, offset, query), poke::itemSummary, "ITEM", sink);
+    }
+
+    public void streamGameCards(Integer limit, Integer offset, String query, String buyableIn, CardSink sink) {
+        limit = sanitizeLimit(limit); offset = sanitizeOffset(offset);
+        if (filtersBuyable(buyableIn)) emit(namedCards("GAME", buyablePageNames("GAME", limit, offset, query, null, buyableIn)), sink);
+        else if (mirror.isMirrorMode()) emit(serialize(mirror.list("GAME", limit, offset, query, null)), sink);
+        else streamCards(pageNames("GAME", limit, offset, query), poke::versionSummary, "GAME", sink);
+    }
+
+    /**
+     * Los detalles sin fragmento en caché se juntan y se arman al terminar la
+     * página con {@link #cardFragments}, para no crear sus reglas de a una.
+     */
+    private <S extends PokeSummary> void streamCards(List<String> names, Function<String, S> fetch, String kind, CardSink sink) {
+        List<Integer> pending = new ArrayList<>();
+        List<S> pendingDetails = new ArrayList<>();
+        fanOut.forEachCompleted("pokeapi", names, fetch, n -> null, (i, d) -> {
+            byte[] json = d == null ? cardJson.write(placeholderCard(names.get(i), kind)) : cardJson.cached(ruleKey(d), d);
+            if (json != null) {
+                sink.accept(i, json);
+            } else {
+                pending.add(i);
+                pendingDetails.add(d);
+            }
+        });
+        if (pending.isEmpty()) return;
+        List<byte[]> built = cardFragments(pendingDetails);
+        for (int j = 0; j < pending.size(); j++) sink.accept(pending.get(j), built.get(j));
+    }
+
+    private static void emit(CardList cards, CardSink sink) {
+        for (int i = 0; i < cards.size(); i++) sink.accept(i, cards.fragments().get(i));
+    }
+
+    // ================================ Nombres de la página ================================
+
+    /**
+     * Nombres de una página de Pokémon. Con 'type' ("fire", "fire,flying" = AND,
+     * "fire|water" = OR) se resuelve sobre el índice de tipos, y con 'query'
+     * (subcadena del nombre) sobre el índice de búsqueda de todo el catálogo.
+     */
+    private List<String> pokemonPageNames(int limit, int offset, String query, String type) {
+        boolean typed = type != null && !type.isBlank();
+        if (typed && hasQuery(query)) {
+            Set<String> members = new HashSet<>(types.names(type));
+            return slice(nameIndex.search("POKEMON", query).stream().filter(members::contains).toList(), limit, offset);
         }
-        List<Map<String,Object>> out = new ArrayList<>();
-        for (Map<String,Object> r : seeds) {
-            String name = String.valueOf(r.get("name"));
-            Map<String,Object> detail = poke.getItem(name);
-            out.add(toItemCard(detail));
+        if (typed) return slice(types.names(type), limit, offset);
+        if (hasQuery(query)) return slice(nameIndex.search("POKEMON", query), limit, offset);
+        return seedNames(poke.listPokemon(limit, offset));
+    }
+
+    /** Nombres de una página de ITEM o GAME. */
+    private List<String> pageNames(String kind, int limit, int offset, String query) {
+        if (hasQuery(query)) return slice(nameIndex.search(kind, query), limit, offset);
+        return seedNames("ITEM".equals(kind) ? poke.listItems(limit, offset) : poke.listVersions(limit, offset));
+    }
+
+    /**
+     * Si se filtra por comprables desde 'buyableIn'. Mientras {@link BuyableIndex}
+     * construye su primer índice el listado se sirve sin ese filtro.
+     */
+    private boolean filtersBuyable(String buyableIn) {
+        return buyableIn != null && buyable.isReady();
+    }
+
+    /**
+     * Nombres de una página de lo comprable desde un país, en orden de id
+     * (como los listados de PokeAPI). Sin filtros la página es un corte
+     * directo del índice; 'query' es subcadena del nombre y 'type' usa el
+     * índice de tipos.
+     */
+    private List<String> buyablePageNames(String kind, int limit, int offset, String query, String type, String country) {
+        List<String> names = buyable.names(country, kind);
+        boolean typed = "POKEMON".equals(kind) && type != null && !type.isBlank();
+        if (!typed && !hasQuery(query)) return slice(names, limit, offset);
+
+        Set<String> members = typed ? new HashSet<>(types.names(type)) : null;
+        String q = hasQuery(query) ? query.toLowerCase() : null;
+        List<String> out = new ArrayList<>(limit);
+        int skipped = 0;
+        for (String n : names) {
+            if (members != null && !members.contains(n)) continue;
+            if (q != null && !n.toLowerCase().contains(q)) continue;
+            if (skipped++ < offset) continue;
+            out.add(n);
+            if (out.size() == limit) break;
         }
         return out;
     }
 
-    public List<Map<String,Object>> listGameCards(Integer limit, Integer offset, String query) {
-        limit = sanitizeLimit(limit); offset = sanitizeOffset(offset);
-        Map<String,Object> base = poke.listVersions(limit, offset);
-        @SuppressWarnings("unchecked")
+    /**
+     * Sugerencias de autocompletado (prefijo y, si faltan, difusas) sobre los
+     * nombres de todo el catálogo.
+     *
+     * @param category ALL | POKEMON | ITEM | GAME.
+     * @return lista de {name, kind, distance}, por relevancia.
+     */
+    public List<Map<String,Object>> autocomplete(String query, Integer limit, String category) {
+        if (!hasQuery(query)) return List.of();
+        int size = (limit == null || limit < 1) ? 10 : Math.min(20, limit);
+        String cat = (category == null ? "ALL" : category.trim().toUpperCase());
+        List<String> kinds = "ALL".equals(cat) ? FEED_KINDS
+                : FEED_KINDS.contains(cat) ? List.of(cat) : List.of();
+        return nameIndex.autocomplete(kinds, query, size);
+    }
+
+    /** Extrae los nombres de un listado de PokeAPI. */
+    @SuppressWarnings("unchecked")
+    private List<String> seedNames(Map<String,Object> base) {
         List<Map<String,Object>> seeds = (List<Map<String,Object>>) base.getOrDefault("results", List.of());
-        if (query!=null && !query.isBlank()) {
-            String q = query.toLowerCase();
-            seeds = seeds.stream().filter(m -> ((String)m.get("name")).contains(q)).toList();
+        List<String> names = new ArrayList<>(seeds.size());
+        for (Map<String,Object> r : seeds) names.add(String.valueOf(r.get("name")));
+        return names;
+    }
+
+    private static boolean hasQuery(String query) {
+        return query != null && !query.isBlank();
+    }
+
+    /** Página [offset, offset + limit) de una lista de nombres. */
+    private static List<String> slice(List<String> all, int limit, int offset) {
+        return all.subList(Math.min(offset, all.size()), Math.min(offset + limit, all.size()));
+    }
+
+    /**
+     * Consulta los detalles de la página en paralelo y arma las cards en orden.
+     * Un detalle que falla o excede el plazo de la página se sustituye por un placeholder.
+     */
+    private <S extends PokeSummary> CardList buildCards(List<String> names, Function<String, S> fetch, String kind) {
+        List<S> details = fanOut.mapOrdered("pokeapi", names, fetch, n -> null);
+        List<byte[]> out = cardFragments(details);
+        int placeholders = 0;
+        for (int i = 0; i < names.size(); i++) {
+            if (out.get(i) != null) continue;
+            placeholders++;
+            out.set(i, cardJson.write(placeholderCard(names.get(i), kind)));
+        }
+        return new CardList(out, placeholders);
+    }
+
+    /**
+     * Cards serializadas de una página, en orden (null donde no hay detalle).
+     * Las que no están en caché se arman con las reglas de país resueltas en
+     * un solo lote por tipo ({@link DynamicRuleService#ensureRules}).
+     */
+    private List<byte[]> cardFragments(List<? extends PokeSummary> details) {
+        List<byte[]> out = new ArrayList<>(details.size());
+        Map<String, List<Long>> missing = new HashMap<>();
+        long gen = cardJson.generation(); // antes de leer las reglas
+        for (PokeSummary d : details) {
+            byte[] json = d == null ? null : cardJson.cached(ruleKey(d), d);
+            if (d != null && json == null) missing.computeIfAbsent(kindOf(d), k -> new ArrayList<>()).add(d.id());
+            out.add(json);
         }
-        List<Map<String,Object>> out = new ArrayList<>();
-        for (Map<String,Object> r : seeds) {
-            String name = String.valueOf(r.get("name"));
-            Map<String,Object> detail = poke.getVersion(name);
-            out.add(toGameCard(detail));
+        if (missing.isEmpty()) return out;
+
+        Map<String, Map<Long, PokemonRule>> rules = new HashMap<>();
+        missing.forEach((kind, ids) -> rules.put(kind, dynRules.ensureRules(kind, ids)));
+        for (int i = 0; i < details.size(); i++) {
+            PokeSummary d = details.get(i);
+            if (d == null || out.get(i) != null) continue;
+            PokemonRule rule = rules.get(kindOf(d)).get(d.id());
+            String country = rule != null ? rule.getOriginCountry() : dynRules.ensureRule(d.id(), kindOf(d)).getOriginCountry();
+            out.set(i, cardJson.store(ruleKey(d), d, switch (d) {
+                case PokemonSummary p -> toPokemonCard(p, country);
+                case ItemSummary it -> toItemCard(it, country);
+                case VersionSummary v -> toGameCard(v, country);
+            }, gen));
         }
         return out;
     }
 
+    private static String kindOf(PokeSummary d) {
+        return switch (d) {
+            case PokemonSummary p -> "POKEMON";
+            case ItemSummary it -> "ITEM";
+            case VersionSummary v -> "GAME";
+        };
+    }
+
+    private static long ruleKey(PokeSummary d) {
+        return DynamicRuleService.compositeKey(d.id(), kindOf(d));
+    }
+
+    /** Serializa cards ya armadas (modo espejo). */
+    private CardList serialize(List<Map<String,Object>> cards) {
+        List<byte[]> out = new ArrayList<>(cards.size());
+        int placeholders = 0;
+        for (Map<String,Object> c : cards) {
+            if (Boolean.TRUE.equals(c.get("placeholder"))) placeholders++;
+            out.add(cardJson.write(c));
+        }
+        return new CardList(out, placeholders);
+    }
+
+    /** Card mínima para un detalle no disponible a tiempo. */
+    static Map<String,Object> placeholderCard(String name, String kind) {
+        Map<String,Object> card = new LinkedHashMap<>();
+        card.put("id", null);
+        card.put("name", name);
+        card.put("image", null);
+        card.put("price", null);
+        card.put("kind", kind);
+        card.put("country", null);
+        card.put("placeholder", true);
+        return card;
+    }
+
     // ================================= Agregador unificado =================================
 
-    public List<Map<String,Object>> listUnifiedCards(Integer limit, Integer offset, String query, String type, String category) {
-        limit = sanitizeLimit(limit); offset = sanitizeOffset(offset);
+    /** Orden de desempate entre fuentes cuando dos cards tienen el mismo nombre. */
+    private static final List<String> FEED_KINDS = List.of("POKEMON", "ITEM", "GAME");
+
+    /**
+     * Página del feed unificado.
+     *
+     * @param cards      cards en orden alfabético.
+     * @param nextCursor cursor de la página siguiente, o null si no hay más.
+     */
+    public record FeedPage(CardList cards, String nextCursor) {}
+
+    public CardList listUnifiedCards(Integer limit, Integer offset, String query, String type, String category, String buyableIn) {
         String cat = (category==null? "ALL" : category.trim().toUpperCase());
 
         if (!"ALL".equals(cat)) {
             return switch (cat) {
-                case "POKEMON" -> listPokemonCards(limit, offset, query, type);
-                case "ITEM" -> listItemCards(limit, offset, query);
-                case "GAME" -> listGameCards(limit, offset, query);
-                default -> List.of();
+                case "POKEMON" -> listPokemonCards(limit, offset, query, type, buyableIn);
+                case "ITEM" -> listItemCards(limit, offset, query, buyableIn);
+                case "GAME" -> listGameCards(limit, offset, query, buyableIn);
+                default -> CardList.EMPTY;
             };
         }
+        return unifiedFeed(limit, offset, null, query, type, buyableIn).cards();
+    }
 
-        List<Map<String,Object>> p = listPokemonCards(limit, 0, query, type);
-        List<Map<String,Object>> i = listItemCards(limit, 0, query);
-        List<Map<String,Object>> g = listGameCards(limit, 0, query);
+    /**
+     * Feed unificado (POKEMON + ITEM + GAME) ordenado por nombre, como mezcla
+     * k-way de tres fuentes ordenadas ({@link CatalogNameIndex}).
+     *
+     * El cursor guarda la posición (último nombre) de cada fuente, así que las
+     * páginas son consistentes y cada una lee a lo sumo 'limit' nombres por
+     * fuente y pide detalle solo de las cards que devuelve. Sin cursor,
+     * 'offset' se respeta avanzando por nombres (sin pedir detalles).
+     *
+     * @param cursor    token devuelto por la página anterior, o null.
+     * @param buyableIn país del comprador para mezclar solo lo comprable desde él, o null.
+     */
+    public FeedPage unifiedFeed(Integer limit, Integer offset, String cursor, String query, String type, String buyableIn) {
+        int size = sanitizeLimit(limit);
+        FeedCursor start = (cursor == null || cursor.isBlank())
+                ? FeedCursor.start(query, type, buyableIn)
+                : FeedCursor.decode(cursor, query, type, buyableIn);
+        Map<String,String> after = new HashMap<>(start.after());
 
-        List<Map<String,Object>> merged = new ArrayList<>();
-        merged.addAll(p); merged.addAll(i); merged.addAll(g);
+        if (cursor == null || cursor.isBlank()) {
+            int skip = sanitizeOffset(offset);
+            while (skip > 0) {
+                int step = Math.min(skip, 50);
+                if (skipNames(after, step, query, type, buyableIn) < step) break;
+                skip -= step;
+            }
+        }
 
-        merged.sort(Comparator.comparing(m -> String.valueOf(m.get("name"))));
+        List<FeedCursor.Entry> page = new ArrayList<>(size);
+        boolean more = mergeNext(after, size, query, type, buyableIn, page);
+        String next = more ? new FeedCursor(Map.copyOf(after), start.filter()).encode() : null;
+        return new FeedPage(feedCards(page), next);
+    }
 
-        int from = Math.min(offset, merged.size());
-        int to = Math.min(offset + limit, merged.size());
-        return merged.subList(from, to);
+    /** Avanza 'after' en 'n' nombres sin armar cards; devuelve cuántos avanzó. */
+    private int skipNames(Map<String,String> after, int n, String query, String type, String buyableIn) {
+        List<FeedCursor.Entry> skipped = new ArrayList<>(n);
+        mergeNext(after, n, query, type, buyableIn, skipped);
+        return skipped.size();
+    }
+
+    /** Mezcla k-way de las tres fuentes con los filtros de la consulta (ver {@link FeedCursor#mergeNext}). */
+    private boolean mergeNext(Map<String,String> after, int n, String query, String type, String buyableIn,
+                              List<FeedCursor.Entry> out) {
+        return FeedCursor.mergeNext(FEED_KINDS, after, n,
+                (kind, from, count) -> nameIndex.namesAfter(kind, from, count, query, type, buyableIn), out);
+    }
+
+    /** Cards de una página de nombres de un mismo tipo, en el mismo orden. */
+    private CardList namedCards(String kind, List<String> names) {
+        return feedCards(names.stream().map(n -> new FeedCursor.Entry(kind, n)).toList());
+    }
+
+    /** Cards de las entradas elegidas, en el mismo orden. */
+    private CardList feedCards(List<FeedCursor.Entry> page) {
+        if (page.isEmpty()) return CardList.EMPTY;
+        if (mirror.isMirrorMode()) {
+            Map<String, Map<String, Map<String,Object>>> byKind = new HashMap<>();
+            for (String kind : FEED_KINDS) {
+                List<String> kindNames = page.stream().filter(e -> e.kind().equals(kind)).map(FeedCursor.Entry::name).toList();
+                byKind.put(kind, mirror.cardsByName(kind, kindNames));
+            }
+            List<Map<String,Object>> out = new ArrayList<>(page.size());
+            for (FeedCursor.Entry e : page) {
+                Map<String,Object> card = byKind.get(e.kind()).get(e.name());
+                out.add(card == null ? placeholderCard(e.name(), e.kind()) : card);
+            }
+            return serialize(out);
+        }
+
+        List<PokeSummary> details = fanOut.mapOrdered("pokeapi", page, e -> switch (e.kind()) {
+            case "POKEMON" -> poke.pokemonSummary(e.name());
+            case "ITEM" -> poke.itemSummary(e.name());
+            default -> poke.versionSummary(e.name());
+        }, e -> null);
+        List<byte[]> out = cardFragments(details);
+        int placeholders = 0;
+        for (int i = 0; i < page.size(); i++) {
+            if (out.get(i) != null) continue;
+            placeholders++;
+            out.set(i, cardJson.write(placeholderCard(page.get(i).name(), page.get(i).kind())));
+        }
+        return new CardList(out, placeholders);
     }
 
     // ================================= Sanitización de paginación =================================
@@ -0,0 +1,172 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import cr.ac.una.portalwebpokeapi.dto.ItemSummary;
+import cr.ac.una.portalwebpokeapi.dto.PokemonSummary;
+import cr.ac.una.portalwebpokeapi.dto.VersionSummary;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parser en streaming (por tokens) de documentos de PokeAPI.
+ *
+ * Recorre el JSON una sola vez y materializa únicamente los campos proyectados;
+ * el resto (p. ej. "moves" y "game_indices", que son la mayor parte de un
+ * documento de pokémon) se salta con {@link JsonParser#skipChildren()} sin crear objetos.
+ */
+public final class PokeDocParser {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private PokeDocParser() {}
+
+    /** Proyecta un documento /pokemon. */
+    public static PokemonSummary pokemon(byte[] json) throws IOException {
+        try (JsonParser p = open(json)) {
+            long id = 0;
+            String name = null, front = null, dream = null;
+            Integer baseExp = null, weight = null;
+            List<String> types = List.of();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "id" -> id = p.getLongValue();
+                    case "name" -> name = p.getValueAsString();
+                    case "base_experience" -> baseExp = intOrNull(p);
+                    case "weight" -> weight = intOrNull(p);
+                    case "types" -> types = pokemonTypes(p);
+                    case "sprites" -> {
+                        String[] s = pokemonSprites(p);
+                        front = s[0];
+                        dream = s[1];
+                    }
+                    default -> p.skipChildren();
+                }
+            }
+            return new PokemonSummary(id, name, baseExp, weight, front != null ? front : dream, types);
+        }
+    }
+
+    /** Proyecta un documento /item. */
+    public static ItemSummary item(byte[] json) throws IOException {
+        try (JsonParser p = open(json)) {
+            long id = 0;
+            String name = null, sprite = null;
+            Integer cost = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "id" -> id = p.getLongValue();
+                    case "name" -> name = p.getValueAsString();
+                    case "cost" -> cost = intOrNull(p);
+                    case "sprites" -> {
+                        if (p.currentToken() != JsonToken.START_OBJECT) { p.skipChildren(); break; }
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String f = p.currentName();
+                            p.nextToken();
+                            if ("default".equals(f)) sprite = p.getValueAsString();
+                            else p.skipChildren();
+                        }
+                    }
+                    default -> p.skipChildren();
+                }
+            }
+            return new ItemSummary(id, name, cost, sprite);
+        }
+    }
+
+    /** Proyecta un documento /version. */
+    public static VersionSummary version(byte[] json) throws IOException {
+        try (JsonParser p = open(json)) {
+            long id = 0;
+            String name = null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "id" -> id = p.getLongValue();
+                    case "name" -> name = p.getValueAsString();
+                    default -> p.skipChildren();
+                }
+            }
+            return new VersionSummary(id, name);
+        }
+    }
+
+    // ----------------------------------- internos -----------------------------------
+
+    private static JsonParser open(byte[] json) throws IOException {
+        JsonParser p = FACTORY.createParser(json);
+        if (p.nextToken() != JsonToken.START_OBJECT)
+            throw new IOException("Se esperaba un objeto JSON");
+        return p;
+    }
+
+    private static Integer intOrNull(JsonParser p) throws IOException {
+        return p.currentToken().isNumeric() ? p.getIntValue() : null;
+    }
+
+    /** types: [{"slot":1,"type":{"name":"electric","url":...}}, ...] */
+    private static List<String> pokemonTypes(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_ARRAY) { p.skipChildren(); return List.of(); }
+        List<String> out = new ArrayList<>(2);
+        while (p.nextToken() == JsonToken.START_OBJECT) {
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String f = p.currentName();
+                p.nextToken();
+                if ("type".equals(f) && p.currentToken() == JsonToken.START_OBJECT) {
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String tf = p.currentName();
+                        p.nextToken();
+                        if ("name".equals(tf)) out.add(p.getValueAsString());
+                        else p.skipChildren();
+                    }
+                } else {
+                    p.skipChildren();
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * sprites: {"front_default": ..., "other": {"dream_world": {"front_default": ...}}}
+     *
+     * @return [front_default, dream_world.front_default]
+     */
+    private static String[] pokemonSprites(JsonParser p) throws IOException {
+        String[] out = new String[2];
+        if (p.currentToken() != JsonToken.START_OBJECT) { p.skipChildren(); return out; }
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String f = p.currentName();
+            p.nextToken();
+            if ("front_default".equals(f)) {
+                out[0] = p.getValueAsString();
+            } else if ("other".equals(f) && p.currentToken() == JsonToken.START_OBJECT) {
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String of = p.currentName();
+                    p.nextToken();
+                    if ("dream_world".equals(of) && p.currentToken() == JsonToken.START_OBJECT) {
+                        while (p.nextToken() == JsonToken.FIELD_NAME) {
+                            String df = p.currentName();
+                            p.nextToken();
+                            if ("front_default".equals(df)) out[1] = p.getValueAsString();
+                            else p.skipChildren();
+                        }
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,297 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Índice invertido tipo elemental -> ids de Pokémon, construido a partir de
+ * la membresía de {@code /type/{name}} de PokeAPI.
+ *
+ * Cada tipo guarda un int[] ordenado de ids, de modo que una consulta con
+ * varios tipos se resuelve como intersección (AND) o unión (OR) de arreglos
+ * ordenados, sin pedir ningún detalle. Los nombres se guardan aparte (id ->
+ * nombre) para hidratar solo las cards de la página.
+ *
+ * La primera construcción arranca en segundo plano al iniciar; hasta que
+ * termine las consultas lanzan {@link NotReadyException} (HTTP 503). Luego se
+ * reconstruye en segundo plano cuando vence
+ * 'app.catalog.type-index.refresh-seconds', sirviendo mientras tanto el
+ * anterior. Si la primera falla, se reintenta como mucho cada
+ * {@link #RETRY_AFTER_FAILURE}, a pedido de una consulta.
+ */
+@Service
+public class PokemonTypeIndex {
+
+    /** Índice construido: ids ordenados por tipo y nombre por id. */
+    private record Snapshot(Map<String, int[]> byType, Map<Integer, String> names,
+                            Instant builtAt, long buildMillis, long builtNanos) {}
+
+    /** Consulta antes de que termine la primera construcción del índice. */
+    public static class NotReadyException extends RuntimeException {
+        public NotReadyException() {
+            super("Índice de tipos en construcción; reintenta en unos segundos");
+        }
+    }
+
+    /** Espera mínima entre intentos de la primera construcción tras un fallo. */
+    private static final Duration RETRY_AFTER_FAILURE = Duration.ofSeconds(30);
+
+    private final PokeApiService poke;
+    private final long refreshNanos;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile Snapshot snapshot;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile long retryAtNanos = System.nanoTime();
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong buildFailures = new AtomicLong();
+
+    /**
+     * @param refreshSeconds 'app.catalog.type-index.refresh-seconds': antigüedad tras la que se reconstruye (6 h por defecto).
+     */
+    public PokemonTypeIndex(PokeApiService poke,
+                            @Value("${app.catalog.type-index.refresh-seconds:21600}") long refreshSeconds) {
+        this.poke = poke;
+        this.refreshNanos = Duration.ofSeconds(refreshSeconds).toNanos();
+    }
+
+    /** Arranca la primera construcción en segundo plano. */
+    @PostConstruct
+    void start() {
+        refreshAsync();
+    }
+
+    /** Si ya hay un índice construido; mientras sea false las consultas lanzan {@link NotReadyException}. */
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * Ids de Pokémon (ascendentes) que cumplen una expresión de tipos.
+     *
+     * La expresión usa ',' para AND y '|' para OR, p. ej. "fire,flying"
+     * (ambos tipos) o "fire|water" (cualquiera). ',' liga más fuerte que '|':
+     * "fire,flying|water" es (fire AND flying) OR water. Un tipo desconocido
+     * no tiene miembros.
+     *
+     * @param expr expresión de tipos.
+     * @return ids ordenados.
+     * @throws NotReadyException si el índice aún no se construyó.
+     */
+    public int[] ids(String expr) {
+        Map<String, int[]> byType = current().byType();
+        return evaluate(expr, type -> byType.getOrDefault(type, new int[0]));
+    }
+
+    /**
+     * Evalúa una expresión de tipos como unión de grupos separados por '|',
+     * cada uno intersección de sus tipos separados por ','. Los términos y
+     * grupos vacíos se ignoran.
+     *
+     * @param members ids ordenados de un tipo (en minúsculas).
+     */
+    static int[] evaluate(String expr, Function<String, int[]> members) {
+        int[] any = null;
+        for (List<String> group : parse(expr)) {
+            int[] all = null;
+            for (String type : group) {
+                int[] m = members.apply(type);
+                all = all == null ? m : intersect(all, m);
+            }
+            any = any == null ? all : union(any, all);
+        }
+        return any == null ? new int[0] : any;
+    }
+
+    /**
+     * Grupos de una expresión de tipos: cada grupo (separado por '|') es la
+     * lista de tipos (separados por ',') que deben cumplirse a la vez. Los
+     * tipos van en minúsculas; términos y grupos vacíos se omiten. Es la misma
+     * lectura en modo en vivo ({@link #evaluate}) y en espejo (SQL).
+     */
+    public static List<List<String>> parse(String expr) {
+        List<List<String>> groups = new ArrayList<>();
+        for (String group : expr.split("\\|")) {
+            List<String> all = new ArrayList<>();
+            for (String t : group.split(",")) {
+                String type = t.trim().toLowerCase();
+                if (!type.isEmpty()) all.add(type);
+            }
+            if (!all.isEmpty()) groups.add(all);
+        }
+        return groups;
+    }
+
+    /**
+     * Nombres de los Pokémon que cumplen la expresión, en orden de id (como
+     * los listados de PokeAPI).
+     *
+     * @throws NotReadyException si el índice aún no se construyó.
+     */
+    public List<String> names(String expr) {
+        Map<Integer, String> names = current().names();
+        List<String> out = new ArrayList<>();
+        for (int id : ids(expr)) {
+            String name = names.get(id);
+            if (name != null) out.add(name);
+        }
+        return out;
+    }
+
+    /** Tamaño y antigüedad del índice. */
+    public Map<String, Object> stats() {
+        Map<String, Object> m = new LinkedHashMap<>();
+        Snapshot s = snapshot;
+        m.put("built", s != null);
+        if (s != null) {
+            long entries = 0;
+            Map<String, Integer> perType = new TreeMap<>();
+            for (Map.Entry<String, int[]> e : s.byType().entrySet()) {
+                entries += e.getValue().length;
+                perType.put(e.getKey(), e.getValue().length);
+            }
+            m.put("types", s.byType().size());
+            m.put("pokemon", s.names().size());
+            m.put("postings", entries);
+            m.put("postingBytes", entries * Integer.BYTES);
+            m.put("builtAt", s.builtAt().toString());
+            m.put("buildMs", s.buildMillis());
+            m.put("ageSeconds", Duration.ofNanos(System.nanoTime() - s.builtNanos()).toSeconds());
+            m.put("perType", perType);
+        }
+        m.put("builds", builds.get());
+        m.put("buildFailures", buildFailures.get());
+        m.put("refreshing", refreshing.get());
+        return m;
+    }
+
+    // ----------------------------------- operaciones -----------------------------------
+
+    /** Intersección de dos arreglos ordenados sin repetidos. */
+    static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else { out[n++] = a[i]; i++; j++; }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** Unión de dos arreglos ordenados sin repetidos. */
+    static int[] union(int[] a, int[] b) {
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) out[n++] = a[i++];
+            else if (i == a.length || b[j] < a[i]) out[n++] = b[j++];
+            else { out[n++] = a[i]; i++; j++; }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // ----------------------------------- construcción -----------------------------------
+
+    /** Índice vigente; pide una reconstrucción si venció (o si falta y ya pasó la espera tras un fallo). */
+    private Snapshot current() {
+        Snapshot s = snapshot;
+        if (s == null) {
+            if (System.nanoTime() - retryAtNanos >= 0) refreshAsync();
+            throw new NotReadyException();
+        }
+        if (System.nanoTime() - s.builtNanos() > refreshNanos) refreshAsync();
+        return s;
+    }
+
+    /** Construye el índice en segundo plano, salvo que ya haya una construcción en curso. */
+    private void refreshAsync() {
+        if (!refreshing.compareAndSet(false, true)) return;
+        executor.submit(() -> {
+            try {
+                snapshot = build();
+            } catch (RuntimeException e) {
+                retryAtNanos = System.nanoTime() + RETRY_AFTER_FAILURE.toNanos();
+                System.out.println(snapshot == null
+                        ? "[TYPE-INDEX] Construcción fallida, se reintenta en " + RETRY_AFTER_FAILURE.toSeconds() + " s: " + e.getMessage()
+                        : "[TYPE-INDEX] Reconstrucción fallida, se mantiene el índice anterior: " + e.getMessage());
+            } finally {
+                refreshing.set(false);
+            }
+        });
+    }
+
+    /** Descarga la membresía de todos los tipos en paralelo y arma el índice. */
+    @SuppressWarnings("unchecked")
+    private Snapshot build() {
+        long t0 = System.nanoTime();
+        try {
+            List<Map<String, Object>> types = (List<Map<String, Object>>) poke.listTypes().getOrDefault("results", List.of());
+            List<Callable<Map<String, Object>>> calls = new ArrayList<>();
+            for (Map<String, Object> t : types) {
+                String name = String.valueOf(t.get("name"));
+                calls.add(() -> poke.getType(name));
+            }
+
+            Map<String, int[]> byType = new HashMap<>();
+            Map<Integer, String> names = new HashMap<>();
+            for (Future<Map<String, Object>> f : executor.invokeAll(calls)) {
+                Map<String, Object> doc = f.get();
+                String type = String.valueOf(doc.get("name"));
+                List<Map<String, Object>> members = (List<Map<String, Object>>) doc.getOrDefault("pokemon", List.of());
+                int[] ids = new int[members.size()];
+                int n = 0;
+                for (Map<String, Object> m : members) {
+                    Map<String, Object> ref = (Map<String, Object>) m.get("pokemon");
+                    int id = idFromUrl(String.valueOf(ref.get("url")));
+                    if (id <= 0) continue;
+                    ids[n++] = id;
+                    names.putIfAbsent(id, String.valueOf(ref.get("name")));
+                }
+                ids = Arrays.copyOf(ids, n);
+                Arrays.sort(ids);
+                byType.put(type, ids);
+            }
+            long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+            builds.incrementAndGet();
+            System.out.println("[TYPE-INDEX] " + byType.size() + " tipos, " + names.size() + " pokémon en " + ms + " ms");
+            return new Snapshot(Map.copyOf(byType), Map.copyOf(names), Instant.now(), ms, System.nanoTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            buildFailures.incrementAndGet();
+            throw new IllegalStateException("Construcción del índice de tipos interrumpida", e);
+        } catch (ExecutionException e) {
+            buildFailures.incrementAndGet();
+            throw e.getCause() instanceof RuntimeException re ? re : new IllegalStateException(e.getCause());
+        } catch (RuntimeException e) {
+            buildFailures.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /** Id al final de una URL de PokeAPI (".../pokemon/25/"), o -1. */
+    static int idFromUrl(String url) {
+        int end = url.endsWith("/") ? url.length() - 1 : url.length();
+        int start = url.lastIndexOf('/', end - 1) + 1;
+        try {
+            return Integer.parseInt(url.substring(start, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
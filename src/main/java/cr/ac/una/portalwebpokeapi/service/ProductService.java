@@ -1,12 +1,15 @@
 package cr.ac.una.portalwebpokeapi.service;
 
+import cr.ac.una.portalwebpokeapi.events.ProductChangedEvent;
 import cr.ac.una.portalwebpokeapi.model.Category;
 import cr.ac.una.portalwebpokeapi.model.Product;
 import cr.ac.una.portalwebpokeapi.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Servicio de productos.
@@ -15,6 +18,8 @@ import org.springframework.stereotype.Service;
  * - Listar productos por categoría con paginación.
  * - CRUD básico: obtener, crear, actualizar parcial y eliminar.
  * - Validación mínima de dominio antes de persistir.
+ * - Publica {@link ProductChangedEvent} en cada alta, cambio o baja, dentro
+ *   de la misma transacción (ver ClusterSyncService).
  */
 @Service
 @RequiredArgsConstructor
@@ -23,6 +28,9 @@ public class ProductService {
     /** Repositorio JPA de productos. */
     private final ProductRepository repo;
 
+    /** Notifica cambios de productos (índice de comprables por país). */
+    private final ApplicationEventPublisher events;
+
     /**
      * Lista productos de una categoría con paginación.
      *
@@ -52,10 +60,13 @@ public class ProductService {
      * @param p producto a crear
      * @return producto persistido
      */
+    @Transactional
     public Product create(Product p) {
         validate(p);
         p.setId(null);
-        return repo.save(p);
+        Product saved = repo.save(p);
+        events.publishEvent(new ProductChangedEvent(saved.getId()));
+        return saved;
     }
 
     /**
@@ -66,6 +77,7 @@ public class ProductService {
      * @param p  datos a aplicar
      * @return producto actualizado
      */
+    @Transactional
     public Product update(Long id, Product p) {
         Product cur = get(id); // asegura existencia
 
@@ -80,7 +92,9 @@ public class ProductService {
         if (p.getDescription() != null) cur.setDescription(p.getDescription());
 
         validate(cur);
-        return repo.save(cur);
+        Product saved = repo.save(cur);
+        events.publishEvent(new ProductChangedEvent(id));
+        return saved;
     }
 
     /**
@@ -89,9 +103,11 @@ public class ProductService {
      * @param id identificador del producto
      * @throws IllegalArgumentException si no existe
      */
+    @Transactional
     public void delete(Long id) {
         if (!repo.existsById(id)) throw new IllegalArgumentException("Producto no encontrado");
         repo.deleteById(id);
+        events.publishEvent(new ProductChangedEvent(id));
     }
 
     /**
@@ -1,9 +1,20 @@
 package cr.ac.una.portalwebpokeapi.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.ac.una.portalwebpokeapi.config.HttpValidators;
+import cr.ac.una.portalwebpokeapi.config.RevalidationStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
-import java.util.Arrays;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -17,26 +28,96 @@ import java.util.Map;
  *  - region, subregion: ubicación geográfica
  *
  * Se utiliza para poblar catálogos o formularios de selección de país.
+ *
+ * La lista se cachea con su ETag / Last-Modified. Al vencer el TTL se revalida
+ * con GET condicional: un 304 solo extiende la vigencia. Si la revalidación
+ * falla se sigue sirviendo la última lista obtenida.
  */
 @Service
 public class RestCountriesService {
 
-    /** Cliente HTTP para peticiones REST. */
-    private final RestTemplate rt = new RestTemplate();
+    /** Cliente HTTP compartido (pool keep-alive y timeouts, ver OutboundHttpConfig). */
+    private final RestTemplate rt;
+
+    /** URL base de REST Countries ('app.restcountries.base-url'; en pruebas apunta a un servidor local). */
+    private final String base;
+
+    private static final TypeReference<List<Map<String, Object>>> LIST_TYPE = new TypeReference<>() {};
 
-    /** URL base de la API REST Countries. */
-    private static final String BASE = "https://restcountries.com/v3.1";
+    /** Lista cacheada, sus validadores y el instante (nanoTime) en que se validó por última vez. */
+    private record Snapshot(List<Map<String, Object>> countries, HttpValidators validators, long validatedAt) {}
+
+    private final ObjectMapper mapper;
+    private final long ttlNanos;
+    private final RevalidationStats revalidation = new RevalidationStats();
+    private volatile Snapshot snapshot;
+
+    /**
+     * @param ttlSeconds vigencia de la lista antes de revalidar ('app.restcountries.cache.ttl-seconds', 24 h por defecto).
+     * @param baseUrl    URL base de la API ('app.restcountries.base-url').
+     */
+    public RestCountriesService(RestTemplate outboundRestTemplate,
+                                ObjectMapper mapper,
+                                @Value("${app.restcountries.cache.ttl-seconds:86400}") long ttlSeconds,
+                                @Value("${app.restcountries.base-url:https://restcountries.com/v3.1}") String baseUrl) {
+        this.rt = outboundRestTemplate;
+        this.base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.mapper = mapper;
+        this.ttlNanos = Duration.ofSeconds(ttlSeconds).toNanos();
+    }
 
     /**
      * Obtiene la lista de todos los países con campos seleccionados.
      *
-     * @return lista de mapas con datos básicos de los países.
-     *         Si la respuesta es nula, retorna una lista vacía.
+     * @return lista de mapas con datos básicos de los países. Si la descarga
+     *         falla (o llega sin cuerpo) se usa la lista anterior, o se propaga
+     *         el error si todavía no hay ninguna.
      */
-    @SuppressWarnings("unchecked")
     public List<Map<String, Object>> listAll() {
-        String url = BASE + "/all?fields=name,cca2,cca3,flags,region,subregion";
-        ResponseEntity<Map[]> res = rt.getForEntity(url, Map[].class);
-        return res.getBody() == null ? List.of() : Arrays.asList(res.getBody());
+        Snapshot s = snapshot;
+        if (s != null && System.nanoTime() - s.validatedAt() < ttlNanos) return s.countries();
+        synchronized (this) {
+            s = snapshot;
+            if (s != null && System.nanoTime() - s.validatedAt() < ttlNanos) return s.countries();
+            try {
+                snapshot = fetch(s);
+            } catch (RuntimeException e) {
+                if (s == null) throw e;
+                System.out.println("[COUNTRIES] Revalidación fallida, se usa la lista anterior: " + e.getMessage());
+                return s.countries();
+            }
+            return snapshot.countries();
+        }
+    }
+
+    /**
+     * Métricas de revalidación condicional de la lista de países.
+     */
+    public Map<String, Object> revalidationStats() {
+        return revalidation.stats();
+    }
+
+    /** Descarga la lista (condicional si hay una anterior con validadores). */
+    private Snapshot fetch(Snapshot prev) {
+        String url = base + "/all?fields=name,cca2,cca3,flags,region,subregion";
+        boolean conditional = prev != null && prev.validators() != null && prev.validators().usable();
+        HttpEntity<?> request = conditional ? new HttpEntity<>(prev.validators().toRequestHeaders()) : HttpEntity.EMPTY;
+        if (conditional) revalidation.onConditional();
+        ResponseEntity<byte[]> res = rt.exchange(url, HttpMethod.GET, request, byte[].class);
+
+        if (conditional && res.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            revalidation.onNotModified(prev.validators().length());
+            return new Snapshot(prev.countries(), prev.validators(), System.nanoTime());
+        }
+        byte[] body = res.getBody();
+        // Un 200 sin cuerpo es un fallo: no reemplaza la lista anterior por una vacía por todo el TTL
+        if (body == null) throw new IllegalStateException("REST Countries respondió sin cuerpo");
+        revalidation.onDownloaded(body.length);
+        try {
+            List<Map<String, Object>> countries = List.copyOf(mapper.readValue(body, LIST_TYPE));
+            return new Snapshot(countries, HttpValidators.from(res.getHeaders(), body.length), System.nanoTime());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Respuesta inválida de REST Countries", e);
+        }
     }
 }
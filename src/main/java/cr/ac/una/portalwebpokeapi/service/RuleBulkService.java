@@ -0,0 +1,367 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.ac.una.portalwebpokeapi.model.PokemonRule;
+import cr.ac.una.portalwebpokeapi.service.config.CountryConfigService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importación y exportación masiva de reglas de país (pokemon_rules) en CSV o NDJSON.
+ *
+ * - Importar: lee el cuerpo línea a línea (nunca todo el archivo), valida cada
+ *   fila contra {@link CountryConfigService} y escribe las válidas en lotes de
+ *   'app.rules.bulk.batch-size' con {@link DynamicRuleService#upsertRules}. Cada
+ *   fila reemplaza la regla completa de su clave. Las filas inválidas no
+ *   detienen la importación: se informan con su número de línea.
+ * - Exportar: recorre la tabla con {@link DynamicRuleService#forEachRule} y
+ *   escribe fila por fila, con memoria constante. Las filas que no pasarían
+ *   la validación actual se exportan igual y se informan como errores.
+ *
+ * Formatos (mismas columnas en ambos sentidos):
+ *  - CSV: encabezado pokemon_id,origin_country,available_countries,banned_countries,notes;
+ *    las listas de países van entre comillas ("CR,US").
+ *  - NDJSON: un objeto por línea con los campos de la regla (pokemonId,
+ *    originCountry, availableCountriesCsv, bannedCountriesCsv, notes), como el
+ *    cuerpo de PUT /api/admin/rules/{pokemonId}.
+ *
+ * El último informe de cada operación queda disponible en {@link #lastReports}.
+ */
+@Service
+public class RuleBulkService {
+
+    /** Formato del archivo. */
+    public enum Format {
+        CSV("text/csv"), NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        /**
+         * Formato pedido: el parámetro 'format' o, si falta, el Content-Type.
+         */
+        public static Format of(String format, String contentType) {
+            if (format != null && !format.isBlank()) {
+                try {
+                    return valueOf(format.trim().toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Formato inválido: " + format + " (csv | ndjson)");
+                }
+            }
+            return contentType != null && contentType.toLowerCase().contains("json") ? NDJSON : CSV;
+        }
+    }
+
+    /** Error de una fila: número de línea, clave (si se pudo leer) y motivo. */
+    public record RowError(long line, Long pokemonId, String error) {}
+
+    /**
+     * Resultado de una importación o exportación.
+     *
+     * @param rows            filas leídas (sin encabezado ni líneas vacías).
+     * @param written         filas escritas (en la base o en la respuesta).
+     * @param failed          filas con error.
+     * @param errors          detalle de los primeros 'app.rules.bulk.max-errors' errores.
+     * @param errorsTruncated true si hubo más errores de los detallados.
+     */
+    public record Report(String operation, Format format, long rows, long written, long failed,
+                         List<RowError> errors, boolean errorsTruncated, long elapsedMs, double rowsPerSec) {}
+
+    static final String CSV_HEADER = "pokemon_id,origin_country,available_countries,banned_countries,notes";
+
+    private final DynamicRuleService rules;
+    private final CountryConfigService countryCfg;
+    private final ObjectMapper mapper;
+    private final int batchSize;
+    private final int maxErrors;
+    private final Map<String, Report> last = new LinkedHashMap<>();
+
+    /**
+     * @param batchSize 'app.rules.bulk.batch-size': filas por batch JDBC al importar.
+     * @param maxErrors 'app.rules.bulk.max-errors': errores detallados por informe.
+     */
+    public RuleBulkService(DynamicRuleService rules,
+                           CountryConfigService countryCfg,
+                           ObjectMapper mapper,
+                           @Value("${app.rules.bulk.batch-size:500}") int batchSize,
+                           @Value("${app.rules.bulk.max-errors:1000}") int maxErrors) {
+        this.rules = rules;
+        this.countryCfg = countryCfg;
+        this.mapper = mapper;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxErrors = Math.max(0, maxErrors);
+    }
+
+    // ----------------------------------- importar -----------------------------------
+
+    /**
+     * Importa reglas desde un flujo. El flujo se consume hasta el final; las
+     * filas válidas se escriben a medida que se completa cada lote.
+     */
+    public Report importRules(InputStream in, Format format) throws IOException {
+        Tally t = new Tally();
+        List<PokemonRule> batch = new ArrayList<>(batchSize);
+        List<Long> batchLines = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String text;
+        long lineNo = 0;
+        while ((text = reader.readLine()) != null) {
+            lineNo++;
+            if (text.isBlank()) continue;
+            if (lineNo == 1 && format == Format.CSV && isCsvHeader(text)) continue;
+            t.rows++;
+            PokemonRule r = null;
+            try {
+                r = format == Format.CSV ? fromCsv(text) : fromJson(text);
+                validate(r);
+            } catch (IllegalArgumentException e) {
+                t.error(lineNo, r == null ? null : r.getPokemonId(), e.getMessage());
+                continue;
+            }
+            batch.add(r);
+            batchLines.add(lineNo);
+            if (batch.size() == batchSize) flush(batch, batchLines, t);
+        }
+        flush(batch, batchLines, t);
+        return finish("import", format, t);
+    }
+
+    private void flush(List<PokemonRule> batch, List<Long> lines, Tally t) {
+        if (batch.isEmpty()) return;
+        try {
+            rules.upsertRules(batch);
+            t.written += batch.size();
+        } catch (DataAccessException e) {
+            // El lote completo se descarta: no se sabe qué fila lo hizo fallar
+            String msg = "Lote rechazado por la base: " + e.getMostSpecificCause().getMessage();
+            for (int i = 0; i < batch.size(); i++) t.error(lines.get(i), batch.get(i).getPokemonId(), msg);
+        }
+        batch.clear();
+        lines.clear();
+    }
+
+    /** Normaliza y valida una fila: clave positiva, origen y listas dentro de los países permitidos. */
+    private void validate(PokemonRule r) {
+        if (r.getPokemonId() == null || r.getPokemonId() <= 0)
+            throw new IllegalArgumentException("pokemon_id requerido y positivo");
+        String origin = r.getOriginCountry() == null ? null : r.getOriginCountry().trim().toUpperCase();
+        if (origin == null || origin.isEmpty())
+            throw new IllegalArgumentException("origin_country requerido");
+        if (!countryCfg.isAllowed(origin))
+            throw new IllegalArgumentException("País de origen no permitido: " + origin);
+        r.setOriginCountry(origin);
+        r.setAvailableCountriesCsv(normalizeList("available_countries", r.getAvailableCountriesCsv()));
+        r.setBannedCountriesCsv(normalizeList("banned_countries", r.getBannedCountriesCsv()));
+        if (r.getNotes() != null && r.getNotes().isBlank()) r.setNotes(null);
+        if (r.getNotes() != null && r.getNotes().length() > 500)
+            throw new IllegalArgumentException("notes excede 500 caracteres");
+    }
+
+    /** Lista de países en mayúsculas separada por comas, o null si está vacía. */
+    private String normalizeList(String column, String csv) {
+        if (csv == null) return null;
+        StringJoiner out = new StringJoiner(",");
+        for (String code : csv.split(",")) {
+            String cc = code.trim().toUpperCase();
+            if (cc.isEmpty()) continue;
+            if (!countryCfg.isAllowed(cc))
+                throw new IllegalArgumentException("País no permitido en " + column + ": " + cc);
+            out.add(cc);
+        }
+        return out.length() == 0 ? null : out.toString();
+    }
+
+    private PokemonRule fromJson(String line) {
+        JsonNode n;
+        try {
+            n = mapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("JSON inválido");
+        }
+        if (n == null || !n.isObject()) throw new IllegalArgumentException("Se esperaba un objeto JSON");
+        PokemonRule r = new PokemonRule();
+        JsonNode id = n.get("pokemonId");
+        if (id != null && !id.isNull()) {
+            if (!id.canConvertToLong()) throw new IllegalArgumentException("pokemonId inválido: " + id.asText());
+            r.setPokemonId(id.asLong());
+        }
+        r.setOriginCountry(text(n, "originCountry"));
+        r.setAvailableCountriesCsv(text(n, "availableCountriesCsv"));
+        r.setBannedCountriesCsv(text(n, "bannedCountriesCsv"));
+        r.setNotes(text(n, "notes"));
+        return r;
+    }
+
+    private static String text(JsonNode n, String field) {
+        JsonNode v = n.get(field);
+        return v == null || v.isNull() ? null : v.asText();
+    }
+
+    private static PokemonRule fromCsv(String line) {
+        List<String> f = parseCsvLine(line);
+        if (f.size() < 2 || f.size() > 5)
+            throw new IllegalArgumentException("Se esperaban de 2 a 5 columnas (" + CSV_HEADER + ")");
+        PokemonRule r = new PokemonRule();
+        try {
+            r.setPokemonId(Long.valueOf(f.get(0).trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("pokemon_id inválido: " + f.get(0));
+        }
+        r.setOriginCountry(f.get(1));
+        r.setAvailableCountriesCsv(f.size() > 2 ? emptyToNull(f.get(2)) : null);
+        r.setBannedCountriesCsv(f.size() > 3 ? emptyToNull(f.get(3)) : null);
+        r.setNotes(f.size() > 4 ? emptyToNull(f.get(4)) : null);
+        return r;
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return line.trim().toLowerCase().startsWith("pokemon_id");
+    }
+
+    /** Campos de una línea CSV; admite campos entre comillas con "" como comilla escapada. */
+    static List<String> parseCsvLine(String line) {
+        List<String> out = new ArrayList<>(5);
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cur.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                out.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Comillas sin cerrar");
+        out.add(cur.toString());
+        return out;
+    }
+
+    private static String emptyToNull(String s) {
+        return s == null || s.isBlank() ? null : s;
+    }
+
+    // ----------------------------------- exportar -----------------------------------
+
+    /**
+     * Escribe todas las reglas en 'out', fila por fila. No cierra el flujo.
+     */
+    public Report exportRules(OutputStream out, Format format) throws IOException {
+        Tally t = new Tally();
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) w.write(CSV_HEADER + "\n");
+        try {
+            rules.forEachRule(r -> {
+                t.rows++;
+                try {
+                    w.write(format == Format.CSV ? toCsv(r) : mapper.writeValueAsString(toJson(r)));
+                    w.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                t.written++;
+                try {
+                    validate(copyOf(r));
+                } catch (IllegalArgumentException e) {
+                    // Se exporta igual; se informa porque no se podría volver a importar
+                    t.error(t.rows + (format == Format.CSV ? 1 : 0), r.getPokemonId(), e.getMessage());
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        w.flush();
+        return finish("export", format, t);
+    }
+
+    static String toCsv(PokemonRule r) {
+        return r.getPokemonId() + "," + csvField(r.getOriginCountry()) + "," + csvField(r.getAvailableCountriesCsv())
+                + "," + csvField(r.getBannedCountriesCsv()) + "," + csvField(r.getNotes());
+    }
+
+    private static String csvField(String s) {
+        if (s == null) return "";
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) return s;
+        // Los saltos de línea se reemplazan: cada fila debe ocupar una línea
+        return '"' + s.replace("\r", " ").replace("\n", " ").replace("\"", "\"\"") + '"';
+    }
+
+    private static Map<String, Object> toJson(PokemonRule r) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("pokemonId", r.getPokemonId());
+        m.put("originCountry", r.getOriginCountry());
+        m.put("availableCountriesCsv", r.getAvailableCountriesCsv());
+        m.put("bannedCountriesCsv", r.getBannedCountriesCsv());
+        m.put("notes", r.getNotes());
+        return m;
+    }
+
+    private static PokemonRule copyOf(PokemonRule r) {
+        PokemonRule c = new PokemonRule();
+        c.setPokemonId(r.getPokemonId());
+        c.setOriginCountry(r.getOriginCountry());
+        c.setAvailableCountriesCsv(r.getAvailableCountriesCsv());
+        c.setBannedCountriesCsv(r.getBannedCountriesCsv());
+        c.setNotes(r.getNotes());
+        return c;
+    }
+
+    // ----------------------------------- informes -----------------------------------
+
+    /** Último informe de importación y de exportación. */
+    public Map<String, Report> lastReports() {
+        synchronized (last) {
+            return new LinkedHashMap<>(last);
+        }
+    }
+
+    /** Contadores de una operación en curso. */
+    private final class Tally {
+        final long startNanos = System.nanoTime();
+        long rows, written, failed;
+        final List<RowError> errors = new ArrayList<>();
+
+        void error(long line, Long key, String message) {
+            failed++;
+            if (errors.size() < maxErrors) errors.add(new RowError(line, key, message));
+        }
+    }
+
+    private Report finish(String operation, Format format, Tally t) {
+        long nanos = System.nanoTime() - t.startNanos;
+        double perSec = nanos == 0 ? 0.0 : t.rows * 1_000_000_000.0 / nanos;
+        Report report = new Report(operation, format, t.rows, t.written, t.failed, List.copyOf(t.errors),
+                t.failed > t.errors.size(), TimeUnit.NANOSECONDS.toMillis(nanos), Math.round(perSec * 10) / 10.0);
+        synchronized (last) {
+            last.put(operation, report);
+        }
+        System.out.println("[RULES-BULK] " + operation + " " + format + ": " + t.rows + " filas, " + t.written
+                + " escritas, " + t.failed + " con error, " + report.rowsPerSec() + " filas/s");
+        return report;
+    }
+}
@@ -0,0 +1,110 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.model.PokemonRule;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria de reglas de país, clave = clave compuesta de
+ * {@link DynamicRuleService#compositeKey}.
+ *
+ * - Se llena en forma perezosa con lo que se lee de la base.
+ * - Los cambios del admin se escriben a través de ella ({@link #write},
+ *   {@link #remove}) después de confirmarse en la base.
+ * - Un contador de versión evita servir una regla vieja: cada escritura del
+ *   admin incrementa la versión, y una lectura de la base que empezó antes
+ *   de ese cambio no se guarda ({@link #fill} compara la versión tomada
+ *   antes de leer).
+ * - Solo entra lo confirmado: dentro de una transacción, {@link #fill},
+ *   {@link #write} y {@link #remove} se aplican al confirmarse; si se
+ *   revierte no se aplican (una regla creada en un checkout que falla no
+ *   queda en la caché sin existir en la base).
+ *
+ * No tiene tope: hay a lo sumo una regla por recurso del catálogo (unos pocos miles).
+ */
+final class RuleCache {
+
+    private final Map<Long, PokemonRule> rules = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleFills = new AtomicLong();
+
+    /** Regla cacheada o null (cuenta acierto/fallo). */
+    PokemonRule get(long key) {
+        PokemonRule r = rules.get(key);
+        (r != null ? hits : misses).incrementAndGet();
+        return r;
+    }
+
+    /** Versión vigente; tomarla antes de leer de la base y pasarla a {@link #fill}. */
+    long version() {
+        return version.get();
+    }
+
+    /**
+     * Guarda una regla leída de la base, salvo que el admin haya cambiado
+     * alguna regla desde 'readVersion' (la lectura podría ser anterior al cambio).
+     */
+    void fill(long key, PokemonRule rule, long readVersion) {
+        afterCommit(() -> rules.compute(key, (k, cur) -> {
+            if (version.get() != readVersion) {
+                staleFills.incrementAndGet();
+                return cur;
+            }
+            return cur != null ? cur : rule;
+        }));
+    }
+
+    /** Escritura del admin: reemplaza la entrada. */
+    void write(long key, PokemonRule rule) {
+        afterCommit(() -> rules.compute(key, (k, cur) -> {
+            version.incrementAndGet();
+            return rule;
+        }));
+    }
+
+    /** Borrado del admin (o cambio de otro nodo): descarta la entrada. */
+    void remove(long key) {
+        afterCommit(() -> rules.compute(key, (k, cur) -> {
+            version.incrementAndGet();
+            return null;
+        }));
+    }
+
+    /**
+     * Ejecuta 'action' cuando se confirma la transacción del hilo actual, o
+     * de inmediato si no hay ninguna. Las acciones corren en el orden en que
+     * se registraron.
+     */
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /** Aciertos, fallos, tasa de aciertos, tamaño y versión. */
+    Map<String, Object> stats() {
+        long h = hits.get(), m = misses.get();
+        Map<String, Object> s = new LinkedHashMap<>();
+        s.put("size", rules.size());
+        s.put("hits", h);
+        s.put("misses", m);
+        s.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        s.put("version", version.get());
+        s.put("staleFillsSkipped", staleFills.get());
+        return s;
+    }
+}
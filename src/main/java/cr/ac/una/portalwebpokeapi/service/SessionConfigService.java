@@ -1,8 +1,10 @@
 package cr.ac.una.portalwebpokeapi.service;
 
+import cr.ac.una.portalwebpokeapi.events.SessionConfigChangedEvent;
 import cr.ac.una.portalwebpokeapi.model.SessionConfigEntity;
 import cr.ac.una.portalwebpokeapi.repository.SessionConfigRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,6 +14,8 @@ import org.springframework.transaction.annotation.Transactional;
  * Funcionalidad:
  *  - Consultar y actualizar el tiempo de expiración (timeout) de sesiones activas.
  *  - Si no existe configuración persistida, aplica un valor por defecto (600 segundos).
+ *  - Publica {@link SessionConfigChangedEvent} al actualizar, para propagar el
+ *    cambio a los demás nodos (ver ClusterSyncService).
  */
 @Service
 @RequiredArgsConstructor
@@ -19,6 +23,7 @@ public class SessionConfigService {
 
     /** Repositorio de configuración de sesión. */
     private final SessionConfigRepository repo;
+    private final ApplicationEventPublisher events;
 
     /**
      * Obtiene el tiempo de expiración de sesión actual.
@@ -45,6 +50,8 @@ public class SessionConfigService {
         SessionConfigEntity cfg = repo.findTopByOrderByIdAsc()
                 .orElseGet(SessionConfigEntity::new);
         cfg.setTimeoutSeconds(seconds);
-        return repo.save(cfg);
+        SessionConfigEntity saved = repo.save(cfg);
+        events.publishEvent(new SessionConfigChangedEvent(saved.getTimeoutSeconds()));
+        return saved;
     }
 }
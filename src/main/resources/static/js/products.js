@@ -73,7 +73,7 @@ function initCatalogPage() {
         <div class="flex-row" style="gap:.35rem; flex-wrap:wrap;">
           ${badges} ${origin}
         </div>
-        <span class="price">${formatMoney(c.price)}</span>
+        <span class="price">${c.placeholder ? '—' : formatMoney(c.price)}</span>
         <div class="flex-row">
           <button class="btn small primary" data-name="${c.name}" data-kind="${c.kind}">Agregar</button>
         </div>
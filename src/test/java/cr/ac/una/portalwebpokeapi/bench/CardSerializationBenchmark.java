@@ -0,0 +1,102 @@
+package cr.ac.una.portalwebpokeapi.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.ac.una.portalwebpokeapi.dto.CardList;
+import cr.ac.una.portalwebpokeapi.dto.PokemonSummary;
+import cr.ac.una.portalwebpokeapi.service.CardJsonCache;
+import cr.ac.una.portalwebpokeapi.service.PokeCatalogService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara armar una página de cards como mapas y serializarla con Jackson
+ * (camino anterior) contra copiar los fragmentos de {@link CardJsonCache} al
+ * stream de salida.
+ *
+ * Ejecutar con el perfilador de GC para ver la asignación por página:
+ * <pre>
+ *   mvn -q test-compile
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        cr.ac.una.portalwebpokeapi.bench.CardSerializationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardSerializationBenchmark {
+
+    /** Tamaño de página del catálogo. */
+    @Param({"20", "50"})
+    public int pageSize;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final CardJsonCache cache = new CardJsonCache(mapper, 8 << 20, 3600);
+    private List<PokemonSummary> page;
+
+    @Setup
+    public void setup() throws IOException {
+        page = new ArrayList<>(pageSize);
+        for (int i = 1; i <= pageSize; i++) {
+            page.add(new PokemonSummary(i, "pokemon-" + i, 60 + i, 100 + i,
+                    "https://raw.githubusercontent.com/PokeAPI/sprites/master/sprites/pokemon/" + i + ".png",
+                    List.of("grass", "poison")));
+        }
+        // Caché caliente: es el caso de una página ya vista
+        fragmentPath(new ByteArrayOutputStream());
+    }
+
+    /** Card como la arma PokeCatalogService.toPokemonCard (con el país ya resuelto). */
+    private static Map<String, Object> card(PokemonSummary d) {
+        Map<String, Object> card = new LinkedHashMap<>();
+        card.put("id", d.id());
+        card.put("name", d.name());
+        card.put("image", d.sprite());
+        card.put("types", d.types());
+        card.put("price", PokeCatalogService.priceFromPokemonDetail(d));
+        card.put("kind", "POKEMON");
+        card.put("country", "CR");
+        return card;
+    }
+
+    /** Camino anterior: un LinkedHashMap por card y serialización completa con Jackson. */
+    @Benchmark
+    public byte[] mapPath() throws Exception {
+        List<Map<String, Object>> cards = new ArrayList<>(page.size());
+        for (PokemonSummary d : page) cards.add(card(d));
+        return mapper.writeValueAsBytes(cards);
+    }
+
+    /** Camino nuevo: fragmentos cacheados copiados al stream. */
+    @Benchmark
+    public int cachedFragmentPath() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 * pageSize);
+        fragmentPath(out);
+        return out.size();
+    }
+
+    private void fragmentPath(ByteArrayOutputStream out) throws IOException {
+        List<byte[]> fragments = new ArrayList<>(page.size());
+        for (PokemonSummary d : page) fragments.add(cache.fragment(1_000_000_000_000L + d.id(), d, () -> card(d)));
+        new CardList(fragments, 0).writeTo(out);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CardSerializationBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,108 @@
+package cr.ac.una.portalwebpokeapi.bench;
+
+import cr.ac.una.portalwebpokeapi.model.CountryMasks;
+import cr.ac.una.portalwebpokeapi.service.CountryEligibility;
+import cr.ac.una.portalwebpokeapi.service.config.CountryConfigService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compara la validación por país anterior de CountryGuard (parsear los CSV a
+ * HashSet en cada llamada y lanzar excepción al rechazar) contra las máscaras
+ * compiladas de {@link CountryEligibility}.
+ *
+ * Ejecutar igual que {@link CardSerializationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CountryEligibilityBenchmark {
+
+    /** Política de un artículo: origen y listas CSV. */
+    private record Policy(String origin, String available, String banned) {}
+
+    private static final int N = 1024;
+
+    private final CountryEligibility engine = new CountryEligibility(new CountryConfigService());
+    private final Policy[] policies = new Policy[N];
+    private final CountryMasks[] masks = new CountryMasks[N];
+    private final String[] users = new String[N];
+
+    @Setup
+    public void setup() {
+        List<String> codes = new CountryConfigService().allowedList();
+        Random rnd = new Random(7);
+        for (int i = 0; i < N; i++) {
+            String origin = codes.get(rnd.nextInt(codes.size()));
+            String available = origin + "," + codes.get(rnd.nextInt(codes.size())) + "," + codes.get(rnd.nextInt(codes.size()));
+            String banned = rnd.nextInt(4) == 0 ? codes.get(rnd.nextInt(codes.size())) : null;
+            policies[i] = new Policy(origin, available, banned);
+            masks[i] = engine.compile(origin, available, banned);
+            // La mitad de las consultas son del país de origen (caso comprable)
+            users[i] = rnd.nextBoolean() ? origin : codes.get(rnd.nextInt(codes.size()));
+        }
+    }
+
+    /** Camino anterior: CSV a HashSet por llamada y excepciones como control de flujo. */
+    @Benchmark
+    public void csvPath(Blackhole bh) {
+        for (int i = 0; i < N; i++) {
+            Policy p = policies[i];
+            try {
+                legacyCheck(users[i], p.origin(), p.available(), p.banned());
+                bh.consume(true);
+            } catch (IllegalArgumentException e) {
+                bh.consume(e);
+            }
+        }
+    }
+
+    /** Camino nuevo: máscaras compiladas y motivo como valor. */
+    @Benchmark
+    public void bitmaskPath(Blackhole bh) {
+        for (int i = 0; i < N; i++) bh.consume(engine.check(users[i], masks[i]));
+    }
+
+    /** Copia de CountryGuard.check antes de las máscaras. */
+    private static void legacyCheck(String userCountry, String origin, String availableCsv, String bannedCsv) {
+        String uc = userCountry.toUpperCase();
+        if (origin == null || origin.isBlank())
+            throw new IllegalArgumentException("Artículo sin país de origen");
+        if (!origin.equalsIgnoreCase(uc))
+            throw new IllegalArgumentException("Solo puedes comprar productos de tu país (" + uc + ")");
+        Set<String> banned = parseCsv(bannedCsv);
+        if (banned.contains(uc))
+            throw new IllegalArgumentException("Tu país está prohibido para este producto");
+        Set<String> available = parseCsv(availableCsv);
+        if (!available.isEmpty() && !available.contains(uc))
+            throw new IllegalArgumentException("Tu país no está en la lista de disponibilidad");
+    }
+
+    private static Set<String> parseCsv(String csv) {
+        if (csv == null || csv.isBlank()) return Set.of();
+        return Arrays.stream(csv.split(","))
+                .map(String::trim).filter(s -> !s.isEmpty())
+                .map(String::toUpperCase)
+                .collect(Collectors.toSet());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CountryEligibilityBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,90 @@
+package cr.ac.una.portalwebpokeapi.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.ac.una.portalwebpokeapi.dto.PokemonSummary;
+import cr.ac.una.portalwebpokeapi.service.PokeDocParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el camino anterior (documento completo a Map + lectura de campos)
+ * contra el parser en streaming de {@link PokeDocParser}.
+ *
+ * Ejecutar con el perfilador de GC para ver la asignación por card:
+ * <pre>
+ *   mvn -q test-compile
+ *   java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *        cr.ac.una.portalwebpokeapi.bench.PokeDocParseBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PokeDocParseBenchmark {
+
+    private static final TypeReference<Map<String, Object>> DOC_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private byte[] doc;
+
+    /** Documento con la forma de /pokemon/{id}: "moves" y "game_indices" dominan el tamaño. */
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder(256 * 1024);
+        sb.append("{\"abilities\":[{\"ability\":{\"name\":\"static\",\"url\":\"u\"},\"is_hidden\":false,\"slot\":1}],");
+        sb.append("\"base_experience\":112,\"game_indices\":[");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"game_index\":84,\"version\":{\"name\":\"v").append(i).append("\",\"url\":\"https://pokeapi.co/api/v2/version/").append(i).append("/\"}}");
+        }
+        sb.append("],\"height\":4,\"id\":25,\"moves\":[");
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"move\":{\"name\":\"move-").append(i).append("\",\"url\":\"https://pokeapi.co/api/v2/move/").append(i).append("/\"},\"version_group_details\":[");
+            for (int j = 0; j < 10; j++) {
+                if (j > 0) sb.append(',');
+                sb.append("{\"level_learned_at\":").append(j).append(",\"move_learn_method\":{\"name\":\"level-up\",\"url\":\"u\"},\"version_group\":{\"name\":\"red-blue\",\"url\":\"u\"}}");
+            }
+            sb.append("]}");
+        }
+        sb.append("],\"name\":\"pikachu\",\"sprites\":{\"back_default\":\"b.png\",\"front_default\":\"f.png\",");
+        sb.append("\"other\":{\"dream_world\":{\"front_default\":\"d.svg\"}}},");
+        sb.append("\"types\":[{\"slot\":1,\"type\":{\"name\":\"electric\",\"url\":\"u\"}}],\"weight\":60}");
+        doc = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Camino anterior: Map completo y extracción de los campos usados por la card. */
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Object mapPath() throws Exception {
+        Map<String, Object> d = mapper.readValue(doc, DOC_TYPE);
+        Map<String, Object> sprites = (Map<String, Object>) d.get("sprites");
+        List<Map<String, Object>> types = (List<Map<String, Object>>) d.get("types");
+        return new Object[]{d.get("id"), d.get("name"), d.get("base_experience"), d.get("weight"),
+                sprites.get("front_default"), ((Map<String, Object>) types.get(0).get("type")).get("name")};
+    }
+
+    /** Camino nuevo: proyección en streaming a un record compacto. */
+    @Benchmark
+    public PokemonSummary streamingPath() throws Exception {
+        return PokeDocParser.pokemon(doc);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PokeDocParseBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build()).run();
+    }
+}
@@ -0,0 +1,33 @@
+package cr.ac.una.portalwebpokeapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link FrequencySketch}: conteo, tope de 4 bits y envejecimiento.
+ */
+class FrequencySketchTest {
+
+    // 64 claves esperadas -> 128 columnas, envejece cada 1280 incrementos
+    private final FrequencySketch sketch = new FrequencySketch(64);
+
+    @Test
+    void countsAndSaturatesAtFifteen() {
+        assertEquals(0, sketch.frequency("a"));
+        for (int i = 0; i < 5; i++) sketch.increment("a");
+        assertTrue(sketch.frequency("a") >= 5);
+        for (int i = 0; i < 50; i++) sketch.increment("a");
+        assertEquals(15, sketch.frequency("a"));
+    }
+
+    @Test
+    void frequenciesDecayAfterSampleSize() {
+        for (int i = 0; i < 12; i++) sketch.increment("hot");
+        assertTrue(sketch.frequency("hot") >= 12);
+
+        // Incrementos de otras claves hasta completar la muestra: todo se divide entre 2
+        for (int i = 0; i < 1280; i++) sketch.increment("other-" + i);
+        assertTrue(sketch.frequency("hot") <= 7, "frecuencia " + sketch.frequency("hot"));
+    }
+}
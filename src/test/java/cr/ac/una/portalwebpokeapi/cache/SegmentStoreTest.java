@@ -0,0 +1,137 @@
+package cr.ac.una.portalwebpokeapi.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link SegmentStore}: reapertura, recuperación ante registros
+ * corruptos o truncados, archivos ajenos y compactación.
+ */
+class SegmentStoreTest {
+
+    // Clave de 2 caracteres, sin atributos y cuerpo de 10 bytes: 32 bytes por registro
+    private static final int RECORD = 32;
+
+    @TempDir
+    Path dir;
+
+    private Path firstSegment() {
+        return dir.resolve("segment-000001.dat");
+    }
+
+    private static byte[] body(String s) {
+        return String.format("%-10s", s).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(SegmentStore.Entry e) {
+        return new String(e.body(), StandardCharsets.UTF_8).trim();
+    }
+
+    private void writeThree() throws IOException {
+        try (SegmentStore store = new SegmentStore(dir, 1 << 20)) {
+            store.put("k1", Map.of(), body("uno"));
+            store.put("k2", Map.of(), body("dos"));
+            store.put("k3", Map.of(), body("tres"));
+        }
+        assertEquals(3L * RECORD, Files.size(firstSegment()));
+    }
+
+    @Test
+    void reopenRebuildsIndexAndAliases() throws IOException {
+        try (SegmentStore store = new SegmentStore(dir, 1 << 20)) {
+            store.put("pokemon:25", Map.of(SegmentStore.ALIAS, "pokemon:pikachu"), body("pika"));
+        }
+        try (SegmentStore store = new SegmentStore(dir, 1 << 20)) {
+            assertEquals("pika", text(store.get("pokemon:pikachu")));
+            assertEquals(0L, store.stats().get("corruptRecords"));
+        }
+    }
+
+    @Test
+    void corruptedRecordCutsTheSegmentAtThatRecord() throws IOException {
+        writeThree();
+        // Altera el último byte del cuerpo de k2: el CRC ya no coincide
+        try (FileChannel ch = FileChannel.open(firstSegment(), StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.wrap(new byte[]{'X'}), 2L * RECORD - 1);
+        }
+        try (SegmentStore store = new SegmentStore(dir, 1 << 20)) {
+            assertEquals("uno", text(store.get("k1")));
+            assertNull(store.get("k2"));
+            assertNull(store.get("k3"));
+            assertEquals(1L, store.stats().get("corruptRecords"));
+        }
+        assertEquals(RECORD, Files.size(firstSegment()));
+    }
+
+    @Test
+    void tornTailIsTruncatedAndWritesContinueAfterIt() throws IOException {
+        writeThree();
+        try (FileChannel ch = FileChannel.open(firstSegment(), StandardOpenOption.WRITE)) {
+            ch.truncate(3L * RECORD - 5); // escritura interrumpida de k3
+        }
+        try (SegmentStore store = new SegmentStore(dir, 1 << 20)) {
+            assertEquals("dos", text(store.get("k2")));
+            assertNull(store.get("k3"));
+            store.put("k4", Map.of(), body("cuatro"));
+        }
+        try (SegmentStore store = new SegmentStore(dir, 1 << 20)) {
+            assertEquals(3, store.size());
+            assertEquals("cuatro", text(store.get("k4")));
+            assertEquals(0L, store.stats().get("corruptRecords"));
+        }
+    }
+
+    @Test
+    void strayFilesInDirectoryAreIgnored() throws IOException {
+        writeThree();
+        Files.writeString(dir.resolve("segment-abc.dat"), "basura");
+        Files.writeString(dir.resolve("segment-000001.dat.bak"), "copia");
+        try (SegmentStore store = new SegmentStore(dir, 1 << 20)) {
+            assertEquals(3, store.size());
+        }
+    }
+
+    @Test
+    void compactionRemovesOldSegments() throws IOException {
+        try (SegmentStore store = new SegmentStore(dir, 4 * RECORD)) {
+            for (int i = 0; i < 40; i++) store.put("k" + (i % 2), Map.of(), body("v" + i));
+            store.compact();
+            assertEquals(0, store.stats().get("pendingDeletes"));
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            assertTrue(files.count() <= 2);
+        }
+        try (SegmentStore store = new SegmentStore(dir, 4 * RECORD)) {
+            assertEquals("v38", text(store.get("k0")));
+            assertEquals("v39", text(store.get("k1")));
+        }
+    }
+
+    @Test
+    void segmentMarkedObsoleteIsDeletedWithoutLoading() throws IOException {
+        writeThree();
+        try (SegmentStore store = new SegmentStore(dir, 3 * RECORD)) {
+            store.put("k1", Map.of(), body("nuevo")); // sella el segmento 1 y abre el 2
+        }
+        // Como si el borrado del segmento 1 hubiera fallado tras compactarlo
+        Files.createFile(dir.resolve("segment-000001.dat.obsolete"));
+        try (SegmentStore store = new SegmentStore(dir, 3 * RECORD)) {
+            assertEquals("nuevo", text(store.get("k1")));
+            assertNull(store.get("k2"));
+        }
+        assertFalse(Files.exists(firstSegment()));
+        assertFalse(Files.exists(dir.resolve("segment-000001.dat.obsolete")));
+    }
+}
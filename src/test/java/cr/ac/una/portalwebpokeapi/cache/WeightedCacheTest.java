@@ -0,0 +1,64 @@
+package cr.ac.una.portalwebpokeapi.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link WeightedCache}: admisión TinyLFU frente a ráfagas de
+ * claves únicas y respeto del presupuesto de peso.
+ */
+class WeightedCacheTest {
+
+    // ventana = 10 bytes, región principal = 990 bytes
+    private final WeightedCache<String, String> cache = new WeightedCache<>(1000, Duration.ofMinutes(5), 1000);
+
+    /** 50 claves de 10 bytes leídas varias veces: quedan en la región protegida. */
+    private void warmHotKeys() {
+        for (int i = 0; i < 50; i++) cache.put("hot-" + i, "v", 10);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) cache.get("hot-" + i);
+        }
+    }
+
+    @Test
+    void burstOfUniqueKeysDoesNotDisplacePopularOnes() {
+        warmHotKeys();
+        for (int i = 0; i < 1000; i++) cache.put("cold-" + i, "v", 10);
+
+        for (int i = 0; i < 50; i++) assertNotNull(cache.get("hot-" + i), "hot-" + i);
+        assertTrue(cache.weight() <= 1000);
+    }
+
+    @Test
+    void neverExceedsWeightBudget() {
+        for (int i = 0; i < 500; i++) {
+            cache.put("k-" + i, "v", 1 + i % 37);
+            assertTrue(cache.weight() <= 1000, "peso " + cache.weight());
+        }
+    }
+
+    @Test
+    void entryLargerThanMainRegionIsRejectedWithoutEvicting() {
+        warmHotKeys();
+        int before = cache.size();
+        // Muy frecuente: antes ganaba a todas las víctimas y vaciaba la caché
+        for (int i = 0; i < 20; i++) cache.get("big");
+        cache.put("big", "v", 995);
+
+        assertNull(cache.get("big"));
+        assertEquals(before, cache.size());
+        for (int i = 0; i < 50; i++) assertNotNull(cache.get("hot-" + i), "hot-" + i);
+        assertEquals(1L, cache.stats().get("rejections"));
+        assertTrue(cache.weight() <= 1000);
+    }
+
+    @Test
+    void entryLargerThanTotalIsRejected() {
+        cache.put("huge", "v", 2000);
+        assertNull(cache.get("huge"));
+        assertEquals(0L, cache.weight());
+    }
+}
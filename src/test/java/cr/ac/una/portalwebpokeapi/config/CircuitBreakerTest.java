@@ -0,0 +1,68 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link CircuitBreaker}: apertura por tasa de fallos, rechazo
+ * mientras está abierto y transiciones de HALF_OPEN decididas solo por la prueba.
+ */
+class CircuitBreakerTest {
+
+    /** Ventana de 4, evalúa desde 2 llamadas, abre con 50% de fallos. */
+    private static CircuitBreaker breaker(Duration open) {
+        return new CircuitBreaker("test", 4, 2, 0.5, open, 1);
+    }
+
+    private static void fail(CircuitBreaker b, int n) {
+        for (int i = 0; i < n; i++) b.onFailure(b.tryAcquire());
+    }
+
+    @Test
+    void opensAtFailureRateAndRejectsWhileOpen() {
+        CircuitBreaker b = breaker(Duration.ofMinutes(1));
+        b.onSuccess(b.tryAcquire());
+        assertEquals(CircuitBreaker.State.CLOSED, b.state());
+        fail(b, 1);
+        assertEquals(CircuitBreaker.State.OPEN, b.state());
+        assertNull(b.tryAcquire());
+        assertEquals(1L, b.stats().get("rejected"));
+    }
+
+    @Test
+    void probeSuccessClosesAndProbeFailureReopens() {
+        CircuitBreaker b = breaker(Duration.ZERO);
+        fail(b, 2);
+        CircuitBreaker.Permit probe = b.tryAcquire();
+        assertTrue(probe.probe());
+        assertNull(b.tryAcquire()); // una sola prueba a la vez
+        b.onFailure(probe);
+        assertEquals(2L, b.stats().get("opens"));
+
+        probe = b.tryAcquire();
+        b.onSuccess(probe);
+        assertEquals(CircuitBreaker.State.CLOSED, b.state());
+        assertFalse(b.tryAcquire().probe());
+    }
+
+    @Test
+    void lateResultAdmittedBeforeOpeningDoesNotMoveHalfOpen() {
+        CircuitBreaker b = breaker(Duration.ZERO);
+        CircuitBreaker.Permit slow = b.tryAcquire(); // admitida con el circuito cerrado
+        fail(b, 2);
+        CircuitBreaker.Permit probe = b.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, b.state());
+
+        b.onSuccess(slow); // termina tarde: no es la prueba
+        assertEquals(CircuitBreaker.State.HALF_OPEN, b.state());
+        b.onFailure(slow);
+        assertEquals(1L, b.stats().get("opens"));
+        assertEquals(2L, b.stats().get("staleResults"));
+
+        b.onSuccess(probe);
+        assertEquals(CircuitBreaker.State.CLOSED, b.state());
+    }
+}
@@ -0,0 +1,117 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import cr.ac.una.portalwebpokeapi.support.UpstreamStub.Latency;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link HedgingExecutor}: disparo del hedge al pasar el umbral,
+ * presupuesto agotado, cancelación del perdedor, propagación de un fallo
+ * rápido y latencias registradas también en los fallos.
+ */
+class HedgingExecutorTest {
+
+    private HedgingExecutor hedging;
+
+    @AfterEach
+    void close() {
+        if (hedging != null) hedging.close();
+    }
+
+    /** Percentil 50, umbral entre 20 y 200 ms, 5 muestras mínimas. */
+    private static HedgingExecutor executor(double budgetPercent) {
+        return new HedgingExecutor("test", true, 0.5, 20, 200, budgetPercent, 5, 60);
+    }
+
+    /** Llamadas instantáneas hasta juntar las muestras mínimas (umbral = mínimo). */
+    private static void warm(HedgingExecutor h) {
+        for (int i = 0; i < 5; i++) h.execute(() -> "ok");
+        assertEquals(20, h.hedgeDelayMs());
+    }
+
+    /** Respuesta tras la latencia del modelo; avisa en 'cancelled' si la interrumpen. */
+    private static Supplier<String> upstream(Latency latency, String body, CountDownLatch cancelled) {
+        return () -> {
+            try {
+                Thread.sleep(latency.nextMillis());
+            } catch (InterruptedException e) {
+                cancelled.countDown();
+                throw new IllegalStateException("cancelada", e);
+            }
+            return body;
+        };
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndTheLoserCancelled() throws InterruptedException {
+        hedging = executor(100);
+        warm(hedging);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Supplier<String> slow = upstream(Latency.fixed(5_000), "primary", cancelled);
+        Supplier<String> fast = upstream(Latency.none(), "hedge", cancelled);
+        AtomicInteger attempt = new AtomicInteger();
+
+        String result = hedging.execute(() -> attempt.getAndIncrement() == 0 ? slow.get() : fast.get());
+
+        assertEquals("hedge", result);
+        assertEquals(2, attempt.get());
+        assertTrue(cancelled.await(2, TimeUnit.SECONDS), "el intento lento debe cancelarse");
+        Map<String, Object> stats = hedging.stats();
+        assertEquals(1L, stats.get("hedges"));
+        assertEquals(1L, stats.get("hedgeWins"));
+    }
+
+    @Test
+    void exhaustedBudgetWaitsForThePrimary() {
+        hedging = executor(0);
+        warm(hedging);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedging.execute(() -> {
+            attempts.incrementAndGet();
+            return upstream(Latency.fixed(60), "primary", new CountDownLatch(1)).get();
+        });
+
+        assertEquals("primary", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0L, hedging.stats().get("hedges"));
+        assertEquals(1L, hedging.stats().get("budgetDenied"));
+    }
+
+    @Test
+    void fastFailureOfThePrimaryIsPropagatedWithoutHedging() {
+        hedging = executor(100);
+        warm(hedging);
+        AtomicInteger attempts = new AtomicInteger();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> hedging.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("503 del upstream");
+        }));
+
+        assertEquals("503 del upstream", e.getMessage());
+        assertEquals(1, attempts.get());
+        assertEquals(0L, hedging.stats().get("hedges"));
+    }
+
+    @Test
+    void failuresAreRecordedInTheHistogram() {
+        hedging = new HedgingExecutor("test", false, 0.5, 20, 200, 10, 5, 60);
+        assertThrows(IllegalStateException.class, () -> hedging.execute(() -> {
+            throw new IllegalStateException("falla");
+        }));
+        hedging.execute(() -> "ok");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> latency = (Map<String, Object>) hedging.stats().get("latency");
+        assertEquals(2L, latency.get("recentSamples"));
+    }
+}
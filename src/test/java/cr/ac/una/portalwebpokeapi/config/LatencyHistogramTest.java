@@ -0,0 +1,47 @@
+package cr.ac.una.portalwebpokeapi.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link LatencyHistogram}: percentiles interpolados dentro de la
+ * cubeta y ventana vacía.
+ */
+class LatencyHistogramTest {
+
+    private static void record(LatencyHistogram h, long ms, int times) {
+        for (int i = 0; i < times; i++) h.record(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    @Test
+    void percentileIsInterpolatedWithinTheBucket() {
+        LatencyHistogram h = new LatencyHistogram(60);
+        record(h, 40, 10); // cubeta (30, 50]
+
+        assertEquals(10, h.samples());
+        assertEquals(32, h.percentileMillis(0.10));
+        assertEquals(40, h.percentileMillis(0.50));
+        assertEquals(50, h.percentileMillis(1.0));
+    }
+
+    @Test
+    void percentileCrossesBucketsByRank() {
+        LatencyHistogram h = new LatencyHistogram(60);
+        record(h, 1, 5);  // cubeta [0, 1]
+        record(h, 40, 5); // cubeta (30, 50]
+
+        assertEquals(1, h.percentileMillis(0.50));
+        assertEquals(34, h.percentileMillis(0.60));
+        assertEquals(50, h.percentileMillis(1.0));
+    }
+
+    @Test
+    void emptyWindowHasNoPercentile() {
+        LatencyHistogram h = new LatencyHistogram(60);
+        assertEquals(0, h.samples());
+        assertEquals(-1, h.percentileMillis(0.95));
+    }
+}
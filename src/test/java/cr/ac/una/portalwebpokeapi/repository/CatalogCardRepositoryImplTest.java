@@ -0,0 +1,37 @@
+package cr.ac.una.portalwebpokeapi.repository;
+
+import cr.ac.una.portalwebpokeapi.service.PokemonTypeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del predicado de tipos del modo espejo: la misma expresión que en
+ * modo en vivo se traduce a OR de AND con un FIND_IN_SET por tipo.
+ */
+class CatalogCardRepositoryImplTest {
+
+    @Test
+    void mixedExpressionBecomesOrOfAndPredicates() {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String sql = CatalogCardRepositoryImpl.typePredicate(PokemonTypeIndex.parse("fire,flying|water"), params);
+        assertEquals("((FIND_IN_SET(:t0, types_csv) > 0 AND FIND_IN_SET(:t1, types_csv) > 0)"
+                + " OR (FIND_IN_SET(:t2, types_csv) > 0))", sql);
+        assertEquals(Map.of("t0", "fire", "t1", "flying", "t2", "water"), params);
+    }
+
+    @Test
+    void singleTypeAndEmptyExpression() {
+        Map<String, Object> params = new LinkedHashMap<>();
+        assertEquals("((FIND_IN_SET(:t0, types_csv) > 0))",
+                CatalogCardRepositoryImpl.typePredicate(PokemonTypeIndex.parse("Fire"), params));
+        assertEquals(List.of("fire"), List.copyOf(params.values()));
+
+        // Sin tipos válidos no coincide nada, igual que evaluate() en vivo
+        assertEquals("1 = 0", CatalogCardRepositoryImpl.typePredicate(PokemonTypeIndex.parse(" | , "), new LinkedHashMap<>()));
+    }
+}
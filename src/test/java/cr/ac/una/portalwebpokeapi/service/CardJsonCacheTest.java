@@ -0,0 +1,38 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link CardJsonCache}: reutilización por resumen y descarte de
+ * cards armadas con una regla invalidada mientras se armaban.
+ */
+class CardJsonCacheTest {
+
+    private final CardJsonCache cache = new CardJsonCache(new ObjectMapper(), 1 << 20, 3600);
+    private final Object summary = new Object();
+
+    @Test
+    void fragmentIsReusedForTheSameSummary() {
+        byte[] json = cache.store(1L, summary, Map.of("origin", "CR"), cache.generation());
+        assertSame(json, cache.cached(1L, summary));
+        assertNull(cache.cached(1L, new Object()));
+    }
+
+    @Test
+    void cardBuiltFromRuleInvalidatedMeanwhileIsNotCached() {
+        long gen = cache.generation();          // la página lee la regla vieja...
+        cache.invalidate(1L);                   // ...el admin la cambia...
+        byte[] json = cache.store(1L, summary, Map.of("origin", "CR"), gen); // ...y la card vieja llega tarde
+        assertNotNull(json);
+        assertNull(cache.cached(1L, summary));
+        assertEquals(1L, cache.stats().get("staleStoresSkipped"));
+
+        cache.store(1L, summary, Map.of("origin", "US"), cache.generation());
+        assertNotNull(cache.cached(1L, summary));
+    }
+}
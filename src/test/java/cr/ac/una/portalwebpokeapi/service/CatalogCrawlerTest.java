@@ -0,0 +1,166 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.cache.SegmentStore;
+import cr.ac.una.portalwebpokeapi.cache.WeightedCache;
+import cr.ac.una.portalwebpokeapi.config.CircuitBreaker;
+import cr.ac.una.portalwebpokeapi.config.HedgingExecutor;
+import cr.ac.una.portalwebpokeapi.dto.PokeSummary;
+import cr.ac.una.portalwebpokeapi.dto.PokemonSummary;
+import cr.ac.una.portalwebpokeapi.support.UpstreamStub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link CatalogCrawler} contra un PokeAPI local ({@link UpstreamStub}).
+ */
+class CatalogCrawlerTest {
+
+    private UpstreamStub stub;
+    private PokeApiService poke;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = UpstreamStub.start().count("pokemon", 45);
+        poke = new PokeApiService(
+                new RestTemplate(),
+                new WeightedCache<>(1 << 20, Duration.ofMinutes(5), 1024),
+                new StaticListableBeanFactory().getBeanProvider(SegmentStore.class),
+                // Umbral imposible: el breaker no interfiere con los 429/5xx programados
+                new CircuitBreaker("test", 20, 20, 2.0, Duration.ofSeconds(1), 1),
+                new HedgingExecutor("test", false, 0.95, 50, 2000, 5, 50, 60),
+                stub.pokeApiBaseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    private CatalogCrawler crawler(int initial, int max) {
+        return new CatalogCrawler(poke, 20, initial, 1, max, 0.5, 1500, 0, 4);
+    }
+
+    @Test
+    void crawlsAllPagesInOrderAndRetriesThrottledDetails() {
+        stub.script("/pokemon/pokemon-3", 429, 429).script("/pokemon/pokemon-30", 503);
+        CatalogCrawler crawler = crawler(4, 8);
+        List<Integer> offsets = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+
+        CatalogCrawler.Progress p = crawler.crawl("POKEMON", 0, (offset, total, docs, size) -> {
+            offsets.add(offset);
+            docs.forEach(d -> ids.add(d.id()));
+        });
+
+        assertNull(p.error());
+        assertEquals("DONE", p.state());
+        assertEquals(List.of(0, 20, 40), offsets);
+        assertEquals(45, ids.size());
+        for (int i = 0; i < ids.size(); i++) assertEquals(i + 1, ids.get(i));
+        assertEquals(45, p.nextOffset());
+        assertEquals(3, stub.hits("/pokemon/pokemon-3"));
+        assertTrue(p.docsPerSec() > 0);
+
+        Map<String, Object> stats = crawler.stats();
+        assertEquals(2L, stats.get("throttled429"));
+        assertEquals(1L, stats.get("serverErrors"));
+    }
+
+    @Test
+    void resumesFromLastCheckpointAfterFailure() {
+        // pokemon-25 falla en todos los intentos: la segunda página no se confirma
+        stub.script("/pokemon/pokemon-25", 503, 503, 503, 503);
+        CatalogCrawler crawler = crawler(4, 8);
+        List<Integer> confirmed = new ArrayList<>();
+
+        CatalogCrawler.Progress first = crawler.crawl("POKEMON", 0, (offset, total, docs, size) -> confirmed.add(offset));
+        assertEquals("FAILED", first.state());
+        assertNotNull(first.error());
+        assertEquals(20, first.nextOffset());
+        assertEquals(List.of(0), confirmed);
+
+        List<PokeSummary> rest = new ArrayList<>();
+        CatalogCrawler.Progress resumed = crawler.crawl("POKEMON", first.nextOffset(), (offset, total, docs, size) -> {
+            confirmed.add(offset);
+            rest.addAll(docs);
+        });
+        assertEquals("DONE", resumed.state());
+        assertEquals(List.of(0, 20, 40), confirmed);
+        assertEquals(25, rest.size());
+        assertEquals(21, rest.getFirst().id());
+    }
+
+    @Test
+    void concurrencyBacksOffUnderThrottlingAndStaysBounded() {
+        stub.latency(5);
+        for (int i = 11; i <= 20; i++) stub.script("/pokemon/pokemon-" + i, 429);
+        CatalogCrawler crawler = crawler(8, 8);
+
+        CatalogCrawler.Progress p = crawler.crawl("POKEMON", 0, (offset, total, docs, size) -> {});
+
+        assertEquals("DONE", p.state());
+        assertTrue(stub.maxInFlight() <= 8 + 1, "el listado y los detalles no superan el límite máximo");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> concurrency = (Map<String, Object>) crawler.stats().get("concurrency");
+        assertTrue((Long) concurrency.get("decreases") > 0);
+    }
+
+    @Test
+    void firstFailedDetailCancelsTheRestOfThePage() {
+        AtomicInteger started = new AtomicInteger(), cancelled = new AtomicInteger();
+        // Listado de 20 nombres; "bad" falla al instante y el resto tardaría 10 s
+        PokeApiService slow = new PokeApiService(
+                new RestTemplate(),
+                new WeightedCache<>(1 << 20, Duration.ofMinutes(5), 1024),
+                new StaticListableBeanFactory().getBeanProvider(SegmentStore.class),
+                new CircuitBreaker("test", 20, 20, 2.0, Duration.ofSeconds(1), 1),
+                new HedgingExecutor("test", false, 0.95, 50, 2000, 5, 50, 60),
+                stub.pokeApiBaseUrl()) {
+            @Override
+            public Map<String, Object> listPokemon(int limit, int offset) {
+                List<Map<String, Object>> results = new ArrayList<>();
+                for (int i = 0; i < 20; i++) results.add(Map.of("name", i == 7 ? "bad" : "slow-" + i));
+                return Map.of("count", 20, "results", results);
+            }
+
+            @Override
+            public PokemonSummary pokemonSummary(String nameOrId) {
+                if (nameOrId.equals("bad")) throw new IllegalStateException("documento inválido");
+                started.incrementAndGet();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    cancelled.incrementAndGet();
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException(e);
+                }
+                return null;
+            }
+        };
+        CatalogCrawler crawler = new CatalogCrawler(slow, 20, 20, 1, 20, 0.5, 1500, 0, 1);
+
+        long t0 = System.nanoTime();
+        CatalogCrawler.Progress p = crawler.crawl("POKEMON", 0, (offset, total, docs, size) -> {});
+
+        assertEquals("FAILED", p.state());
+        assertEquals("documento inválido", p.error());
+        assertTrue(Duration.ofNanos(System.nanoTime() - t0).toMillis() < 5_000);
+        // Los que llegaron a empezar se interrumpieron; el resto ni corrió
+        assertEquals(started.get(), cancelled.get());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> concurrency = (Map<String, Object>) crawler.stats().get("concurrency");
+        assertEquals(0, concurrency.get("inFlight"));
+        assertEquals(0L, concurrency.get("decreases"));
+    }
+}
@@ -0,0 +1,41 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link ChangeCursor}: ids confirmados fuera de orden no se pierden.
+ */
+class ChangeCursorTest {
+
+    @Test
+    void skippedIdsAreReadWhenTheyCommitLater() {
+        ChangeCursor c = new ChangeCursor(10, 1_000, 100);
+        assertTrue(c.accept(11, 0));
+        assertTrue(c.accept(14, 0));
+        assertEquals(14, c.lastSeen());
+        assertEquals(Set.of(12L, 13L), c.gaps());
+
+        assertTrue(c.accept(13, 5));   // se confirmó después
+        assertFalse(c.accept(13, 6));  // ya leído
+        assertFalse(c.accept(11, 6));
+        assertEquals(Set.of(12L), c.gaps());
+        assertEquals(1, c.gapsFilled());
+    }
+
+    @Test
+    void gapsExpireAfterGraceAndAreCapped() {
+        ChangeCursor c = new ChangeCursor(0, 1_000, 3);
+        c.accept(10, 0);
+        assertEquals(Set.of(1L, 2L, 3L), c.gaps());
+        c.expire(500);
+        assertEquals(3, c.gaps().size());
+        c.expire(1_001);
+        assertTrue(c.gaps().isEmpty());
+        assertEquals(3, c.gapsExpired());
+        assertFalse(c.accept(2, 2_000)); // vencido: se da por perdido
+    }
+}
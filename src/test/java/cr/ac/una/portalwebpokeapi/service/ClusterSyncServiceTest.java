@@ -0,0 +1,165 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.ac.una.portalwebpokeapi.config.SessionManager;
+import cr.ac.una.portalwebpokeapi.events.RuleChangedEvent;
+import cr.ac.una.portalwebpokeapi.events.SessionConfigChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link ClusterSyncService} con dos nodos sobre una tabla
+ * config_changes en memoria: registro -> sondeo -> aplicación, y espera
+ * creciente cuando falta la tabla.
+ */
+class ClusterSyncServiceTest {
+
+    /** config_changes en memoria; responde solo las sentencias que usa el servicio. */
+    static class ChangeTable extends JdbcTemplate {
+        final List<Map<String, Object>> rows = new ArrayList<>();
+        boolean missing;
+
+        private void check(String sql) {
+            if (missing) throw new BadSqlGrammarException("config_changes", sql,
+                    new SQLException("Table 'config_changes' doesn't exist"));
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) throws DataAccessException {
+            check(sql);
+            for (Object[] a : batchArgs) {
+                Map<String, Object> row = new HashMap<>();
+                row.put("id", (long) rows.size() + 1);
+                row.put("scope", a[0]);
+                row.put("item_key", a[1]);
+                row.put("node", a[2]);
+                row.put("lag_us", 0L);
+                rows.add(row);
+            }
+            return new int[batchArgs.size()];
+        }
+
+        @Override
+        public <T> T queryForObject(String sql, Class<T> requiredType) throws DataAccessException {
+            check(sql);
+            return requiredType.cast((long) rows.size());
+        }
+
+        @Override
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) throws DataAccessException {
+            check(sql);
+            assertTrue(sql.contains("WHERE id > ?"), sql);
+            long after = ((Number) args[0]).longValue();
+            int limit = ((Number) args[1]).intValue();
+            List<T> out = new ArrayList<>();
+            for (Map<String, Object> row : rows) {
+                if ((long) row.get("id") <= after || out.size() == limit) continue;
+                try {
+                    out.add(rowMapper.mapRow(resultSet(row), out.size()));
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return out;
+        }
+
+        /** ResultSet de una sola fila: getLong/getString/wasNull por nombre de columna. */
+        private static ResultSet resultSet(Map<String, Object> row) {
+            boolean[] lastNull = new boolean[1];
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, method, a) -> {
+                        switch (method.getName()) {
+                            case "getLong" -> {
+                                Object v = row.get((String) a[0]);
+                                lastNull[0] = v == null;
+                                return v == null ? 0L : ((Number) v).longValue();
+                            }
+                            case "getString" -> {
+                                Object v = row.get((String) a[0]);
+                                lastNull[0] = v == null;
+                                return v == null ? null : v.toString();
+                            }
+                            case "wasNull" -> {
+                                return lastNull[0];
+                            }
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+    }
+
+    /** Un nodo con sus cachés locales. */
+    static class Node {
+        final List<Long> evicted = new ArrayList<>();
+        final SessionManager sessions = new SessionManager(600);
+        final ClusterSyncService sync;
+
+        Node(ChangeTable table, String id) {
+            DynamicRuleService rules = new DynamicRuleService(null, null, null, null, null) {
+                @Override
+                public void evict(Collection<Long> keys) {
+                    evicted.addAll(keys);
+                    super.evict(keys);
+                }
+            };
+            SessionConfigService sessionCfg = new SessionConfigService(null, null) {
+                @Override
+                public int currentTimeoutSeconds() {
+                    return 1800;
+                }
+            };
+            BuyableIndex buyable = new BuyableIndex(null, null, rules, null, null, null, 100, 3600);
+            sync = new ClusterSyncService(table, rules, new CardJsonCache(new ObjectMapper(), 1 << 20, 3600),
+                    buyable, sessions, sessionCfg, true, id, 100, 10_000, 24);
+            sync.start();
+        }
+    }
+
+    @Test
+    void changesRecordedOnOneNodeAreAppliedOnTheOther() {
+        ChangeTable table = new ChangeTable();
+        Node a = new Node(table, "a"), b = new Node(table, "b");
+        long key = DynamicRuleService.compositeKey(25L, "POKEMON");
+
+        a.sync.onRuleChanged(new RuleChangedEvent(key));
+        a.sync.onSessionConfigChanged(new SessionConfigChangedEvent(1800));
+        assertEquals(2, table.rows.size());
+
+        b.sync.poll();
+        assertEquals(List.of(key), b.evicted);
+        assertEquals(1800, b.sessions.getDefaultTimeout());
+        assertEquals(Map.of("RULE", 1L, "PRODUCT", 0L, "SESSION", 1L), b.sync.stats().get("applied"));
+        assertEquals(2L, b.sync.stats().get("version"));
+
+        // El nodo de origen saltea sus propios cambios
+        a.sync.poll();
+        assertTrue(a.evicted.isEmpty());
+        assertEquals(600, a.sessions.getDefaultTimeout());
+        assertEquals(2L, a.sync.stats().get("ownSkipped"));
+    }
+
+    @Test
+    void missingTableBacksOffInsteadOfFailingEveryPoll() {
+        ChangeTable table = new ChangeTable();
+        table.missing = true;
+        Node b = new Node(table, "b");   // start() ya falla: primer fallo de la racha
+        for (int i = 0; i < 5; i++) b.sync.poll();
+        assertEquals(1L, b.sync.stats().get("pollErrors"));
+        assertEquals(0L, b.sync.stats().get("polls"));
+        assertEquals(1, b.sync.stats().get("consecutiveFailures"));
+
+        b.sync.onRuleChanged(new RuleChangedEvent(1L));
+        b.sync.onRuleChanged(new RuleChangedEvent(2L));
+        assertEquals(2L, b.sync.stats().get("recordErrors"));
+    }
+}
@@ -0,0 +1,87 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.model.CountryMasks;
+import cr.ac.una.portalwebpokeapi.model.Product;
+import cr.ac.una.portalwebpokeapi.service.CountryEligibility.Reason;
+import cr.ac.una.portalwebpokeapi.service.config.CountryConfigService;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link CountryEligibility}: las máscaras dan el mismo motivo que
+ * la evaluación sobre los textos.
+ */
+class CountryEligibilityTest {
+
+    private final CountryEligibility engine = new CountryEligibility(new CountryConfigService());
+
+    @Test
+    void reasonsFollowCheckOrder() {
+        CountryMasks m = engine.compile("CR", "CR,US", "US");
+        assertEquals(Reason.OK, engine.check("cr", m));
+        assertEquals(Reason.ORIGIN_MISMATCH, engine.check("MX", m));
+        assertEquals(Reason.NO_USER_COUNTRY, engine.check(null, m));
+        assertEquals(Reason.NO_ORIGIN, engine.check("CR", engine.compile(" ", null, null)));
+        assertEquals(Reason.BANNED, engine.check("CR", engine.compile("CR", null, "us, cr")));
+        assertEquals(Reason.NOT_AVAILABLE, engine.check("CR", engine.compile("CR", "US,MX", null)));
+        assertEquals("Solo puedes comprar productos de tu país (MX)", Reason.ORIGIN_MISMATCH.message("mx"));
+    }
+
+    @Test
+    void codesOutsideTheUniverseGetTheirOwnBit() {
+        CountryMasks m = engine.compile("GB", "GB,IT", null);
+        assertTrue(m.exact());
+        assertEquals(Reason.OK, engine.check("GB", m));
+        assertEquals(Reason.ORIGIN_MISMATCH, engine.check("IT", m));
+        // País del usuario sin bit: se evalúa con los textos
+        assertEquals(Reason.ORIGIN_MISMATCH, engine.check("PE", m));
+    }
+
+    @Test
+    void productMasksAreReusedAcrossLoadsUntilTheirTextsChange() {
+        CountryMasks first = engine.masks(product(7L, "CR", "CR,US"));
+        // Otra entidad del mismo producto, con otras instancias de los mismos textos
+        assertSame(first, engine.masks(product(7L, new String("CR"), new String("CR,US"))));
+        CountryMasks changed = engine.masks(product(7L, "US", "CR,US"));
+        assertNotSame(first, changed);
+        assertEquals(Reason.OK, engine.check("US", product(7L, "US", "CR,US")));
+        assertEquals(Reason.ORIGIN_MISMATCH, engine.check("CR", product(7L, "US", "CR,US")));
+    }
+
+    private static Product product(Long id, String origin, String available) {
+        Product p = new Product();
+        p.setId(id);
+        p.setCountryOfOrigin(origin);
+        p.setAvailableCountriesCsv(available);
+        return p;
+    }
+
+    @Test
+    void masksMatchCsvEvaluation() {
+        String[] codes = {"CR", "US", "MX", "ES", "JP", "GB", ""};
+        Random rnd = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            String origin = codes[rnd.nextInt(codes.length)];
+            String available = csv(codes, rnd);
+            String banned = csv(codes, rnd);
+            String user = codes[rnd.nextInt(codes.length - 1)];
+            assertEquals(CountryEligibility.checkCsv(user, origin, available, banned),
+                    engine.check(user, engine.compile(origin, available, banned)),
+                    () -> user + " / " + origin + " / " + available + " / " + banned);
+        }
+    }
+
+    private static String csv(String[] codes, Random rnd) {
+        int n = rnd.nextInt(4);
+        if (n == 0) return rnd.nextBoolean() ? null : "";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(rnd.nextBoolean() ? "," : " , ");
+            sb.append(rnd.nextBoolean() ? codes[rnd.nextInt(codes.length)] : codes[rnd.nextInt(codes.length)].toLowerCase());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link FeedCursor}: codificación, validación de la huella de
+ * filtros y mezcla k-way con anticipación.
+ */
+class FeedCursorTest {
+
+    private static final List<String> KINDS = List.of("POKEMON", "ITEM", "GAME");
+
+    private final Map<String, List<String>> data = Map.of(
+            "POKEMON", List.of("abra", "bulbasaur", "charmander", "pikachu"),
+            "ITEM", List.of("antidote", "potion"),
+            "GAME", List.of("blue", "red"));
+
+    /** Fuente en memoria: nombres ordenados posteriores a 'after'. */
+    private final FeedCursor.NameSource source = (kind, after, n) -> data.get(kind).stream()
+            .filter(name -> after == null || name.compareTo(after) > 0).limit(n).toList();
+
+    /** Recorre el feed completo en páginas de 'size'; devuelve los nombres de cada página. */
+    private List<List<String>> pages(int size) {
+        List<List<String>> pages = new ArrayList<>();
+        FeedCursor cursor = FeedCursor.start(null, null, null);
+        while (cursor != null) {
+            Map<String, String> after = new HashMap<>(cursor.after());
+            List<FeedCursor.Entry> page = new ArrayList<>();
+            boolean more = FeedCursor.mergeNext(KINDS, after, size, source, page);
+            pages.add(page.stream().map(FeedCursor.Entry::name).toList());
+            cursor = more ? FeedCursor.decode(new FeedCursor(after, cursor.filter()).encode(), null, null, null) : null;
+        }
+        return pages;
+    }
+
+    @Test
+    void mergesSourcesInNameOrderAcrossPages() {
+        assertEquals(List.of(
+                List.of("abra", "antidote", "blue"),
+                List.of("bulbasaur", "charmander", "pikachu"),
+                List.of("potion", "red")), pages(3));
+    }
+
+    @Test
+    void exactlyFullLastPageHasNoNextCursor() {
+        // 8 nombres en páginas de 4: la segunda sale justo llena y es la última
+        List<List<String>> pages = pages(4);
+        assertEquals(2, pages.size());
+        assertEquals(List.of("charmander", "pikachu", "potion", "red"), pages.get(1));
+    }
+
+    @Test
+    void roundTripsPositions() {
+        FeedCursor c = new FeedCursor(Map.of("POKEMON", "mr-mime", "ITEM", "poké-ball"),
+                FeedCursor.start("pi", "fire", null).filter());
+        FeedCursor back = FeedCursor.decode(c.encode(), "PI", "Fire", null);
+        assertEquals(c.after(), back.after());
+    }
+
+    @Test
+    void rejectsCursorFromOtherFiltersOrGarbage() {
+        String token = FeedCursor.start("pi", null, null).encode();
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(token, "char", null, null));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(token, "pi", null, "CR"));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode("%%%", null, null, null));
+        String unversioned = Base64.getUrlEncoder().encodeToString("v0\nf=0".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class, () -> FeedCursor.decode(unversioned, null, null, null));
+    }
+
+    @Test
+    void cursorWithoutCountryKeepsLegacyFingerprint() {
+        assertEquals(FeedCursor.start("pi", "fire", null).filter(), FeedCursor.start("pi", "fire", " ").filter());
+        assertNotEquals(FeedCursor.start("pi", "fire", null).filter(), FeedCursor.start("pi", "fire", "cr").filter());
+    }
+}
@@ -0,0 +1,57 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link NameSearchIndex}: subcadena, prefijo, prefijo de palabra y búsqueda difusa.
+ */
+class NameSearchIndexTest {
+
+    private final NameSearchIndex index = new NameSearchIndex(new String[]{
+            "bulbasaur", "charizard", "charizard-mega-x", "charmander", "charmeleon",
+            "chatot", "mega-punch", "pikachu", "potion", "super-potion"});
+
+    private static List<String> names(List<NameSearchIndex.Match> matches) {
+        return matches.stream().map(NameSearchIndex.Match::name).toList();
+    }
+
+    @Test
+    void filterMatchesSubstringsInIndexOrder() {
+        assertEquals(List.of("charizard", "charizard-mega-x"), index.containing("zard"));
+        assertEquals(List.of("charizard", "charizard-mega-x", "charmander", "charmeleon"), index.containing("CHAR "));
+        assertEquals(List.of("potion", "super-potion"), index.containing("po"));
+        assertEquals(List.of("charizard-mega-x", "mega-punch"), index.containing("mega"));
+        assertTrue(index.containing("charzard").isEmpty());
+        assertTrue(index.containing("  ").isEmpty());
+    }
+
+    @Test
+    void autocompletePrefersWholeNamesThenWordPrefixesThenFuzzy() {
+        assertEquals(List.of("charizard", "charmander", "charmeleon", "charizard-mega-x"),
+                names(index.search("char", 10)).subList(0, 4));
+        assertEquals(List.of("mega-punch", "charizard-mega-x"), names(index.search("mega", 10)));
+        assertEquals(List.of("charizard", "charizard-mega-x"), names(index.search("charzard", 10)).subList(0, 2));
+    }
+
+    @Test
+    void autocompleteFillsWithFuzzyMatchesUpToLimit() {
+        List<NameSearchIndex.Match> hits = index.search("chart", 10);
+        assertTrue(hits.stream().allMatch(m -> m.rank() == 2));
+        assertTrue(names(hits).contains("charizard"));
+        assertEquals(2, index.search("char", 2).size());
+        assertTrue(index.search("  ", 5).isEmpty());
+    }
+
+    @Test
+    void prefixDistanceIsBounded() {
+        int[] prev = new int[16], cur = new int[16];
+        assertEquals(0, NameSearchIndex.prefixDistance("abc", "abcdef", 1, prev, cur));
+        assertEquals(1, NameSearchIndex.prefixDistance("abxd", "abcdef", 1, prev, cur));
+        assertEquals(2, NameSearchIndex.prefixDistance("kitten", "sitting", 2, prev, cur));
+        assertEquals(2, NameSearchIndex.prefixDistance("zzzz", "abcdef", 1, prev, cur));
+    }
+}
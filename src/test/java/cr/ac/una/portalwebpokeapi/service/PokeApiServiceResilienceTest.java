@@ -0,0 +1,89 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.cache.SegmentStore;
+import cr.ac.una.portalwebpokeapi.cache.WeightedCache;
+import cr.ac.una.portalwebpokeapi.config.CircuitBreaker;
+import cr.ac.una.portalwebpokeapi.config.HedgingExecutor;
+import cr.ac.una.portalwebpokeapi.dto.PokemonSummary;
+import cr.ac.una.portalwebpokeapi.support.UpstreamStub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de la resiliencia de {@link PokeApiService} contra un PokeAPI local
+ * ({@link UpstreamStub}): listados y resúmenes vencidos servidos mientras
+ * PokeAPI falla o el circuito está abierto.
+ */
+class PokeApiServiceResilienceTest {
+
+    private UpstreamStub stub;
+    private CircuitBreaker breaker;
+    private PokeApiService poke;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = UpstreamStub.start().count("pokemon", 10);
+        // Abre con el primer fallo tras un éxito y no vuelve a probar durante la prueba
+        breaker = new CircuitBreaker("test", 4, 1, 0.5, Duration.ofMinutes(1), 1);
+        poke = new PokeApiService(
+                new RestTemplate(),
+                // Vence a los 50 ms y se puede servir vencido 5 minutos más
+                new WeightedCache<>(1 << 20, Duration.ofMillis(50), Duration.ofMinutes(5), 1024),
+                new StaticListableBeanFactory().getBeanProvider(SegmentStore.class),
+                breaker,
+                new HedgingExecutor("test", false, 0.95, 50, 2000, 5, 50, 60),
+                stub.pokeApiBaseUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void lastListIsServedOnUpstreamErrorAndWhileOpen() {
+        Map<String, Object> fresh = poke.listPokemon(5, 0);
+        stub.script("/pokemon", 503);
+
+        assertEquals(fresh, poke.listPokemon(5, 0));        // 503: abre el circuito
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertEquals(fresh, poke.listPokemon(5, 0));        // abierto: ni llega al stub
+        assertEquals(2, stub.hits("/pokemon"));
+        assertEquals(2L, poke.resilienceStats().get("staleListServes"));
+    }
+
+    @Test
+    void listWithoutPreviousResponseFailsWhileOpen() {
+        poke.listPokemon(5, 0);
+        stub.script("/pokemon", 503);
+        poke.listPokemon(5, 0);
+        assertThrows(CircuitBreaker.OpenException.class, () -> poke.listPokemon(5, 5));
+    }
+
+    @Test
+    void expiredSummaryIsServedWhileBackgroundRefreshFails() throws Exception {
+        PokemonSummary fresh = poke.pokemonSummary("2");
+        Thread.sleep(100);
+        stub.script("/pokemon/2", 503);
+
+        assertSame(fresh, poke.pokemonSummary("2"));
+        assertEquals(1L, poke.resilienceStats().get("staleSummaryServes"));
+
+        long until = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while ((Long) poke.resilienceStats().get("refreshFailures") == 0 && System.nanoTime() < until) {
+            Thread.sleep(10);
+        }
+        assertEquals(1L, poke.resilienceStats().get("refreshFailures"));
+        assertEquals(2, stub.hits("/pokemon/2"));
+        // Sigue sirviendo el valor vencido mientras dure la gracia
+        assertSame(fresh, poke.pokemonSummary("2"));
+    }
+}
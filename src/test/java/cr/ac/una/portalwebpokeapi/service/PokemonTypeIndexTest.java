@@ -0,0 +1,50 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de las expresiones de tipos de {@link PokemonTypeIndex}: AND con
+ * ',', OR con '|' y su combinación.
+ */
+class PokemonTypeIndexTest {
+
+    private static final Map<String, int[]> BY_TYPE = Map.of(
+            "fire", new int[]{4, 5, 6, 146},
+            "flying", new int[]{6, 16, 146},
+            "water", new int[]{7, 8, 9});
+
+    private static int[] eval(String expr) {
+        return PokemonTypeIndex.evaluate(expr, t -> BY_TYPE.getOrDefault(t, new int[0]));
+    }
+
+    @Test
+    void commaIntersectsAndPipeUnites() {
+        assertArrayEquals(new int[]{6, 146}, eval("fire,flying"));
+        assertArrayEquals(new int[]{4, 5, 6, 7, 8, 9, 146}, eval("fire|water"));
+    }
+
+    @Test
+    void commaBindsTighterThanPipe() {
+        assertArrayEquals(new int[]{6, 7, 8, 9, 146}, eval("fire,flying|water"));
+        assertArrayEquals(new int[]{6, 7, 8, 9, 146}, eval("water|FLYING, fire"));
+    }
+
+    @Test
+    void unknownTypesAndEmptyTermsAreHandled() {
+        assertArrayEquals(new int[0], eval("fire,dragon"));
+        assertArrayEquals(new int[]{4, 5, 6, 146}, eval("fire|"));
+        assertArrayEquals(new int[0], eval(" | , "));
+    }
+
+    @Test
+    void parseGroupsMatchWhatEvaluateUses() {
+        assertEquals(List.of(List.of("fire", "flying"), List.of("water")), PokemonTypeIndex.parse("fire,flying|water"));
+        assertEquals(List.of(List.of("water"), List.of("flying", "fire")), PokemonTypeIndex.parse("water|FLYING, fire"));
+        assertEquals(List.of(), PokemonTypeIndex.parse(" | , "));
+    }
+}
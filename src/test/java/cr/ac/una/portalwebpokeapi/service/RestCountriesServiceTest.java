@@ -0,0 +1,82 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.ac.una.portalwebpokeapi.support.UpstreamStub;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link RestCountriesService} contra el stub local con fixtures grabados.
+ */
+class RestCountriesServiceTest {
+
+    private UpstreamStub stub;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = UpstreamStub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void servesFixtureAndRevalidatesWithConditionalGet() {
+        // TTL 0: cada llamada revalida contra el stub
+        RestCountriesService svc = new RestCountriesService(new RestTemplate(), new ObjectMapper(), 0, stub.restCountriesBaseUrl());
+
+        List<Map<String, Object>> first = svc.listAll();
+        List<Map<String, Object>> second = svc.listAll();
+
+        assertEquals(11, first.size());
+        assertEquals("CR", first.getFirst().get("cca2"));
+        assertSame(first, second, "un 304 reutiliza la lista ya cacheada");
+        assertEquals(2, stub.hits("/all"));
+        assertEquals(1, stub.notModified());
+
+        Map<String, Object> stats = svc.revalidationStats();
+        assertEquals(1L, stats.get("conditionalRequests"));
+        assertEquals(1L, stats.get("notModified"));
+        assertTrue((Long) stats.get("bytesSaved") > 0);
+    }
+
+    @Test
+    void keepsLastListWhenUpstreamFails() {
+        RestCountriesService svc = new RestCountriesService(new RestTemplate(), new ObjectMapper(), 0, stub.restCountriesBaseUrl());
+        List<Map<String, Object>> first = svc.listAll();
+
+        stub.script("/all", 503);
+        assertSame(first, svc.listAll());
+    }
+
+    @Test
+    void emptyBodyKeepsLastListInsteadOfCachingNothing() {
+        boolean[] emptyBody = {false};
+        RestTemplate rt = new RestTemplate() {
+            @Override
+            public <T> ResponseEntity<T> exchange(String url, HttpMethod method, HttpEntity<?> request,
+                                                  Class<T> responseType, Object... uriVariables) {
+                if (emptyBody[0]) return ResponseEntity.ok().build();
+                return super.exchange(url, method, request, responseType, uriVariables);
+            }
+        };
+        RestCountriesService svc = new RestCountriesService(rt, new ObjectMapper(), 0, stub.restCountriesBaseUrl());
+        List<Map<String, Object>> first = svc.listAll();
+
+        emptyBody[0] = true;
+        assertSame(first, svc.listAll());
+        assertEquals(11, svc.listAll().size());
+    }
+}
@@ -0,0 +1,34 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.model.PokemonRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas del formato CSV de {@link RuleBulkService}: lo exportado se vuelve a leer igual.
+ */
+class RuleBulkServiceTest {
+
+    @Test
+    void quotedFieldsKeepCommasAndQuotes() {
+        assertEquals(List.of("1000000000025", "CR", "CR,US", "", "dice \"hola\""),
+                RuleBulkService.parseCsvLine("1000000000025,CR,\"CR,US\",,\"dice \"\"hola\"\"\""));
+        assertThrows(IllegalArgumentException.class, () -> RuleBulkService.parseCsvLine("1,CR,\"CR,US"));
+    }
+
+    @Test
+    void exportedRowsParseBack() {
+        PokemonRule r = new PokemonRule();
+        r.setPokemonId(2_000_000_000_007L);
+        r.setOriginCountry("MX");
+        r.setAvailableCountriesCsv("MX,US");
+        r.setBannedCountriesCsv(null);
+        r.setNotes("auto:ITEM, revisado \"v2\"");
+
+        List<String> f = RuleBulkService.parseCsvLine(RuleBulkService.toCsv(r));
+        assertEquals(List.of("2000000000007", "MX", "MX,US", "", "auto:ITEM, revisado \"v2\""), f);
+    }
+}
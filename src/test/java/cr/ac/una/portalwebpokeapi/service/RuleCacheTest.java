@@ -0,0 +1,98 @@
+package cr.ac.una.portalwebpokeapi.service;
+
+import cr.ac.una.portalwebpokeapi.model.PokemonRule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de {@link RuleCache}: llenado perezoso, escritura a través,
+ * descarte de lecturas anteriores a un cambio del admin y aplicación solo
+ * de lo confirmado dentro de una transacción.
+ */
+class RuleCacheTest {
+
+    private final RuleCache cache = new RuleCache();
+
+    @AfterEach
+    void endTransaction() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    /** Simula el fin de la transacción del hilo: confirmada o revertida. */
+    private static void complete(boolean committed) {
+        var syncs = TransactionSynchronizationManager.getSynchronizations();
+        if (committed) TransactionSynchronizationUtils.invokeAfterCommit(syncs);
+        TransactionSynchronizationUtils.invokeAfterCompletion(syncs,
+                committed ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void fillsLazilyAndCountsHits() {
+        PokemonRule r = new PokemonRule();
+        assertNull(cache.get(1L));
+        cache.fill(1L, r, cache.version());
+        assertSame(r, cache.get(1L));
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void readStartedBeforeAdminChangeIsNotCached() {
+        PokemonRule old = new PokemonRule(), updated = new PokemonRule();
+        long readVersion = cache.version();   // lectura de la base en curso...
+        cache.write(1L, updated);             // ...el admin cambia la regla...
+        cache.fill(1L, old, readVersion);     // ...y la lectura vieja llega tarde
+        assertSame(updated, cache.get(1L));
+
+        cache.remove(1L);
+        cache.fill(1L, old, readVersion);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void fillDoesNotReplaceNewerEntry() {
+        PokemonRule written = new PokemonRule();
+        cache.write(1L, written);
+        cache.fill(1L, new PokemonRule(), cache.version());
+        assertSame(written, cache.get(1L));
+    }
+
+    @Test
+    void fillInsideRolledBackTransactionIsDropped() {
+        PokemonRule created = new PokemonRule();
+        TransactionSynchronizationManager.initSynchronization();
+        cache.fill(1L, created, cache.version());   // p. ej. regla creada durante un checkout...
+        assertNull(cache.get(1L));                  // ...no se ve antes de confirmarse...
+        complete(false);                            // ...y el checkout se revierte
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.stats().get("size"));
+    }
+
+    @Test
+    void adminChangesApplyOnlyOnCommit() {
+        PokemonRule old = new PokemonRule(), updated = new PokemonRule();
+        cache.fill(1L, old, cache.version());
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.write(1L, updated);
+        assertSame(old, cache.get(1L));
+        complete(false);
+        assertSame(old, cache.get(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.write(1L, updated);
+        complete(true);
+        assertSame(updated, cache.get(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.remove(1L);
+        complete(true);
+        assertNull(cache.get(1L));
+    }
+}
@@ -0,0 +1,356 @@
+package cr.ac.una.portalwebpokeapi.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Servidor HTTP local que imita los upstreams de la app para pruebas y
+ * benchmarks sin red:
+ *  - PokeAPI: /api/v2/{pokemon|item|version} (listado paginado) y /api/v2/{recurso}/{nombre|id}.
+ *  - REST Countries: /v3.1/all.
+ *
+ * Los documentos salen de fixtures grabados en src/test/resources/stub
+ * (pokeapi/{recurso}/{id}.json, nombres en pokeapi/index.properties,
+ * restcountries/all.json). Los ids sin fixture se generan con el nombre
+ * "{recurso}-{id}" hasta la cantidad configurada con {@link #count}.
+ *
+ * Cada respuesta 200 lleva ETag y responde 304 a un If-None-Match vigente.
+ * Se puede configurar un modelo de latencia, inyectar errores (programados por
+ * ruta o con una tasa aleatoria) y consultar contadores de peticiones.
+ *
+ * Uso independiente, para apuntar la app al stub en pruebas de carga:
+ * <pre>
+ *   java -cp target/test-classes cr.ac.una.portalwebpokeapi.support.UpstreamStub \
+ *        --port=8089 --latency=lognormal:40:0.5 --error-rate=0.01 --pokemon=1302 --item=2180 --version=47
+ *   # app: --app.pokeapi.base-url=http://127.0.0.1:8089/api/v2
+ *   #      --app.restcountries.base-url=http://127.0.0.1:8089/v3.1
+ * </pre>
+ */
+public class UpstreamStub implements AutoCloseable {
+
+    /** Distribución de la latencia artificial por respuesta. */
+    public interface Latency {
+        long nextMillis();
+
+        static Latency none() {
+            return () -> 0;
+        }
+
+        static Latency fixed(long ms) {
+            return () -> ms;
+        }
+
+        static Latency uniform(long minMs, long maxMs) {
+            return () -> ThreadLocalRandom.current().nextLong(minMs, maxMs + 1);
+        }
+
+        /** Log-normal con mediana 'medianMs' y dispersión 'sigma' (cola larga, como una red real). */
+        static Latency logNormal(double medianMs, double sigma) {
+            return () -> Math.round(medianMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian()));
+        }
+
+        /** "fixed:20", "uniform:10:50" o "lognormal:40:0.5". */
+        static Latency parse(String spec) {
+            String[] p = spec.split(":");
+            return switch (p[0]) {
+                case "fixed" -> fixed(Long.parseLong(p[1]));
+                case "uniform" -> uniform(Long.parseLong(p[1]), Long.parseLong(p[2]));
+                case "lognormal" -> logNormal(Double.parseDouble(p[1]), Double.parseDouble(p[2]));
+                default -> none();
+            };
+        }
+    }
+
+    private static final String POKEAPI = "/api/v2";
+    private static final String RESTCOUNTRIES = "/v3.1";
+
+    private final HttpServer server;
+    private final Properties names = new Properties();
+    private final Map<String, Integer> counts = new ConcurrentHashMap<>();
+    private final Map<String, Deque<Integer>> scripted = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile Latency latency = Latency.none();
+    private volatile double errorRate;
+    private volatile int errorStatus = 503;
+
+    private UpstreamStub(int port) throws IOException {
+        try (InputStream in = fixture("stub/pokeapi/index.properties")) {
+            if (in != null) names.load(in);
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    /** Arranca el stub en un puerto libre. */
+    public static UpstreamStub start() throws IOException {
+        return new UpstreamStub(0);
+    }
+
+    /** Arranca el stub en un puerto dado. */
+    public static UpstreamStub start(int port) throws IOException {
+        return new UpstreamStub(port);
+    }
+
+    /** Equivalente local de https://pokeapi.co/api/v2. */
+    public String pokeApiBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + POKEAPI;
+    }
+
+    /** Equivalente local de https://restcountries.com/v3.1. */
+    public String restCountriesBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + RESTCOUNTRIES;
+    }
+
+    /** Cantidad de documentos del recurso (pokemon, item, version). */
+    public UpstreamStub count(String resource, int n) {
+        counts.put(resource, n);
+        return this;
+    }
+
+    /** Latencia artificial fija por respuesta. */
+    public UpstreamStub latency(long ms) {
+        return latency(Latency.fixed(ms));
+    }
+
+    /** Modelo de latencia por respuesta. */
+    public UpstreamStub latency(Latency model) {
+        this.latency = model;
+        return this;
+    }
+
+    /** Responde 'status' a una fracción aleatoria 'rate' (0..1) de las peticiones. */
+    public UpstreamStub errorRate(double rate, int status) {
+        this.errorRate = rate;
+        this.errorStatus = status;
+        return this;
+    }
+
+    /**
+     * Programa los próximos estados HTTP para una ruta relativa a su API
+     * (p. ej. "/pokemon/pokemon-3" o "/all"); al agotarse, la ruta vuelve a responder 200.
+     */
+    public UpstreamStub script(String path, Integer... statuses) {
+        scripted.computeIfAbsent(path, k -> new ArrayDeque<>()).addAll(List.of(statuses));
+        return this;
+    }
+
+    /** Peticiones recibidas por una ruta exacta (relativa a su API). */
+    public int hits(String path) {
+        AtomicInteger n = hits.get(path);
+        return n == null ? 0 : n.get();
+    }
+
+    /** Peticiones totales recibidas. */
+    public long requests() {
+        return requests.get();
+    }
+
+    /** Respuestas 304 enviadas. */
+    public long notModified() {
+        return notModified.get();
+    }
+
+    /** Máximo de peticiones simultáneas observadas. */
+    public int maxInFlight() {
+        return maxInFlight.get();
+    }
+
+    /** Reinicia contadores (no la configuración). */
+    public void resetCounters() {
+        hits.clear();
+        requests.set(0);
+        notModified.set(0);
+        maxInFlight.set(inFlight.get());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    // ----------------------------------- internos -----------------------------------
+
+    private void handle(HttpExchange ex) throws IOException {
+        int now = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(now, Math::max);
+        requests.incrementAndGet();
+        try {
+            long delay = latency.nextMillis();
+            if (delay > 0) Thread.sleep(delay);
+
+            String full = ex.getRequestURI().getPath();
+            if (full.endsWith("/")) full = full.substring(0, full.length() - 1);
+            String api = full.startsWith(POKEAPI) ? POKEAPI : full.startsWith(RESTCOUNTRIES) ? RESTCOUNTRIES : null;
+            if (api == null) {
+                send(ex, 404, "Not Found");
+                return;
+            }
+            String path = full.substring(api.length());
+            hits.computeIfAbsent(path, k -> new AtomicInteger()).incrementAndGet();
+
+            Integer status = nextScripted(path);
+            if (status == null && errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) status = errorStatus;
+            if (status != null && status != 200) {
+                if (status == 429) ex.getResponseHeaders().add("Retry-After", "0");
+                send(ex, status, "{\"detail\":\"stub\"}");
+                return;
+            }
+
+            String body = api.equals(POKEAPI) ? pokeApi(path, ex.getRequestURI().getRawQuery()) : restCountries(path);
+            if (body == null) {
+                send(ex, 404, "Not Found");
+                return;
+            }
+            sendWithEtag(ex, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+            ex.close();
+        }
+    }
+
+    private synchronized Integer nextScripted(String path) {
+        Deque<Integer> script = scripted.get(path);
+        return script == null ? null : script.poll();
+    }
+
+    private String pokeApi(String path, String rawQuery) throws IOException {
+        String[] parts = path.substring(1).split("/");
+        String resource = parts[0];
+        int count = counts.getOrDefault(resource, 0);
+        if (parts.length == 1) return list(resource, count, query(rawQuery));
+        long id = idOf(resource, parts[1]);
+        if (id < 1 || id > count) return null;
+        String fixture = read("stub/pokeapi/" + resource + "/" + id + ".json");
+        return fixture != null ? fixture : generated(resource, id);
+    }
+
+    private String restCountries(String path) throws IOException {
+        return "/all".equals(path) ? read("stub/restcountries/all.json") : null;
+    }
+
+    private String list(String resource, int count, Map<String, String> q) {
+        int limit = Integer.parseInt(q.getOrDefault("limit", "20"));
+        int offset = Integer.parseInt(q.getOrDefault("offset", "0"));
+        StringBuilder sb = new StringBuilder("{\"count\":").append(count).append(",\"results\":[");
+        for (int i = offset; i < Math.min(count, offset + limit); i++) {
+            if (i > offset) sb.append(',');
+            sb.append("{\"name\":\"").append(nameOf(resource, i + 1))
+              .append("\",\"url\":\"").append(pokeApiBaseUrl()).append('/').append(resource).append('/').append(i + 1).append("/\"}");
+        }
+        return sb.append("]}").toString();
+    }
+
+    private String nameOf(String resource, long id) {
+        return names.getProperty(resource + "." + id, resource + "-" + id);
+    }
+
+    private long idOf(String resource, String nameOrId) {
+        if (nameOrId.chars().allMatch(Character::isDigit)) return Long.parseLong(nameOrId);
+        for (String k : names.stringPropertyNames()) {
+            if (k.startsWith(resource + ".") && nameOrId.equals(names.getProperty(k)))
+                return Long.parseLong(k.substring(resource.length() + 1));
+        }
+        String prefix = resource + "-";
+        if (nameOrId.startsWith(prefix) && nameOrId.length() > prefix.length()
+                && nameOrId.substring(prefix.length()).chars().allMatch(Character::isDigit))
+            return Long.parseLong(nameOrId.substring(prefix.length()));
+        return -1;
+    }
+
+    private String generated(String resource, long id) {
+        return "{\"id\":" + id + ",\"name\":\"" + nameOf(resource, id) + "\","
+                + "\"base_experience\":" + (50 + id) + ",\"weight\":" + (10 * id) + ",\"cost\":" + (100 * id) + ","
+                + "\"sprites\":{\"front_default\":\"https://img.local/" + id + ".png\",\"default\":\"https://img.local/" + id + ".png\"},"
+                + "\"types\":[{\"slot\":1,\"type\":{\"name\":\"" + (id % 2 == 0 ? "water" : "fire") + "\",\"url\":\"u\"}}]}";
+    }
+
+    private static InputStream fixture(String name) {
+        return UpstreamStub.class.getClassLoader().getResourceAsStream(name);
+    }
+
+    private static String read(String name) throws IOException {
+        try (InputStream in = fixture(name)) {
+            return in == null ? null : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> m = new HashMap<>();
+        if (raw == null) return m;
+        for (String kv : raw.split("&")) {
+            int i = kv.indexOf('=');
+            if (i > 0) m.put(kv.substring(0, i), kv.substring(i + 1));
+        }
+        return m;
+    }
+
+    private void sendWithEtag(HttpExchange ex, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        String etag = "W/\"" + Long.toHexString(crc.getValue()) + "-" + bytes.length + "\"";
+        ex.getResponseHeaders().add("ETag", etag);
+        if (etag.equals(ex.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            ex.sendResponseHeaders(304, -1);
+            return;
+        }
+        ex.getResponseHeaders().add("Content-Type", "application/json");
+        ex.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static void send(HttpExchange ex, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().add("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    /** Arranque independiente (ver ejemplo en la documentación de la clase). */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            int i = a.indexOf('=');
+            if (a.startsWith("--") && i > 2) opts.put(a.substring(2, i), a.substring(i + 1));
+        }
+        UpstreamStub stub = start(Integer.parseInt(opts.getOrDefault("port", "8089")))
+                .count("pokemon", Integer.parseInt(opts.getOrDefault("pokemon", "1302")))
+                .count("item", Integer.parseInt(opts.getOrDefault("item", "2180")))
+                .count("version", Integer.parseInt(opts.getOrDefault("version", "47")))
+                .latency(Latency.parse(opts.getOrDefault("latency", "none")))
+                .errorRate(Double.parseDouble(opts.getOrDefault("error-rate", "0")), 503);
+        System.out.println("[STUB] PokeAPI: " + stub.pokeApiBaseUrl());
+        System.out.println("[STUB] REST Countries: " + stub.restCountriesBaseUrl());
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                System.out.println("[STUB] peticiones: " + stub.requests() + ", 304: " + stub.notModified())));
+        new CountDownLatch(1).await();
+    }
+}